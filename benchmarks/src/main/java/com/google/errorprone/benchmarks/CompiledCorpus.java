@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Streams.stream;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.ErrorProneOptions;
+import com.google.errorprone.FileManagers;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+/**
+ * A corpus that has been parsed and attributed once, so that benchmarks can repeatedly scan the
+ * resulting trees without paying for javac's front end on every iteration.
+ *
+ * <p>The trees are left in the state Error Prone sees them in during a real compilation: after
+ * attribution and flow analysis, but before desugaring.
+ */
+final class CompiledCorpus {
+
+  /** The arguments {@code CompilationTestHelper} compiles with. */
+  private static final ImmutableList<String> ARGS =
+      ImmutableList.of("-encoding", "UTF-8", "-XDdev", "-parameters", "-XDcompilePolicy=simple");
+
+  private final Context context;
+  private final ImmutableList<JCCompilationUnit> compilationUnits;
+
+  private CompiledCorpus(Context context, ImmutableList<JCCompilationUnit> compilationUnits) {
+    this.context = context;
+    this.compilationUnits = compilationUnits;
+  }
+
+  static CompiledCorpus compile(List<JavaFileObject> sources) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavacTaskImpl task =
+        (JavacTaskImpl)
+            JavacTool.create()
+                .getTask(
+                    /* out= */ null,
+                    FileManagers.testFileManager(),
+                    diagnostics,
+                    ARGS,
+                    /* classes= */ null,
+                    sources);
+    ImmutableList<JCCompilationUnit> compilationUnits =
+        stream(task.parse()).map(JCCompilationUnit.class::cast).collect(toImmutableList());
+    task.analyze();
+    ImmutableList<Diagnostic<? extends JavaFileObject>> errors =
+        diagnostics.getDiagnostics().stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+            .collect(toImmutableList());
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(
+          "Benchmark corpus does not compile:\n" + Joiner.on('\n').join(errors));
+    }
+    Context context = task.getContext();
+    context.put(ErrorProneOptions.class, ErrorProneOptions.empty());
+    return new CompiledCorpus(context, compilationUnits);
+  }
+
+  Context context() {
+    return context;
+  }
+
+  ImmutableList<JCCompilationUnit> compilationUnits() {
+    return compilationUnits;
+  }
+
+  /** Returns the paths to every tree of the given kinds, in source order. */
+  ImmutableList<TreePath> pathsTo(Tree.Kind... kinds) {
+    ImmutableList<Tree.Kind> wanted = ImmutableList.copyOf(kinds);
+    ImmutableList.Builder<TreePath> result = ImmutableList.builder();
+    for (JCCompilationUnit compilationUnit : compilationUnits) {
+      new TreePathScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null && wanted.contains(tree.getKind())) {
+            result.add(new TreePath(getCurrentPath(), tree));
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(compilationUnit, null);
+    }
+    return result.build();
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.FileObjects;
+import javax.tools.JavaFileObject;
+
+/** The reference corpora that benchmarks run over. */
+public enum Corpus {
+  /** A few idiomatic hand-written classes: generics, lambdas, records, locking, switches. */
+  HAND_WRITTEN {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return FileObjects.forResources(
+          Corpus.class,
+          "corpus/LruCache.java",
+          "corpus/ExpressionParser.java",
+          "corpus/EventDispatcher.java");
+    }
+  },
+  /** Large generated classes with hundreds of members each. */
+  GENERATED {
+    @Override
+    ImmutableList<JavaFileObject> sources() {
+      return GeneratedSources.create(/* classes= */ 4, /* fieldsPerClass= */ 250);
+    }
+  };
+
+  abstract ImmutableList<JavaFileObject> sources();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.dataflow.DataFlow;
+import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@code DataFlow.expressionDataflow}, via the nullness analysis that checks use, by
+ * querying the nullness of every identifier and method invocation in a corpus.
+ *
+ * <p>Queries are issued in source order, the same way a scan issues them. Cached results are
+ * released before each pass, as they are after each compilation unit is scanned, so every pass
+ * builds each method's control flow graph once and reuses it for the remaining queries.
+ */
+public class DataflowBenchmark extends CorpusBenchmark {
+
+  private ImmutableList<TreePath> expressions;
+
+  @Override
+  void prepare(CompiledCorpus compiled) {
+    expressions = compiled.pathsTo(Tree.Kind.IDENTIFIER, Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Benchmark
+  public void nullness(Blackhole blackhole) {
+    DataFlow.releaseCaches(compiled.context());
+    NullnessAnalysis analysis = NullnessAnalysis.instance(compiled.context());
+    for (TreePath expression : expressions) {
+      blackhole.consume(analysis.getNullness(expression, compiled.context()));
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.FileObjects;
+import javax.tools.JavaFileObject;
+
+/**
+ * Produces large, machine-generated-looking sources, in the style of protocol buffer or builder
+ * code generators: many fields, accessors, a builder, and long {@code switch} statements.
+ *
+ * <p>The output is deterministic, so results are comparable across runs and releases.
+ */
+final class GeneratedSources {
+
+  private static final String[] TYPES = {"int", "long", "String", "java.util.List<String>"};
+
+  static ImmutableList<JavaFileObject> create(int classes, int fieldsPerClass) {
+    ImmutableList.Builder<JavaFileObject> result = ImmutableList.builder();
+    for (int i = 0; i < classes; i++) {
+      String name = "Message" + i;
+      result.add(
+          FileObjects.forSourceLines("generated/" + name + ".java", message(name, fieldsPerClass)));
+    }
+    return result.build();
+  }
+
+  private static String message(String name, int fields) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("package generated;\n\n");
+    sb.append("/** Generated message. */\n");
+    sb.append("@SuppressWarnings(\"unchecked\")\n");
+    sb.append("public final class ").append(name).append(" {\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("  public static final int FIELD").append(f).append("_NUMBER = ").append(f + 1);
+      sb.append(";\n");
+    }
+    sb.append("  private int bitField;\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("  private ").append(type(f)).append(' ').append(field(f)).append(" = ");
+      sb.append(defaultValue(f)).append(";\n");
+    }
+    sb.append("\n  private ").append(name).append("() {}\n\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("  public boolean has").append(accessor(f)).append("() {\n");
+      sb.append("    return (bitField & ").append(1 << (f % 31)).append(") != 0;\n  }\n\n");
+      sb.append("  public ").append(type(f)).append(" get").append(accessor(f)).append("() {\n");
+      sb.append("    return ").append(field(f)).append(";\n  }\n\n");
+    }
+    sb.append("  public Object getField(int number) {\n    switch (number) {\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("      case FIELD").append(f).append("_NUMBER:\n");
+      sb.append("        return get").append(accessor(f)).append("();\n");
+    }
+    sb.append("      default:\n");
+    sb.append("        throw new IllegalArgumentException(\"Unknown field: \" + number);\n");
+    sb.append("    }\n  }\n\n");
+    sb.append("  @Override\n  public boolean equals(Object o) {\n");
+    sb.append("    if (o == this) {\n      return true;\n    }\n");
+    sb.append("    if (!(o instanceof ").append(name).append(")) {\n      return false;\n    }\n");
+    sb.append("    ").append(name).append(" that = (").append(name).append(") o;\n");
+    sb.append("    return bitField == that.bitField");
+    for (int f = 0; f < fields; f++) {
+      sb.append("\n        && java.util.Objects.equals(").append(field(f)).append(", that.");
+      sb.append(field(f)).append(')');
+    }
+    sb.append(";\n  }\n\n");
+    sb.append("  @Override\n  public int hashCode() {\n    int h = bitField;\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("    h = 31 * h + java.util.Objects.hashCode(").append(field(f)).append(");\n");
+    }
+    sb.append("    return h;\n  }\n\n");
+    sb.append("  @Override\n  public String toString() {\n");
+    sb.append("    StringBuilder sb = new StringBuilder(\"").append(name).append("{\");\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("    if (has").append(accessor(f)).append("()) {\n");
+      sb.append("      sb.append(\"").append(field(f)).append("=\").append(");
+      sb.append(field(f)).append(").append(\", \");\n    }\n");
+    }
+    sb.append("    return sb.append('}').toString();\n  }\n\n");
+    sb.append("  public static Builder newBuilder() {\n    return new Builder();\n  }\n\n");
+    sb.append("  /** Builder for {@link ").append(name).append("}. */\n");
+    sb.append("  public static final class Builder {\n");
+    sb.append("    private final ").append(name).append(" result = new ").append(name);
+    sb.append("();\n\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("    public Builder set").append(accessor(f)).append('(').append(type(f));
+      sb.append(" value) {\n");
+      if (!isPrimitive(f)) {
+        sb.append("      if (value == null) {\n");
+        sb.append("        throw new NullPointerException(\"").append(field(f)).append("\");\n");
+        sb.append("      }\n");
+      }
+      sb.append("      result.").append(field(f)).append(" = value;\n");
+      sb.append("      result.bitField |= ").append(1 << (f % 31)).append(";\n");
+      sb.append("      return this;\n    }\n\n");
+    }
+    sb.append("    public Builder mergeFrom(java.util.Map<Integer, Object> values) {\n");
+    sb.append("      for (java.util.Map.Entry<Integer, Object> e : values.entrySet()) {\n");
+    sb.append("        switch (e.getKey()) {\n");
+    for (int f = 0; f < fields; f++) {
+      sb.append("          case FIELD").append(f).append("_NUMBER:\n");
+      sb.append("            set").append(accessor(f)).append("((").append(boxed(f));
+      sb.append(") e.getValue());\n            break;\n");
+    }
+    sb.append("          default:\n            break;\n        }\n      }\n");
+    sb.append("      return this;\n    }\n\n");
+    sb.append("    public ").append(name).append(" build() {\n      return result;\n    }\n");
+    sb.append("  }\n}\n");
+    return sb.toString();
+  }
+
+  private static String type(int field) {
+    return TYPES[field % TYPES.length];
+  }
+
+  private static String boxed(int field) {
+    return switch (type(field)) {
+      case "int" -> "Integer";
+      case "long" -> "Long";
+      default -> type(field);
+    };
+  }
+
+  private static boolean isPrimitive(int field) {
+    return !type(field).equals(boxed(field));
+  }
+
+  private static String defaultValue(int field) {
+    return switch (type(field)) {
+      case "int" -> "0";
+      case "long" -> "0L";
+      case "String" -> "\"\"";
+      default -> "java.util.Collections.emptyList()";
+    };
+  }
+
+  private static String field(int field) {
+    return "field" + field + "_";
+  }
+
+  private static String accessor(int field) {
+    return "Field" + field;
+  }
+
+  private GeneratedSources() {}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.errorprone.matchers.Matchers.anyOf;
+import static com.google.errorprone.matchers.method.MethodMatchers.constructor;
+import static com.google.errorprone.matchers.method.MethodMatchers.instanceMethod;
+import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.MethodKind;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Rule;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.Token;
+import com.google.errorprone.matchers.method.MethodInvocationMatcher.TokenType;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares three ways of matching a set of method matchers against every method and constructor
+ * invocation in a corpus: evaluating them one at a time, {@code Matchers.anyOf} (which indexes them
+ * by method name), and the single graph built by {@link MethodInvocationMatcher#compile}.
+ */
+public class MethodMatcherBenchmark extends CorpusBenchmark {
+
+  private static final ImmutableList<Matcher<ExpressionTree>> MATCHERS =
+      ImmutableList.of(
+          instanceMethod().onDescendantOf("java.util.Map").namedAnyOf("get", "put", "remove"),
+          instanceMethod().onDescendantOf("java.util.Collection").namedAnyOf("add", "contains"),
+          instanceMethod().onExactClass("java.lang.String").namedAnyOf("substring", "charAt"),
+          instanceMethod().onExactClass("java.lang.StringBuilder").named("append"),
+          instanceMethod().onDescendantOf("java.util.concurrent.locks.Lock").named("lock"),
+          staticMethod().onClass("com.google.common.base.Preconditions").named("checkNotNull"),
+          staticMethod().onClass("java.lang.String").named("format"),
+          staticMethod().onClass("java.util.Objects").namedAnyOf("equals", "hash"),
+          constructor().forClass("java.util.ArrayList"),
+          constructor().forClass("java.lang.IllegalArgumentException"));
+
+  private static final Matcher<ExpressionTree> SEQUENTIAL =
+      (tree, state) -> {
+        for (Matcher<ExpressionTree> matcher : MATCHERS) {
+          if (matcher.matches(tree, state)) {
+            return true;
+          }
+        }
+        return false;
+      };
+
+  private static final Matcher<ExpressionTree> ANY_OF = anyOf(MATCHERS);
+
+  private static final Matcher<ExpressionTree> COMPILED =
+      MethodInvocationMatcher.compile(
+          ImmutableList.of(
+              rule(MethodKind.INSTANCE, "java.util.Map", "get", "put", "remove"),
+              rule(MethodKind.INSTANCE, "java.util.Collection", "add", "contains"),
+              rule(MethodKind.INSTANCE, "java.lang.String", "substring", "charAt"),
+              rule(MethodKind.INSTANCE, "java.lang.StringBuilder", "append"),
+              rule(MethodKind.INSTANCE, "java.util.concurrent.locks.Lock", "lock"),
+              rule(MethodKind.STATIC, "com.google.common.base.Preconditions", "checkNotNull"),
+              rule(MethodKind.STATIC, "java.lang.String", "format"),
+              rule(MethodKind.STATIC, "java.util.Objects", "equals", "hash"),
+              rule(MethodKind.CONSTRUCTOR, "java.util.ArrayList", "<init>"),
+              rule(MethodKind.CONSTRUCTOR, "java.lang.IllegalArgumentException", "<init>")));
+
+  private ImmutableList<TreePath> invocations;
+  private VisitorState state;
+
+  private static Rule rule(MethodKind kind, String owner, String... names) {
+    // Constructor and static invocations may not have a receiver expression, so match those on the
+    // declaring class instead.
+    Token ownerToken =
+        kind == MethodKind.INSTANCE
+            ? Token.ReceiverSupertype.create(owner)
+            : Token.DefinedIn.create(owner);
+    return Rule.create(
+        ImmutableMap.of(
+            TokenType.KIND,
+            ImmutableSet.<Token>of(Token.Kind.create(kind)),
+            ownerToken.type(),
+            ImmutableSet.of(ownerToken),
+            TokenType.METHOD_NAME,
+            Stream.of(names).<Token>map(Token.MethodName::create).collect(toImmutableSet())));
+  }
+
+  @Override
+  void prepare(CompiledCorpus compiled) {
+    invocations = compiled.pathsTo(Tree.Kind.METHOD_INVOCATION, Tree.Kind.NEW_CLASS);
+    state = VisitorState.createForUtilityPurposes(compiled.context());
+  }
+
+  @Benchmark
+  public void sequentialMatchers(Blackhole blackhole) {
+    match(SEQUENTIAL, blackhole);
+  }
+
+  @Benchmark
+  public void anyOfMatchers(Blackhole blackhole) {
+    match(ANY_OF, blackhole);
+  }
+
+  @Benchmark
+  public void compiledRules(Blackhole blackhole) {
+    match(COMPILED, blackhole);
+  }
+
+  private void match(Matcher<ExpressionTree> matcher, Blackhole blackhole) {
+    for (TreePath invocation : invocations) {
+      blackhole.consume(
+          matcher.matches((ExpressionTree) invocation.getLeaf(), state.withPath(invocation)));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.scanner.BuiltInCheckerSuppliers;
+import com.google.errorprone.scanner.ErrorProneScannerTransformer;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of scanning a corpus with a single check, or with every check that is enabled
+ * by default. Whole-scanner runs also cover matcher dispatch and suppression handling in {@code
+ * ErrorProneScanner}.
+ */
+public class ScannerBenchmark extends CorpusBenchmark {
+
+  /** The canonical name of the check to run, or {@code *} for all checks enabled by default. */
+  @Param({"*", "UnusedVariable", "ReturnValueIgnored", "FormatString", "MissingOverride"})
+  public String check;
+
+  private ErrorProneScannerTransformer transformer;
+
+  @Override
+  void prepare(CompiledCorpus compiled) {
+    ScannerSupplier scannerSupplier =
+        check.equals("*")
+            ? BuiltInCheckerSuppliers.defaultChecks()
+            : BuiltInCheckerSuppliers.allChecks()
+                .filter(info -> info.canonicalName().equals(check));
+    if (scannerSupplier.getEnabledChecks().isEmpty()) {
+      throw new IllegalArgumentException("No check named " + check);
+    }
+    transformer = ErrorProneScannerTransformer.create(scannerSupplier.get());
+  }
+
+  @Benchmark
+  public void scan(Blackhole blackhole) {
+    for (JCCompilationUnit compilationUnit : compiled.compilationUnits()) {
+      transformer.apply(new TreePath(compilationUnit), compiled.context(), blackhole::consume);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JMH benchmarks for Error Prone's scanner, matchers and dataflow.
+ *
+ * <p>{@code mvn package -pl benchmarks -am} builds a self-contained {@code
+ * benchmarks/target/benchmarks.jar}. Run it with the usual JMH options, for example {@code java
+ * -jar benchmarks/target/benchmarks.jar ScannerBenchmark -p check=UnusedVariable -prof gc}; the
+ * {@code gc} profiler reports allocation per operation alongside the timings.
+ */
+package com.google.errorprone.benchmarks;
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package corpus;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Dispatches typed events to subscribers, synchronously or on a worker pool. */
+public class EventDispatcher implements AutoCloseable {
+  private static final Logger logger = Logger.getLogger(EventDispatcher.class.getName());
+
+  /** A handle returned from {@link #subscribe} that removes the subscription when closed. */
+  public interface Subscription extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /** Base class for all events. */
+  public abstract static class Event {
+    private final Instant timestamp;
+    private final String source;
+
+    protected Event(String source) {
+      this.source = Strings.nullToEmpty(source);
+      this.timestamp = Instant.now();
+    }
+
+    public Instant timestamp() {
+      return timestamp;
+    }
+
+    public String source() {
+      return source;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Event other = (Event) o;
+      return timestamp.equals(other.timestamp) && source.equals(other.source);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(timestamp, source);
+    }
+  }
+
+  /** Published when a user logs in. */
+  public static final class LoginEvent extends Event {
+    private final String user;
+
+    public LoginEvent(String source, String user) {
+      super(source);
+      this.user = user;
+    }
+
+    public String user() {
+      return user;
+    }
+  }
+
+  /** Published when a request completes. */
+  public static final class RequestEvent extends Event {
+    private final int status;
+    private final Duration latency;
+
+    public RequestEvent(String source, int status, Duration latency) {
+      super(source);
+      this.status = status;
+      this.latency = latency;
+    }
+
+    public boolean isError() {
+      return status >= 500;
+    }
+
+    public Duration latency() {
+      return latency;
+    }
+  }
+
+  private final Multimap<Class<?>, Consumer<? super Event>> subscribers =
+      LinkedHashMultimap.create();
+  private final ConcurrentHashMap<Class<?>, AtomicLong> counts = new ConcurrentHashMap<>();
+  private final ExecutorService executor;
+  private volatile boolean closed;
+
+  public EventDispatcher(int threads) {
+    this.executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+  }
+
+  public synchronized <E extends Event> Subscription subscribe(
+      Class<E> type, Consumer<? super E> handler) {
+    @SuppressWarnings("unchecked")
+    Consumer<? super Event> erased = e -> handler.accept((E) e);
+    subscribers.put(type, erased);
+    return () -> {
+      synchronized (EventDispatcher.this) {
+        subscribers.remove(type, erased);
+      }
+    };
+  }
+
+  public void publish(Event event) {
+    if (closed) {
+      throw new IllegalStateException("dispatcher is closed");
+    }
+    counts.computeIfAbsent(event.getClass(), k -> new AtomicLong()).incrementAndGet();
+    for (Consumer<? super Event> handler : handlersFor(event.getClass())) {
+      if (executor == null) {
+        deliver(handler, event);
+      } else {
+        executor.execute(() -> deliver(handler, event));
+      }
+    }
+  }
+
+  public CompletableFuture<Void> publishAsync(Event event) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (Consumer<? super Event> handler : handlersFor(event.getClass())) {
+      futures.add(
+          executor == null
+              ? CompletableFuture.runAsync(() -> deliver(handler, event))
+              : CompletableFuture.runAsync(() -> deliver(handler, event), executor));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+  }
+
+  private synchronized Collection<Consumer<? super Event>> handlersFor(Class<?> type) {
+    List<Consumer<? super Event>> result = new ArrayList<>();
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      result.addAll(subscribers.get(c));
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  private static void deliver(Consumer<? super Event> handler, Event event) {
+    try {
+      handler.accept(event);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Subscriber failed for " + event.getClass().getSimpleName(), e);
+    }
+  }
+
+  public long count(Class<? extends Event> type) {
+    AtomicLong count = counts.get(type);
+    return count == null ? 0 : count.get();
+  }
+
+  public synchronized ImmutableSet<Class<?>> subscribedTypes() {
+    return ImmutableSet.copyOf(subscribers.keySet());
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+          executor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        executor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    try (EventDispatcher dispatcher = new EventDispatcher(2)) {
+      List<String> errors = Collections.synchronizedList(new ArrayList<>());
+      try (Subscription s =
+          dispatcher.subscribe(
+              RequestEvent.class,
+              e -> {
+                if (e.isError()) {
+                  errors.add(e.source() + " took " + e.latency().toMillis() + "ms");
+                }
+              })) {
+        dispatcher.subscribe(LoginEvent.class, e -> System.out.println("login: " + e.user()));
+        for (int i = 0; i < 100; i++) {
+          dispatcher.publish(new RequestEvent("server-" + i % 3, 200 + i * 3, Duration.ofMillis(i)));
+        }
+        dispatcher.publish(new LoginEvent("web", "alice"));
+        dispatcher.publishAsync(new LoginEvent("web", "bob")).get(1, TimeUnit.SECONDS);
+      }
+      System.out.println(errors.size() + " errors; " + dispatcher.count(RequestEvent.class));
+    }
+  }
+}
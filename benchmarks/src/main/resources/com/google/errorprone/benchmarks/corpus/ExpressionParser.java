@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package corpus;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** A small recursive-descent parser and evaluator for arithmetic expressions. */
+public final class ExpressionParser {
+
+  /** The kinds of tokens produced by the lexer. */
+  enum TokenKind {
+    NUMBER,
+    IDENT,
+    PLUS,
+    MINUS,
+    STAR,
+    SLASH,
+    CARET,
+    LPAREN,
+    RPAREN,
+    COMMA,
+    EOF
+  }
+
+  record Token(TokenKind kind, String text, int position) {}
+
+  /** A node in the parsed expression tree. */
+  sealed interface Expr permits Num, Var, Unary, Binary, Call {}
+
+  record Num(double value) implements Expr {}
+
+  record Var(String name) implements Expr {}
+
+  record Unary(char op, Expr operand) implements Expr {}
+
+  record Binary(char op, Expr left, Expr right) implements Expr {}
+
+  record Call(String function, ImmutableList<Expr> args) implements Expr {}
+
+  /** Thrown for malformed input. */
+  public static final class ParseException extends RuntimeException {
+    private final int position;
+
+    ParseException(String message, int position) {
+      super(String.format(Locale.ROOT, "%s at position %d", message, position));
+      this.position = position;
+    }
+
+    public int position() {
+      return position;
+    }
+  }
+
+  private final List<Token> tokens;
+  private int pos;
+
+  private ExpressionParser(List<Token> tokens) {
+    this.tokens = tokens;
+  }
+
+  public static Expr parse(String input) {
+    ExpressionParser parser = new ExpressionParser(lex(input));
+    Expr result = parser.expression();
+    parser.expect(TokenKind.EOF);
+    return result;
+  }
+
+  static List<Token> lex(String input) {
+    List<Token> result = new ArrayList<>();
+    int i = 0;
+    while (i < input.length()) {
+      char c = input.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+        continue;
+      }
+      int start = i;
+      if (Character.isDigit(c) || c == '.') {
+        while (i < input.length()
+            && (Character.isDigit(input.charAt(i)) || input.charAt(i) == '.')) {
+          i++;
+        }
+        result.add(new Token(TokenKind.NUMBER, input.substring(start, i), start));
+        continue;
+      }
+      if (Character.isLetter(c)) {
+        while (i < input.length() && Character.isLetterOrDigit(input.charAt(i))) {
+          i++;
+        }
+        result.add(new Token(TokenKind.IDENT, input.substring(start, i), start));
+        continue;
+      }
+      TokenKind kind =
+          switch (c) {
+            case '+' -> TokenKind.PLUS;
+            case '-' -> TokenKind.MINUS;
+            case '*' -> TokenKind.STAR;
+            case '/' -> TokenKind.SLASH;
+            case '^' -> TokenKind.CARET;
+            case '(' -> TokenKind.LPAREN;
+            case ')' -> TokenKind.RPAREN;
+            case ',' -> TokenKind.COMMA;
+            default -> throw new ParseException("Unexpected character '" + c + "'", i);
+          };
+      result.add(new Token(kind, String.valueOf(c), i));
+      i++;
+    }
+    result.add(new Token(TokenKind.EOF, "", input.length()));
+    return result;
+  }
+
+  private Token peek() {
+    return tokens.get(pos);
+  }
+
+  private boolean accept(TokenKind kind) {
+    if (peek().kind() == kind) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private Token expect(TokenKind kind) {
+    Token token = peek();
+    if (token.kind() != kind) {
+      throw new ParseException("Expected " + kind + " but found " + token.kind(), token.position());
+    }
+    pos++;
+    return token;
+  }
+
+  private Expr expression() {
+    Expr left = term();
+    while (true) {
+      if (accept(TokenKind.PLUS)) {
+        left = new Binary('+', left, term());
+      } else if (accept(TokenKind.MINUS)) {
+        left = new Binary('-', left, term());
+      } else {
+        return left;
+      }
+    }
+  }
+
+  private Expr term() {
+    Expr left = factor();
+    while (true) {
+      if (accept(TokenKind.STAR)) {
+        left = new Binary('*', left, factor());
+      } else if (accept(TokenKind.SLASH)) {
+        left = new Binary('/', left, factor());
+      } else {
+        return left;
+      }
+    }
+  }
+
+  private Expr factor() {
+    Expr base = unary();
+    if (accept(TokenKind.CARET)) {
+      return new Binary('^', base, factor());
+    }
+    return base;
+  }
+
+  private Expr unary() {
+    if (accept(TokenKind.MINUS)) {
+      return new Unary('-', unary());
+    }
+    return primary();
+  }
+
+  private Expr primary() {
+    Token token = peek();
+    switch (token.kind()) {
+      case NUMBER:
+        pos++;
+        try {
+          return new Num(Double.parseDouble(token.text()));
+        } catch (NumberFormatException e) {
+          throw new ParseException("Bad number " + token.text(), token.position());
+        }
+      case IDENT:
+        pos++;
+        if (accept(TokenKind.LPAREN)) {
+          ImmutableList.Builder<Expr> args = ImmutableList.builder();
+          if (!accept(TokenKind.RPAREN)) {
+            do {
+              args.add(expression());
+            } while (accept(TokenKind.COMMA));
+            expect(TokenKind.RPAREN);
+          }
+          return new Call(token.text(), args.build());
+        }
+        return new Var(token.text());
+      case LPAREN:
+        pos++;
+        Expr inner = expression();
+        expect(TokenKind.RPAREN);
+        return inner;
+      default:
+        throw new ParseException("Unexpected " + token.kind(), token.position());
+    }
+  }
+
+  /** Evaluates an expression with the given variable bindings. */
+  public static double evaluate(Expr expr, Map<String, Double> bindings) {
+    if (expr instanceof Num num) {
+      return num.value();
+    } else if (expr instanceof Var var) {
+      Double value = bindings.get(var.name());
+      if (value == null) {
+        throw new IllegalArgumentException("Unbound variable " + var.name());
+      }
+      return value;
+    } else if (expr instanceof Unary unary) {
+      return -evaluate(unary.operand(), bindings);
+    } else if (expr instanceof Binary binary) {
+      double l = evaluate(binary.left(), bindings);
+      double r = evaluate(binary.right(), bindings);
+      return switch (binary.op()) {
+        case '+' -> l + r;
+        case '-' -> l - r;
+        case '*' -> l * r;
+        case '/' -> l / r;
+        case '^' -> Math.pow(l, r);
+        default -> throw new AssertionError(binary.op());
+      };
+    } else if (expr instanceof Call call) {
+      List<Double> args = new ArrayList<>();
+      for (Expr arg : call.args()) {
+        args.add(evaluate(arg, bindings));
+      }
+      return switch (call.function().toLowerCase(Locale.ROOT)) {
+        case "sqrt" -> Math.sqrt(args.get(0));
+        case "abs" -> Math.abs(args.get(0));
+        case "min" -> args.stream().mapToDouble(Double::doubleValue).min().orElse(Double.NaN);
+        case "max" -> args.stream().mapToDouble(Double::doubleValue).max().orElse(Double.NaN);
+        default -> throw new IllegalArgumentException("Unknown function " + call.function());
+      };
+    }
+    throw new AssertionError(expr);
+  }
+
+  /** Renders an expression in reverse Polish notation. */
+  public static String toRpn(Expr root) {
+    StringBuilder out = new StringBuilder();
+    Deque<Object> stack = new ArrayDeque<>();
+    stack.push(root);
+    List<String> parts = new ArrayList<>();
+    while (!stack.isEmpty()) {
+      Object top = stack.pop();
+      if (top instanceof String s) {
+        parts.add(s);
+      } else if (top instanceof Num num) {
+        parts.add(Double.toString(num.value()));
+      } else if (top instanceof Var var) {
+        parts.add(var.name());
+      } else if (top instanceof Unary unary) {
+        stack.push("neg");
+        stack.push(unary.operand());
+      } else if (top instanceof Binary binary) {
+        stack.push(String.valueOf(binary.op()));
+        stack.push(binary.right());
+        stack.push(binary.left());
+      } else if (top instanceof Call call) {
+        stack.push(call.function() + "/" + call.args().size());
+        for (Expr arg : call.args().reverse()) {
+          stack.push(arg);
+        }
+      }
+    }
+    for (String part : parts) {
+      if (out.length() > 0) {
+        out.append(' ');
+      }
+      out.append(part);
+    }
+    return out.toString();
+  }
+
+  public static void main(String[] args) {
+    Map<String, Double> bindings = new HashMap<>();
+    bindings.put("x", 3.0);
+    bindings.put("y", 4.0);
+    for (String arg : args) {
+      Expr expr = parse(arg);
+      System.out.println(toRpn(expr) + " = " + evaluate(expr, bindings));
+    }
+  }
+}
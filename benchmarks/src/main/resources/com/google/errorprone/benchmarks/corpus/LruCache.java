@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package corpus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** A size-bounded cache with least-recently-used eviction and simple statistics. */
+public final class LruCache<K, V> implements Iterable<Map.Entry<K, V>> {
+
+  /** Receives notifications when entries leave the cache. */
+  public interface RemovalListener<K, V> {
+    void onRemoval(K key, V value, Cause cause);
+  }
+
+  /** Why an entry was removed. */
+  public enum Cause {
+    EXPLICIT,
+    REPLACED,
+    SIZE;
+
+    boolean wasEvicted() {
+      return this == SIZE;
+    }
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    V value;
+    Node<K, V> prev;
+    Node<K, V> next;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final Map<K, Node<K, V>> index = new HashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final int maximumSize;
+  private final RemovalListener<K, V> listener;
+  private Node<K, V> head;
+  private Node<K, V> tail;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public LruCache(int maximumSize, RemovalListener<K, V> listener) {
+    checkArgument(maximumSize > 0, "maximumSize must be positive: %s", maximumSize);
+    this.maximumSize = maximumSize;
+    this.listener = checkNotNull(listener);
+  }
+
+  public static <K, V> LruCache<K, V> create(int maximumSize) {
+    return new LruCache<>(maximumSize, (k, v, c) -> {});
+  }
+
+  public Optional<V> getIfPresent(K key) {
+    lock.lock();
+    try {
+      Node<K, V> node = index.get(key);
+      if (node == null) {
+        misses++;
+        return Optional.empty();
+      }
+      hits++;
+      moveToFront(node);
+      return Optional.of(node.value);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    Optional<V> present = getIfPresent(key);
+    if (present.isPresent()) {
+      return present.get();
+    }
+    V value = checkNotNull(loader.apply(key), "loader returned null for %s", key);
+    put(key, value);
+    return value;
+  }
+
+  public void put(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    List<Node<K, V>> removed = new ArrayList<>();
+    V replaced = null;
+    lock.lock();
+    try {
+      Node<K, V> existing = index.get(key);
+      if (existing != null) {
+        replaced = existing.value;
+        existing.value = value;
+        moveToFront(existing);
+      } else {
+        Node<K, V> node = new Node<>(key, value);
+        index.put(key, node);
+        linkFirst(node);
+        while (index.size() > maximumSize) {
+          Node<K, V> last = tail;
+          unlink(last);
+          index.remove(last.key);
+          evictions++;
+          removed.add(last);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (replaced != null && !Objects.equals(replaced, value)) {
+      listener.onRemoval(key, replaced, Cause.REPLACED);
+    }
+    for (Node<K, V> node : removed) {
+      listener.onRemoval(node.key, node.value, Cause.SIZE);
+    }
+  }
+
+  public boolean invalidate(K key) {
+    Node<K, V> node;
+    lock.lock();
+    try {
+      node = index.remove(key);
+      if (node == null) {
+        return false;
+      }
+      unlink(node);
+    } finally {
+      lock.unlock();
+    }
+    listener.onRemoval(node.key, node.value, Cause.EXPLICIT);
+    return true;
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public double hitRate() {
+    lock.lock();
+    try {
+      long requests = hits + misses;
+      return requests == 0 ? 1.0 : (double) hits / requests;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public ImmutableMap<String, Long> stats() {
+    lock.lock();
+    try {
+      return ImmutableMap.of("hits", hits, "misses", misses, "evictions", evictions);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Map<K, V> snapshot() {
+    lock.lock();
+    try {
+      return index.values().stream()
+          .collect(Collectors.toMap(n -> n.key, n -> n.value, (a, b) -> a, HashMap::new));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return snapshot().entrySet().iterator();
+  }
+
+  private void moveToFront(Node<K, V> node) {
+    if (node == head) {
+      return;
+    }
+    unlink(node);
+    linkFirst(node);
+  }
+
+  private void linkFirst(Node<K, V> node) {
+    node.prev = null;
+    node.next = head;
+    if (head != null) {
+      head.prev = node;
+    }
+    head = node;
+    if (tail == null) {
+      tail = node;
+    }
+  }
+
+  private void unlink(Node<K, V> node) {
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      head = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    } else {
+      tail = node.prev;
+    }
+    node.prev = null;
+    node.next = null;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("LruCache{");
+    lock.lock();
+    try {
+      for (Node<K, V> n = head; n != null; n = n.next) {
+        sb.append(n.key).append('=').append(n.value);
+        if (n.next != null) {
+          sb.append(", ");
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    return sb.append('}').toString();
+  }
+}
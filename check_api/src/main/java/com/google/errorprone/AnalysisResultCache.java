@@ -0,0 +1,861 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Fix;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.Replacements.CoalescePolicy;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.scanner.ScannerSupplier;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Attribute;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Kinds;
+import com.sun.tools.javac.code.Scope.LookupKind;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.Type.ArrayType;
+import com.sun.tools.javac.code.Type.ClassType;
+import com.sun.tools.javac.code.Type.ForAll;
+import com.sun.tools.javac.code.Type.IntersectionClassType;
+import com.sun.tools.javac.code.Type.MethodType;
+import com.sun.tools.javac.code.Type.UnionClassType;
+import com.sun.tools.javac.code.Type.WildcardType;
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.tree.TreeScanner;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+import com.sun.tools.javac.util.Options;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An on-disk cache of the findings reported for each compilation unit, shared between compilations
+ * (and javac processes) that are configured with the same cache directory.
+ *
+ * <p>Entries are keyed on the contents of the compilation unit, the API of the other sources in the
+ * compilation that it depends on, and a fingerprint of everything else that can affect its
+ * analysis: the enabled checks and their severities, Error Prone's flags and options, javac's
+ * options, and the contents of every classpath, source path, module path and processor path entry.
+ * A compilation unit depends on the sources declaring the types and members it refers to, and
+ * transitively on the sources declaring the types in their APIs, so editing the body of a method
+ * only invalidates the entry for the file that declares it. Checks can look up any type on the
+ * classpath, so a change to the contents of any dependency still invalidates every entry.
+ *
+ * <p>The cache is best-effort; I/O errors and unreadable entries are treated as misses. Entries are
+ * written to a temporary file and atomically moved into place, so concurrent processes never
+ * observe a partial entry. Reading an entry refreshes its modification time, and {@link #evict}
+ * removes the least recently used entries once the directory grows past its size bound.
+ */
+final class AnalysisResultCache {
+
+  private static final int FORMAT_VERSION = 2;
+  private static final String ENTRY_SUFFIX = ".entry";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String LOCK_FILE = ".lock";
+
+  /**
+   * How old a temporary file must be before {@link #evict} deletes it. Younger temporary files may
+   * belong to another process that is still writing an entry.
+   */
+  private static final Duration STALE_TEMP_FILE_AGE = Duration.ofHours(1);
+
+  /**
+   * The content hashes of classpath files, reused by later compilations in the same process for as
+   * long as the file's size and modification time are unchanged.
+   */
+  private static final Cache<Path, FileDigest> fileDigests =
+      Caffeine.newBuilder().maximumSize(100_000).build();
+
+  private final Path directory;
+  private final long maxBytes;
+  private final Context context;
+  private final ErrorProneOptions errorProneOptions;
+  private final Supplier<ScannerSupplier> scannerSupplier;
+  private final Supplier<HashCode> compilationFingerprint;
+
+  /** The URIs of the source files in the compilation. */
+  private final Set<String> sources = new HashSet<>();
+
+  /** The APIs of the top-level classes in the compilation that have been hashed so far. */
+  private final Map<ClassSymbol, Api> apis = new HashMap<>();
+
+  /**
+   * Returns a cache for the given compilation, or {@code null} if {@code -XepResultCache} wasn't
+   * passed.
+   */
+  static @Nullable AnalysisResultCache create(
+      ErrorProneOptions errorProneOptions,
+      Context context,
+      Supplier<ScannerSupplier> scannerSupplier) {
+    String directory = errorProneOptions.resultCacheDirectory();
+    if (directory == null) {
+      return null;
+    }
+    return new AnalysisResultCache(
+        Path.of(directory),
+        errorProneOptions.resultCacheMaxBytes(),
+        context,
+        errorProneOptions,
+        scannerSupplier);
+  }
+
+  private AnalysisResultCache(
+      Path directory,
+      long maxBytes,
+      Context context,
+      ErrorProneOptions errorProneOptions,
+      Supplier<ScannerSupplier> scannerSupplier) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.context = context;
+    this.errorProneOptions = errorProneOptions;
+    this.scannerSupplier = scannerSupplier;
+    this.compilationFingerprint = Suppliers.memoize(this::computeCompilationFingerprint);
+  }
+
+  /**
+   * Records a source file that is part of the current compilation. All sources must be added before
+   * the first call to {@link #get} or {@link #put}.
+   */
+  void addSource(JavaFileObject source) {
+    sources.add(source.toUri().toString());
+  }
+
+  /**
+   * Returns the cached findings for the given compilation unit, or {@code null} if there are none.
+   */
+  @Nullable ImmutableList<Description> get(JCCompilationUnit compilation) {
+    Path entry = entryPath(compilation);
+    if (entry == null) {
+      return null;
+    }
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(entry);
+    } catch (IOException e) {
+      return null;
+    }
+    ImmutableList<Description> descriptions;
+    try {
+      descriptions = decode(bytes);
+    } catch (IOException | RuntimeException e) {
+      // A corrupt entry, or one written by a different version of Error Prone.
+      return null;
+    }
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // The entry may have been evicted concurrently; it was still read successfully.
+    }
+    return descriptions;
+  }
+
+  /** Stores the findings reported for the given compilation unit. */
+  void put(JCCompilationUnit compilation, List<Description> descriptions) {
+    byte[] bytes;
+    try {
+      bytes = encode(descriptions, compilation.endPositions);
+    } catch (RuntimeException e) {
+      // e.g. a fix with overlapping replacements; report it normally, but don't cache it.
+      return;
+    }
+    Path entry = entryPath(compilation);
+    if (entry == null) {
+      return;
+    }
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, entry.getFileName().toString(), TEMP_SUFFIX);
+      Files.write(temp, bytes);
+      try {
+        Files.move(
+            temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException e) {
+      // The cache is best-effort.
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the least recently used entries until the cache directory is within its size bound, and
+   * any temporary files left behind by processes that died while writing an entry. Does nothing if
+   * another process is already evicting entries from the same directory.
+   */
+  void evict() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (FileChannel channel =
+            FileChannel.open(
+                directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = channel.tryLock()) {
+      if (lock == null) {
+        return;
+      }
+      List<Path> entries = new ArrayList<>();
+      List<Path> temps = new ArrayList<>();
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(
+            p -> {
+              String name = p.getFileName().toString();
+              if (name.endsWith(ENTRY_SUFFIX)) {
+                entries.add(p);
+              } else if (name.endsWith(TEMP_SUFFIX)) {
+                temps.add(p);
+              }
+            });
+      }
+      deleteStaleTempFiles(temps);
+      List<EntryInfo> infos = new ArrayList<>();
+      long total = 0;
+      for (Path entry : entries) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+          infos.add(new EntryInfo(entry, attributes.size(), attributes.lastModifiedTime()));
+          total += attributes.size();
+        } catch (NoSuchFileException e) {
+          // Moved or deleted concurrently.
+        }
+      }
+      if (total <= maxBytes) {
+        return;
+      }
+      infos.sort(comparing((EntryInfo info) -> info.lastModified));
+      for (EntryInfo info : infos) {
+        if (total <= maxBytes) {
+          break;
+        }
+        Files.deleteIfExists(info.path);
+        total -= info.size;
+      }
+    } catch (IOException e) {
+      // The cache is best-effort.
+    }
+  }
+
+  private static void deleteStaleTempFiles(List<Path> temps) throws IOException {
+    FileTime cutoff = FileTime.from(Instant.now().minus(STALE_TEMP_FILE_AGE));
+    for (Path temp : temps) {
+      try {
+        if (Files.getLastModifiedTime(temp).compareTo(cutoff) < 0) {
+          Files.deleteIfExists(temp);
+        }
+      } catch (NoSuchFileException e) {
+        // Moved into place or deleted concurrently.
+      }
+    }
+  }
+
+  private static final class EntryInfo {
+    final Path path;
+    final long size;
+    final FileTime lastModified;
+
+    EntryInfo(Path path, long size, FileTime lastModified) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+  }
+
+  private @Nullable Path entryPath(JCCompilationUnit compilation) {
+    Hasher hasher = Hashing.sha256().newHasher().putBytes(compilationFingerprint.get().asBytes());
+    putSourceContent(hasher, compilation.getSourceFile());
+    try {
+      dependencyApis(compilation)
+          .forEach(
+              (name, api) -> {
+                putString(hasher, name);
+                hasher.putBytes(api.hash.asBytes());
+              });
+    } catch (CompletionFailure e) {
+      // The dependencies can't be fingerprinted; don't cache the findings.
+      return null;
+    }
+    return directory.resolve(hasher.hash() + ENTRY_SUFFIX);
+  }
+
+  /**
+   * Returns the APIs of the other sources in the compilation that the given compilation unit
+   * depends on, keyed by the flat name of their top-level classes.
+   */
+  private Map<String, Api> dependencyApis(JCCompilationUnit compilation) {
+    String uri = compilation.getSourceFile().toUri().toString();
+    Map<String, Api> dependencies = new TreeMap<>();
+    Deque<ClassSymbol> worklist = new ArrayDeque<>();
+    Consumer<ClassSymbol> addDependency =
+        c -> {
+          if (c.sourcefile != null
+              && !c.sourcefile.toUri().toString().equals(uri)
+              && sources.contains(c.sourcefile.toUri().toString())
+              && !dependencies.containsKey(c.flatName().toString())) {
+            dependencies.put(c.flatName().toString(), api(c));
+            worklist.add(c);
+          }
+        };
+    DependencyCollector collector = new DependencyCollector();
+    new TreeScanner() {
+      @Override
+      public void scan(JCTree tree) {
+        if (tree != null) {
+          collector.addType(tree.type);
+          collector.addSymbol(TreeInfo.symbolFor(tree));
+        }
+        super.scan(tree);
+      }
+    }.scan(compilation);
+    collector.dependencies.forEach(addDependency);
+    while (!worklist.isEmpty()) {
+      api(worklist.remove()).dependencies.forEach(addDependency);
+    }
+    return dependencies;
+  }
+
+  /** Returns the API of a top-level class declared in one of the compilation's sources. */
+  private Api api(ClassSymbol topLevelClass) {
+    Api api = apis.get(topLevelClass);
+    if (api == null) {
+      Hasher hasher = Hashing.sha256().newHasher();
+      DependencyCollector collector = new DependencyCollector();
+      putApi(hasher, topLevelClass, collector);
+      api = new Api(hasher.hash(), ImmutableList.copyOf(collector.dependencies));
+      apis.put(topLevelClass, api);
+    }
+    return api;
+  }
+
+  /**
+   * Adds the parts of a class that other compilation units can depend on: its signature,
+   * annotations, and non-private members, including the values of constants.
+   */
+  private static void putApi(Hasher hasher, ClassSymbol c, DependencyCollector collector) {
+    putString(hasher, c.flatName().toString());
+    putString(hasher, c.getKind() + " " + c.getModifiers() + " " + c.type);
+    collector.addType(c.type);
+    for (Type type :
+        Iterables.concat(
+            c.getTypeParameters().stream().flatMap(p -> p.getBounds().stream()).toList(),
+            ImmutableList.of(c.getSuperclass()),
+            c.getInterfaces(),
+            c.getPermittedSubclasses())) {
+      putString(hasher, type.toString());
+      collector.addType(type);
+    }
+    putAnnotations(hasher, c, collector);
+    List<Symbol> members = new ArrayList<>();
+    for (Symbol member : c.members().getSymbols(LookupKind.NON_RECURSIVE)) {
+      if (!member.isPrivate() && (member.flags() & Flags.SYNTHETIC) == 0) {
+        members.add(member);
+      }
+    }
+    members.sort(comparing(Symbol::toString).thenComparing(m -> m.type.toString()));
+    for (Symbol member : members) {
+      if (member instanceof ClassSymbol memberClass) {
+        putApi(hasher, memberClass, collector);
+        continue;
+      }
+      putString(hasher, member.getKind() + " " + member.getModifiers() + " " + member);
+      putString(hasher, member.type.toString());
+      collector.addType(member.type);
+      putAnnotations(hasher, member, collector);
+      if (member instanceof VarSymbol var) {
+        putString(hasher, String.valueOf(var.getConstantValue()));
+      } else if (member instanceof MethodSymbol method) {
+        putString(hasher, String.valueOf(method.getDefaultValue()));
+        for (VarSymbol parameter : method.getParameters()) {
+          putAnnotations(hasher, parameter, collector);
+        }
+      }
+    }
+  }
+
+  private static void putAnnotations(Hasher hasher, Symbol symbol, DependencyCollector collector) {
+    for (Attribute.Compound annotation : symbol.getAnnotationMirrors()) {
+      putString(hasher, annotation.toString());
+      collector.addType(annotation.type);
+    }
+  }
+
+  /** The hash of a class's API, and the top-level classes its API refers to. */
+  private static final class Api {
+    final HashCode hash;
+    final ImmutableList<ClassSymbol> dependencies;
+
+    Api(HashCode hash, ImmutableList<ClassSymbol> dependencies) {
+      this.hash = hash;
+      this.dependencies = dependencies;
+    }
+  }
+
+  /** Collects the top-level classes declaring the symbols and types that are referred to. */
+  private static final class DependencyCollector {
+    final Set<ClassSymbol> dependencies = new LinkedHashSet<>();
+
+    void addSymbol(@Nullable Symbol symbol) {
+      ClassSymbol topLevelClass = null;
+      for (Symbol s = symbol;
+          s != null && s.kind != Kinds.Kind.PCK && s.kind != Kinds.Kind.MDL;
+          s = s.owner) {
+        if (s instanceof ClassSymbol c) {
+          topLevelClass = c;
+        }
+      }
+      if (topLevelClass != null) {
+        dependencies.add(topLevelClass);
+      }
+    }
+
+    void addType(@Nullable Type type) {
+      if (type == null) {
+        return;
+      }
+      if (type instanceof ArrayType array) {
+        addType(array.elemtype);
+      } else if (type instanceof WildcardType wildcard) {
+        addType(wildcard.type);
+      } else if (type instanceof ForAll forAll) {
+        addType(forAll.qtype);
+      } else if (type instanceof MethodType method) {
+        method.getParameterTypes().forEach(this::addType);
+        addType(method.getReturnType());
+        method.getThrownTypes().forEach(this::addType);
+      } else if (type instanceof IntersectionClassType intersection) {
+        intersection.getComponents().forEach(this::addType);
+      } else if (type instanceof UnionClassType union) {
+        union.getAlternativeTypes().forEach(this::addType);
+      } else if (type instanceof ClassType classType) {
+        addSymbol(classType.tsym);
+        classType.getTypeArguments().forEach(this::addType);
+      }
+    }
+  }
+
+  private HashCode computeCompilationFingerprint() {
+    Hasher hasher = Hashing.sha256().newHasher().putInt(FORMAT_VERSION);
+
+    putString(hasher, ErrorProneVersion.loadVersionFromPom().or("unknown version"));
+    putCodeSource(hasher, ErrorProneAnalyzer.class.getProtectionDomain().getCodeSource());
+
+    // The enabled checks and their severities, after plugins and command-line overrides.
+    ScannerSupplier checks = scannerSupplier.get();
+    TreeMap<String, String> enabledChecks = new TreeMap<>();
+    for (BugCheckerInfo info : checks.getEnabledChecks()) {
+      enabledChecks.put(info.canonicalName(), info.checkerClass().getName());
+    }
+    enabledChecks.forEach(
+        (name, checker) -> {
+          putString(hasher, name);
+          putString(hasher, checker);
+          putString(hasher, String.valueOf(checks.severities().get(name)));
+        });
+    new TreeMap<>(checks.getFlags().getFlagsMap())
+        .forEach(
+            (key, value) -> {
+              putString(hasher, key);
+              putString(hasher, value);
+            });
+
+    hasher
+        .putBoolean(errorProneOptions.disableWarningsInGeneratedCode())
+        .putBoolean(errorProneOptions.isDropErrorsToWarnings())
+        .putBoolean(errorProneOptions.isSuggestionsAsWarnings())
+        .putBoolean(errorProneOptions.isTestOnlyTarget())
+        .putBoolean(errorProneOptions.isPubliclyVisibleTarget())
+        .putBoolean(errorProneOptions.isIgnoreSuppressionAnnotations())
+        .putBoolean(errorProneOptions.ignoreLargeCodeGenerators());
+
+    // javac's own options, e.g. --release and the classpath itself.
+    Options options = Options.instance(context);
+    for (String key : new TreeSet<>(options.keySet())) {
+      putString(hasher, key);
+      putString(hasher, String.valueOf(options.get(key)));
+    }
+
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    if (fileManager instanceof StandardJavaFileManager standardFileManager) {
+      for (StandardLocation location :
+          ImmutableList.of(
+              StandardLocation.PLATFORM_CLASS_PATH,
+              StandardLocation.CLASS_PATH,
+              StandardLocation.SOURCE_PATH,
+              StandardLocation.MODULE_PATH,
+              StandardLocation.ANNOTATION_PROCESSOR_PATH,
+              StandardLocation.ANNOTATION_PROCESSOR_MODULE_PATH)) {
+        Iterable<? extends Path> paths;
+        try {
+          paths = standardFileManager.getLocationAsPaths(location);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+          continue;
+        }
+        if (paths == null) {
+          continue;
+        }
+        putString(hasher, location.getName());
+        for (Path path : paths) {
+          putPath(hasher, path);
+        }
+      }
+    }
+    return hasher.hash();
+  }
+
+  private static void putSourceContent(Hasher hasher, JavaFileObject source) {
+    try {
+      putString(hasher, source.getCharContent(/* ignoreEncodingErrors= */ true).toString());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void putCodeSource(Hasher hasher, @Nullable CodeSource codeSource) {
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return;
+    }
+    try {
+      putPath(hasher, Path.of(codeSource.getLocation().toURI()));
+    } catch (Exception e) {
+      putString(hasher, codeSource.getLocation().toString());
+    }
+  }
+
+  /** Adds the contents of a file, or of every file under a directory. */
+  private static void putPath(Hasher hasher, Path path) {
+    putString(hasher, path.toString());
+    if (!Files.isDirectory(path)) {
+      putFileContent(hasher, path);
+      return;
+    }
+    try (Stream<Path> files = Files.walk(path)) {
+      files
+          .filter(Files::isRegularFile)
+          .sorted()
+          .forEach(
+              file -> {
+                putString(hasher, path.relativize(file).toString());
+                putFileContent(hasher, file);
+              });
+    } catch (IOException | UncheckedIOException e) {
+      // Unreadable; make sure the fingerprint doesn't match a readable directory.
+      putString(hasher, e.toString());
+    }
+  }
+
+  private static void putFileContent(Hasher hasher, Path file) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      FileDigest digest = fileDigests.getIfPresent(file);
+      if (digest == null
+          || digest.size != attributes.size()
+          || !digest.lastModified.equals(attributes.lastModifiedTime())) {
+        digest =
+            new FileDigest(
+                attributes.size(),
+                attributes.lastModifiedTime(),
+                MoreFiles.asByteSource(file).hash(Hashing.sha256()));
+        fileDigests.put(file, digest);
+      }
+      hasher.putBytes(digest.hash.asBytes());
+    } catch (IOException e) {
+      hasher.putLong(-1);
+    }
+  }
+
+  /** The content hash of a file, and the size and modification time it was computed for. */
+  private static final class FileDigest {
+    final long size;
+    final FileTime lastModified;
+    final HashCode hash;
+
+    FileDigest(long size, FileTime lastModified, HashCode hash) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+    }
+  }
+
+  private static void putString(Hasher hasher, String string) {
+    hasher.putInt(string.length()).putString(string, UTF_8);
+  }
+
+  @VisibleForTesting
+  static byte[] encode(List<Description> descriptions, EndPosTable endPositions) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(descriptions.size());
+      for (Description description : descriptions) {
+        writeString(out, description.checkName);
+        writeString(out, description.getRawMessage());
+        writeNullableString(out, description.getLink());
+        writeString(out, description.severity().name());
+        DiagnosticPosition position = description.position;
+        out.writeInt(position.getStartPosition());
+        out.writeInt(position.getPreferredPosition());
+        out.writeInt(position.getEndPosition(endPositions));
+        // JavacErrorDescriptionListener only consults a fix's imports when the finding isn't on a
+        // tree other than an import, and replayed positions have no tree. Drop the imports where
+        // they wouldn't have been consulted, so replayed findings render identically.
+        boolean keepImports =
+            position.getTree() == null || position.getTree().getKind() == Tree.Kind.IMPORT;
+        out.writeInt(description.fixes.size());
+        for (Fix fix : description.fixes) {
+          writeString(out, fix.getShortDescription());
+          writeString(out, fix.getCoalescePolicy().name());
+          ImmutableSet<Replacement> replacements = fix.getReplacements(endPositions);
+          out.writeInt(replacements.size());
+          for (Replacement replacement : replacements) {
+            out.writeInt(replacement.startPosition());
+            out.writeInt(replacement.endPosition());
+            writeString(out, replacement.replaceWith());
+          }
+          writeStrings(out, keepImports ? fix.getImportsToAdd() : ImmutableSet.of());
+          writeStrings(out, keepImports ? fix.getImportsToRemove() : ImmutableSet.of());
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @VisibleForTesting
+  static ImmutableList<Description> decode(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (in.readInt() != FORMAT_VERSION) {
+      throw new IOException("unsupported cache entry version");
+    }
+    int count = in.readInt();
+    ImmutableList.Builder<Description> descriptions = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      String checkName = readString(in);
+      String rawMessage = readString(in);
+      String link = readNullableString(in);
+      SeverityLevel severity = SeverityLevel.valueOf(readString(in));
+      CachedPosition position = new CachedPosition(in.readInt(), in.readInt(), in.readInt());
+      Description.Builder description =
+          Description.builder(position, checkName, link, rawMessage).overrideSeverity(severity);
+      int fixCount = in.readInt();
+      for (int j = 0; j < fixCount; j++) {
+        String shortDescription = readString(in);
+        CoalescePolicy coalescePolicy = CoalescePolicy.valueOf(readString(in));
+        int replacementCount = in.readInt();
+        ImmutableSet.Builder<Replacement> replacements = ImmutableSet.builder();
+        for (int k = 0; k < replacementCount; k++) {
+          replacements.add(Replacement.create(in.readInt(), in.readInt(), readString(in)));
+        }
+        description.addFix(
+            new AutoValue_AnalysisResultCache_CachedFix(
+                shortDescription,
+                coalescePolicy,
+                replacements.build(),
+                readStrings(in),
+                readStrings(in)));
+      }
+      descriptions.add(description.build());
+    }
+    return descriptions.build();
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    // Not writeUTF, which is limited to 64K: fixes can replace large regions of a file.
+    byte[] bytes = string.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String string)
+      throws IOException {
+    out.writeBoolean(string != null);
+    if (string != null) {
+      writeString(out, string);
+    }
+  }
+
+  private static @Nullable String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+  private static void writeStrings(DataOutputStream out, ImmutableSet<String> strings)
+      throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      writeString(out, string);
+    }
+  }
+
+  private static ImmutableSet<String> readStrings(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<String> strings = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(in));
+    }
+    return ImmutableSet.copyOf(strings);
+  }
+
+  /** The position of a replayed finding. */
+  private static final class CachedPosition implements DiagnosticPosition {
+    private final int startPosition;
+    private final int preferredPosition;
+    private final int endPosition;
+
+    CachedPosition(int startPosition, int preferredPosition, int endPosition) {
+      this.startPosition = startPosition;
+      this.preferredPosition = preferredPosition;
+      this.endPosition = endPosition;
+    }
+
+    @Override
+    public @Nullable JCTree getTree() {
+      return null;
+    }
+
+    @Override
+    public int getStartPosition() {
+      return startPosition;
+    }
+
+    @Override
+    public int getPreferredPosition() {
+      return preferredPosition;
+    }
+
+    @Override
+    public int getEndPosition(EndPosTable endPosTable) {
+      return endPosition;
+    }
+  }
+
+  /** A fix whose replacements were computed when the finding was cached. */
+  @AutoValue
+  abstract static class CachedFix implements Fix {
+    @Override
+    public abstract String getShortDescription();
+
+    @Override
+    public abstract CoalescePolicy getCoalescePolicy();
+
+    abstract ImmutableSet<Replacement> replacements();
+
+    @Override
+    public abstract ImmutableSet<String> getImportsToAdd();
+
+    @Override
+    public abstract ImmutableSet<String> getImportsToRemove();
+
+    @Override
+    public ImmutableSet<Replacement> getReplacements(EndPosTable endPositions) {
+      return replacements();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return replacements().isEmpty()
+          && getImportsToAdd().isEmpty()
+          && getImportsToRemove().isEmpty();
+    }
+
+    @Override
+    public String toString(JCCompilationUnit compilationUnit) {
+      StringBuilder result = new StringBuilder("replace ");
+      for (Replacement replacement : replacements()) {
+        result.append(
+            String.format(
+                "position %d:%d with \"%s\" ",
+                replacement.startPosition(), replacement.endPosition(), replacement.replaceWith()));
+      }
+      return result.toString();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.matchers.Suppressible;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dense ordinals for the checks of a {@link com.google.errorprone.scanner.ScannerSupplier}, so that
+ * per-check data can be kept in arrays instead of in maps keyed by check name.
+ *
+ * <p>Ordinals are assigned in iteration order, so the i-th check has ordinal i. Every check has its
+ * own ordinal, even if other checks can be suppressed with the same names. Those names are only
+ * shared when deciding which checks a {@code @SuppressWarnings} suppresses.
+ */
+public final class CheckerOrdinals {
+
+  private static final int[] NONE = {};
+
+  private final int count;
+
+  /** The ordinals of the checks that can be suppressed with each name. */
+  private final ImmutableMap<String, int[]> ordinalsByName;
+
+  /** Assigns ordinals to the given checks, in iteration order. */
+  public static CheckerOrdinals forChecks(Iterable<BugCheckerInfo> checks) {
+    Builder builder = new Builder();
+    for (BugCheckerInfo check : checks) {
+      builder.add(check.allNames());
+    }
+    return builder.build();
+  }
+
+  /** Assigns ordinals to the given checkers, in iteration order. */
+  public static CheckerOrdinals forCheckers(Iterable<? extends Suppressible> checkers) {
+    Builder builder = new Builder();
+    for (Suppressible checker : checkers) {
+      builder.add(checker.allNames());
+    }
+    return builder.build();
+  }
+
+  private CheckerOrdinals(int count, ImmutableMap<String, int[]> ordinalsByName) {
+    this.count = count;
+    this.ordinalsByName = ordinalsByName;
+  }
+
+  /** Returns the number of ordinals assigned. */
+  public int count() {
+    return count;
+  }
+
+  /** Returns the ordinals of the checks suppressed by any of the given names, as a bit set. */
+  long[] suppressedBy(Set<String> names) {
+    long[] suppressed = new long[(count + 63) >>> 6];
+    for (String name : names) {
+      for (int ordinal : ordinalsByName.getOrDefault(name, NONE)) {
+        suppressed[ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+    return suppressed;
+  }
+
+  private static final class Builder {
+    private int count = 0;
+    private final Map<String, int[]> ordinalsByName = new HashMap<>();
+
+    void add(Set<String> allNames) {
+      int ordinal = count++;
+      for (String name : allNames) {
+        ordinalsByName.merge(name, new int[] {ordinal}, Ints::concat);
+      }
+    }
+
+    CheckerOrdinals build() {
+      return new CheckerOrdinals(count, ImmutableMap.copyOf(ordinalsByName));
+    }
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.util.Context;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A file of {@code CodeTransformer}s, such as compiled Refaster rules, that can be loaded without
+ * deserializing every rule up front.
+ *
+ * <p>The file starts with a magic number and a format version, followed by a table of the strings
+ * used in the header, an index with one entry per rule, and finally the rules themselves. Each
+ * index entry records the rule's name, the kinds of tree that a match of the rule can be rooted at,
+ * and the location of the rule's serialized form. Files are memory-mapped when read; a rule is only
+ * deserialized the first time it is applied to a compilation unit that contains a tree of one of
+ * its root kinds. Consecutive {@link CombinableCodeTransformer}s are applied in a single pass.
+ */
+public final class CodeTransformerArchive {
+
+  private static final int MAGIC = 0x45505241; // "EPRA"
+
+  /** The version of the format written by {@link #write}. */
+  static final int VERSION = 1;
+
+  private CodeTransformerArchive() {}
+
+  /**
+   * Writes the given transformers to {@code path}.
+   *
+   * @param rootKinds the kinds of tree that each transformer can match, or an empty set if it may
+   *     match any tree
+   */
+  public static void write(
+      Path path,
+      Iterable<? extends CodeTransformer> transformers,
+      Function<? super CodeTransformer, ? extends Set<Tree.Kind>> rootKinds)
+      throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    List<int[]> entries = new ArrayList<>();
+    List<byte[]> payloads = new ArrayList<>();
+    for (CodeTransformer transformer : transformers) {
+      Set<Tree.Kind> kinds = rootKinds.apply(transformer);
+      int[] entry = new int[kinds.size() + 1];
+      entry[0] = intern(strings, transformer.toString());
+      int i = 1;
+      for (Tree.Kind kind : kinds) {
+        entry[i++] = intern(strings, kind.name());
+      }
+      entries.add(entry);
+      payloads.add(serialize(transformer));
+    }
+
+    try (OutputStream out = Files.newOutputStream(path);
+        DataOutputStream data = new DataOutputStream(out)) {
+      data.writeInt(MAGIC);
+      data.writeInt(VERSION);
+      data.writeInt(strings.size());
+      for (String string : strings.keySet()) {
+        byte[] bytes = string.getBytes(UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+      }
+      data.writeInt(entries.size());
+      int offset = 0;
+      for (int i = 0; i < entries.size(); i++) {
+        int[] entry = entries.get(i);
+        data.writeInt(entry[0]);
+        data.writeInt(entry.length - 1);
+        for (int j = 1; j < entry.length; j++) {
+          data.writeInt(entry[j]);
+        }
+        data.writeInt(offset);
+        data.writeInt(payloads.get(i).length);
+        offset += payloads.get(i).length;
+      }
+      for (byte[] payload : payloads) {
+        data.write(payload);
+      }
+    }
+  }
+
+  /** Returns whether the file at {@code path} was written by {@link #write}. */
+  public static boolean isArchive(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path);
+        DataInputStream data = new DataInputStream(in)) {
+      return in.available() >= Integer.BYTES && data.readInt() == MAGIC;
+    }
+  }
+
+  /**
+   * Reads the transformers in the file at {@code path}, returning a single transformer that applies
+   * each of them in turn.
+   *
+   * <p>Only the index is read eagerly; each transformer is deserialized on first use.
+   */
+  public static CodeTransformer read(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      return read(buffer);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new IOException("Malformed code transformer archive " + path, e);
+    }
+  }
+
+  private static CodeTransformer read(ByteBuffer buffer) throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a code transformer archive");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format("Unsupported archive version %d, expected %d", version, VERSION));
+    }
+    String[] strings = new String[buffer.getInt()];
+    for (int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      strings[i] = new String(bytes, UTF_8);
+    }
+    int count = buffer.getInt();
+    List<String> names = new ArrayList<>(count);
+    List<ImmutableSet<Tree.Kind>> kinds = new ArrayList<>(count);
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      names.add(strings[buffer.getInt()]);
+      ImmutableSet.Builder<Tree.Kind> ruleKinds = ImmutableSet.builder();
+      for (int j = buffer.getInt(); j > 0; j--) {
+        ruleKinds.add(Tree.Kind.valueOf(strings[buffer.getInt()]));
+      }
+      kinds.add(ruleKinds.build());
+      offsets[i] = buffer.getInt();
+      lengths[i] = buffer.getInt();
+    }
+    ByteBuffer payloads = buffer.slice();
+    ImmutableList.Builder<LazyTransformer> transformers = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      transformers.add(
+          new LazyTransformer(names.get(i), kinds.get(i), payloads.slice(offsets[i], lengths[i])));
+    }
+    return new Archive(transformers.build());
+  }
+
+  private static int intern(Map<String, Integer> strings, String string) {
+    return strings.computeIfAbsent(string, s -> strings.size());
+  }
+
+  private static byte[] serialize(CodeTransformer transformer) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(transformer);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** The transformers of an archive, applied in the order they were written. */
+  private static final class Archive implements CodeTransformer {
+    private final ImmutableList<LazyTransformer> transformers;
+    private final boolean anyRestricted;
+
+    /**
+     * The selected transformers, combined, by the set of transformers selected. Compilation units
+     * with the same kinds of tree select the same transformers, so there are few of these.
+     */
+    private final Map<BitSet, ImmutableList<CodeTransformer>> combined = new ConcurrentHashMap<>();
+
+    Archive(ImmutableList<LazyTransformer> transformers) {
+      this.transformers = transformers;
+      this.anyRestricted = transformers.stream().anyMatch(t -> !t.rootKinds.isEmpty());
+    }
+
+    @Override
+    public void apply(TreePath path, Context context, DescriptionListener listener) {
+      Set<Tree.Kind> present =
+          anyRestricted ? kindsIn(path.getLeaf()) : EnumSet.noneOf(Tree.Kind.class);
+      BitSet selected = new BitSet(transformers.size());
+      for (int i = 0; i < transformers.size(); i++) {
+        LazyTransformer transformer = transformers.get(i);
+        if (transformer.rootKinds.isEmpty()
+            || transformer.rootKinds.stream().anyMatch(present::contains)) {
+          selected.set(i);
+        }
+      }
+      for (CodeTransformer transformer : combined.computeIfAbsent(selected, this::combine)) {
+        transformer.apply(path, context, listener);
+      }
+    }
+
+    private ImmutableList<CodeTransformer> combine(BitSet selected) {
+      return CombinableCodeTransformer.combineAll(
+          selected.stream().mapToObj(i -> transformers.get(i).get()).collect(toImmutableList()));
+    }
+
+    @Override
+    public ImmutableClassToInstanceMap<Annotation> annotations() {
+      return ImmutableClassToInstanceMap.of();
+    }
+
+    private static Set<Tree.Kind> kindsIn(Tree tree) {
+      Set<Tree.Kind> kinds = EnumSet.noneOf(Tree.Kind.class);
+      new TreeScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null) {
+            kinds.add(tree.getKind());
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(tree, null);
+      return kinds;
+    }
+  }
+
+  /** A transformer that is deserialized from its slice of the archive on first use. */
+  private static final class LazyTransformer {
+    private final String name;
+    private final ImmutableSet<Tree.Kind> rootKinds;
+    private final Supplier<CodeTransformer> transformer;
+
+    LazyTransformer(String name, ImmutableSet<Tree.Kind> rootKinds, ByteBuffer payload) {
+      this.name = name;
+      this.rootKinds = rootKinds;
+      this.transformer = Suppliers.memoize(() -> deserialize(payload));
+    }
+
+    CodeTransformer get() {
+      return transformer.get();
+    }
+
+    private CodeTransformer deserialize(ByteBuffer payload) {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(payload))) {
+        return (CodeTransformer) in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+        throw new RuntimeException("Can't load " + name, e);
+      }
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * A {@link CodeTransformer} that can be combined with other transformers of the same class, so that
+ * they are all applied in a single pass over the tree rather than each scanning it separately.
+ */
+public interface CombinableCodeTransformer extends CodeTransformer {
+
+  /**
+   * Returns a transformer that reports the same matches as applying each of the given transformers,
+   * all of the same class as this one, in turn.
+   */
+  CodeTransformer combine(List<? extends CodeTransformer> transformers);
+
+  /**
+   * Returns transformers equivalent to applying the given ones in order, where each run of
+   * consecutive {@link CombinableCodeTransformer}s of the same class has been combined.
+   */
+  static ImmutableList<CodeTransformer> combineAll(List<? extends CodeTransformer> transformers) {
+    ImmutableList.Builder<CodeTransformer> combined = ImmutableList.builder();
+    int start = 0;
+    while (start < transformers.size()) {
+      CodeTransformer first = transformers.get(start);
+      int end = start + 1;
+      if (first instanceof CombinableCodeTransformer combinable) {
+        while (end < transformers.size()
+            && transformers.get(end).getClass().equals(first.getClass())) {
+          end++;
+        }
+        combined.add(
+            end - start > 1 ? combinable.combine(transformers.subList(start, end)) : first);
+      } else {
+        combined.add(first);
+      }
+      start = end;
+    }
+    return combined.build();
+  }
+}
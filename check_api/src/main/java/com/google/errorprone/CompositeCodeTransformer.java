@@ -17,6 +17,7 @@
 package com.google.errorprone;
 
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.collect.ImmutableClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
 import com.sun.source.util.TreePath;
@@ -39,9 +40,15 @@ public abstract class CompositeCodeTransformer implements CodeTransformer, Seria
 
   public abstract ImmutableList<CodeTransformer> transformers();
 
+  /** The {@link #transformers}, with those that can be applied in a single pass combined. */
+  @Memoized
+  ImmutableList<CodeTransformer> combinedTransformers() {
+    return CombinableCodeTransformer.combineAll(transformers());
+  }
+
   @Override
   public void apply(TreePath path, Context context, DescriptionListener listener) {
-    for (CodeTransformer transformer : transformers()) {
+    for (CodeTransformer transformer : combinedTransformers()) {
       transformer.apply(path, context, listener);
     }
   }
@@ -19,13 +19,16 @@ package com.google.errorprone;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.getStackTraceAsString;
 import static com.google.common.base.Verify.verify;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
 import com.google.errorprone.ErrorProneOptions.Severity;
 import com.google.errorprone.RefactoringCollection.RefactoringResult;
+import com.google.errorprone.matchers.Description;
 import com.google.errorprone.scanner.ErrorProneScannerTransformer;
 import com.google.errorprone.scanner.ScannerSupplier;
 import com.google.errorprone.util.ASTHelpers;
@@ -38,17 +41,25 @@ import com.sun.source.util.TreePath;
 import com.sun.tools.javac.api.ClientCodeWrapper.Trusted;
 import com.sun.tools.javac.api.JavacTrees;
 import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.comp.Todo;
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Log.WriterKind;
 import com.sun.tools.javac.util.PropagatedException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /** A {@link TaskListener} that runs Error Prone over attributed compilation units. */
 @Trusted
@@ -61,6 +72,7 @@ public class ErrorProneAnalyzer implements TaskListener {
   private final ErrorProneOptions errorProneOptions;
   private final Context context;
   private final DescriptionListener.Factory descriptionListenerFactory;
+  private final @Nullable AnalysisResultCache resultCache;
 
   public static ErrorProneAnalyzer createAnalyzer(
       ScannerSupplier scannerSupplier,
@@ -105,6 +117,11 @@ public class ErrorProneAnalyzer implements TaskListener {
     private final Context context;
     private final RefactoringCollection refactoringCollection;
 
+    /** The messages for the files that were changed, reported once the changes are written. */
+    private final List<String> messages = new ArrayList<>();
+
+    private boolean closed = false;
+
     public RefactoringTask(Context context, RefactoringCollection refactoringCollection) {
       this.context = context;
       this.refactoringCollection = refactoringCollection;
@@ -115,6 +132,10 @@ public class ErrorProneAnalyzer implements TaskListener {
 
     @Override
     public void finished(TaskEvent event) {
+      if (event.getKind() == Kind.COMPILATION) {
+        close();
+        return;
+      }
       if (event.getKind() != Kind.GENERATE) {
         return;
       }
@@ -128,23 +149,65 @@ public class ErrorProneAnalyzer implements TaskListener {
         return;
       }
       if (refactoringResult.type() == RefactoringCollection.RefactoringResultType.CHANGED) {
+        messages.add(refactoringResult.message());
+      }
+      // There's no COMPILATION event when javac is driven through JavacTask.analyze() and
+      // generate(), so the changes are written as soon as every class has been analyzed and every
+      // file with changes has been generated.
+      if (Todo.instance(context).isEmpty() && !refactoringCollection.hasPendingChanges()) {
+        close();
+      }
+    }
+
+    /**
+     * Writes the changes, and then reports them, or the files they couldn't be applied to if there
+     * are any.
+     */
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      ImmutableSet<String> failedPaths;
+      try {
+        failedPaths = refactoringCollection.close();
+      } catch (IllegalStateException e) {
+        PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+        out.println("Failed to apply refactoring changes: " + e.getMessage());
+        out.flush();
+        return;
+      }
+      if (!failedPaths.isEmpty()) {
+        PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+        for (String path : failedPaths) {
+          out.println("Failed to apply refactoring changes to " + path);
+        }
+        out.flush();
+        messages.clear();
+        return;
+      }
+      if (!messages.isEmpty()) {
         PrintWriter out = Log.instance(context).getWriter(WriterKind.NOTICE);
-        out.println(refactoringResult.message());
+        messages.forEach(out::println);
         out.flush();
+        messages.clear();
       }
     }
   }
 
   public static ErrorProneAnalyzer createByScanningForPlugins(
       ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions, Context context) {
+    Supplier<ScannerSupplier> withPlugins =
+        loadPlugins(scannerSupplier, errorProneOptions, context);
     return new ErrorProneAnalyzer(
-        scansPlugins(scannerSupplier, errorProneOptions, context),
+        scansPlugins(withPlugins, context),
         errorProneOptions,
         context,
-        JavacErrorDescriptionListener.provider(context));
+        JavacErrorDescriptionListener.provider(context),
+        AnalysisResultCache.create(errorProneOptions, context, withPlugins));
   }
 
-  private static Supplier<CodeTransformer> scansPlugins(
+  private static Supplier<ScannerSupplier> loadPlugins(
       ScannerSupplier scannerSupplier, ErrorProneOptions errorProneOptions, Context context) {
     return Suppliers.memoize(
         () -> {
@@ -152,10 +215,25 @@ public class ErrorProneAnalyzer implements TaskListener {
           // initialized, so do it lazily
           ErrorProneTimings timings = ErrorProneTimings.instance(context);
           try (AutoCloseable unused = timings.initializationTimeSpan()) {
-            return ErrorProneScannerTransformer.create(
-                ErrorPronePlugins.loadPlugins(scannerSupplier, context)
-                    .applyOverrides(errorProneOptions)
-                    .get());
+            return ErrorPronePlugins.loadPlugins(scannerSupplier, context)
+                .applyOverrides(errorProneOptions);
+          } catch (InvalidCommandLineOptionException e) {
+            throw new PropagatedException(e);
+          } catch (Exception e) {
+            // for the timing span, should be impossible
+            throw new AssertionError(e);
+          }
+        });
+  }
+
+  private static Supplier<CodeTransformer> scansPlugins(
+      Supplier<ScannerSupplier> scannerSupplier, Context context) {
+    return Suppliers.memoize(
+        () -> {
+          ScannerSupplier withPlugins = scannerSupplier.get();
+          ErrorProneTimings timings = ErrorProneTimings.instance(context);
+          try (AutoCloseable unused = timings.initializationTimeSpan()) {
+            return ErrorProneScannerTransformer.create(withPlugins.get());
           } catch (InvalidCommandLineOptionException e) {
             throw new PropagatedException(e);
           } catch (Exception e) {
@@ -171,27 +249,47 @@ public class ErrorProneAnalyzer implements TaskListener {
       Context context,
       DescriptionListener.Factory descriptionListenerFactory) {
     return new ErrorProneAnalyzer(
-        codeTransformer, errorProneOptions, context, descriptionListenerFactory);
+        codeTransformer,
+        errorProneOptions,
+        context,
+        descriptionListenerFactory,
+        /* resultCache= */ null);
   }
 
   private ErrorProneAnalyzer(
       Supplier<CodeTransformer> transformer,
       ErrorProneOptions errorProneOptions,
       Context context,
-      DescriptionListener.Factory descriptionListenerFactory) {
+      DescriptionListener.Factory descriptionListenerFactory,
+      @Nullable AnalysisResultCache resultCache) {
     this.transformer = checkNotNull(transformer);
     this.errorProneOptions = checkNotNull(errorProneOptions);
     this.descriptionListenerFactory = checkNotNull(descriptionListenerFactory);
+    this.resultCache = resultCache;
 
     Context errorProneContext = new SubContext(context);
     errorProneContext.put(ErrorProneOptions.class, errorProneOptions);
     this.context = errorProneContext;
+
+    if (errorProneOptions.profileReportPath() != null) {
+      ErrorProneTimings.instance(context).enableProfiling();
+    }
   }
 
   private int errorProneErrors = 0;
 
   @Override
   public void finished(TaskEvent taskEvent) {
+    if (resultCache != null) {
+      switch (taskEvent.getKind()) {
+        case ENTER -> resultCache.addSource(taskEvent.getCompilationUnit().getSourceFile());
+        case COMPILATION -> resultCache.evict();
+        default -> {}
+      }
+    }
+    if (taskEvent.getKind() == Kind.COMPILATION && errorProneOptions.profileReportPath() != null) {
+      writeProfileReport(errorProneOptions.profileReportPath());
+    }
     if (taskEvent.getKind() != Kind.ANALYZE) {
       return;
     }
@@ -224,11 +322,11 @@ public class ErrorProneAnalyzer implements TaskListener {
         // We only get TaskEvents for compilation units if they contain no package declarations
         // (e.g. package-info.java files).  In this case it's safe to analyze the
         // CompilationUnitTree immediately.
-        transformer.get().apply(path, context, countingDescriptionListener);
+        scan(path, compilation, countingDescriptionListener);
       } else if (finishedCompilation(path.getCompilationUnit())) {
         // Otherwise this TaskEvent is for a ClassTree, and we can scan the whole
         // CompilationUnitTree once we've seen all the enclosed classes.
-        transformer.get().apply(new TreePath(compilation), context, countingDescriptionListener);
+        scan(new TreePath(compilation), compilation, countingDescriptionListener);
       }
     } catch (ErrorProneError e) {
       e.logFatalError(log, context);
@@ -253,6 +351,44 @@ public class ErrorProneAnalyzer implements TaskListener {
     }
   }
 
+  /**
+   * Scans a compilation unit, or replays its findings from the result cache if an earlier
+   * compilation with identical inputs already scanned it.
+   */
+  private void scan(
+      TreePath path, JCCompilationUnit compilation, DescriptionListener descriptionListener) {
+    if (resultCache == null) {
+      transformer.get().apply(path, context, descriptionListener);
+      return;
+    }
+    ImmutableList<Description> cached = resultCache.get(compilation);
+    if (cached != null) {
+      cached.forEach(descriptionListener::onDescribed);
+      return;
+    }
+    List<Description> descriptions = new ArrayList<>();
+    transformer
+        .get()
+        .apply(
+            path,
+            context,
+            d -> {
+              descriptions.add(d);
+              descriptionListener.onDescribed(d);
+            });
+    resultCache.put(compilation, descriptions);
+  }
+
+  private void writeProfileReport(String path) {
+    try (Writer writer = Files.newBufferedWriter(Paths.get(path), UTF_8)) {
+      ErrorProneTimings.instance(context).writeProfileReport(writer);
+    } catch (IOException e) {
+      PrintWriter out = Log.instance(context).getWriter(WriterKind.ERROR);
+      out.println("Failed to write Error Prone profile report to " + path + ": " + e);
+      out.flush();
+    }
+  }
+
   private static Object getDetailValue(CompletionFailure completionFailure) {
     try {
       // The return type of getDetailValue() changed from Object to JCDiagnostic in JDK 10,
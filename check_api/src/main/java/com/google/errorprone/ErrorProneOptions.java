@@ -30,11 +30,13 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Processes command-line options specific to error-prone.
@@ -51,6 +53,9 @@ public class ErrorProneOptions {
   private static final String PATCH_OUTPUT_LOCATION = "-XepPatchLocation:";
   private static final String PATCH_IMPORT_ORDER_PREFIX = "-XepPatchImportOrder:";
   private static final String EXCLUDED_PATHS_PREFIX = "-XepExcludedPaths:";
+  private static final String RESULT_CACHE_PREFIX = "-XepResultCache:";
+  private static final String RESULT_CACHE_MAX_BYTES_PREFIX = "-XepResultCacheMaxBytes:";
+  private static final String PROFILE_REPORT_PREFIX = "-XepProfileReport:";
   private static final String IGNORE_LARGE_CODE_GENERATORS = "-XepIgnoreLargeCodeGenerators:";
   private static final String ERRORS_AS_WARNINGS_FLAG = "-XepAllErrorsAsWarnings";
   private static final String SUGGESTIONS_AS_WARNINGS_FLAG = "-XepAllSuggestionsAsWarnings";
@@ -64,6 +69,9 @@ public class ErrorProneOptions {
   private static final String COMPILING_TEST_ONLY_CODE = "-XepCompilingTestOnlyCode";
   private static final String COMPILING_PUBLICLY_VISIBLE_CODE = "-XepCompilingPubliclyVisibleCode";
 
+  /** The default size bound of the {@code -XepResultCache} directory: 1 GiB. */
+  static final long DEFAULT_RESULT_CACHE_MAX_BYTES = 1L << 30;
+
   /** see {@link javax.tools.OptionChecker#isSupportedOption(String)} */
   public static int isSupportedOption(String option) {
     boolean isSupported =
@@ -72,6 +80,9 @@ public class ErrorProneOptions {
             || option.startsWith(PATCH_OUTPUT_LOCATION)
             || option.startsWith(PATCH_CHECKS_PREFIX)
             || option.startsWith(EXCLUDED_PATHS_PREFIX)
+            || option.startsWith(RESULT_CACHE_PREFIX)
+            || option.startsWith(RESULT_CACHE_MAX_BYTES_PREFIX)
+            || option.startsWith(PROFILE_REPORT_PREFIX)
             || option.equals(IGNORE_UNKNOWN_CHECKS_FLAG)
             || option.equals(DISABLE_WARNINGS_IN_GENERATED_CODE_FLAG)
             || option.equals(ERRORS_AS_WARNINGS_FLAG)
@@ -160,6 +171,9 @@ public class ErrorProneOptions {
   private final Pattern excludedPattern;
   private final boolean ignoreSuppressionAnnotations;
   private final boolean ignoreLargeCodeGenerators;
+  private final @Nullable String resultCacheDirectory;
+  private final long resultCacheMaxBytes;
+  private final @Nullable String profileReportPath;
 
   private ErrorProneOptions(
       ImmutableMap<String, Severity> severityMap,
@@ -177,7 +191,10 @@ public class ErrorProneOptions {
       PatchingOptions patchingOptions,
       Pattern excludedPattern,
       boolean ignoreSuppressionAnnotations,
-      boolean ignoreLargeCodeGenerators) {
+      boolean ignoreLargeCodeGenerators,
+      @Nullable String resultCacheDirectory,
+      long resultCacheMaxBytes,
+      @Nullable String profileReportPath) {
     this.severityMap = severityMap;
     this.remainingArgs = remainingArgs;
     this.ignoreUnknownChecks = ignoreUnknownChecks;
@@ -194,6 +211,9 @@ public class ErrorProneOptions {
     this.excludedPattern = excludedPattern;
     this.ignoreSuppressionAnnotations = ignoreSuppressionAnnotations;
     this.ignoreLargeCodeGenerators = ignoreLargeCodeGenerators;
+    this.resultCacheDirectory = resultCacheDirectory;
+    this.resultCacheMaxBytes = resultCacheMaxBytes;
+    this.profileReportPath = profileReportPath;
   }
 
   public ImmutableList<String> getRemainingArgs() {
@@ -252,6 +272,27 @@ public class ErrorProneOptions {
     return excludedPattern;
   }
 
+  /**
+   * Returns the directory of the cross-compilation result cache, or {@code null} if findings
+   * shouldn't be cached.
+   */
+  public @Nullable String resultCacheDirectory() {
+    return resultCacheDirectory;
+  }
+
+  /** Returns the maximum total size in bytes of the result cache directory. */
+  public long resultCacheMaxBytes() {
+    return resultCacheMaxBytes;
+  }
+
+  /**
+   * Returns the file that a JSON report of per-check profiling data is written to at the end of
+   * compilation, or {@code null} if checks shouldn't be profiled.
+   */
+  public @Nullable String profileReportPath() {
+    return profileReportPath;
+  }
+
   private static class Builder {
     private boolean ignoreUnknownChecks = false;
     private boolean disableAllWarnings = false;
@@ -268,6 +309,9 @@ public class ErrorProneOptions {
     private final ErrorProneFlags.Builder flagsBuilder = ErrorProneFlags.builder();
     private final PatchingOptions.Builder patchingOptionsBuilder = PatchingOptions.builder();
     private Pattern excludedPattern;
+    private String resultCacheDirectory;
+    private long resultCacheMaxBytes = DEFAULT_RESULT_CACHE_MAX_BYTES;
+    private String profileReportPath;
 
     private void parseSeverity(String arg) {
       // Strip prefix
@@ -373,12 +417,27 @@ public class ErrorProneOptions {
           patchingOptionsBuilder.build(),
           excludedPattern,
           ignoreSuppressionAnnotations,
-          ignoreLargeCodeGenerators);
+          ignoreLargeCodeGenerators,
+          resultCacheDirectory,
+          resultCacheMaxBytes,
+          profileReportPath);
     }
 
     public void setExcludedPattern(Pattern excludedPattern) {
       this.excludedPattern = excludedPattern;
     }
+
+    public void setResultCacheDirectory(String resultCacheDirectory) {
+      this.resultCacheDirectory = resultCacheDirectory;
+    }
+
+    public void setResultCacheMaxBytes(long resultCacheMaxBytes) {
+      this.resultCacheMaxBytes = resultCacheMaxBytes;
+    }
+
+    public void setProfileReportPath(String profileReportPath) {
+      this.profileReportPath = profileReportPath;
+    }
   }
 
   private static final ErrorProneOptions EMPTY = new Builder().build(ImmutableList.of());
@@ -448,8 +507,16 @@ public class ErrorProneOptions {
                   .customRefactorer(
                       () -> {
                         String path = remaining.substring("refaster:".length());
-                        try (InputStream in =
-                                Files.newInputStream(FileSystems.getDefault().getPath(path));
+                        Path file = FileSystems.getDefault().getPath(path);
+                        try {
+                          if (CodeTransformerArchive.isArchive(file)) {
+                            return CodeTransformerArchive.read(file);
+                          }
+                        } catch (IOException e) {
+                          throw new RuntimeException("Can't load Refaster rule from " + path, e);
+                        }
+                        // Rules serialized as a single object, before the archive format existed.
+                        try (InputStream in = Files.newInputStream(file);
                             ObjectInputStream ois = new ObjectInputStream(in)) {
                           return (CodeTransformer) ois.readObject();
                         } catch (IOException | ClassNotFoundException e) {
@@ -469,6 +536,30 @@ public class ErrorProneOptions {
             String pathRegex = arg.substring(EXCLUDED_PATHS_PREFIX.length());
             builder.setExcludedPattern(Pattern.compile(pathRegex));
 
+          } else if (arg.startsWith(RESULT_CACHE_MAX_BYTES_PREFIX)) {
+            String remaining = arg.substring(RESULT_CACHE_MAX_BYTES_PREFIX.length());
+            long maxBytes;
+            try {
+              maxBytes = Long.parseLong(remaining);
+            } catch (NumberFormatException e) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            if (maxBytes < 0) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setResultCacheMaxBytes(maxBytes);
+          } else if (arg.startsWith(RESULT_CACHE_PREFIX)) {
+            String remaining = arg.substring(RESULT_CACHE_PREFIX.length());
+            if (remaining.isEmpty()) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setResultCacheDirectory(remaining);
+          } else if (arg.startsWith(PROFILE_REPORT_PREFIX)) {
+            String remaining = arg.substring(PROFILE_REPORT_PREFIX.length());
+            if (remaining.isEmpty()) {
+              throw new InvalidCommandLineOptionException("invalid flag: " + arg);
+            }
+            builder.setProfileReportPath(remaining);
           } else {
             if (arg.startsWith(PREFIX)) {
               throw new InvalidCommandLineOptionException("invalid flag: " + arg);
@@ -17,16 +17,36 @@
 package com.google.errorprone;
 
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.Comparator.comparingLong;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.matchers.Suppressible;
+import com.sun.management.ThreadMXBean;
 import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
-/** A collection of timing data for the runtime of individual checks. */
+/**
+ * A collection of timing data for the runtime of individual checks.
+ *
+ * <p>Spans may be opened and closed concurrently, and for the same check more than once at a time:
+ * each span measures its own elapsed time and adds it to a per-check total when it is closed.
+ *
+ * <p>When {@linkplain #enableProfiling profiling} is enabled, spans additionally record invocation
+ * counts, the slowest single invocation, the bytes allocated by the current thread, and the time
+ * spent per source file, for checks and for shared facilities such as dataflow and symbol lookup.
+ * Spans must be closed on the thread that opened them for the allocation data to be meaningful.
+ */
 public final class ErrorProneTimings {
 
   private static final Context.Key<ErrorProneTimings> timingsKey = new Context.Key<>();
@@ -43,31 +63,241 @@ public final class ErrorProneTimings {
     context.put(timingsKey, this);
   }
 
-  private final Map<String, Stopwatch> timers = new HashMap<>();
+  /** A timing span whose {@link #close} does not throw checked exceptions. */
+  public interface Span extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Span NO_OP_SPAN = () -> {};
+
+  /** The number of slowest files to report for each check. */
+  private static final int SLOWEST_FILES = 10;
+
+  private final ConcurrentMap<String, LongAdder> timers = new ConcurrentHashMap<>();
 
   private final Stopwatch initializationTime = Stopwatch.createUnstarted();
 
+  private volatile boolean profiling = false;
+
+  private final ConcurrentMap<String, Profile> checkProfiles = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Profile> facilityProfiles = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, CacheStats> cacheStats = new ConcurrentHashMap<>();
+
+  private @Nullable ThreadMXBean threadMXBean;
+
+  /**
+   * Starts collecting detailed per-check data in addition to total durations; see {@link
+   * #writeProfileReport}.
+   */
+  public void enableProfiling() {
+    if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+        && bean.isThreadAllocatedMemorySupported()
+        && bean.isThreadAllocatedMemoryEnabled()) {
+      threadMXBean = bean;
+    }
+    profiling = true;
+  }
+
+  /** Returns true if detailed profiling data is being collected. */
+  public boolean isProfiling() {
+    return profiling;
+  }
+
   /** Creates a timing span for the given {@link Suppressible}. */
   public AutoCloseable span(Suppressible suppressible) {
-    String key = suppressible.canonicalName();
-    Stopwatch sw = timers.computeIfAbsent(key, k -> Stopwatch.createUnstarted()).start();
-    return () -> sw.stop();
+    return span(suppressible, /* sourceFile= */ null);
+  }
+
+  /**
+   * Creates a timing span for the given {@link Suppressible} running over {@code sourceFile}, which
+   * is used to attribute time to individual files when profiling.
+   */
+  public AutoCloseable span(Suppressible suppressible, @Nullable JavaFileObject sourceFile) {
+    String name = suppressible.canonicalName();
+    LongAdder elapsedNanos = timers.computeIfAbsent(name, k -> new LongAdder());
+    if (!profiling) {
+      long start = System.nanoTime();
+      return () -> elapsedNanos.add(System.nanoTime() - start);
+    }
+    Profile profile = checkProfiles.computeIfAbsent(name, k -> new Profile());
+    long startBytes = allocatedBytes();
+    long start = System.nanoTime();
+    return () -> {
+      long nanos = System.nanoTime() - start;
+      elapsedNanos.add(nanos);
+      profile.record(nanos, allocatedBytes() - startBytes, sourceFile);
+    };
+  }
+
+  /**
+   * Creates a span for time spent in a facility shared between checks, such as dataflow. Facility
+   * spans are only recorded when profiling, and their time is also included in the spans of the
+   * checks that use them.
+   */
+  public Span facilitySpan(String facility) {
+    if (!profiling) {
+      return NO_OP_SPAN;
+    }
+    Profile profile = facilityProfiles.computeIfAbsent(facility, k -> new Profile());
+    long startBytes = allocatedBytes();
+    long start = System.nanoTime();
+    return () -> profile.record(System.nanoTime() - start, allocatedBytes() - startBytes, null);
+  }
+
+  /** Records a hit or miss in a cache shared between checks. Only recorded when profiling. */
+  public void recordCacheAccess(String cache, boolean hit) {
+    if (!profiling) {
+      return;
+    }
+    CacheStats stats = cacheStats.computeIfAbsent(cache, k -> new CacheStats());
+    (hit ? stats.hits : stats.misses).increment();
+  }
+
+  private long allocatedBytes() {
+    ThreadMXBean bean = threadMXBean;
+    return bean != null ? bean.getCurrentThreadAllocatedBytes() : 0;
   }
 
   /** Creates a timing span for initialization. */
   public AutoCloseable initializationTimeSpan() {
-    initializationTime.start();
-    return () -> initializationTime.stop();
+    synchronized (initializationTime) {
+      initializationTime.start();
+    }
+    return () -> {
+      synchronized (initializationTime) {
+        initializationTime.stop();
+      }
+    };
   }
 
   /** Returns the elapsed durations of each timer. */
   public ImmutableMap<String, Duration> timings() {
     return timers.entrySet().stream()
-        .collect(toImmutableMap(e -> e.getKey(), e -> e.getValue().elapsed()));
+        .collect(toImmutableMap(e -> e.getKey(), e -> Duration.ofNanos(e.getValue().sum())));
   }
 
   /** Returns the elapsed initialization time. */
   public Duration initializationTime() {
-    return initializationTime.elapsed();
+    synchronized (initializationTime) {
+      return initializationTime.elapsed();
+    }
+  }
+
+  /**
+   * Writes the data collected while profiling as a JSON object, with checks and facilities each
+   * sorted by descending total time, followed by hit counts for shared caches. Times are in
+   * nanoseconds.
+   */
+  void writeProfileReport(Appendable out) throws IOException {
+    out.append("{\n  \"initializationNanos\": ")
+        .append(Long.toString(initializationTime().toNanos()))
+        .append(",\n  \"checks\": ");
+    writeProfiles(out, checkProfiles);
+    out.append(",\n  \"facilities\": ");
+    writeProfiles(out, facilityProfiles);
+    out.append(",\n  \"caches\": [");
+    String separator = "\n";
+    for (Map.Entry<String, CacheStats> entry : new TreeMap<>(cacheStats).entrySet()) {
+      out.append(separator)
+          .append("    {\"name\": ")
+          .append(quote(entry.getKey()))
+          .append(", \"hits\": ")
+          .append(Long.toString(entry.getValue().hits.sum()))
+          .append(", \"misses\": ")
+          .append(Long.toString(entry.getValue().misses.sum()))
+          .append('}');
+      separator = ",\n";
+    }
+    out.append(cacheStats.isEmpty() ? "]" : "\n  ]");
+    out.append("\n}\n");
+  }
+
+  private static void writeProfiles(Appendable out, Map<String, Profile> profiles)
+      throws IOException {
+    out.append('[');
+    String separator = "\n";
+    for (Map.Entry<String, Profile> entry :
+        profiles.entrySet().stream()
+            .sorted(comparingLong(e -> -e.getValue().totalNanos.sum()))
+            .toList()) {
+      Profile profile = entry.getValue();
+      out.append(separator)
+          .append("    {\"name\": ")
+          .append(quote(entry.getKey()))
+          .append(", \"calls\": ")
+          .append(Long.toString(profile.calls.sum()))
+          .append(", \"totalNanos\": ")
+          .append(Long.toString(profile.totalNanos.sum()))
+          .append(", \"maxNanos\": ")
+          .append(Long.toString(profile.maxNanos.get()))
+          .append(", \"allocatedBytes\": ")
+          .append(Long.toString(profile.allocatedBytes.sum()))
+          .append(", \"slowestFiles\": [");
+      String fileSeparator = "";
+      for (Map.Entry<String, LongAdder> file :
+          profile.nanosByFile.entrySet().stream()
+              .sorted(comparingLong(e -> -e.getValue().sum()))
+              .limit(SLOWEST_FILES)
+              .toList()) {
+        out.append(fileSeparator)
+            .append("{\"file\": ")
+            .append(quote(file.getKey()))
+            .append(", \"nanos\": ")
+            .append(Long.toString(file.getValue().sum()))
+            .append('}');
+        fileSeparator = ", ";
+      }
+      out.append("]}");
+      separator = ",\n";
+    }
+    out.append(profiles.isEmpty() ? "]" : "\n  ]");
+  }
+
+  private static String quote(String s) {
+    StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        case '\n' -> sb.append("\\n");
+        default -> {
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  /** Hit and miss counts for a shared cache, collected while profiling. */
+  private static final class CacheStats {
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+  }
+
+  /** Measurements for a single check or facility, collected while profiling. */
+  private static final class Profile {
+    final LongAdder calls = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    final LongAdder allocatedBytes = new LongAdder();
+    final ConcurrentMap<String, LongAdder> nanosByFile = new ConcurrentHashMap<>();
+
+    void record(long nanos, long bytes, @Nullable JavaFileObject sourceFile) {
+      calls.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+      allocatedBytes.add(bytes);
+      if (sourceFile != null) {
+        nanosByFile.computeIfAbsent(sourceFile.getName(), k -> new LongAdder()).add(nanos);
+      }
+    }
   }
 }
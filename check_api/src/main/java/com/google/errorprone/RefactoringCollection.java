@@ -16,20 +16,19 @@
 
 package com.google.errorprone;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.APPEND;
-import static java.nio.file.StandardOpenOption.CREATE;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
 import com.google.errorprone.ErrorProneOptions.PatchingOptions;
 import com.google.errorprone.apply.DescriptionBasedDiff;
+import com.google.errorprone.apply.DiffApplier;
 import com.google.errorprone.apply.FileDestination;
 import com.google.errorprone.apply.FileSource;
 import com.google.errorprone.apply.FsFileDestination;
-import com.google.errorprone.apply.FsFileSource;
 import com.google.errorprone.apply.ImportOrganizer;
 import com.google.errorprone.apply.PatchFileDestination;
 import com.google.errorprone.apply.SourceFile;
@@ -37,27 +36,24 @@ import com.google.errorprone.matchers.Description;
 import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.FileNotFoundException;
 import java.net.URI;
 import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import javax.tools.JavaFileObject;
 
 /** A container of fixes that have been collected during a single compilation phase. */
 public class RefactoringCollection implements DescriptionListener.Factory {
 
-  private static final Logger logger = Logger.getLogger(RefactoringCollection.class.getName());
-
   private final SetMultimap<URI, DelegatingDescriptionListener> foundSources =
       HashMultimap.create();
-  private final Path rootPath;
-  private final FileDestination fileDestination;
+  // The source of each file with changes, as compiled, keyed by path.
+  private final Map<String, CharSequence> originalSources;
+  private final DiffApplier diffApplier;
   private final Function<URI, RefactoringResult> postProcess;
   private final DescriptionListener.Factory descriptionsFactory;
   private final ImportOrganizer importOrganizer;
@@ -80,6 +76,15 @@ public class RefactoringCollection implements DescriptionListener.Factory {
 
   static RefactoringCollection refactor(PatchingOptions patchingOptions, Context context) {
     Path rootPath = buildRootPath();
+    Map<String, CharSequence> originalSources = new ConcurrentHashMap<>();
+    FileSource fileSource =
+        path -> {
+          CharSequence source = originalSources.get(path);
+          if (source == null) {
+            throw new FileNotFoundException(path);
+          }
+          return new SourceFile(path, source);
+        };
     FileDestination fileDestination;
     Function<URI, RefactoringResult> postProcess;
 
@@ -97,45 +102,36 @@ public class RefactoringCollection implements DescriptionListener.Factory {
       Path baseDir = rootPath.resolve(patchingOptions.baseDirectory());
       Path patchFilePath = baseDir.resolve("error-prone.patch");
 
-      PatchFileDestination patchFileDestination = new PatchFileDestination(baseDir, rootPath);
+      fileDestination = new PatchFileDestination(baseDir, rootPath, fileSource, patchFilePath);
       postProcess =
-          new Function<URI, RefactoringResult>() {
-            private final AtomicBoolean first = new AtomicBoolean(true);
-
-            @Override
-            public RefactoringResult apply(URI uri) {
-              try {
-                writePatchFile(first, uri, patchFileDestination, patchFilePath);
-                return RefactoringResult.create(
-                    "Changes were written to "
-                        + patchFilePath
-                        + ". Please inspect the file and apply with: "
-                        + "patch -p0 -u -i error-prone.patch",
-                    RefactoringResultType.CHANGED);
-              } catch (IOException e) {
-                throw new RuntimeException("Failed to emit patch file!", e);
-              }
-            }
-          };
-      fileDestination = patchFileDestination;
+          uri ->
+              RefactoringResult.create(
+                  "Changes were written to "
+                      + patchFilePath
+                      + ". Please inspect the file and apply with: "
+                      + "patch -p0 -u -i error-prone.patch",
+                  RefactoringResultType.CHANGED);
     }
 
     ImportOrganizer importOrganizer = patchingOptions.importOrganizer();
     return new RefactoringCollection(
-        rootPath, fileDestination, postProcess, importOrganizer, context);
+        originalSources, fileSource, fileDestination, postProcess, importOrganizer, context);
   }
 
   private RefactoringCollection(
-      Path rootPath,
+      Map<String, CharSequence> originalSources,
+      FileSource fileSource,
       FileDestination fileDestination,
       Function<URI, RefactoringResult> postProcess,
       ImportOrganizer importOrganizer,
       Context context) {
-    this.rootPath = rootPath;
-    this.fileDestination = fileDestination;
+    this.originalSources = originalSources;
+    this.diffApplier =
+        new DiffApplier(Runtime.getRuntime().availableProcessors(), fileSource, fileDestination);
     this.postProcess = postProcess;
     this.descriptionsFactory = JavacErrorDescriptionListener.providerForRefactoring(context);
     this.importOrganizer = importOrganizer;
+    diffApplier.startAsync().awaitRunning();
   }
 
   private static Path buildRootPath() {
@@ -153,70 +149,71 @@ public class RefactoringCollection implements DescriptionListener.Factory {
     DelegatingDescriptionListener delegate =
         new DelegatingDescriptionListener(
             descriptionsFactory.getDescriptionListener(log, compilation),
-            DescriptionBasedDiff.createIgnoringOverlaps(compilation, importOrganizer));
+            DescriptionBasedDiff.createIgnoringOverlaps(compilation, importOrganizer),
+            compilation.getSourceFile());
     foundSources.put(sourceFile, delegate);
     return delegate;
   }
 
+  /**
+   * Schedules the changes to the given file to be applied in the background. The changes are only
+   * guaranteed to have been written once {@link #close} returns.
+   */
   RefactoringResult applyChanges(URI uri) throws Exception {
     Collection<DelegatingDescriptionListener> listeners = foundSources.removeAll(uri);
-    if (doApplyProcess(fileDestination, new FsFileSource(rootPath), listeners)) {
+    boolean appliedDiff = false;
+    for (DelegatingDescriptionListener listener : listeners) {
+      if (listener.base.isEmpty()) {
+        continue;
+      }
+      checkState(diffApplier.isRunning(), "Changes to %s found after refactoring finished", uri);
+      // Diffs are applied to the content javac compiled, rather than to a fresh read of the file.
+      originalSources.put(
+          listener.base.getRelevantFileName(), listener.sourceFile.getCharContent(true));
+      // The import changes are computed from the compilation unit, which is only safe to read here.
+      listener.base.resolveImports();
+      diffApplier.put(listener.base);
+      appliedDiff = true;
+    }
+    if (appliedDiff) {
       return postProcess.apply(uri);
     }
 
     return RefactoringResult.create("", RefactoringResultType.NO_CHANGES);
   }
 
-  private static void writePatchFile(
-      AtomicBoolean first, URI uri, PatchFileDestination fileDestination, Path patchFilePatch)
-      throws IOException {
-    String patchFile = fileDestination.patchFile(uri);
-    if (patchFile != null) {
-      if (first.compareAndSet(true, false)) {
-        try {
-          Files.deleteIfExists(patchFilePatch);
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-      }
-      Files.createDirectories(patchFilePatch.getParent());
-      Files.write(patchFilePatch, patchFile.getBytes(UTF_8), APPEND, CREATE);
-    }
+  /**
+   * Returns true if any compilation unit that has been scanned has changes that haven't been passed
+   * to {@link #applyChanges} yet.
+   */
+  boolean hasPendingChanges() {
+    return foundSources.values().stream().anyMatch(listener -> !listener.base.isEmpty());
   }
 
-  private static boolean doApplyProcess(
-      FileDestination fileDestination,
-      FileSource fileSource,
-      Collection<DelegatingDescriptionListener> listeners) {
-    boolean appliedDiff = false;
-    for (DelegatingDescriptionListener listener : listeners) {
-      if (listener.base.isEmpty()) {
-        continue;
-      }
-
-      try {
-        SourceFile file = fileSource.readFile(listener.base.getRelevantFileName());
-        listener.base.applyDifferences(file);
-        fileDestination.writeFile(file);
-        appliedDiff = true;
-      } catch (IOException e) {
-        logger.log(
-            Level.WARNING,
-            "Failed to apply diff to file " + listener.base.getRelevantFileName(),
-            e);
-      }
+  /**
+   * Waits for all scheduled changes to be applied, and writes the patch file if there is one.
+   *
+   * @return the paths of the files that changes couldn't be applied to
+   */
+  ImmutableSet<String> close() {
+    try {
+      diffApplier.stopAsync().awaitTerminated();
+    } finally {
+      originalSources.clear();
     }
-
-    return appliedDiff;
+    return diffApplier.failedPaths();
   }
 
   private static final class DelegatingDescriptionListener implements DescriptionListener {
     final DescriptionBasedDiff base;
     final DescriptionListener listener;
+    final JavaFileObject sourceFile;
 
-    DelegatingDescriptionListener(DescriptionListener listener, DescriptionBasedDiff base) {
+    DelegatingDescriptionListener(
+        DescriptionListener listener, DescriptionBasedDiff base, JavaFileObject sourceFile) {
       this.listener = listener;
       this.base = base;
+      this.sourceFile = sourceFile;
     }
 
     @Override
@@ -19,6 +19,7 @@ package com.google.errorprone;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.CheckReturnValue;
 import com.google.errorprone.annotations.Immutable;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
@@ -35,6 +36,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Immutable container of "suppression signals" - annotations or other information gathered from
@@ -56,6 +58,13 @@ public class SuppressionInfo {
   private static final Supplier<Name> VALUE = VisitorState.memoize(state -> state.getName("value"));
   private final ImmutableSet<String> suppressWarningsStrings;
 
+  /**
+   * The checks suppressed by {@link #suppressWarningsStrings}, for the {@link CheckerOrdinals} this
+   * instance was last queried with. Computed on first use, since most instances are never asked
+   * about a check they might suppress.
+   */
+  @LazyInit private @Nullable SuppressedOrdinals suppressedOrdinals;
+
   @SuppressWarnings("Immutable") /* Name is javac's interned version of a string. */
   private final ImmutableSet<Name> customSuppressions;
 
@@ -68,6 +77,24 @@ public class SuppressionInfo {
     this.inGeneratedCode = inGeneratedCode;
   }
 
+  /** A bit set of the checks suppressed by some names, indexed by their ordinals. */
+  @Immutable
+  private static final class SuppressedOrdinals {
+    final CheckerOrdinals ordinals;
+
+    @SuppressWarnings("Immutable") // Never modified after construction.
+    final long[] suppressed;
+
+    SuppressedOrdinals(CheckerOrdinals ordinals, Set<String> names) {
+      this.ordinals = ordinals;
+      this.suppressed = ordinals.suppressedBy(names);
+    }
+
+    boolean contains(int ordinal) {
+      return (suppressed[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+  }
+
   private static boolean isGenerated(Symbol sym, VisitorState state) {
     return !ASTHelpers.getGeneratedBy(sym, state).isEmpty();
   }
@@ -81,12 +108,30 @@ public class SuppressionInfo {
    */
   public SuppressedState suppressedState(
       Suppressible suppressible, boolean suppressedInGeneratedCode, VisitorState state) {
+    return suppressedState(suppressible, suppressedInGeneratedCode, state, null, -1);
+  }
+
+  /**
+   * Like {@link #suppressedState(Suppressible, boolean, VisitorState)}, but tests the names in
+   * {@code @SuppressWarnings} against a bit set if the checker has an ordinal in {@code ordinals}.
+   *
+   * @param ordinal the checker's ordinal in {@code ordinals}, or -1 if it doesn't have one
+   */
+  public SuppressedState suppressedState(
+      Suppressible suppressible,
+      boolean suppressedInGeneratedCode,
+      VisitorState state,
+      @Nullable CheckerOrdinals ordinals,
+      int ordinal) {
     if (inGeneratedCode && suppressedInGeneratedCode) {
       return SuppressedState.SUPPRESSED;
     }
+    if (suppressWarningsStrings.isEmpty() && customSuppressions.isEmpty()) {
+      // The common case: nothing on the current path suppresses anything.
+      return SuppressedState.UNSUPPRESSED;
+    }
     if (suppressible.supportsSuppressWarnings()
-        && (suppressWarningsStrings.contains("all")
-            || !Collections.disjoint(suppressible.allNames(), suppressWarningsStrings))) {
+        && suppressedByName(suppressible, ordinals, ordinal)) {
       return SuppressedState.SUPPRESSED;
     }
     if (suppressible.suppressedByAnyOf(customSuppressions, state)) {
@@ -96,6 +141,27 @@ public class SuppressionInfo {
     return SuppressedState.UNSUPPRESSED;
   }
 
+  private boolean suppressedByName(
+      Suppressible suppressible, @Nullable CheckerOrdinals ordinals, int ordinal) {
+    if (suppressWarningsStrings.contains("all")) {
+      return true;
+    }
+    if (ordinals != null && ordinal >= 0) {
+      SuppressedOrdinals suppressed = suppressedOrdinals;
+      if (suppressed == null || suppressed.ordinals != ordinals) {
+        suppressed = new SuppressedOrdinals(ordinals, suppressWarningsStrings);
+        suppressedOrdinals = suppressed;
+      }
+      return suppressed.contains(ordinal);
+    }
+    return !Collections.disjoint(suppressible.allNames(), suppressWarningsStrings);
+  }
+
+  /** Returns true if the current path is inside generated code. */
+  public boolean isInGeneratedCode() {
+    return inGeneratedCode;
+  }
+
   /**
    * Generates the {@link SuppressionInfo} for a {@link CompilationUnitTree}. This differs in that
    * {@code isGenerated} is determined by inspecting the annotations of the outermost class so that
@@ -131,20 +197,30 @@ public class SuppressionInfo {
    */
   public SuppressionInfo withExtendedSuppressions(
       Symbol sym, VisitorState state, Set<? extends Name> customSuppressionAnnosToLookFor) {
-    boolean newInGeneratedCode = inGeneratedCode || isGenerated(sym, state);
+    boolean hasAnnotations = !sym.getRawAttributes().isEmpty();
+    // Custom suppression annotations may be @Inherited, so classes are checked even if they aren't
+    // annotated themselves.
+    boolean lookForCustomSuppressions =
+        !customSuppressionAnnosToLookFor.isEmpty()
+            && (hasAnnotations || sym instanceof ClassSymbol);
+    if (!hasAnnotations && !lookForCustomSuppressions) {
+      // Most declarations aren't annotated, so they can't add any suppressions.
+      return this;
+    }
+
+    boolean newInGeneratedCode = inGeneratedCode || (hasAnnotations && isGenerated(sym, state));
     boolean anyModification = newInGeneratedCode != inGeneratedCode;
 
     /* Handle custom suppression annotations. */
-    Set<Name> lookingFor = new HashSet<>(customSuppressionAnnosToLookFor);
-    lookingFor.removeAll(customSuppressions);
-    Set<Name> newlyPresent = ASTHelpers.annotationsAmong(sym, lookingFor, state);
-    Set<Name> newCustomSuppressions;
-    if (!newlyPresent.isEmpty()) {
-      anyModification = true;
-      newCustomSuppressions = newlyPresent;
-      newCustomSuppressions.addAll(customSuppressions);
-    } else {
-      newCustomSuppressions = customSuppressions;
+    Set<Name> newCustomSuppressions = customSuppressions;
+    if (lookForCustomSuppressions) {
+      Set<Name> newlyPresent =
+          ASTHelpers.annotationsAmong(sym, customSuppressionAnnosToLookFor, state);
+      if (!customSuppressions.containsAll(newlyPresent)) {
+        anyModification = true;
+        newCustomSuppressions = newlyPresent;
+        newCustomSuppressions.addAll(customSuppressions);
+      }
     }
 
     /* Handle {@code @SuppressWarnings} and {@code @SuppressLint}. */
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.MultiTaskListener;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+import com.sun.tools.javac.util.Names;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Caches the types and class symbols that {@link VisitorState} looks up by name, for the rest of a
+ * javac invocation.
+ *
+ * <p>Each class name is converted to a binary {@link Name} once. Types and symbols that are found
+ * are kept for the whole invocation. Types and symbols that aren't found are only remembered until
+ * the next time javac finishes entering or analyzing a compilation unit, since completing other
+ * classes may make them available (b/138753468).
+ *
+ * <p>Hits and misses are reported to {@link ErrorProneTimings}, and so appear in {@code
+ * -XepProfileReport}.
+ */
+public final class SymbolLookupCache {
+
+  /** Returns the cache for the javac invocation with the given context. */
+  public static SymbolLookupCache instance(Context context) {
+    SymbolLookupCache instance = context.get(SymbolLookupCache.class);
+    if (instance == null) {
+      instance =
+          new SymbolLookupCache(Names.instance(context), ErrorProneTimings.instance(context));
+      context.put(SymbolLookupCache.class, instance);
+      MultiTaskListener.instance(context).add(instance.new EpochListener());
+    }
+    return instance;
+  }
+
+  private final Names names;
+  private final ErrorProneTimings timings;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>(1024);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /** Incremented whenever classes that weren't found before might have become available. */
+  private volatile int epoch = 1;
+
+  private SymbolLookupCache(Names names, ErrorProneTimings timings) {
+    this.names = names;
+    this.timings = timings;
+  }
+
+  /** The number of lookups answered from the cache, including cached misses. */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /** The number of lookups that had to consult the compiler. */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /** See {@link VisitorState#getTypeFromString}. */
+  @Nullable Type type(String typeStr, VisitorState state) {
+    Entry entry = entry(typeStr);
+    Type type = entry.type;
+    boolean hit = type != null || entry.typeMissEpoch == epoch;
+    recordAccess("SymbolLookupCache.type", hit);
+    if (hit) {
+      return type;
+    }
+    int epoch = this.epoch;
+    type = state.getTypeFromStringInternal(typeStr);
+    if (type != null) {
+      entry.type = type;
+    } else {
+      entry.typeMissEpoch = epoch;
+    }
+    return type;
+  }
+
+  /** See {@link VisitorState#getSymbolFromString(String)}. */
+  @Nullable ClassSymbol symbol(String symStr, VisitorState state) {
+    Entry entry = entry(symStr);
+    ClassSymbol symbol = entry.symbol;
+    boolean hit = symbol != null || entry.symbolMissEpoch == epoch;
+    recordAccess("SymbolLookupCache.symbol", hit);
+    if (hit) {
+      return symbol;
+    }
+    int epoch = this.epoch;
+    symbol = state.getSymbolFromName(entry.binaryName);
+    if (symbol != null) {
+      entry.symbol = symbol;
+    } else {
+      entry.symbolMissEpoch = epoch;
+    }
+    return symbol;
+  }
+
+  private void recordAccess(String cache, boolean hit) {
+    (hit ? hits : misses).increment();
+    timings.recordCacheAccess(cache, hit);
+  }
+
+  /** See {@link VisitorState#binaryNameFromClassname}. */
+  Name binaryName(String className) {
+    return entry(className).binaryName;
+  }
+
+  private Entry entry(String className) {
+    Entry entry = entries.get(className);
+    return entry != null
+        ? entry
+        : entries.computeIfAbsent(
+            className, k -> new Entry(names.fromString(VisitorState.inferBinaryName(k))));
+  }
+
+  /** What's known about one class name. */
+  private static final class Entry {
+    final Name binaryName;
+    volatile @Nullable Type type;
+    volatile @Nullable ClassSymbol symbol;
+    // The epoch in which the type or symbol was last looked up and not found, or 0.
+    volatile int typeMissEpoch;
+    volatile int symbolMissEpoch;
+
+    Entry(Name binaryName) {
+      this.binaryName = binaryName;
+    }
+  }
+
+  private final class EpochListener implements TaskListener {
+    @Override
+    public void finished(TaskEvent e) {
+      if (e.getKind() == TaskEvent.Kind.ENTER || e.getKind() == TaskEvent.Kind.ANALYZE) {
+        epoch++;
+      }
+    }
+  }
+}
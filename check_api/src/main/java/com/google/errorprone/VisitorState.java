@@ -20,7 +20,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.errorprone.BugPattern.SeverityLevel;
@@ -30,8 +29,13 @@ import com.google.errorprone.dataflow.nullnesspropagation.NullnessAnalysis;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Suppressible;
 import com.google.errorprone.suppliers.Supplier;
+import com.google.errorprone.util.CompilationUnitSource;
+import com.google.errorprone.util.CompilationUnitTokens;
 import com.google.errorprone.util.ErrorProneToken;
 import com.google.errorprone.util.ErrorProneTokens;
+import com.google.errorprone.util.SourceRange;
+import com.google.errorprone.util.SymbolUsageIndex;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Kinds.Kind;
@@ -56,10 +60,8 @@ import com.sun.tools.javac.util.Names;
 import com.sun.tools.javac.util.Options;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import javax.lang.model.util.Elements;
 import org.jspecify.annotations.Nullable;
 
@@ -356,14 +358,13 @@ public class VisitorState {
    * @return the {@link Type}, or null if it cannot be found
    */
   public @Nullable Type getTypeFromString(String typeStr) {
-    return sharedState
-        .typeCache
-        .computeIfAbsent(typeStr, key -> Optional.ofNullable(getTypeFromStringInternal(key)))
-        .orElse(null);
+    // Validate before the lookup, so that invalid strings don't get cache entries.
+    validateTypeStr(typeStr);
+    return sharedState.symbolLookupCache.type(typeStr, this);
   }
 
-  private @Nullable Type getTypeFromStringInternal(String typeStr) {
-    validateTypeStr(typeStr);
+  /** Looks up a type string that has already been validated, for {@link SymbolLookupCache}. */
+  @Nullable Type getTypeFromStringInternal(String typeStr) {
     Type primitiveOrVoidType = getPrimitiveOrVoidType(typeStr);
     if (primitiveOrVoidType != null) {
       return primitiveOrVoidType;
@@ -384,7 +385,7 @@ public class VisitorState {
    */
   // TODO(cushon): deal with binary compat issues and return ClassSymbol
   public @Nullable Symbol getSymbolFromString(String symStr) {
-    return getSymbolFromName(binaryNameFromClassname(symStr));
+    return sharedState.symbolLookupCache.symbol(symStr, this);
   }
 
   /**
@@ -393,7 +394,7 @@ public class VisitorState {
    * some string that is not a class name, see the more general {@link #getName(String)}.
    */
   public Name binaryNameFromClassname(String className) {
-    return getName(inferBinaryName(className));
+    return sharedState.symbolLookupCache.binaryName(className);
   }
 
   /**
@@ -402,20 +403,22 @@ public class VisitorState {
    * @param name the name to look up, which must be in binary form (i.e. with $ for nested classes).
    */
   public @Nullable ClassSymbol getSymbolFromName(Name name) {
-    boolean modular = sharedState.modules.getDefaultModule() != getSymtab().noModule;
-    if (!modular) {
-      return getSymbolFromString(getSymtab().noModule, name);
-    }
-    for (ModuleSymbol msym : sharedState.modules.allModules()) {
-      ClassSymbol result = getSymbolFromString(msym, name);
-      if (result != null) {
-        // TODO(cushon): the path where we iterate over all modules is probably slow.
-        // Try to learn some lessons from JDK-8189747, and consider disallowing this case and
-        // requiring users to call the getSymbolFromString(ModuleSymbol, Name) overload instead.
-        return result;
+    try (ErrorProneTimings.Span unused = sharedState.timings.facilitySpan("SymbolLookup")) {
+      boolean modular = sharedState.modules.getDefaultModule() != getSymtab().noModule;
+      if (!modular) {
+        return getSymbolFromString(getSymtab().noModule, name);
       }
+      for (ModuleSymbol msym : sharedState.modules.allModules()) {
+        ClassSymbol result = getSymbolFromString(msym, name);
+        if (result != null) {
+          // TODO(cushon): the path where we iterate over all modules is probably slow.
+          // Try to learn some lessons from JDK-8189747, and consider disallowing this case and
+          // requiring users to call the getSymbolFromString(ModuleSymbol, Name) overload instead.
+          return result;
+        }
+      }
+      return null;
     }
-    return null;
   }
 
   public @Nullable ClassSymbol getSymbolFromString(ModuleSymbol msym, Name name) {
@@ -441,7 +444,6 @@ public class VisitorState {
   // TODO(cushon): consider migrating call sites to use binary names and removing this code.
   // (But then we'd probably want error handling for probably-incorrect canonical names,
   // so it may not end up being a performance win.)
-  @VisibleForTesting
   static String inferBinaryName(String classname) {
     int len = classname.length();
     checkArgument(!classname.isEmpty(), "class name must be non-empty");
@@ -529,17 +531,57 @@ public class VisitorState {
     return (pathToEnclosing == null) ? null : (T) pathToEnclosing.getLeaf();
   }
 
+  /**
+   * Returns an index of the declarations in the current compilation unit and of the references and
+   * assignments to their symbols.
+   *
+   * <p>The index is built the first time it is requested and shared with every check that runs over
+   * the same compilation unit.
+   */
+  public SymbolUsageIndex getSymbolUsageIndex() {
+    CompilationUnitTree compilationUnit = getPath().getCompilationUnit();
+    SymbolUsageIndex index = sharedState.symbolUsageIndex;
+    if (index == null || index.compilationUnit() != compilationUnit) {
+      try (ErrorProneTimings.Span unused = sharedState.timings.facilitySpan("SymbolUsageIndex")) {
+        index = SymbolUsageIndex.create(compilationUnit);
+      }
+      sharedState.symbolUsageIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Gets the current source file.
    *
    * @return the source file as a sequence of characters, or null if it is not available
    */
   public @Nullable CharSequence getSourceCode() {
-    try {
-      return getPath().getCompilationUnit().getSourceFile().getCharContent(false);
-    } catch (IOException e) {
-      return null;
+    CompilationUnitSource source = getCompilationUnitSource();
+    return source != null ? source.all() : null;
+  }
+
+  /**
+   * Returns the source of the current compilation unit, which is read the first time it is
+   * requested and shared with every check that runs over the compilation unit, or null if it is not
+   * available.
+   */
+  private @Nullable CompilationUnitSource getCompilationUnitSource() {
+    CompilationUnitTree compilationUnit = getPath().getCompilationUnit();
+    CompilationUnitSource source = sharedState.compilationUnitSource;
+    if (source == null || source.compilationUnit() != compilationUnit) {
+      CharSequence content;
+      try {
+        content = compilationUnit.getSourceFile().getCharContent(false);
+      } catch (IOException e) {
+        return null;
+      }
+      if (content == null) {
+        return null;
+      }
+      source = CompilationUnitSource.create(compilationUnit, content);
+      sharedState.compilationUnitSource = source;
     }
+    return source;
   }
 
   /**
@@ -553,52 +595,109 @@ public class VisitorState {
    *     unavailable (e.g. for generated or desugared AST nodes)
    */
   public @Nullable String getSourceForNode(Tree tree) {
+    SourceRange source = getSourceRangeForNode(tree);
+    return source != null ? source.toString() : null;
+  }
+
+  /**
+   * Like {@link #getSourceForNode}, but returns a view of the source of the current compilation
+   * unit rather than a copy, for inspecting the source of a node without allocating a string.
+   *
+   * @return the source code that represents the node, or {@code null} if the source code is
+   *     unavailable (e.g. for generated or desugared AST nodes)
+   */
+  public @Nullable SourceRange getSourceRangeForNode(Tree tree) {
     int start = ((JCTree) tree).getStartPosition();
     int end = getEndPosition(tree);
-    CharSequence source = getSourceCode();
+    CompilationUnitSource source = getCompilationUnitSource();
     if (end == -1) {
       return null;
     }
     checkArgument(start >= 0, "invalid start position (%s) for: %s", start, tree);
     checkArgument(start < end, "invalid source positions (%s, %s) for: %s", start, end, tree);
-    checkArgument(end <= source.length(), "invalid end position (%s) for: %s", end, tree);
-    return source.subSequence(start, end).toString();
+    checkArgument(end <= source.all().length(), "invalid end position (%s) for: %s", end, tree);
+    return source.range(start, end);
+  }
+
+  /** Returns a view of the source of the current compilation unit between the given positions. */
+  public SourceRange getSourceRange(int start, int end) {
+    return getCompilationUnitSource().range(start, end);
   }
 
   /**
    * Returns the list of {@link Token}s for the given {@link JCTree}.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The current compilation unit is lexed the first time tokens are requested, and the tokens
+   * are shared with every check that runs over it.
    */
   public List<ErrorProneToken> getTokensForNode(Tree tree) {
-    return ErrorProneTokens.getTokens(getSourceForNode(tree), context);
+    String source = getSourceForNode(tree);
+    if (source != null) {
+      int start = getStartPosition(tree);
+      List<ErrorProneToken> tokens = getCachedTokens(start, start + source.length(), 0);
+      if (tokens != null) {
+        return tokens;
+      }
+    }
+    return ErrorProneTokens.getTokens(source, context);
   }
 
   /**
    * Returns the list of {@link Token}s for the given {@link JCTree}, offset by the start position
    * of the tree within the overall source.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The current compilation unit is lexed the first time tokens are requested, and the tokens
+   * are shared with every check that runs over it.
    */
   public List<ErrorProneToken> getOffsetTokensForNode(Tree tree) {
     int start = getStartPosition(tree);
-    return ErrorProneTokens.getTokens(getSourceForNode(tree), start, context);
+    String source = getSourceForNode(tree);
+    if (source != null) {
+      List<ErrorProneToken> tokens = getCachedTokens(start, start + source.length(), start);
+      if (tokens != null) {
+        return tokens;
+      }
+    }
+    return ErrorProneTokens.getTokens(source, start, context);
   }
 
   /**
    * Returns the list of {@link Token}s for source code between the given positions, offset by the
    * start position.
    *
-   * <p>This is moderately expensive (the source of the node has to be re-lexed), so it should only
-   * be used if a fix is already going to be emitted.
+   * <p>The current compilation unit is lexed the first time tokens are requested, and the tokens
+   * are shared with every check that runs over it.
    */
   public List<ErrorProneToken> getOffsetTokens(int start, int end) {
+    List<ErrorProneToken> tokens = getCachedTokens(start, end, start);
+    if (tokens != null) {
+      return tokens;
+    }
     return ErrorProneTokens.getTokens(
         getSourceCode().subSequence(start, end).toString(), start, context);
   }
 
+  /**
+   * Returns the tokens between the given positions of the current compilation unit, offset by
+   * {@code offset}, or null if they can't be sliced out of the compilation unit's tokens and the
+   * range has to be lexed on its own.
+   */
+  private @Nullable List<ErrorProneToken> getCachedTokens(int start, int end, int offset) {
+    CompilationUnitTree compilationUnit = getPath().getCompilationUnit();
+    CompilationUnitTokens tokens = sharedState.compilationUnitTokens;
+    if (tokens == null || tokens.compilationUnit() != compilationUnit) {
+      CharSequence source = getSourceCode();
+      if (source == null) {
+        return null;
+      }
+      try (ErrorProneTimings.Span unused = sharedState.timings.facilitySpan("Tokens")) {
+        tokens = CompilationUnitTokens.create(compilationUnit, source, context);
+      }
+      sharedState.compilationUnitTokens = tokens;
+    }
+    return tokens.tokens(start, end, offset);
+  }
+
   /** Returns the end position of the node, or -1 if it is not available. */
   public int getEndPosition(Tree node) {
     JCCompilationUnit compilationUnit = (JCCompilationUnit) getPath().getCompilationUnit();
@@ -648,7 +747,8 @@ public class VisitorState {
 
   /** Returns a timing span for the given {@link Suppressible}. */
   public AutoCloseable timingSpan(Suppressible suppressible) {
-    return sharedState.timings.span(suppressible);
+    return sharedState.timings.span(
+        suppressible, path == null ? null : path.getCompilationUnit().getSourceFile());
   }
 
   private static class Cache<T> implements Supplier<T> {
@@ -656,45 +756,50 @@ public class VisitorState {
     /* Uses T instead of Optional<T> because we don't want to cache null results
     (b/138753468). These inline caches persist between compilation units, and a type that fails to
     resolve in one may become available in the next; we want to keep looking it up
-    (relying on the per-file cache in typeCache) if we don't have a result. If you want to cache a
+    (relying on SymbolLookupCache) if we don't have a result. If you want to cache a
     computation which can return null, wrap it in an Optional at the call site.*/
 
-    private SoftReference<T> cache = new SoftReference<>(null);
-    private JavacInvocationInstance provenance;
+    /*
+     * Read without locking: a hit costs one volatile read and no allocation. The value and the
+     * javac invocation it was computed in are published together, so a reader never sees one
+     * without the other. Threads that miss concurrently may each compute the value, which is
+     * harmless since the supplier is expected to return the same result throughout a compilation.
+     */
+    private volatile @Nullable Entry<T> entry;
 
     private Cache(Supplier<T> impl) {
       this.impl = impl;
-      // provenance intentionally left null-initialized
     }
 
     @Override
-    public synchronized T get(VisitorState state) {
+    public T get(VisitorState state) {
+      JavacInvocationInstance current = state.sharedState.javacInvocationInstance;
+      Entry<T> entry = this.entry;
+      if (entry != null && entry.provenance == current) {
+        T value = entry.get();
+        if (value != null) {
+          return value;
+        }
+      }
       /*
        * Don't let callers rely on the TreePath: The Cache is shared across the whole compilation,
        * not just the current VisitorState's TreePath's CompilationUnit.
        */
-      state = state.withNoPathForMemoization();
-
-      /* javac is single-threaded, so in principle we don't really need to lock.
-      But in practice it's cheap enough to be worth getting peace of mind that this is
-      always correct. */
-      T value = cache.get();
-      if (value == null) {
-        value = impl.get(state);
-        if (value != null) {
-          cache = new SoftReference<>(value);
-          provenance = state.sharedState.javacInvocationInstance;
-        }
-      } else {
-        JavacInvocationInstance current = state.sharedState.javacInvocationInstance;
-        if (provenance != current) {
-          value = impl.get(state);
-          cache = new SoftReference<>(value);
-          provenance = current;
-        }
+      T value = impl.get(state.withNoPathForMemoization());
+      if (value != null) {
+        this.entry = new Entry<>(value, current);
       }
       return value;
     }
+
+    private static final class Entry<T> extends SoftReference<T> {
+      private final JavacInvocationInstance provenance;
+
+      Entry(T value, JavacInvocationInstance provenance) {
+        super(value);
+        this.provenance = provenance;
+      }
+    }
   }
 
   /**
@@ -729,10 +834,11 @@ public class VisitorState {
     private final Map<String, SeverityLevel> severityMap;
     private final ErrorProneOptions errorProneOptions;
 
-    // TODO(ronshapiro): should we presize this with a reasonable size? We can check for the
-    // smallest build and see how many types are loaded and use that. Or perhaps a heuristic
-    // based on number of files?
-    private final Map<String, Optional<Type>> typeCache = new HashMap<>();
+    private final SymbolLookupCache symbolLookupCache;
+
+    private @Nullable SymbolUsageIndex symbolUsageIndex;
+    private @Nullable CompilationUnitTokens compilationUnitTokens;
+    private @Nullable CompilationUnitSource compilationUnitSource;
 
     SharedState(
         Context context,
@@ -747,6 +853,7 @@ public class VisitorState {
       this.types = Types.instance(context);
       this.treeMaker = TreeMaker.instance(context);
       this.javacInvocationInstance = JavacInvocationInstance.instance(context);
+      this.symbolLookupCache = SymbolLookupCache.instance(context);
 
       this.descriptionListener = descriptionListener;
       this.statisticsCollector = statisticsCollector;
@@ -49,6 +49,7 @@ public final class DescriptionBasedDiff implements DescriptionListener, Diff {
   private final EndPosTable endPositions;
   private final Replacements replacements = new Replacements();
   private final ImportOrganizer importOrganizer;
+  private boolean importsResolved = false;
 
   public static DescriptionBasedDiff create(
       JCCompilationUnit compilationUnit, ImportOrganizer importOrganizer) {
@@ -97,19 +98,26 @@ public final class DescriptionBasedDiff implements DescriptionListener, Diff {
   public void handleFix(Fix fix) {
     importsToAdd.addAll(fix.getImportsToAdd());
     importsToRemove.addAll(fix.getImportsToRemove());
+    if (ignoreOverlappingFixes) {
+      replacements.addAllIgnoringConflicts(
+          fix.getReplacements(endPositions), fix.getCoalescePolicy());
+      return;
+    }
     for (Replacement replacement : fix.getReplacements(endPositions)) {
-      try {
-        replacements.add(replacement, fix.getCoalescePolicy());
-      } catch (IllegalArgumentException iae) {
-        if (!ignoreOverlappingFixes) {
-          throw iae;
-        }
-      }
+      replacements.add(replacement, fix.getCoalescePolicy());
     }
   }
 
-  @Override
-  public void applyDifferences(SourceFile sourceFile) {
+  /**
+   * Adds the change to the compilation unit's imports, if any, to the replacements. This reads the
+   * compilation unit, so a diff that is applied on another thread should have this called on
+   * javac's thread first; {@link #applyDifferences} then only reads the replacements.
+   */
+  public void resolveImports() {
+    if (importsResolved) {
+      return;
+    }
+    importsResolved = true;
     if (!importsToAdd.isEmpty() || !importsToRemove.isEmpty()) {
       ImportStatements importStatements = ImportStatements.create(compilationUnit, importOrganizer);
       importStatements.addAll(importsToAdd);
@@ -123,6 +131,11 @@ public final class DescriptionBasedDiff implements DescriptionListener, Diff {
             Replacements.CoalescePolicy.REPLACEMENT_FIRST);
       }
     }
+  }
+
+  @Override
+  public void applyDifferences(SourceFile sourceFile) {
+    resolveImports();
     sourceFile.makeReplacements(replacements);
   }
 }
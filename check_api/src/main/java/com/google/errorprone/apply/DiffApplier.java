@@ -16,9 +16,11 @@ package com.google.errorprone.apply;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.AbstractService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -62,14 +64,19 @@ public class DiffApplier extends AbstractService {
     this.stopwatch = Stopwatch.createUnstarted();
     // configure a bounded queue and a rejectedexecutionpolicy.
     // In this case CallerRuns may be appropriate.
-    this.workerService =
+    // Core threads time out, so that up to diffParallelism threads are started before diffs are
+    // queued without keeping them alive once the work dries up.
+    ThreadPoolExecutor workerService =
         new ThreadPoolExecutor(
-            0,
+            diffParallelism,
             diffParallelism,
             5,
             TimeUnit.SECONDS,
             new ArrayBlockingQueue<Runnable>(50),
+            new ThreadFactoryBuilder().setNameFormat("diff-applier-%d").setDaemon(true).build(),
             new ThreadPoolExecutor.CallerRunsPolicy());
+    workerService.allowCoreThreadTimeOut(true);
+    this.workerService = workerService;
   }
 
   @Override
@@ -94,7 +101,7 @@ public class DiffApplier extends AbstractService {
         notifyFailed(e);
       }
       logger.log(
-          Level.INFO, String.format("Completed %d files in %s", completedFiles.get(), stopwatch));
+          Level.FINE, String.format("Completed %d files in %s", completedFiles.get(), stopwatch));
       if (!diffsFailedPaths.isEmpty()) {
         logger.log(
             Level.SEVERE,
@@ -121,7 +128,7 @@ public class DiffApplier extends AbstractService {
 
         int completed = completedFiles.incrementAndGet();
         if (completed % 100 == 0) {
-          logger.log(Level.INFO, String.format("Completed %d files in %s", completed, stopwatch));
+          logger.log(Level.FINE, String.format("Completed %d files in %s", completed, stopwatch));
         }
       } catch (IOException | RuntimeException e) {
         logger.log(Level.WARNING, "Failed to apply diff to file " + diff.getRelevantFileName(), e);
@@ -132,6 +139,14 @@ public class DiffApplier extends AbstractService {
     }
   }
 
+  /**
+   * Returns the paths of the files that diffs failed to apply to. Complete once the service has
+   * terminated.
+   */
+  public ImmutableSet<String> failedPaths() {
+    return ImmutableSet.copyOf(diffsFailedPaths);
+  }
+
   public @Nullable Future<?> put(Diff diff) {
     if (refactoredPaths.add(diff.getRelevantFileName())) {
       runState.incrementAndGet();
@@ -23,17 +23,24 @@ import com.github.difflib.UnifiedDiffUtils;
 import com.github.difflib.patch.Patch;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.fixes.Replacement;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A {@link FileDestination} that writes a unix-patch file to {@code rootPath} containing the
  * suggested changes.
+ *
+ * <p>Files may be written concurrently. If a patch file was given, {@link #flush} replaces it with
+ * the diffs of every file written so far, sorted by path.
  */
 public final class PatchFileDestination implements FileDestination {
 
@@ -41,37 +48,77 @@ public final class PatchFileDestination implements FileDestination {
   // a bit funky.
   private static final Splitter LINE_SPLITTER = Splitter.on('\n');
 
+  /** The number of unchanged lines shown around each change. */
+  private static final int CONTEXT_SIZE = 2;
+
   private final Path baseDir;
   private final Path rootPath;
+  private final FileSource originalSource;
+  private final @Nullable Path patchFile;
   // Path -> Unified Diff, sorted by path
-  private final Map<URI, String> diffByFile = new TreeMap<>();
+  private final Map<URI, String> diffByFile = new ConcurrentSkipListMap<>();
 
   public PatchFileDestination(Path baseDir, Path rootPath) {
+    this(baseDir, rootPath, new FsFileSource(rootPath), /* patchFile= */ null);
+  }
+
+  /**
+   * @param originalSource the unmodified sources that diffs are computed against
+   * @param patchFile the file that {@link #flush} writes the patch to, if any
+   */
+  public PatchFileDestination(
+      Path baseDir, Path rootPath, FileSource originalSource, @Nullable Path patchFile) {
     this.baseDir = baseDir;
     this.rootPath = rootPath;
+    this.originalSource = originalSource;
+    this.patchFile = patchFile;
   }
 
   @Override
   public void writeFile(SourceFile update) throws IOException {
     Path sourceFilePath = rootPath.resolve(update.getPath());
-    String oldSource = new String(Files.readAllBytes(sourceFilePath), UTF_8);
-    String newSource = update.getSourceText();
-    if (!oldSource.equals(newSource)) {
-      List<String> originalLines = LINE_SPLITTER.splitToList(oldSource);
-
-      Patch<String> diff = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
-      String relativePath = baseDir.relativize(sourceFilePath).toString();
-      List<String> unifiedDiff =
-          UnifiedDiffUtils.generateUnifiedDiff(relativePath, relativePath, originalLines, diff, 2);
-      String diffString = Joiner.on("\n").join(unifiedDiff) + "\n";
+    String relativePath = baseDir.relativize(sourceFilePath).toString();
+    CharSequence oldSource = originalSource.readFile(update.getPath()).getAsSequence();
+    ImmutableSet<Replacement> replacements = update.appliedReplacements();
+    String diffString;
+    if (replacements != null) {
+      // Only the lines that the replacements touch need to be compared.
+      diffString = UnifiedDiff.generate(relativePath, oldSource, replacements, CONTEXT_SIZE);
+    } else {
+      diffString = diff(relativePath, oldSource.toString(), update.getSourceText());
+    }
+    if (!diffString.isEmpty()) {
       diffByFile.put(sourceFilePath.toUri(), diffString);
     }
   }
 
+  private static String diff(String relativePath, String oldSource, String newSource) {
+    if (oldSource.equals(newSource)) {
+      return "";
+    }
+    List<String> originalLines = LINE_SPLITTER.splitToList(oldSource);
+    Patch<String> diff = DiffUtils.diff(originalLines, LINE_SPLITTER.splitToList(newSource));
+    List<String> unifiedDiff =
+        UnifiedDiffUtils.generateUnifiedDiff(
+            relativePath, relativePath, originalLines, diff, CONTEXT_SIZE);
+    return Joiner.on("\n").join(unifiedDiff) + "\n";
+  }
+
   public String patchFile(URI uri) {
     return diffByFile.remove(uri);
   }
 
   @Override
-  public void flush() throws IOException {}
+  public void flush() throws IOException {
+    if (patchFile == null || diffByFile.isEmpty()) {
+      return;
+    }
+    Files.createDirectories(patchFile.getParent());
+    try (BufferedWriter writer = Files.newBufferedWriter(patchFile, UTF_8)) {
+      for (String diff : diffByFile.values()) {
+        writer.write(diff);
+      }
+    }
+    diffByFile.clear();
+  }
 }
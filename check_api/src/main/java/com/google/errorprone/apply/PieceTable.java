@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.apply;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Mutable text stored as a piece table.
+ *
+ * <p>The text is a sequence of pieces, each a slice of either the original text or of an
+ * append-only buffer holding every inserted string. The pieces are kept in a treap ordered by
+ * position, with the length and number of {@code '\n'}s of each subtree, so that replacing a range,
+ * reading a character, and finding the start of a line all take logarithmic time in the number of
+ * pieces. Both buffers index their line breaks up front, so a piece's line breaks never have to be
+ * scanned for.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class PieceTable {
+
+  private final Buffer original;
+  private final Buffer added = new Buffer(new StringBuilder());
+  private final SplittableRandom priorities = new SplittableRandom(0);
+  private @Nullable Node root;
+  private boolean mayContainCarriageReturn;
+
+  // The node containing the last character read by charAt, and the position of its first
+  // character, to make sequential reads cheap. Invalidated by every edit.
+  private @Nullable Node lastRead;
+  private int lastReadStart;
+
+  PieceTable(CharSequence text) {
+    String string = text.toString();
+    this.original = new Buffer(string);
+    original.indexLineBreaks(0);
+    this.root = string.isEmpty() ? null : newNode(original, 0, string.length());
+    this.mayContainCarriageReturn = string.indexOf('\r') >= 0;
+  }
+
+  int length() {
+    return length(root);
+  }
+
+  /** The number of {@code '\n'} characters in the text. */
+  int lineBreaks() {
+    return lineBreaks(root);
+  }
+
+  /**
+   * Whether the text may contain a {@code '\r'}, in which case line numbers based on {@code '\n'}
+   * alone may not be accurate.
+   */
+  boolean mayContainCarriageReturn() {
+    return mayContainCarriageReturn;
+  }
+
+  char charAt(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException(
+          String.format("index %d out of bounds for length %d", index, length()));
+    }
+    Node cached = lastRead;
+    if (cached != null && index >= lastReadStart && index < lastReadStart + cached.length) {
+      return cached.buffer.chars.charAt(cached.start + index - lastReadStart);
+    }
+    Node node = root;
+    int offset = 0;
+    while (true) {
+      int leftLength = length(node.left);
+      if (index < offset + leftLength) {
+        node = node.left;
+      } else if (index < offset + leftLength + node.length) {
+        offset += leftLength;
+        lastRead = node;
+        lastReadStart = offset;
+        return node.buffer.chars.charAt(node.start + index - offset);
+      } else {
+        offset += leftLength + node.length;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * The position of the first character of the given line, counting from zero, where lines are
+   * separated by {@code '\n'}.
+   */
+  int lineStart(int line) {
+    if (line <= 0) {
+      return 0;
+    }
+    if (line > lineBreaks()) {
+      throw new IndexOutOfBoundsException(
+          String.format("line %d out of bounds for %d lines", line, lineBreaks() + 1));
+    }
+    // Find the line-th line break.
+    int remaining = line;
+    Node node = root;
+    int offset = 0;
+    while (true) {
+      int leftBreaks = lineBreaks(node.left);
+      if (remaining <= leftBreaks) {
+        node = node.left;
+        continue;
+      }
+      remaining -= leftBreaks;
+      offset += length(node.left);
+      if (remaining <= node.lineBreaks) {
+        return offset + node.buffer.lineBreak(node.start, remaining) - node.start + 1;
+      }
+      remaining -= node.lineBreaks;
+      offset += node.length;
+      node = node.right;
+    }
+  }
+
+  /** Appends the characters in {@code [start, end)} to {@code sb}. */
+  void appendTo(StringBuilder sb, int start, int end) {
+    checkPositionIndexes(start, end, length());
+    appendTo(sb, root, 0, start, end);
+  }
+
+  private static void appendTo(
+      StringBuilder sb, @Nullable Node node, int offset, int start, int end) {
+    while (node != null && start < end) {
+      int leftLength = length(node.left);
+      int pieceStart = offset + leftLength;
+      int pieceEnd = pieceStart + node.length;
+      if (start < pieceStart) {
+        appendTo(sb, node.left, offset, start, Math.min(end, pieceStart));
+      }
+      if (start < pieceEnd && end > pieceStart) {
+        int from = Math.max(start, pieceStart) - pieceStart + node.start;
+        int to = Math.min(end, pieceEnd) - pieceStart + node.start;
+        sb.append(node.buffer.chars, from, to);
+      }
+      // Continue with the right subtree iteratively, to bound the recursion by the tree's depth.
+      offset = pieceEnd;
+      start = Math.max(start, pieceEnd);
+      node = node.right;
+    }
+  }
+
+  /** Replaces the characters in {@code [start, end)} with {@code replacement}. */
+  void replace(int start, int end, CharSequence replacement) {
+    checkPositionIndexes(start, end, length());
+    lastRead = null;
+    Node[] split = split(root, start);
+    Node before = split[0];
+    split = split(split[1], end - start);
+    Node after = split[1];
+    Node inserted = null;
+    if (replacement.length() > 0) {
+      int bufferStart = added.chars.length();
+      ((StringBuilder) added.chars).append(replacement);
+      added.indexLineBreaks(bufferStart);
+      inserted = newNode(added, bufferStart, replacement.length());
+      for (int i = 0; i < replacement.length() && !mayContainCarriageReturn; i++) {
+        mayContainCarriageReturn = replacement.charAt(i) == '\r';
+      }
+    }
+    root = merge(merge(before, inserted), after);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(length());
+    appendTo(sb, 0, length());
+    return sb.toString();
+  }
+
+  /** Splits the tree into the nodes for the first {@code position} characters and the rest. */
+  private @Nullable Node[] split(@Nullable Node node, int position) {
+    if (node == null) {
+      return new Node[2];
+    }
+    int leftLength = length(node.left);
+    if (position <= leftLength) {
+      Node[] split = split(node.left, position);
+      node.left = split[1];
+      node.update();
+      split[1] = node;
+      return split;
+    }
+    if (position >= leftLength + node.length) {
+      Node[] split = split(node.right, position - leftLength - node.length);
+      node.right = split[0];
+      node.update();
+      split[0] = node;
+      return split;
+    }
+    // The position is inside this node's piece, so split the piece in two.
+    int offset = position - leftLength;
+    Node head = newNode(node.buffer, node.start, offset);
+    Node tail = newNode(node.buffer, node.start + offset, node.length - offset);
+    return new Node[] {merge(node.left, head), merge(tail, node.right)};
+  }
+
+  private static @Nullable Node merge(@Nullable Node left, @Nullable Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    }
+    right.left = merge(left, right.left);
+    right.update();
+    return right;
+  }
+
+  private Node newNode(Buffer buffer, int start, int length) {
+    return new Node(buffer, start, length, priorities.nextInt());
+  }
+
+  private static int length(@Nullable Node node) {
+    return node == null ? 0 : node.totalLength;
+  }
+
+  private static int lineBreaks(@Nullable Node node) {
+    return node == null ? 0 : node.totalLineBreaks;
+  }
+
+  /** Characters that pieces refer to, and the positions of the line breaks among them. */
+  private static final class Buffer {
+    final CharSequence chars;
+    private int[] lineBreaks = new int[16];
+    private int lineBreakCount;
+
+    Buffer(CharSequence chars) {
+      this.chars = chars;
+    }
+
+    /** Records the line breaks at or after {@code start}, which must follow all recorded ones. */
+    void indexLineBreaks(int start) {
+      for (int i = start; i < chars.length(); i++) {
+        if (chars.charAt(i) == '\n') {
+          if (lineBreakCount == lineBreaks.length) {
+            lineBreaks = Arrays.copyOf(lineBreaks, lineBreakCount * 2);
+          }
+          lineBreaks[lineBreakCount++] = i;
+        }
+      }
+    }
+
+    /** The number of line breaks before {@code position}. */
+    int lineBreaksBefore(int position) {
+      int index = Arrays.binarySearch(lineBreaks, 0, lineBreakCount, position);
+      return index >= 0 ? index : -index - 1;
+    }
+
+    /** The position of the {@code n}th line break at or after {@code start}, counting from one. */
+    int lineBreak(int start, int n) {
+      return lineBreaks[lineBreaksBefore(start) + n - 1];
+    }
+  }
+
+  private static final class Node {
+    final Buffer buffer;
+    final int start;
+    final int length;
+    final int lineBreaks;
+    final int priority;
+    @Nullable Node left;
+    @Nullable Node right;
+    int totalLength;
+    int totalLineBreaks;
+
+    Node(Buffer buffer, int start, int length, int priority) {
+      this.buffer = buffer;
+      this.start = start;
+      this.length = length;
+      this.lineBreaks = buffer.lineBreaksBefore(start + length) - buffer.lineBreaksBefore(start);
+      this.priority = priority;
+      update();
+    }
+
+    void update() {
+      totalLength = length(left) + length + length(right);
+      totalLineBreaks = lineBreaks(left) + lineBreaks + lineBreaks(right);
+    }
+  }
+}
@@ -17,25 +17,28 @@
 package com.google.errorprone.apply;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.io.CharSource;
 import com.google.errorprone.fixes.Replacement;
 import com.google.errorprone.fixes.Replacements;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.StringReader;
-import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import javax.tools.JavaFileObject;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Representation of a mutable Java source file.
  *
+ * <p>The source is held in a {@link PieceTable}, so edits and line lookups take time logarithmic in
+ * the number of edits made so far rather than linear in the size of the file.
+ *
  * <p>This class is not thread-safe.
  *
  * @author sjnickerson@google.com (Simon Nickerson)
@@ -44,7 +47,11 @@ import javax.tools.JavaFileObject;
 public class SourceFile {
 
   private final String path;
-  private final StringBuilder sourceBuilder;
+  private PieceTable text;
+
+  // The replacements that turned the text this file was created with into its current text, or
+  // null if it has been edited some other way.
+  private @Nullable ImmutableSet<Replacement> appliedReplacements = ImmutableSet.of();
 
   public static SourceFile create(JavaFileObject fileObject) throws IOException {
     return new SourceFile(fileObject.toUri().getPath(), fileObject.getCharContent(false));
@@ -52,7 +59,7 @@ public class SourceFile {
 
   public SourceFile(String path, CharSequence source) {
     this.path = path;
-    sourceBuilder = new StringBuilder(source);
+    this.text = new PieceTable(source);
   }
 
   /** Returns the path for this source file */
@@ -63,7 +70,7 @@ public class SourceFile {
   /** Returns a copy of code as a list of lines. */
   public List<String> getLines() {
     try {
-      return CharSource.wrap(sourceBuilder).readLines();
+      return CharSource.wrap(getAsSequence()).readLines();
     } catch (IOException e) {
       throw new AssertionError("IOException not possible, as the string is in-memory", e);
     }
@@ -71,17 +78,20 @@ public class SourceFile {
 
   /** Returns a copy of the code as a string. */
   public String getSourceText() {
-    return sourceBuilder.toString();
+    return text.toString();
   }
 
+  /**
+   * Returns a read-only view of the code, which reflects any later changes to it without copying.
+   */
   public CharSequence getAsSequence() {
-    return CharBuffer.wrap(sourceBuilder).asReadOnlyBuffer();
+    return new View(0, -1);
   }
 
   /** Clears the current source test for this SourceFile and resets it to the passed-in value. */
   public void setSourceText(CharSequence source) {
-    sourceBuilder.setLength(0); // clear StringBuilder
-    sourceBuilder.append(source);
+    appliedReplacements = null;
+    text = new PieceTable(source);
   }
 
   /**
@@ -91,7 +101,13 @@ public class SourceFile {
    * and end parameters.
    */
   public String getFragmentByChars(int startPosition, int endPosition) {
-    return sourceBuilder.substring(startPosition, endPosition);
+    if (startPosition < 0 || startPosition > endPosition || endPosition > text.length()) {
+      throw new StringIndexOutOfBoundsException(
+          String.format("start %d, end %d, length %d", startPosition, endPosition, text.length()));
+    }
+    StringBuilder fragment = new StringBuilder(endPosition - startPosition);
+    text.appendTo(fragment, startPosition, endPosition);
+    return fragment.toString();
   }
 
   /**
@@ -102,11 +118,21 @@ public class SourceFile {
    */
   public String getFragmentByLines(int startLine, int endLine) {
     Preconditions.checkArgument(startLine <= endLine);
-    return Joiner.on("\n").join(getLines(startLine, endLine)) + "\n";
+    if (text.mayContainCarriageReturn()) {
+      return Joiner.on("\n").join(getLines(startLine, endLine)) + "\n";
+    }
+    startLine = Math.max(startLine, 1);
+    endLine = Math.min(endLine, lineCount());
+    if (startLine > endLine) {
+      return "\n";
+    }
+    StringBuilder fragment = new StringBuilder();
+    text.appendTo(fragment, text.lineStart(startLine - 1), lineEnd(endLine));
+    return fragment.append('\n').toString();
   }
 
   private List<String> getLines(int startLine, int endLine) {
-    LineNumberReader reader = new LineNumberReader(new StringReader(sourceBuilder.toString()));
+    LineNumberReader reader = new LineNumberReader(new StringReader(text.toString()));
     List<String> lines = new ArrayList<>(endLine - startLine + 1);
     String line;
     try {
@@ -124,27 +150,60 @@ public class SourceFile {
     }
   }
 
+  /**
+   * The number of lines, as counted by {@link #getLines()}: a final line break doesn't start a new
+   * line. Only valid if the text contains no {@code '\r'}.
+   */
+  private int lineCount() {
+    int length = text.length();
+    return text.lineBreaks() + (length > 0 && text.charAt(length - 1) != '\n' ? 1 : 0);
+  }
+
+  /** The position of the end of the given line, counting from one, excluding its line break. */
+  private int lineEnd(int line) {
+    return line < text.lineBreaks() + 1 ? text.lineStart(line) - 1 : text.length();
+  }
+
   /** Replace the source code with the new lines of code. */
   public void replaceLines(List<String> lines) {
-    sourceBuilder.replace(0, sourceBuilder.length(), Joiner.on("\n").join(lines) + "\n");
+    setSourceText(Joiner.on("\n").join(lines) + "\n");
   }
 
   /** Replace the source code between the start and end lines with some new lines of code. */
   public void replaceLines(int startLine, int endLine, List<String> replacementLines) {
     Preconditions.checkArgument(startLine <= endLine);
-    List<String> originalLines = getLines();
-    List<String> newLines = new ArrayList<>();
-    for (int i = 0; i < originalLines.size(); i++) {
-      int lineNum = i + 1;
-      if (lineNum == startLine) {
-        newLines.addAll(replacementLines);
-      } else if (lineNum > startLine && lineNum <= endLine) {
-        // Skip
-      } else {
-        newLines.add(originalLines.get(i));
+    if (text.mayContainCarriageReturn()) {
+      List<String> originalLines = getLines();
+      List<String> newLines = new ArrayList<>();
+      for (int i = 0; i < originalLines.size(); i++) {
+        int lineNum = i + 1;
+        if (lineNum == startLine) {
+          newLines.addAll(replacementLines);
+        } else if (lineNum > startLine && lineNum <= endLine) {
+          // Skip
+        } else {
+          newLines.add(originalLines.get(i));
+        }
       }
+      replaceLines(newLines);
+      return;
+    }
+    appliedReplacements = null;
+    int lineCount = lineCount();
+    if (startLine >= 1 && startLine <= lineCount) {
+      int lastLine = Math.min(endLine, lineCount);
+      int start = text.lineStart(startLine - 1);
+      int end = lastLine <= text.lineBreaks() ? text.lineStart(lastLine) : text.length();
+      text.replace(
+          start,
+          end,
+          replacementLines.isEmpty() ? "" : Joiner.on("\n").join(replacementLines) + "\n");
+    }
+    // Like replaceLines(List), always end the file with a line break.
+    int length = text.length();
+    if (length == 0 || text.charAt(length - 1) != '\n') {
+      text.replace(length, length, "\n");
     }
-    replaceLines(newLines);
   }
 
   /**
@@ -154,60 +213,83 @@ public class SourceFile {
    * and end parameters.
    */
   public void replaceChars(int startPosition, int endPosition, String replacement) {
-    try {
-      sourceBuilder.replace(startPosition, endPosition, replacement);
-    } catch (StringIndexOutOfBoundsException e) {
+    appliedReplacements = null;
+    if (startPosition < 0 || startPosition > text.length() || startPosition > endPosition) {
       throw new IndexOutOfBoundsException(
           String.format(
               "Replacement cannot be made. Source file %s has length %d, requested start "
                   + "position %d, requested end position %d, replacement %s",
-              path, sourceBuilder.length(), startPosition, endPosition, replacement));
+              path, text.length(), startPosition, endPosition, replacement));
     }
+    text.replace(startPosition, Math.min(endPosition, text.length()), replacement);
+  }
+
+  /**
+   * Returns the replacements, in ascending order, that turned the text this file was created with
+   * into its current text; or null if it was also edited some other way, or by more than one call
+   * to {@link #makeReplacements}.
+   */
+  @Nullable ImmutableSet<Replacement> appliedReplacements() {
+    return appliedReplacements;
   }
 
   void makeReplacements(Replacements changes) {
-    ImmutableSet<Replacement> replacements = changes.ascending();
-    switch (replacements.size()) {
-      case 0 -> {
-        return;
-      }
-      case 1 -> {
-        Replacement onlyReplacement = Iterables.getOnlyElement(replacements);
-        replaceChars(
-            onlyReplacement.startPosition(),
-            onlyReplacement.endPosition(),
-            onlyReplacement.replaceWith());
-        return;
+    List<Replacement> replacements = changes.ascendingView();
+    if (replacements.isEmpty()) {
+      return;
+    }
+    boolean unedited = appliedReplacements != null && appliedReplacements.isEmpty();
+    // The replacements don't overlap, so the last one ends last.
+    Replacement last = replacements.get(replacements.size() - 1);
+    checkArgument(
+        last.endPosition() <= text.length(),
+        "End [%s] should not exceed source length [%s]",
+        last.endPosition(),
+        text.length());
+    // Shift each replacement by how much the ones before it changed the length of the text.
+    int shift = 0;
+    for (Replacement repl : replacements) {
+      text.replace(repl.startPosition() + shift, repl.endPosition() + shift, repl.replaceWith());
+      shift += repl.replaceWith().length() - repl.length();
+    }
+    appliedReplacements = unedited ? ImmutableSet.copyOf(replacements) : null;
+  }
+
+  /** A read-only view of the current text, or of a range of it if {@code end} isn't -1. */
+  private final class View implements CharSequence {
+    private final int start;
+    private final int end;
+
+    View(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return (end == -1 ? text.length() : end) - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException(
+            String.format("index %d out of bounds for length %d", index, length()));
       }
-      default -> {}
+      return text.charAt(start + index);
     }
 
-    // Since we have many replacements to make all at once, it's better to start off with a clean
-    // slate, rather than make multiple separate replacements which each require shifting around
-    // the tail of our sourceBuilder. If we do them all at once, we can work forward from the
-    // beginning of the tile, so that each new replacement does not affect any previous
-    // replacements.
-    StringBuilder newContent = new StringBuilder();
-    int positionInOriginal = 0;
-    for (Replacement repl : replacements) {
-      checkArgument(
-          repl.endPosition() <= sourceBuilder.length(),
-          "End [%s] should not exceed source length [%s]",
-          repl.endPosition(),
-          sourceBuilder.length());
-
-      // Write the unmodified content leading up to this change
-      newContent.append(sourceBuilder, positionInOriginal, repl.startPosition());
-      // And the modified content for this change
-      newContent.append(repl.replaceWith());
-      // Then skip everything from source between start and end
-      positionInOriginal = repl.endPosition();
-    }
-    // Flush out any remaining content after the final change
-    newContent.append(sourceBuilder, positionInOriginal, sourceBuilder.length());
-    // Overwrite the contents of our old buffer. Note we mutate the existing StringBuilder rather
-    // than replacing it, because other clients may have a view of the content via getAsSequence,
-    // and we want that view to reflect the new content.
-    setSourceText(newContent);
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      checkPositionIndexes(from, to, length());
+      return new View(start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(length());
+      text.appendTo(sb, start, start + length());
+      return sb.toString();
+    }
   }
 }
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.apply;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Splitter;
+import com.google.errorprone.fixes.Replacement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates unified diffs directly from the {@link Replacement}s that were applied to a file.
+ *
+ * <p>Unlike a general-purpose diff, this never compares the whole of the old and new files: the
+ * replacements already say which characters changed, so only the lines they touch (plus context)
+ * are materialized. Each changed region is trimmed of leading and trailing lines that the
+ * replacements left untouched, and regions close enough to share context are merged into a single
+ * hunk, in the same format as {@code UnifiedDiffUtils.generateUnifiedDiff}.
+ */
+final class UnifiedDiff {
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n');
+
+  private UnifiedDiff() {}
+
+  /**
+   * Returns the unified diff between {@code original} and the result of applying {@code
+   * replacements} to it, or an empty string if they leave it unchanged. Lines are separated by
+   * {@code '\n'}.
+   *
+   * @param replacements non-overlapping replacements, in ascending order
+   */
+  static String generate(
+      String path, CharSequence original, Iterable<Replacement> replacements, int contextSize) {
+    int[] lineStarts = lineStarts(original);
+    List<Delta> deltas = new ArrayList<>();
+    List<Replacement> region = new ArrayList<>();
+    int regionFirstLine = -1;
+    int regionLastLine = -1;
+    int previousEnd = 0;
+    for (Replacement replacement : replacements) {
+      checkArgument(
+          replacement.startPosition() >= previousEnd
+              && replacement.endPosition() <= original.length(),
+          "Replacements must be ascending, non-overlapping and within the file: %s",
+          replacement);
+      previousEnd = replacement.endPosition();
+      int firstLine = lineOf(lineStarts, replacement.startPosition());
+      int lastLine = lineOf(lineStarts, replacement.endPosition());
+      if (!region.isEmpty() && firstLine > regionLastLine) {
+        addDelta(deltas, original, lineStarts, regionFirstLine, regionLastLine, region);
+        region.clear();
+      }
+      if (region.isEmpty()) {
+        regionFirstLine = firstLine;
+      }
+      regionLastLine = lastLine;
+      region.add(replacement);
+    }
+    if (!region.isEmpty()) {
+      addDelta(deltas, original, lineStarts, regionFirstLine, regionLastLine, region);
+    }
+    if (deltas.isEmpty()) {
+      return "";
+    }
+
+    StringBuilder patch = new StringBuilder();
+    patch.append("--- ").append(path).append('\n');
+    patch.append("+++ ").append(path).append('\n');
+    int lineDelta = 0;
+    int hunkStart = 0;
+    for (int i = 1; i <= deltas.size(); i++) {
+      if (i == deltas.size()
+          || deltas.get(i - 1).end() + contextSize < deltas.get(i).position - contextSize) {
+        lineDelta =
+            appendHunk(
+                patch, original, lineStarts, deltas.subList(hunkStart, i), contextSize, lineDelta);
+        hunkStart = i;
+      }
+    }
+    return patch.toString();
+  }
+
+  /**
+   * Appends a hunk covering the given deltas, and returns the difference in line count between the
+   * new and old files after it.
+   */
+  private static int appendHunk(
+      StringBuilder patch,
+      CharSequence original,
+      int[] lineStarts,
+      List<Delta> deltas,
+      int contextSize,
+      int lineDelta) {
+    StringBuilder body = new StringBuilder();
+    int oldTotal = 0;
+    int newTotal = 0;
+    int contextStart = Math.max(0, deltas.get(0).position - contextSize);
+    int line = contextStart;
+    for (Delta delta : deltas) {
+      for (; line < delta.position; line++) {
+        body.append(' ').append(line(original, lineStarts, line)).append('\n');
+        oldTotal++;
+        newTotal++;
+      }
+      for (String removed : delta.oldLines) {
+        body.append('-').append(removed).append('\n');
+      }
+      for (String added : delta.newLines) {
+        body.append('+').append(added).append('\n');
+      }
+      oldTotal += delta.oldLines.size();
+      newTotal += delta.newLines.size();
+      line = delta.end();
+    }
+    int contextEnd = Math.min(line + contextSize, lineStarts.length);
+    for (; line < contextEnd; line++) {
+      body.append(' ').append(line(original, lineStarts, line)).append('\n');
+      oldTotal++;
+      newTotal++;
+    }
+    patch
+        .append("@@ -")
+        .append(contextStart + 1)
+        .append(',')
+        .append(oldTotal)
+        .append(" +")
+        .append(contextStart + lineDelta + 1)
+        .append(',')
+        .append(newTotal)
+        .append(" @@\n")
+        .append(body);
+    return lineDelta + newTotal - oldTotal;
+  }
+
+  /**
+   * Records the change that {@code replacements} make to the old lines {@code firstLine} through
+   * {@code lastLine}, inclusive, excluding any lines they leave as they were.
+   */
+  private static void addDelta(
+      List<Delta> deltas,
+      CharSequence original,
+      int[] lineStarts,
+      int firstLine,
+      int lastLine,
+      List<Replacement> replacements) {
+    int regionStart = lineStarts[firstLine];
+    int regionEnd = lineEnd(original, lineStarts, lastLine);
+    StringBuilder updated = new StringBuilder();
+    int position = regionStart;
+    for (Replacement replacement : replacements) {
+      updated.append(original, position, replacement.startPosition());
+      updated.append(replacement.replaceWith());
+      position = replacement.endPosition();
+    }
+    updated.append(original, position, regionEnd);
+
+    List<String> oldLines = LINE_SPLITTER.splitToList(original.subSequence(regionStart, regionEnd));
+    List<String> newLines = LINE_SPLITTER.splitToList(updated);
+    int prefix = 0;
+    while (prefix < oldLines.size()
+        && prefix < newLines.size()
+        && oldLines.get(prefix).equals(newLines.get(prefix))) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < oldLines.size() - prefix
+        && suffix < newLines.size() - prefix
+        && oldLines
+            .get(oldLines.size() - 1 - suffix)
+            .equals(newLines.get(newLines.size() - 1 - suffix))) {
+      suffix++;
+    }
+    if (prefix + suffix == oldLines.size() && prefix + suffix == newLines.size()) {
+      return;
+    }
+    deltas.add(
+        new Delta(
+            firstLine + prefix,
+            oldLines.subList(prefix, oldLines.size() - suffix),
+            newLines.subList(prefix, newLines.size() - suffix)));
+  }
+
+  /** The offset of the first character of each line. */
+  private static int[] lineStarts(CharSequence source) {
+    int[] starts = new int[16];
+    int count = 1;
+    for (int i = 0; i < source.length(); i++) {
+      if (source.charAt(i) == '\n') {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+        }
+        starts[count++] = i + 1;
+      }
+    }
+    return Arrays.copyOf(starts, count);
+  }
+
+  private static int lineOf(int[] lineStarts, int position) {
+    int index = Arrays.binarySearch(lineStarts, position);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /** The offset of the end of the given line, excluding the line terminator. */
+  private static int lineEnd(CharSequence source, int[] lineStarts, int line) {
+    return line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : source.length();
+  }
+
+  private static CharSequence line(CharSequence source, int[] lineStarts, int line) {
+    return source.subSequence(lineStarts[line], lineEnd(source, lineStarts, line));
+  }
+
+  /** A run of old lines, starting at {@code position}, that is replaced by some new lines. */
+  private static final class Delta {
+    final int position;
+    final List<String> oldLines;
+    final List<String> newLines;
+
+    Delta(int position, List<String> oldLines, List<String> newLines) {
+      this.position = position;
+      this.oldLines = oldLines;
+      this.newLines = newLines;
+    }
+
+    /** The first old line after this delta. */
+    int end() {
+      return position + oldLines.size();
+    }
+  }
+}
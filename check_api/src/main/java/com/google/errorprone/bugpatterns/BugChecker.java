@@ -22,6 +22,7 @@ import static com.google.errorprone.util.ASTHelpers.getModifiers;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 
 import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.google.common.collect.TreeRangeSet;
@@ -111,6 +112,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiPredicate;
 
@@ -489,6 +491,18 @@ public abstract class BugChecker implements Suppressible, Serializable {
 
   public interface MethodInvocationTreeMatcher extends Suppressible {
     Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state);
+
+    /**
+     * Returns the simple names of the methods whose invocations this matcher can match, or empty if
+     * it may match invocations of any method.
+     *
+     * <p>Invocations of methods with other names are not passed to {@link #matchMethodInvocation}.
+     * Checkers that return {@code NO_MATCH} unless a method matcher from {@code MethodMatchers}
+     * matches can extend {@link MethodInvocationChecker}, which derives these names from it.
+     */
+    default Optional<ImmutableSet<String>> invokedMethodNames() {
+      return Optional.empty();
+    }
   }
 
   public interface ModifiersTreeMatcher extends Suppressible {
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns;
+
+import static com.google.errorprone.matchers.Description.NO_MATCH;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.method.MethodMatchers;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import java.util.Optional;
+
+/**
+ * A {@link BugChecker} that only looks at the method invocations matched by a given matcher.
+ *
+ * <p>If the matcher was built with {@link MethodMatchers}, its {@link #invokedMethodNames} are
+ * derived from it, so that the checker is only passed invocations of methods with those names.
+ */
+public abstract class MethodInvocationChecker extends BugChecker
+    implements MethodInvocationTreeMatcher {
+
+  private final Matcher<? super ExpressionTree> invocationMatcher;
+  private final Optional<ImmutableSet<String>> invokedMethodNames;
+
+  protected MethodInvocationChecker(Matcher<? super ExpressionTree> invocationMatcher) {
+    this.invocationMatcher = invocationMatcher;
+    this.invokedMethodNames = MethodMatchers.methodNames(invocationMatcher);
+  }
+
+  @Override
+  public final Optional<ImmutableSet<String>> invokedMethodNames() {
+    return invokedMethodNames;
+  }
+
+  @Override
+  public final Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+    return invocationMatcher.matches(tree, state) ? matchInvocation(tree, state) : NO_MATCH;
+  }
+
+  /** Matches an invocation that the matcher given to the constructor matches. */
+  protected abstract Description matchInvocation(MethodInvocationTree tree, VisitorState state);
+}
@@ -16,11 +16,10 @@
 
 package com.google.errorprone.dataflow;
 
-import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
+import com.google.errorprone.ErrorProneTimings;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
@@ -32,6 +31,8 @@ import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.processing.ProcessingEnvironment;
 import org.checkerframework.errorprone.dataflow.analysis.AbstractValue;
 import org.checkerframework.errorprone.dataflow.analysis.Analysis;
@@ -59,72 +60,143 @@ public final class DataFlow {
     ControlFlowGraph getControlFlowGraph();
   }
 
-  /*
-   * We cache both the control flow graph and the analyses that are run on it.
-   * We tuned performance to the following assumptions (which are currently true for error-prone):
-   *
-   * <ul>
-   * <li> all dataflow analyses for a method are finished before another method is analyzed
-   * <li> multiple dataflow analyses for the same method are executed in arbitrary order
-   * </ul>
+  /**
+   * The maximum total weight of the dataflow results cached for a compilation unit. A method's
+   * weight is the number of trees in its control flow graph, multiplied by one more than the number
+   * of analyses run over it.
+   */
+  private static final long MAX_CACHE_WEIGHT = 1_000_000;
+
+  /**
+   * Control flow graphs, and the analyses run over them, for the methods, lambdas and initializers
+   * of the compilation unit currently being analyzed.
    *
-   * TODO(b/158869538): Write a test that checks these assumptions
+   * <p>Entries are keyed by the identity of the method, lambda or initializer tree, so alternating
+   * between a lambda and its enclosing method, or between several transfer functions over the same
+   * method, reuses earlier results. The cache is cleared when a different compilation unit is
+   * analyzed, or when {@link #releaseCaches} is called at the end of a compilation unit.
    */
-  private static final LoadingCache<AnalysisParams, Analysis<?, ?, ?>> analysisCache =
-      Caffeine.newBuilder()
-          .build(
-              new CacheLoader<AnalysisParams, Analysis<?, ?, ?>>() {
-                @Override
-                public Analysis<?, ?, ?> load(AnalysisParams key) {
-                  ControlFlowGraph cfg = key.cfg();
-                  ForwardTransferFunction<?, ?> transfer = key.transferFunction();
+  private static final class Caches {
+    private static final Context.Key<Caches> KEY = new Context.Key<>();
+
+    static Caches instance(Context context) {
+      Caches instance = context.get(KEY);
+      if (instance == null) {
+        instance = new Caches();
+        context.put(KEY, instance);
+      }
+      return instance;
+    }
 
-                  @SuppressWarnings({"unchecked", "rawtypes"})
-                  Analysis<?, ?, ?> analysis = new ForwardAnalysisImpl(transfer);
-                  analysis.performAnalysis(cfg);
-                  return analysis;
-                }
-              });
+    private @Nullable CompilationUnitTree compilationUnit;
 
-  private static final LoadingCache<CfgParams, ControlFlowGraph> cfgCache =
-      Caffeine.newBuilder()
-          .maximumSize(1)
-          .build(
-              new CacheLoader<CfgParams, ControlFlowGraph>() {
-                @Override
-                public ControlFlowGraph load(CfgParams key) {
-                  TreePath methodPath = key.methodPath();
-                  UnderlyingAST ast;
-                  ClassTree classTree = null;
-                  MethodTree methodTree = null;
-                  for (Tree parent : methodPath) {
-                    if (parent instanceof MethodTree m) {
-                      methodTree = m;
-                    }
-                    if (parent instanceof ClassTree c) {
-                      classTree = c;
-                      break;
-                    }
-                  }
-                  if (methodPath.getLeaf() instanceof LambdaExpressionTree) {
-                    ast =
-                        new UnderlyingAST.CFGLambda(
-                            (LambdaExpressionTree) methodPath.getLeaf(), classTree, methodTree);
-                  } else if (methodPath.getLeaf() instanceof MethodTree) {
-                    methodTree = (MethodTree) methodPath.getLeaf();
-                    ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
-                  } else {
-                    // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
-                    ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
-                  }
-                  ProcessingEnvironment env = key.environment();
+    private final Cache<Tree, MethodDataflow> methods =
+        Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHE_WEIGHT)
+            .weigher((Tree tree, MethodDataflow method) -> method.weight())
+            .executor(Runnable::run)
+            .build();
 
-                  analysisCache.invalidateAll();
-                  CompilationUnitTree root = methodPath.getCompilationUnit();
-                  // TODO(b/158869538): replace with faster build(bodyPath, env, ast, false, false);
-                  return CFGBuilder.build(root, ast, false, false, env);
-                }
-              });
+    synchronized <
+            A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
+        Result<A, S, T> get(
+            TreePath methodPath, ProcessingEnvironment env, T transfer, ErrorProneTimings timings) {
+      CompilationUnitTree root = methodPath.getCompilationUnit();
+      if (root != compilationUnit) {
+        methods.invalidateAll();
+        compilationUnit = root;
+      }
+      Tree key = methodPath.getLeaf();
+      MethodDataflow method = methods.getIfPresent(key);
+      timings.recordCacheAccess("DataFlow.cfg", method != null);
+      if (method == null) {
+        method = new MethodDataflow(buildCfg(methodPath, env));
+        methods.put(key, method);
+      }
+      @SuppressWarnings("unchecked")
+      Analysis<A, S, T> analysis = (Analysis<A, S, T>) method.analyses.get(transfer);
+      timings.recordCacheAccess("DataFlow.analysis", analysis != null);
+      if (analysis == null) {
+        analysis = new ForwardAnalysisImpl<>(transfer);
+        analysis.performAnalysis(method.cfg);
+        method.analyses.put(transfer, analysis);
+        // Re-insert the entry so that its weight accounts for the new analysis.
+        methods.put(key, method);
+      }
+      ControlFlowGraph cfg = method.cfg;
+      Analysis<A, S, T> result = analysis;
+      return new Result<A, S, T>() {
+        @Override
+        public Analysis<A, S, T> getAnalysis() {
+          return result;
+        }
+
+        @Override
+        public ControlFlowGraph getControlFlowGraph() {
+          return cfg;
+        }
+      };
+    }
+
+    synchronized void release() {
+      methods.invalidateAll();
+      compilationUnit = null;
+    }
+  }
+
+  /** A control flow graph and the analyses that have been run over it. */
+  private static final class MethodDataflow {
+    final ControlFlowGraph cfg;
+    final Map<ForwardTransferFunction<?, ?>, Analysis<?, ?, ?>> analyses = new HashMap<>();
+
+    MethodDataflow(ControlFlowGraph cfg) {
+      this.cfg = cfg;
+    }
+
+    int weight() {
+      return cfg.getTreeLookup().size() * (1 + analyses.size());
+    }
+  }
+
+  private static ControlFlowGraph buildCfg(TreePath methodPath, ProcessingEnvironment env) {
+    UnderlyingAST ast;
+    ClassTree classTree = null;
+    MethodTree methodTree = null;
+    for (Tree parent : methodPath) {
+      if (parent instanceof MethodTree m) {
+        methodTree = m;
+      }
+      if (parent instanceof ClassTree c) {
+        classTree = c;
+        break;
+      }
+    }
+    if (methodPath.getLeaf() instanceof LambdaExpressionTree) {
+      ast =
+          new UnderlyingAST.CFGLambda(
+              (LambdaExpressionTree) methodPath.getLeaf(), classTree, methodTree);
+    } else if (methodPath.getLeaf() instanceof MethodTree) {
+      methodTree = (MethodTree) methodPath.getLeaf();
+      ast = new UnderlyingAST.CFGMethod(methodTree, classTree);
+    } else {
+      // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
+      ast = new UnderlyingAST.CFGStatement(methodPath.getLeaf(), classTree);
+    }
+    CompilationUnitTree root = methodPath.getCompilationUnit();
+    // TODO(b/158869538): replace with faster build(bodyPath, env, ast, false, false);
+    return CFGBuilder.build(root, ast, false, false, env);
+  }
+
+  /**
+   * Discards the dataflow results cached for the current compilation unit. Called once a
+   * compilation unit has been scanned, since no later query can reuse them.
+   */
+  public static void releaseCaches(Context context) {
+    Caches caches = context.get(Caches.KEY);
+    if (caches != null) {
+      caches.release();
+    }
+  }
 
   // TODO(b/158869538): remove once we merge jdk8 specific's with core
   private static <T> @Nullable TreePath findEnclosingMethodOrLambdaOrInitializer(TreePath path) {
@@ -158,32 +230,19 @@ public final class DataFlow {
    * Run the {@code transfer} dataflow analysis over the method or lambda which is the leaf of the
    * {@code methodPath}.
    *
-   * <p>For caching, we make the following assumptions: - if two paths to methods are {@code equal},
-   * their control flow graph is the same. - if two transfer functions are {@code equal}, and are
-   * run over the same control flow graph, the analysis result is the same. - for all contexts, the
-   * analysis result is the same.
+   * <p>For caching, we make the following assumptions: - if two paths have the same leaf, their
+   * control flow graph is the same. - if two transfer functions are {@code equal}, and are run over
+   * the same control flow graph, the analysis result is the same. - for all contexts, the analysis
+   * result is the same.
    */
   private static <
           A extends AbstractValue<A>, S extends Store<S>, T extends ForwardTransferFunction<A, S>>
       Result<A, S, T> methodDataflow(TreePath methodPath, Context context, T transfer) {
     ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
-
-    ControlFlowGraph cfg = cfgCache.get(CfgParams.create(methodPath, env));
-    AnalysisParams aparams = AnalysisParams.create(transfer, cfg, env);
-    @SuppressWarnings("unchecked")
-    Analysis<A, S, T> analysis = (Analysis<A, S, T>) analysisCache.get(aparams);
-
-    return new Result<A, S, T>() {
-      @Override
-      public Analysis<A, S, T> getAnalysis() {
-        return analysis;
-      }
-
-      @Override
-      public ControlFlowGraph getControlFlowGraph() {
-        return cfg;
-      }
-    };
+    ErrorProneTimings timings = ErrorProneTimings.instance(context);
+    try (ErrorProneTimings.Span unused = timings.facilitySpan("DataFlow")) {
+      return Caches.instance(context).get(methodPath, env, transfer, timings);
+    }
   }
 
   /**
@@ -227,47 +286,5 @@ public final class DataFlow {
     return methodDataflow(enclosingMethodPath, context, transfer).getAnalysis().getValue(expr);
   }
 
-  @AutoValue
-  abstract static class CfgParams {
-    abstract TreePath methodPath();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static CfgParams create(TreePath methodPath, ProcessingEnvironment environment) {
-      CfgParams cp = new AutoValue_DataFlow_CfgParams(methodPath);
-      cp.environment = environment;
-      return cp;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
-  @AutoValue
-  abstract static class AnalysisParams {
-
-    abstract ForwardTransferFunction<?, ?> transferFunction();
-
-    abstract ControlFlowGraph cfg();
-
-    // Should not be used for hashCode or equals
-    private ProcessingEnvironment environment;
-
-    private static AnalysisParams create(
-        ForwardTransferFunction<?, ?> transferFunction,
-        ControlFlowGraph cfg,
-        ProcessingEnvironment environment) {
-      AnalysisParams ap = new AutoValue_DataFlow_AnalysisParams(transferFunction, cfg);
-      ap.environment = environment;
-      return ap;
-    }
-
-    ProcessingEnvironment environment() {
-      return environment;
-    }
-  }
-
   private DataFlow() {}
 }
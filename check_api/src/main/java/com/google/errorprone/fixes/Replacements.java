@@ -16,36 +16,34 @@
 
 package com.google.errorprone.fixes;
 
-import static com.google.common.base.Preconditions.checkArgument;
-
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Range;
-import com.google.common.collect.RangeMap;
-import com.google.common.collect.TreeRangeMap;
+import com.google.common.collect.Lists;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import org.jspecify.annotations.Nullable;
 
-/** A collection of {@link Replacement}s to be made to a source file. */
+/**
+ * A collection of {@link Replacement}s to be made to a source file.
+ *
+ * <p>The replacements are kept in arrays of their start and end positions, sorted by start and then
+ * end position. Replacements of non-empty ranges never overlap, and insertions are never strictly
+ * inside them, so the end positions are sorted as well, and finding the replacements that overlap a
+ * range takes a binary search.
+ */
 public class Replacements {
 
-  /**
-   * We apply replacements in reverse order of start position, so that replacements that change the
-   * length of the input don't affect the position of earlier replacements.
-   */
-  private static final Comparator<Range<Integer>> DESCENDING =
-      Comparator.<Range<Integer>, Integer>comparing(Range::lowerEndpoint)
-          .thenComparing(Range::upperEndpoint)
-          .reversed();
-
-  private final TreeMap<Range<Integer>, Replacement> replacements = new TreeMap<>(DESCENDING);
-  private final RangeMap<Integer, Replacement> overlaps = TreeRangeMap.create();
-  private final TreeSet<Integer> zeroLengthRanges = new TreeSet<>();
+  private int[] starts = new int[8];
+  private int[] ends = new int[8];
+  private Replacement[] values = new Replacement[8];
+  private int size;
 
   /** A policy for handling overlapping insertions. */
   public enum CoalescePolicy {
@@ -113,6 +111,11 @@ public class Replacements {
       return duplicateInsertPolicy.combineDuplicateInserts(replacement);
     }
 
+    /** Whether {@link #coalesce} rejects differing insertions at the same position. */
+    private boolean rejectsDifferingInsertions() {
+      return this == REJECT || this == KEEP_ONLY_IDENTICAL_INSERTS;
+    }
+
     private enum DuplicateInsertPolicy {
       KEEP {
         @Override
@@ -138,55 +141,140 @@ public class Replacements {
 
   @CanIgnoreReturnValue
   public Replacements add(Replacement replacement, CoalescePolicy coalescePolicy) {
-    if (replacements.containsKey(replacement.range())) {
-      Replacement existing = replacements.get(replacement.range());
-      if (replacement.range().isEmpty()) {
+    String conflict = tryAdd(replacement, coalescePolicy);
+    if (conflict != null) {
+      throw new IllegalArgumentException(conflict);
+    }
+    return this;
+  }
+
+  /**
+   * Adds each of the given replacements, in order, unless it conflicts with one already added, and
+   * returns the replacements that weren't added.
+   */
+  @CanIgnoreReturnValue
+  public ImmutableList<Replacement> addAllIgnoringConflicts(
+      Collection<Replacement> replacements, CoalescePolicy coalescePolicy) {
+    ensureCapacity(size + replacements.size());
+    ImmutableList.Builder<Replacement> conflicts = ImmutableList.builder();
+    for (Replacement replacement : replacements) {
+      if (tryAdd(replacement, coalescePolicy) != null) {
+        conflicts.add(replacement);
+      }
+    }
+    return conflicts.build();
+  }
+
+  /** Adds the replacement, or returns a description of why it conflicts with an existing one. */
+  private @Nullable String tryAdd(Replacement replacement, CoalescePolicy coalescePolicy) {
+    int start = replacement.startPosition();
+    int end = replacement.endPosition();
+    int index = lowerBound(start, end);
+    if (index < size && starts[index] == start && ends[index] == end) {
+      Replacement existing = values[index];
+      if (start == end) {
         // The replacement is an insertion, and there's an existing insertion at the same point.
         // First check whether it's a duplicate insert.
         if (existing.equals(replacement)) {
-          replacement = coalescePolicy.handleDuplicateInsertion(replacement);
+          values[index] = coalescePolicy.handleDuplicateInsertion(replacement);
+        } else if (coalescePolicy.rejectsDifferingInsertions()) {
+          return String.format(
+              "%s conflicts with existing replacement %s",
+              replacement.replaceWith(), existing.replaceWith());
         } else {
           // Coalesce overlapping non-duplicate insertions together.
-          replacement =
+          values[index] =
               replacement.withDifferentText(
                   coalescePolicy.coalesce(replacement.replaceWith(), existing.replaceWith()));
         }
-      } else if (existing.equals(replacement)) {
+        return null;
+      }
+      if (existing.equals(replacement)) {
         // Two copies of a non-insertion edit. Just ignore the new one since it's already done.
-      } else {
-        throw new IllegalArgumentException(
-            String.format("%s conflicts with existing replacement %s", replacement, existing));
+        return null;
       }
-    } else {
-      checkOverlaps(replacement);
+      return String.format("%s conflicts with existing replacement %s", replacement, existing);
     }
-    replacements.put(replacement.range(), replacement);
-    return this;
+    String overlap = checkOverlaps(replacement, index);
+    if (overlap != null) {
+      return overlap;
+    }
+    ensureCapacity(size + 1);
+    System.arraycopy(starts, index, starts, index + 1, size - index);
+    System.arraycopy(ends, index, ends, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    starts[index] = start;
+    ends[index] = end;
+    values[index] = replacement;
+    size++;
+    return null;
   }
 
-  private void checkOverlaps(Replacement replacement) {
-    Range<Integer> replacementRange = replacement.range();
-    Collection<Replacement> overlap =
-        overlaps.subRangeMap(replacementRange).asMapOfRanges().values();
-    checkArgument(
-        overlap.isEmpty(),
-        "%s overlaps with existing replacements: %s",
-        replacement,
-        Joiner.on(", ").join(overlap));
-    Set<Integer> containedZeroLengthRangeStarts =
-        zeroLengthRanges.subSet(
-            replacementRange.lowerEndpoint(),
-            /* fromInclusive= */ false,
-            replacementRange.upperEndpoint(),
-            /* toInclusive= */ false);
-    checkArgument(
-        containedZeroLengthRangeStarts.isEmpty(),
+  /**
+   * Returns a description of the existing replacements that overlap the given one, which would be
+   * inserted at {@code index}, or null if there aren't any.
+   */
+  private @Nullable String checkOverlaps(Replacement replacement, int index) {
+    int start = replacement.startPosition();
+    int end = replacement.endPosition();
+    // Of the replacements that sort before this one, only the last can reach into it. Those after
+    // it overlap it if they start before it ends.
+    int from = index > 0 && ends[index - 1] > start ? index - 1 : index;
+    int to = index;
+    while (to < size && starts[to] < end) {
+      to++;
+    }
+    if (from == to) {
+      return null;
+    }
+    List<Replacement> overlap = new ArrayList<>();
+    List<Integer> containedZeroLengthRangeStarts = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      if (starts[i] == ends[i]) {
+        containedZeroLengthRangeStarts.add(starts[i]);
+      } else {
+        overlap.add(values[i]);
+      }
+    }
+    if (!overlap.isEmpty()) {
+      return String.format(
+          "%s overlaps with existing replacements: %s", replacement, Joiner.on(", ").join(overlap));
+    }
+    return String.format(
         "%s overlaps with existing zero-length replacements: %s",
-        replacement,
-        Joiner.on(", ").join(containedZeroLengthRangeStarts));
-    overlaps.put(replacementRange, replacement);
-    if (replacementRange.isEmpty()) {
-      zeroLengthRanges.add(replacementRange.lowerEndpoint());
+        replacement, Joiner.on(", ").join(containedZeroLengthRangeStarts));
+  }
+
+  /** The index of the first replacement that doesn't sort before the range {@code [start, end)}. */
+  private int lowerBound(int start, int end) {
+    // Replacements are usually added in ascending order.
+    if (size == 0 || compare(size - 1, start, end) < 0) {
+      return size;
+    }
+    int low = 0;
+    int high = size - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compare(mid, start, end) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int compare(int index, int start, int end) {
+    int cmp = Integer.compare(starts[index], start);
+    return cmp != 0 ? cmp : Integer.compare(ends[index], end);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      int newLength = Math.max(capacity, values.length * 2);
+      starts = Arrays.copyOf(starts, newLength);
+      ends = Arrays.copyOf(ends, newLength);
+      values = Arrays.copyOf(values, newLength);
     }
   }
 
@@ -198,15 +286,23 @@ public class Replacements {
   @Deprecated
   public Set<Replacement> descending() {
     // TODO(cushon): refactor SuggestedFix#getReplacements and just return a Collection,
-    return new LinkedHashSet<>(replacements.values());
+    return new LinkedHashSet<>(Lists.reverse(ascendingView()));
   }
 
   /** Non-overlapping replacements, sorted in ascending order by position. */
   public ImmutableSet<Replacement> ascending() {
-    return ImmutableSet.copyOf(replacements.descendingMap().values());
+    return ImmutableSet.copyOf(ascendingView());
+  }
+
+  /**
+   * A view of the non-overlapping replacements, sorted in ascending order by position, for reading
+   * them without copying. The view must not be used after more replacements are added.
+   */
+  public List<Replacement> ascendingView() {
+    return Collections.unmodifiableList(Arrays.asList(values).subList(0, size));
   }
 
   public boolean isEmpty() {
-    return replacements.isEmpty();
+    return size == 0;
   }
 }
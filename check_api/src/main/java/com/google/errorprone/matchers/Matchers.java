@@ -35,6 +35,7 @@ import static java.util.Objects.requireNonNull;
 import static javax.lang.model.element.Modifier.STATIC;
 
 import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
@@ -102,6 +103,7 @@ import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Static factory methods which make the DSL read more fluently. Since matchers are run in a tight
@@ -165,6 +167,13 @@ public class Matchers {
    * given matchers do.
    */
   public static <T extends Tree> Matcher<T> anyOf(Iterable<? extends Matcher<? super T>> matchers) {
+    if (matchers instanceof ImmutableCollection<?>) {
+      // Other collections may still be added to after the matcher is created, so can't be indexed.
+      Matcher<T> union = anyOfMethodMatchers(matchers);
+      if (union != null) {
+        return union;
+      }
+    }
     return (t, state) -> {
       for (Matcher<? super T> matcher : matchers) {
         if (matcher.matches(t, state)) {
@@ -178,7 +187,21 @@ public class Matchers {
   @SafeVarargs
   public static <T extends Tree> Matcher<T> anyOf(Matcher<? super T>... matchers) {
     // IntelliJ claims it can infer <Matcher<? super T>>, but blaze can't (b/132970194).
-    return anyOf(Arrays.<Matcher<? super T>>asList(matchers));
+    List<Matcher<? super T>> list = Arrays.<Matcher<? super T>>asList(matchers);
+    Matcher<T> union = anyOfMethodMatchers(list);
+    return union != null ? union : anyOf(list);
+  }
+
+  /**
+   * If every matcher was created by {@link MethodMatchers}, returns a single matcher that only
+   * evaluates those that can match the invoked method's name; otherwise returns null.
+   */
+  private static <T extends Tree> @Nullable Matcher<T> anyOfMethodMatchers(
+      Iterable<? extends Matcher<? super T>> matchers) {
+    // Method matchers only accept ExpressionTrees, so if they all are, T must be one too.
+    @SuppressWarnings("unchecked")
+    Matcher<T> union = (Matcher<T>) MethodMatchers.anyOfMethodMatchers(matchers).orElse(null);
+    return union;
   }
 
   /** Matches if an AST node is an instance of the given class. */
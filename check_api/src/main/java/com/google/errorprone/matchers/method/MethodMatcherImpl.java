@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.matchers.method.MethodMatchers.AnyMethodMatcher;
 import com.google.errorprone.matchers.method.MethodMatchers.ConstructorClassMatcher;
@@ -41,8 +42,10 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Type;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import org.jspecify.annotations.Nullable;
 
 final class MethodMatcherImpl
     implements InstanceMethodMatcher,
@@ -71,29 +74,61 @@ final class MethodMatcherImpl
               (m, s) -> {
                 // Handled by base matcher.
                 return true;
-              }));
+              }),
+          null);
   static final ConstructorMatcher CONSTRUCTOR =
-      new MethodMatcherImpl(BaseMethodMatcher.CONSTRUCTOR, ImmutableList.of((m, s) -> true));
+      new MethodMatcherImpl(
+          BaseMethodMatcher.CONSTRUCTOR,
+          ImmutableList.of((m, s) -> true),
+          ImmutableSet.of("<init>"));
   static final StaticMethodMatcher STATIC_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> m.sym().isStatic()));
+          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> m.sym().isStatic()), null);
   static final InstanceMethodMatcher INSTANCE_METHOD =
       new MethodMatcherImpl(
-          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> !m.sym().isStatic()));
+          BaseMethodMatcher.METHOD, ImmutableList.of((m, s) -> !m.sym().isStatic()), null);
 
   private final BaseMethodMatcher baseMatcher;
 
   private final ImmutableList<Constraint> constraints;
 
+  /**
+   * The simple names that the matched method's name is constrained to by the constraints, or null
+   * if they don't constrain it to a fixed set of names.
+   */
+  private final @Nullable ImmutableSet<String> methodNames;
+
   // All constructors private: only static final instances are legal starting points for chains.
-  private MethodMatcherImpl(BaseMethodMatcher baseMatcher, ImmutableList<Constraint> matchers) {
+  private MethodMatcherImpl(
+      BaseMethodMatcher baseMatcher,
+      ImmutableList<Constraint> matchers,
+      @Nullable ImmutableSet<String> methodNames) {
     this.baseMatcher = baseMatcher;
     this.constraints = matchers;
+    this.methodNames = methodNames;
   }
 
   private MethodMatcherImpl append(Constraint c) {
+    return append(c, methodNames);
+  }
+
+  private MethodMatcherImpl append(Constraint c, @Nullable ImmutableSet<String> methodNames) {
     return new MethodMatcherImpl(
-        baseMatcher, ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build());
+        baseMatcher,
+        ImmutableList.<Constraint>builder().addAll(this.constraints).add(c).build(),
+        methodNames);
+  }
+
+  /**
+   * Returns the simple names of the methods this matcher can match, or empty if it may match
+   * methods with any name. Constructors are named {@code <init>}.
+   */
+  Optional<ImmutableSet<String>> methodNames() {
+    return Optional.ofNullable(methodNames);
+  }
+
+  private ImmutableSet<String> restrictNames(ImmutableSet<String> names) {
+    return methodNames == null ? names : ImmutableSet.copyOf(Sets.intersection(methodNames, names));
   }
 
   @Override
@@ -190,7 +225,9 @@ final class MethodMatcherImpl
         !name.contains("(") && !name.contains(")"),
         "method name (%s) cannot contain parentheses; use \"foo\" instead of \"foo()\"",
         name);
-    return append((m, s) -> m.sym().getSimpleName().contentEquals(name));
+    return append(
+        (m, s) -> m.sym().getSimpleName().contentEquals(name),
+        restrictNames(ImmutableSet.of(name)));
   }
 
   @Override
@@ -201,7 +238,8 @@ final class MethodMatcherImpl
   @Override
   public MethodNameMatcher namedAnyOf(Iterable<String> names) {
     ImmutableSet<String> expected = ImmutableSet.copyOf(names);
-    return append((m, s) -> expected.contains(m.sym().getSimpleName().toString()));
+    return append(
+        (m, s) -> expected.contains(m.sym().getSimpleName().toString()), restrictNames(expected));
   }
 
   @Override
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers.method;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A disjunction of method matchers that only evaluates the operands that can match the name of the
+ * invoked method.
+ *
+ * <p>Every operand requires the matched tree's symbol to be a method, and most constrain its simple
+ * name, so the operands are indexed by name up front. Matching then costs one hash lookup plus the
+ * evaluation of the (usually one or two) operands with that name or with no name constraint,
+ * instead of the evaluation of every operand in turn.
+ */
+final class MethodMatcherUnion implements Matcher<ExpressionTree> {
+
+  /** Every operand, in order. */
+  private final ImmutableList<MethodMatcherImpl> operands;
+
+  /** For each name constrained by some operand, the operands that can match it, in order. */
+  private final ImmutableMap<String, ImmutableList<MethodMatcherImpl>> byName;
+
+  /** The operands that don't constrain the method name, in order. */
+  private final ImmutableList<MethodMatcherImpl> anyName;
+
+  private MethodMatcherUnion(ImmutableList<MethodMatcherImpl> operands) {
+    this.operands = operands;
+    Set<String> names = new LinkedHashSet<>();
+    for (MethodMatcherImpl operand : operands) {
+      operand.methodNames().ifPresent(names::addAll);
+    }
+    ImmutableMap.Builder<String, ImmutableList<MethodMatcherImpl>> byName = ImmutableMap.builder();
+    for (String name : names) {
+      byName.put(
+          name,
+          operands.stream()
+              .filter(o -> o.methodNames().map(n -> n.contains(name)).orElse(true))
+              .collect(toImmutableList()));
+    }
+    this.byName = byName.buildOrThrow();
+    this.anyName =
+        operands.stream().filter(o -> o.methodNames().isEmpty()).collect(toImmutableList());
+  }
+
+  /**
+   * Returns a matcher equivalent to the disjunction of the given matchers if they were all created
+   * by {@link MethodMatchers}, or empty otherwise.
+   */
+  static Optional<Matcher<ExpressionTree>> create(Iterable<? extends Matcher<?>> matchers) {
+    ImmutableList.Builder<MethodMatcherImpl> operands = ImmutableList.builder();
+    for (Matcher<?> matcher : matchers) {
+      if (matcher instanceof MethodMatcherImpl methodMatcher) {
+        operands.add(methodMatcher);
+      } else if (matcher instanceof MethodMatcherUnion union) {
+        operands.addAll(union.operands);
+      } else {
+        return Optional.empty();
+      }
+    }
+    return Optional.of(new MethodMatcherUnion(operands.build()));
+  }
+
+  /**
+   * The simple names of the methods this matcher can match, or empty if it may match methods with
+   * any name.
+   */
+  Optional<ImmutableSet<String>> methodNames() {
+    return anyName.isEmpty() ? Optional.of(byName.keySet()) : Optional.empty();
+  }
+
+  @Override
+  public boolean matches(ExpressionTree tree, VisitorState state) {
+    Symbol symbol = ASTHelpers.getSymbol(tree);
+    if (!(symbol instanceof MethodSymbol)) {
+      // None of the operands match anything but methods and constructors.
+      return false;
+    }
+    ImmutableList<MethodMatcherImpl> candidates =
+        byName.getOrDefault(symbol.getSimpleName().toString(), anyName);
+    for (int i = 0; i < candidates.size(); i++) {
+      if (candidates.get(i).matches(tree, state)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -16,11 +16,13 @@
 
 package com.google.errorprone.matchers.method;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.predicates.TypePredicate;
 import com.google.errorprone.suppliers.Supplier;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Type;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 public final class MethodMatchers {
@@ -245,5 +247,47 @@ public final class MethodMatchers {
     return MethodMatcherImpl.CONSTRUCTOR;
   }
 
+  /**
+   * Returns the simple names of the methods that the given matchers can match, or empty if any of
+   * them may match a method with any name.
+   *
+   * <p>Only matchers created by the factories in this class and constrained with {@link
+   * MethodClassMatcher#named} or {@link MethodClassMatcher#namedAnyOf} have known names;
+   * constructor matchers match methods named {@code <init>}.
+   */
+  @SafeVarargs
+  public static Optional<ImmutableSet<String>> methodNames(
+      Matcher<? super ExpressionTree>... matchers) {
+    ImmutableSet.Builder<String> names = ImmutableSet.builder();
+    for (Matcher<? super ExpressionTree> matcher : matchers) {
+      Optional<ImmutableSet<String>> matcherNames;
+      if (matcher instanceof MethodMatcherImpl methodMatcher) {
+        matcherNames = methodMatcher.methodNames();
+      } else if (matcher instanceof MethodMatcherUnion union) {
+        matcherNames = union.methodNames();
+      } else {
+        return Optional.empty();
+      }
+      if (matcherNames.isEmpty()) {
+        return Optional.empty();
+      }
+      names.addAll(matcherNames.get());
+    }
+    return Optional.of(names.build());
+  }
+
+  /**
+   * Returns a matcher that matches if any of the given matchers match, if they were all created by
+   * the factories in this class (or by this method), or empty otherwise.
+   *
+   * <p>The returned matcher indexes the given matchers by the method names they constrain, and only
+   * evaluates those that can match the name of the invoked method. {@link
+   * com.google.errorprone.matchers.Matchers#anyOf} uses this automatically.
+   */
+  public static Optional<Matcher<ExpressionTree>> anyOfMethodMatchers(
+      Iterable<? extends Matcher<?>> matchers) {
+    return MethodMatcherUnion.create(matchers);
+  }
+
   private MethodMatchers() {}
 }
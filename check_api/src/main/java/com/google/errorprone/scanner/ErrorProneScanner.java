@@ -16,10 +16,13 @@
 
 package com.google.errorprone.scanner;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CheckerOrdinals;
 import com.google.errorprone.ErrorProneError;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.SuppressionInfo.SuppressedState;
@@ -152,15 +155,19 @@ import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.tree.WildcardTree;
 import com.sun.source.tree.YieldTree;
 import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.CompletionFailure;
 import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
 import com.sun.tools.javac.util.Name;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Scans the parsed AST, looking for violations of any of the enabled checks.
@@ -175,6 +182,15 @@ public class ErrorProneScanner extends Scanner {
   private final Map<String, SeverityLevel> severities;
   private final ImmutableSet<BugChecker> bugCheckers;
 
+  /** The ordinals of {@link #bugCheckers}, which are assigned in iteration order. */
+  private final CheckerOrdinals checkerOrdinals;
+
+  /**
+   * The severities of {@link #bugCheckers}, indexed by ordinal, so that suppression in generated
+   * code doesn't look up every matcher's name on every node.
+   */
+  private final SeverityLevel[] severitiesByOrdinal;
+
   /**
    * Create an error-prone scanner for the given checkers.
    *
@@ -200,13 +216,41 @@ public class ErrorProneScanner extends Scanner {
    * @param severities The default check severities.
    */
   public ErrorProneScanner(Iterable<BugChecker> checkers, Map<String, SeverityLevel> severities) {
+    this(checkers, severities, null);
+  }
+
+  /**
+   * Create an error-prone scanner for checkers instantiated by a {@link ScannerSupplier}.
+   *
+   * @param checkers The checkers that this scanner should use.
+   * @param severities The default check severities.
+   * @param checkerOrdinals The supplier's ordinals for the checkers, in which the i-th checker has
+   *     ordinal i, or null to assign them here.
+   */
+  ErrorProneScanner(
+      Iterable<BugChecker> checkers,
+      Map<String, SeverityLevel> severities,
+      @Nullable CheckerOrdinals checkerOrdinals) {
     this.bugCheckers = ImmutableSet.copyOf(checkers);
     this.severities = severities;
+    this.checkerOrdinals =
+        checkerOrdinals != null ? checkerOrdinals : CheckerOrdinals.forCheckers(bugCheckers);
+    checkArgument(
+        this.checkerOrdinals.count() == bugCheckers.size(),
+        "expected an ordinal for each of %s checkers, got %s",
+        bugCheckers.size(),
+        this.checkerOrdinals.count());
+    this.severitiesByOrdinal = new SeverityLevel[bugCheckers.size()];
     ImmutableSet.Builder<Class<? extends Annotation>> annotationClassesBuilder =
         ImmutableSet.builder();
+    int ordinal = 0;
     for (BugChecker checker : this.bugCheckers) {
-      registerNodeTypes(checker, annotationClassesBuilder);
+      severitiesByOrdinal[ordinal] = severities.get(checker.canonicalName());
+      registerNodeTypes(checker, ordinal++, annotationClassesBuilder);
     }
+    this.methodInvocationMatchersByName = indexByMethodName(methodInvocationMatchers);
+    this.methodInvocationMatchersForAnyName =
+        methodInvocationMatchers.filter(m -> m.invokedMethodNames().isEmpty());
     ImmutableSet<Class<? extends Annotation>> annotationClasses = annotationClassesBuilder.build();
     this.customSuppressionAnnotations =
         VisitorState.memoize(
@@ -228,262 +272,351 @@ public class ErrorProneScanner extends Scanner {
     return builder.buildOrThrow();
   }
 
+  @Override
+  protected CheckerOrdinals checkerOrdinals() {
+    return checkerOrdinals;
+  }
+
   @Override
   protected Set<? extends Name> getCustomSuppressionAnnotations(VisitorState state) {
     return customSuppressionAnnotations.get(state);
   }
 
-  private final List<AnnotatedTypeTreeMatcher> annotatedTypeMatchers = new ArrayList<>();
-  private final List<AnnotationTreeMatcher> annotationMatchers = new ArrayList<>();
-  private final List<ArrayAccessTreeMatcher> arrayAccessMatchers = new ArrayList<>();
-  private final List<ArrayTypeTreeMatcher> arrayTypeMatchers = new ArrayList<>();
-  private final List<AssertTreeMatcher> assertMatchers = new ArrayList<>();
-  private final List<AssignmentTreeMatcher> assignmentMatchers = new ArrayList<>();
-  private final List<BinaryTreeMatcher> binaryMatchers = new ArrayList<>();
-  private final List<BindingPatternTreeMatcher> bindingPatternMatchers = new ArrayList<>();
-  private final List<BlockTreeMatcher> blockMatchers = new ArrayList<>();
-  private final List<BreakTreeMatcher> breakMatchers = new ArrayList<>();
-  private final List<CaseTreeMatcher> caseMatchers = new ArrayList<>();
-  private final List<CatchTreeMatcher> catchMatchers = new ArrayList<>();
-  private final List<ClassTreeMatcher> classMatchers = new ArrayList<>();
-  private final List<CompilationUnitTreeMatcher> compilationUnitMatchers = new ArrayList<>();
-  private final List<CompoundAssignmentTreeMatcher> compoundAssignmentMatchers = new ArrayList<>();
-  private final List<ConditionalExpressionTreeMatcher> conditionalExpressionMatchers =
-      new ArrayList<>();
-  private final List<ContinueTreeMatcher> continueMatchers = new ArrayList<>();
-  private final List<DoWhileLoopTreeMatcher> doWhileLoopMatchers = new ArrayList<>();
-  private final List<EmptyStatementTreeMatcher> emptyStatementMatchers = new ArrayList<>();
-  private final List<EnhancedForLoopTreeMatcher> enhancedForLoopMatchers = new ArrayList<>();
-  private final List<ExportsTreeMatcher> exportsMatchers = new ArrayList<>();
-  private final List<ExpressionStatementTreeMatcher> expressionStatementMatchers =
-      new ArrayList<>();
-  private final List<ForLoopTreeMatcher> forLoopMatchers = new ArrayList<>();
-  private final List<IdentifierTreeMatcher> identifierMatchers = new ArrayList<>();
-  private final List<IfTreeMatcher> ifMatchers = new ArrayList<>();
-  private final List<ImportTreeMatcher> importMatchers = new ArrayList<>();
-  private final List<InstanceOfTreeMatcher> instanceOfMatchers = new ArrayList<>();
-  private final List<IntersectionTypeTreeMatcher> intersectionTypeMatchers = new ArrayList<>();
-  private final List<LabeledStatementTreeMatcher> labeledStatementMatchers = new ArrayList<>();
-  private final List<LambdaExpressionTreeMatcher> lambdaExpressionMatchers = new ArrayList<>();
-  private final List<LiteralTreeMatcher> literalMatchers = new ArrayList<>();
-  private final List<MemberReferenceTreeMatcher> memberReferenceMatchers = new ArrayList<>();
-  private final List<MemberSelectTreeMatcher> memberSelectMatchers = new ArrayList<>();
-  private final List<MethodTreeMatcher> methodMatchers = new ArrayList<>();
-  private final List<MethodInvocationTreeMatcher> methodInvocationMatchers = new ArrayList<>();
-  private final List<ModifiersTreeMatcher> modifiersMatchers = new ArrayList<>();
-  private final List<ModuleTreeMatcher> moduleMatchers = new ArrayList<>();
-  private final List<NewArrayTreeMatcher> newArrayMatchers = new ArrayList<>();
-  private final List<NewClassTreeMatcher> newClassMatchers = new ArrayList<>();
-  private final List<OpensTreeMatcher> opensMatchers = new ArrayList<>();
-  private final List<PackageTreeMatcher> packageMatchers = new ArrayList<>();
-  private final List<ParameterizedTypeTreeMatcher> parameterizedTypeMatchers = new ArrayList<>();
-  private final List<ParenthesizedTreeMatcher> parenthesizedMatchers = new ArrayList<>();
-  private final List<PrimitiveTypeTreeMatcher> primitiveTypeMatchers = new ArrayList<>();
-  private final List<ProvidesTreeMatcher> providesMatchers = new ArrayList<>();
-  private final List<RequiresTreeMatcher> requiresMatchers = new ArrayList<>();
-  private final List<ReturnTreeMatcher> returnMatchers = new ArrayList<>();
-  private final List<SwitchExpressionTreeMatcher> switchExpressionMatchers = new ArrayList<>();
-  private final List<SwitchTreeMatcher> switchMatchers = new ArrayList<>();
-  private final List<SynchronizedTreeMatcher> synchronizedMatchers = new ArrayList<>();
-  private final List<ThrowTreeMatcher> throwMatchers = new ArrayList<>();
-  private final List<TryTreeMatcher> tryMatchers = new ArrayList<>();
-  private final List<TypeCastTreeMatcher> typeCastMatchers = new ArrayList<>();
-  private final List<TypeParameterTreeMatcher> typeParameterMatchers = new ArrayList<>();
-  private final List<UnaryTreeMatcher> unaryMatchers = new ArrayList<>();
-  private final List<UnionTypeTreeMatcher> unionTypeMatchers = new ArrayList<>();
-  private final List<UsesTreeMatcher> usesMatchers = new ArrayList<>();
-  private final List<VariableTreeMatcher> variableMatchers = new ArrayList<>();
-  private final List<WhileLoopTreeMatcher> whileLoopMatchers = new ArrayList<>();
-  private final List<WildcardTreeMatcher> wildcardMatchers = new ArrayList<>();
-  private final List<YieldTreeMatcher> yieldMatchers = new ArrayList<>();
+  private final Matchers<AnnotatedTypeTreeMatcher> annotatedTypeMatchers = new Matchers<>();
+  private final Matchers<AnnotationTreeMatcher> annotationMatchers = new Matchers<>();
+  private final Matchers<ArrayAccessTreeMatcher> arrayAccessMatchers = new Matchers<>();
+  private final Matchers<ArrayTypeTreeMatcher> arrayTypeMatchers = new Matchers<>();
+  private final Matchers<AssertTreeMatcher> assertMatchers = new Matchers<>();
+  private final Matchers<AssignmentTreeMatcher> assignmentMatchers = new Matchers<>();
+  private final Matchers<BinaryTreeMatcher> binaryMatchers = new Matchers<>();
+  private final Matchers<BindingPatternTreeMatcher> bindingPatternMatchers = new Matchers<>();
+  private final Matchers<BlockTreeMatcher> blockMatchers = new Matchers<>();
+  private final Matchers<BreakTreeMatcher> breakMatchers = new Matchers<>();
+  private final Matchers<CaseTreeMatcher> caseMatchers = new Matchers<>();
+  private final Matchers<CatchTreeMatcher> catchMatchers = new Matchers<>();
+  private final Matchers<ClassTreeMatcher> classMatchers = new Matchers<>();
+  private final Matchers<CompilationUnitTreeMatcher> compilationUnitMatchers = new Matchers<>();
+  private final Matchers<CompoundAssignmentTreeMatcher> compoundAssignmentMatchers =
+      new Matchers<>();
+  private final Matchers<ConditionalExpressionTreeMatcher> conditionalExpressionMatchers =
+      new Matchers<>();
+  private final Matchers<ContinueTreeMatcher> continueMatchers = new Matchers<>();
+  private final Matchers<DoWhileLoopTreeMatcher> doWhileLoopMatchers = new Matchers<>();
+  private final Matchers<EmptyStatementTreeMatcher> emptyStatementMatchers = new Matchers<>();
+  private final Matchers<EnhancedForLoopTreeMatcher> enhancedForLoopMatchers = new Matchers<>();
+  private final Matchers<ExportsTreeMatcher> exportsMatchers = new Matchers<>();
+  private final Matchers<ExpressionStatementTreeMatcher> expressionStatementMatchers =
+      new Matchers<>();
+  private final Matchers<ForLoopTreeMatcher> forLoopMatchers = new Matchers<>();
+  private final Matchers<IdentifierTreeMatcher> identifierMatchers = new Matchers<>();
+  private final Matchers<IfTreeMatcher> ifMatchers = new Matchers<>();
+  private final Matchers<ImportTreeMatcher> importMatchers = new Matchers<>();
+  private final Matchers<InstanceOfTreeMatcher> instanceOfMatchers = new Matchers<>();
+  private final Matchers<IntersectionTypeTreeMatcher> intersectionTypeMatchers = new Matchers<>();
+  private final Matchers<LabeledStatementTreeMatcher> labeledStatementMatchers = new Matchers<>();
+  private final Matchers<LambdaExpressionTreeMatcher> lambdaExpressionMatchers = new Matchers<>();
+  private final Matchers<LiteralTreeMatcher> literalMatchers = new Matchers<>();
+  private final Matchers<MemberReferenceTreeMatcher> memberReferenceMatchers = new Matchers<>();
+  private final Matchers<MemberSelectTreeMatcher> memberSelectMatchers = new Matchers<>();
+  private final Matchers<MethodTreeMatcher> methodMatchers = new Matchers<>();
+  private final Matchers<MethodInvocationTreeMatcher> methodInvocationMatchers = new Matchers<>();
+
+  /**
+   * For each method name declared by a {@link MethodInvocationTreeMatcher#invokedMethodNames}, the
+   * matchers that can match an invocation of a method with that name, in registration order.
+   */
+  private final ImmutableMap<String, Matchers<MethodInvocationTreeMatcher>>
+      methodInvocationMatchersByName;
+
+  /** The matchers that can match an invocation of a method of any other name. */
+  private final Matchers<MethodInvocationTreeMatcher> methodInvocationMatchersForAnyName;
+
+  private final Matchers<ModifiersTreeMatcher> modifiersMatchers = new Matchers<>();
+  private final Matchers<ModuleTreeMatcher> moduleMatchers = new Matchers<>();
+  private final Matchers<NewArrayTreeMatcher> newArrayMatchers = new Matchers<>();
+  private final Matchers<NewClassTreeMatcher> newClassMatchers = new Matchers<>();
+  private final Matchers<OpensTreeMatcher> opensMatchers = new Matchers<>();
+  private final Matchers<PackageTreeMatcher> packageMatchers = new Matchers<>();
+  private final Matchers<ParameterizedTypeTreeMatcher> parameterizedTypeMatchers = new Matchers<>();
+  private final Matchers<ParenthesizedTreeMatcher> parenthesizedMatchers = new Matchers<>();
+  private final Matchers<PrimitiveTypeTreeMatcher> primitiveTypeMatchers = new Matchers<>();
+  private final Matchers<ProvidesTreeMatcher> providesMatchers = new Matchers<>();
+  private final Matchers<RequiresTreeMatcher> requiresMatchers = new Matchers<>();
+  private final Matchers<ReturnTreeMatcher> returnMatchers = new Matchers<>();
+  private final Matchers<SwitchExpressionTreeMatcher> switchExpressionMatchers = new Matchers<>();
+  private final Matchers<SwitchTreeMatcher> switchMatchers = new Matchers<>();
+  private final Matchers<SynchronizedTreeMatcher> synchronizedMatchers = new Matchers<>();
+  private final Matchers<ThrowTreeMatcher> throwMatchers = new Matchers<>();
+  private final Matchers<TryTreeMatcher> tryMatchers = new Matchers<>();
+  private final Matchers<TypeCastTreeMatcher> typeCastMatchers = new Matchers<>();
+  private final Matchers<TypeParameterTreeMatcher> typeParameterMatchers = new Matchers<>();
+  private final Matchers<UnaryTreeMatcher> unaryMatchers = new Matchers<>();
+  private final Matchers<UnionTypeTreeMatcher> unionTypeMatchers = new Matchers<>();
+  private final Matchers<UsesTreeMatcher> usesMatchers = new Matchers<>();
+  private final Matchers<VariableTreeMatcher> variableMatchers = new Matchers<>();
+  private final Matchers<WhileLoopTreeMatcher> whileLoopMatchers = new Matchers<>();
+  private final Matchers<WildcardTreeMatcher> wildcardMatchers = new Matchers<>();
+  private final Matchers<YieldTreeMatcher> yieldMatchers = new Matchers<>();
 
   private void registerNodeTypes(
       BugChecker checker,
+      int ordinal,
       ImmutableSet.Builder<Class<? extends Annotation>> customSuppressionAnnotationClasses) {
     customSuppressionAnnotationClasses.addAll(checker.customSuppressionAnnotations());
 
     if (checker instanceof AnnotatedTypeTreeMatcher annotatedTypeTreeMatcher) {
-      annotatedTypeMatchers.add(annotatedTypeTreeMatcher);
+      annotatedTypeMatchers.add(annotatedTypeTreeMatcher, ordinal);
     }
     if (checker instanceof AnnotationTreeMatcher annotationTreeMatcher) {
-      annotationMatchers.add(annotationTreeMatcher);
+      annotationMatchers.add(annotationTreeMatcher, ordinal);
     }
     if (checker instanceof ArrayAccessTreeMatcher arrayAccessTreeMatcher) {
-      arrayAccessMatchers.add(arrayAccessTreeMatcher);
+      arrayAccessMatchers.add(arrayAccessTreeMatcher, ordinal);
     }
     if (checker instanceof ArrayTypeTreeMatcher arrayTypeTreeMatcher) {
-      arrayTypeMatchers.add(arrayTypeTreeMatcher);
+      arrayTypeMatchers.add(arrayTypeTreeMatcher, ordinal);
     }
     if (checker instanceof AssertTreeMatcher assertTreeMatcher) {
-      assertMatchers.add(assertTreeMatcher);
+      assertMatchers.add(assertTreeMatcher, ordinal);
     }
     if (checker instanceof AssignmentTreeMatcher assignmentTreeMatcher) {
-      assignmentMatchers.add(assignmentTreeMatcher);
+      assignmentMatchers.add(assignmentTreeMatcher, ordinal);
     }
     if (checker instanceof BinaryTreeMatcher binaryTreeMatcher) {
-      binaryMatchers.add(binaryTreeMatcher);
+      binaryMatchers.add(binaryTreeMatcher, ordinal);
     }
     if (checker instanceof BindingPatternTreeMatcher bindingPatternTreeMatcher) {
-      bindingPatternMatchers.add(bindingPatternTreeMatcher);
+      bindingPatternMatchers.add(bindingPatternTreeMatcher, ordinal);
     }
     if (checker instanceof BlockTreeMatcher blockTreeMatcher) {
-      blockMatchers.add(blockTreeMatcher);
+      blockMatchers.add(blockTreeMatcher, ordinal);
     }
     if (checker instanceof BreakTreeMatcher breakTreeMatcher) {
-      breakMatchers.add(breakTreeMatcher);
+      breakMatchers.add(breakTreeMatcher, ordinal);
     }
     if (checker instanceof CaseTreeMatcher caseTreeMatcher) {
-      caseMatchers.add(caseTreeMatcher);
+      caseMatchers.add(caseTreeMatcher, ordinal);
     }
     if (checker instanceof CatchTreeMatcher catchTreeMatcher) {
-      catchMatchers.add(catchTreeMatcher);
+      catchMatchers.add(catchTreeMatcher, ordinal);
     }
     if (checker instanceof ClassTreeMatcher classTreeMatcher) {
-      classMatchers.add(classTreeMatcher);
+      classMatchers.add(classTreeMatcher, ordinal);
     }
     if (checker instanceof CompilationUnitTreeMatcher compilationUnitTreeMatcher) {
-      compilationUnitMatchers.add(compilationUnitTreeMatcher);
+      compilationUnitMatchers.add(compilationUnitTreeMatcher, ordinal);
     }
     if (checker instanceof CompoundAssignmentTreeMatcher compoundAssignmentTreeMatcher) {
-      compoundAssignmentMatchers.add(compoundAssignmentTreeMatcher);
+      compoundAssignmentMatchers.add(compoundAssignmentTreeMatcher, ordinal);
     }
     if (checker instanceof ConditionalExpressionTreeMatcher conditionalExpressionTreeMatcher) {
-      conditionalExpressionMatchers.add(conditionalExpressionTreeMatcher);
+      conditionalExpressionMatchers.add(conditionalExpressionTreeMatcher, ordinal);
     }
     if (checker instanceof ContinueTreeMatcher continueTreeMatcher) {
-      continueMatchers.add(continueTreeMatcher);
+      continueMatchers.add(continueTreeMatcher, ordinal);
     }
     if (checker instanceof DoWhileLoopTreeMatcher doWhileLoopTreeMatcher) {
-      doWhileLoopMatchers.add(doWhileLoopTreeMatcher);
+      doWhileLoopMatchers.add(doWhileLoopTreeMatcher, ordinal);
     }
     if (checker instanceof EmptyStatementTreeMatcher emptyStatementTreeMatcher) {
-      emptyStatementMatchers.add(emptyStatementTreeMatcher);
+      emptyStatementMatchers.add(emptyStatementTreeMatcher, ordinal);
     }
     if (checker instanceof EnhancedForLoopTreeMatcher enhancedForLoopTreeMatcher) {
-      enhancedForLoopMatchers.add(enhancedForLoopTreeMatcher);
+      enhancedForLoopMatchers.add(enhancedForLoopTreeMatcher, ordinal);
     }
     if (checker instanceof ExportsTreeMatcher exportsTreeMatcher) {
-      exportsMatchers.add(exportsTreeMatcher);
+      exportsMatchers.add(exportsTreeMatcher, ordinal);
     }
     if (checker instanceof ExpressionStatementTreeMatcher expressionStatementTreeMatcher) {
-      expressionStatementMatchers.add(expressionStatementTreeMatcher);
+      expressionStatementMatchers.add(expressionStatementTreeMatcher, ordinal);
     }
     if (checker instanceof ForLoopTreeMatcher forLoopTreeMatcher) {
-      forLoopMatchers.add(forLoopTreeMatcher);
+      forLoopMatchers.add(forLoopTreeMatcher, ordinal);
     }
     if (checker instanceof IdentifierTreeMatcher identifierTreeMatcher) {
-      identifierMatchers.add(identifierTreeMatcher);
+      identifierMatchers.add(identifierTreeMatcher, ordinal);
     }
     if (checker instanceof IfTreeMatcher ifTreeMatcher) {
-      ifMatchers.add(ifTreeMatcher);
+      ifMatchers.add(ifTreeMatcher, ordinal);
     }
     if (checker instanceof ImportTreeMatcher importTreeMatcher) {
-      importMatchers.add(importTreeMatcher);
+      importMatchers.add(importTreeMatcher, ordinal);
     }
     if (checker instanceof InstanceOfTreeMatcher instanceOfTreeMatcher) {
-      instanceOfMatchers.add(instanceOfTreeMatcher);
+      instanceOfMatchers.add(instanceOfTreeMatcher, ordinal);
     }
     if (checker instanceof IntersectionTypeTreeMatcher intersectionTypeTreeMatcher) {
-      intersectionTypeMatchers.add(intersectionTypeTreeMatcher);
+      intersectionTypeMatchers.add(intersectionTypeTreeMatcher, ordinal);
     }
     if (checker instanceof LabeledStatementTreeMatcher labeledStatementTreeMatcher) {
-      labeledStatementMatchers.add(labeledStatementTreeMatcher);
+      labeledStatementMatchers.add(labeledStatementTreeMatcher, ordinal);
     }
     if (checker instanceof LambdaExpressionTreeMatcher lambdaExpressionTreeMatcher) {
-      lambdaExpressionMatchers.add(lambdaExpressionTreeMatcher);
+      lambdaExpressionMatchers.add(lambdaExpressionTreeMatcher, ordinal);
     }
     if (checker instanceof LiteralTreeMatcher literalTreeMatcher) {
-      literalMatchers.add(literalTreeMatcher);
+      literalMatchers.add(literalTreeMatcher, ordinal);
     }
     if (checker instanceof MemberReferenceTreeMatcher memberReferenceTreeMatcher) {
-      memberReferenceMatchers.add(memberReferenceTreeMatcher);
+      memberReferenceMatchers.add(memberReferenceTreeMatcher, ordinal);
     }
     if (checker instanceof MemberSelectTreeMatcher memberSelectTreeMatcher) {
-      memberSelectMatchers.add(memberSelectTreeMatcher);
+      memberSelectMatchers.add(memberSelectTreeMatcher, ordinal);
     }
     if (checker instanceof MethodTreeMatcher methodTreeMatcher) {
-      methodMatchers.add(methodTreeMatcher);
+      methodMatchers.add(methodTreeMatcher, ordinal);
     }
     if (checker instanceof MethodInvocationTreeMatcher methodInvocationTreeMatcher) {
-      methodInvocationMatchers.add(methodInvocationTreeMatcher);
+      methodInvocationMatchers.add(methodInvocationTreeMatcher, ordinal);
     }
     if (checker instanceof ModifiersTreeMatcher modifiersTreeMatcher) {
-      modifiersMatchers.add(modifiersTreeMatcher);
+      modifiersMatchers.add(modifiersTreeMatcher, ordinal);
     }
     if (checker instanceof ModuleTreeMatcher moduleTreeMatcher) {
-      moduleMatchers.add(moduleTreeMatcher);
+      moduleMatchers.add(moduleTreeMatcher, ordinal);
     }
     if (checker instanceof NewArrayTreeMatcher newArrayTreeMatcher) {
-      newArrayMatchers.add(newArrayTreeMatcher);
+      newArrayMatchers.add(newArrayTreeMatcher, ordinal);
     }
     if (checker instanceof NewClassTreeMatcher newClassTreeMatcher) {
-      newClassMatchers.add(newClassTreeMatcher);
+      newClassMatchers.add(newClassTreeMatcher, ordinal);
     }
     if (checker instanceof OpensTreeMatcher opensTreeMatcher) {
-      opensMatchers.add(opensTreeMatcher);
+      opensMatchers.add(opensTreeMatcher, ordinal);
     }
     if (checker instanceof PackageTreeMatcher packageTreeMatcher) {
-      packageMatchers.add(packageTreeMatcher);
+      packageMatchers.add(packageTreeMatcher, ordinal);
     }
     if (checker instanceof ParameterizedTypeTreeMatcher parameterizedTypeTreeMatcher) {
-      parameterizedTypeMatchers.add(parameterizedTypeTreeMatcher);
+      parameterizedTypeMatchers.add(parameterizedTypeTreeMatcher, ordinal);
     }
     if (checker instanceof ParenthesizedTreeMatcher parenthesizedTreeMatcher) {
-      parenthesizedMatchers.add(parenthesizedTreeMatcher);
+      parenthesizedMatchers.add(parenthesizedTreeMatcher, ordinal);
     }
     if (checker instanceof PrimitiveTypeTreeMatcher primitiveTypeTreeMatcher) {
-      primitiveTypeMatchers.add(primitiveTypeTreeMatcher);
+      primitiveTypeMatchers.add(primitiveTypeTreeMatcher, ordinal);
     }
     if (checker instanceof ProvidesTreeMatcher providesTreeMatcher) {
-      providesMatchers.add(providesTreeMatcher);
+      providesMatchers.add(providesTreeMatcher, ordinal);
     }
     if (checker instanceof RequiresTreeMatcher requiresTreeMatcher) {
-      requiresMatchers.add(requiresTreeMatcher);
+      requiresMatchers.add(requiresTreeMatcher, ordinal);
     }
     if (checker instanceof ReturnTreeMatcher returnTreeMatcher) {
-      returnMatchers.add(returnTreeMatcher);
+      returnMatchers.add(returnTreeMatcher, ordinal);
     }
     if (checker instanceof SwitchExpressionTreeMatcher switchExpressionTreeMatcher) {
-      switchExpressionMatchers.add(switchExpressionTreeMatcher);
+      switchExpressionMatchers.add(switchExpressionTreeMatcher, ordinal);
     }
     if (checker instanceof SwitchTreeMatcher switchTreeMatcher) {
-      switchMatchers.add(switchTreeMatcher);
+      switchMatchers.add(switchTreeMatcher, ordinal);
     }
     if (checker instanceof SynchronizedTreeMatcher synchronizedTreeMatcher) {
-      synchronizedMatchers.add(synchronizedTreeMatcher);
+      synchronizedMatchers.add(synchronizedTreeMatcher, ordinal);
     }
     if (checker instanceof ThrowTreeMatcher throwTreeMatcher) {
-      throwMatchers.add(throwTreeMatcher);
+      throwMatchers.add(throwTreeMatcher, ordinal);
     }
     if (checker instanceof TryTreeMatcher tryTreeMatcher) {
-      tryMatchers.add(tryTreeMatcher);
+      tryMatchers.add(tryTreeMatcher, ordinal);
     }
     if (checker instanceof TypeCastTreeMatcher typeCastTreeMatcher) {
-      typeCastMatchers.add(typeCastTreeMatcher);
+      typeCastMatchers.add(typeCastTreeMatcher, ordinal);
     }
     if (checker instanceof TypeParameterTreeMatcher typeParameterTreeMatcher) {
-      typeParameterMatchers.add(typeParameterTreeMatcher);
+      typeParameterMatchers.add(typeParameterTreeMatcher, ordinal);
     }
     if (checker instanceof UnaryTreeMatcher unaryTreeMatcher) {
-      unaryMatchers.add(unaryTreeMatcher);
+      unaryMatchers.add(unaryTreeMatcher, ordinal);
     }
     if (checker instanceof UnionTypeTreeMatcher unionTypeTreeMatcher) {
-      unionTypeMatchers.add(unionTypeTreeMatcher);
+      unionTypeMatchers.add(unionTypeTreeMatcher, ordinal);
     }
     if (checker instanceof UsesTreeMatcher usesTreeMatcher) {
-      usesMatchers.add(usesTreeMatcher);
+      usesMatchers.add(usesTreeMatcher, ordinal);
     }
     if (checker instanceof VariableTreeMatcher variableTreeMatcher) {
-      variableMatchers.add(variableTreeMatcher);
+      variableMatchers.add(variableTreeMatcher, ordinal);
     }
     if (checker instanceof WhileLoopTreeMatcher whileLoopTreeMatcher) {
-      whileLoopMatchers.add(whileLoopTreeMatcher);
+      whileLoopMatchers.add(whileLoopTreeMatcher, ordinal);
     }
     if (checker instanceof WildcardTreeMatcher wildcardTreeMatcher) {
-      wildcardMatchers.add(wildcardTreeMatcher);
+      wildcardMatchers.add(wildcardTreeMatcher, ordinal);
     }
     if (checker instanceof YieldTreeMatcher yieldTreeMatcher) {
-      yieldMatchers.add(yieldTreeMatcher);
+      yieldMatchers.add(yieldTreeMatcher, ordinal);
+    }
+  }
+
+  private static ImmutableMap<String, Matchers<MethodInvocationTreeMatcher>> indexByMethodName(
+      Matchers<MethodInvocationTreeMatcher> matchers) {
+    Set<String> names = new HashSet<>();
+    for (int i = 0; i < matchers.size(); i++) {
+      matchers.get(i).invokedMethodNames().ifPresent(names::addAll);
+    }
+    ImmutableMap.Builder<String, Matchers<MethodInvocationTreeMatcher>> index =
+        ImmutableMap.builder();
+    for (String name : names) {
+      index.put(
+          name,
+          matchers.filter(m -> m.invokedMethodNames().map(n -> n.contains(name)).orElse(true)));
+    }
+    return index.buildOrThrow();
+  }
+
+  private Matchers<MethodInvocationTreeMatcher> methodInvocationMatchers(
+      MethodInvocationTree tree) {
+    if (methodInvocationMatchersByName.isEmpty()) {
+      return methodInvocationMatchers;
+    }
+    Symbol symbol = ASTHelpers.getSymbol(tree.getMethodSelect());
+    if (symbol == null) {
+      return methodInvocationMatchers;
+    }
+    Matchers<MethodInvocationTreeMatcher> matchers =
+        methodInvocationMatchersByName.get(symbol.getSimpleName().toString());
+    return matchers != null ? matchers : methodInvocationMatchersForAnyName;
+  }
+
+  /** The matchers for a kind of node, each with the ordinal of its checker. */
+  private static final class Matchers<M extends Suppressible> {
+    private final List<M> matchers = new ArrayList<>();
+    private int[] ordinals = new int[0];
+
+    void add(M matcher, int ordinal) {
+      if (matchers.size() == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, Math.max(4, 2 * ordinals.length));
+      }
+      ordinals[matchers.size()] = ordinal;
+      matchers.add(matcher);
+    }
+
+    boolean isEmpty() {
+      return matchers.isEmpty();
+    }
+
+    int size() {
+      return matchers.size();
+    }
+
+    M get(int i) {
+      return matchers.get(i);
+    }
+
+    int ordinal(int i) {
+      return ordinals[i];
+    }
+
+    /** Returns the matchers that satisfy {@code predicate}, with their ordinals. */
+    Matchers<M> filter(Predicate<? super M> predicate) {
+      Matchers<M> filtered = new Matchers<>();
+      for (int i = 0; i < matchers.size(); i++) {
+        if (predicate.test(matchers.get(i))) {
+          filtered.add(matchers.get(i), ordinals[i]);
+        }
+      }
+      return filtered;
     }
   }
 
@@ -493,12 +626,21 @@ public class ErrorProneScanner extends Scanner {
   }
 
   private <M extends Suppressible, T extends Tree> VisitorState processMatchers(
-      Iterable<M> matchers, T tree, TreeProcessor<M, T> processingFunction, VisitorState oldState) {
+      Matchers<M> matchers, T tree, TreeProcessor<M, T> processingFunction, VisitorState oldState) {
+    if (matchers.isEmpty()) {
+      // Most node kinds (e.g. identifiers and member selects) have no matchers registered for them.
+      // The state is only used to run matchers, and the scanner tracks the current path itself, so
+      // there's no need to create a copy of it with the new path.
+      return oldState;
+    }
     ErrorProneOptions errorProneOptions = oldState.errorProneOptions();
     // A VisitorState with our new path, but without mentioning the suppression of any matcher.
     VisitorState newState = oldState.withPath(getCurrentPath());
-    for (M matcher : matchers) {
-      SuppressedState suppressed = isSuppressed(matcher, errorProneOptions, newState);
+    for (int i = 0; i < matchers.size(); i++) {
+      M matcher = matchers.get(i);
+      int ordinal = matchers.ordinal(i);
+      SuppressedState suppressed =
+          isSuppressed(matcher, ordinal, severitiesByOrdinal[ordinal], errorProneOptions, newState);
       // If the ErrorProneOptions say to visit suppressed code, we still visit it
       if (suppressed == SuppressedState.UNSUPPRESSED
           || errorProneOptions.isIgnoreSuppressionAnnotations()) {
@@ -822,7 +964,7 @@ public class ErrorProneScanner extends Scanner {
   public Void visitMethodInvocation(MethodInvocationTree tree, VisitorState visitorState) {
     VisitorState state =
         processMatchers(
-            methodInvocationMatchers,
+            methodInvocationMatchers(tree),
             tree,
             MethodInvocationTreeMatcher::matchMethodInvocation,
             visitorState);
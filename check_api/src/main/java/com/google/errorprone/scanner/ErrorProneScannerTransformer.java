@@ -24,6 +24,7 @@ import com.google.errorprone.CodeTransformer;
 import com.google.errorprone.DescriptionListener;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.VisitorState;
+import com.google.errorprone.dataflow.DataFlow;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.util.Context;
 import java.lang.annotation.Annotation;
@@ -40,7 +41,11 @@ public abstract class ErrorProneScannerTransformer implements CodeTransformer {
 
   @Override
   public void apply(TreePath tree, Context context, DescriptionListener listener) {
-    scanner().scan(tree, createVisitorState(context, listener).withPath(tree));
+    try {
+      scanner().scan(tree, createVisitorState(context, listener).withPath(tree));
+    } finally {
+      DataFlow.releaseCaches(context);
+    }
   }
 
   @Override
@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CheckerOrdinals;
 import com.google.errorprone.ErrorProneOptions;
 import com.google.errorprone.SuppressionInfo;
 import com.google.errorprone.SuppressionInfo.SuppressedState;
@@ -37,6 +38,7 @@ import com.sun.tools.javac.util.Name;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import org.jspecify.annotations.Nullable;
 
 /**
  * TODO(eaftan): I'm worried about this performance of this code, specifically the part that handles
@@ -106,13 +108,42 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
   protected SuppressedState isSuppressed(
       Suppressible suppressible, ErrorProneOptions errorProneOptions, VisitorState state) {
 
+    // The severity is only looked up inside generated code, where it matters.
     boolean suppressedInGeneratedCode =
         errorProneOptions.disableWarningsInGeneratedCode()
+            && currentSuppressions.isInGeneratedCode()
             && severityMap().get(suppressible.canonicalName()) != SeverityLevel.ERROR;
 
     return currentSuppressions.suppressedState(suppressible, suppressedInGeneratedCode, state);
   }
 
+  /**
+   * Like {@link #isSuppressed(Suppressible, ErrorProneOptions, VisitorState)}, for a checker whose
+   * ordinal in {@link #checkerOrdinals()} and severity are already known.
+   */
+  protected SuppressedState isSuppressed(
+      Suppressible suppressible,
+      int ordinal,
+      SeverityLevel severity,
+      ErrorProneOptions errorProneOptions,
+      VisitorState state) {
+    boolean suppressedInGeneratedCode =
+        errorProneOptions.disableWarningsInGeneratedCode()
+            && currentSuppressions.isInGeneratedCode()
+            && severity != SeverityLevel.ERROR;
+
+    return currentSuppressions.suppressedState(
+        suppressible, suppressedInGeneratedCode, state, checkerOrdinals(), ordinal);
+  }
+
+  /**
+   * Returns the ordinals of the checks this scanner runs, which let {@code @SuppressWarnings} be
+   * tested with a bit set, or null if names should be compared instead.
+   */
+  protected @Nullable CheckerOrdinals checkerOrdinals() {
+    return null;
+  }
+
   /**
    * Returns a set of all the custom suppression annotation types used by the {@code BugChecker}s in
    * this{@code Scanner}.
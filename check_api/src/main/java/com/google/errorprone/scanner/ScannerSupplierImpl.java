@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.errorprone.BugCheckerInfo;
 import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CheckerOrdinals;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.bugpatterns.BugChecker;
 import java.io.Serializable;
@@ -42,6 +43,12 @@ class ScannerSupplierImpl extends ScannerSupplier implements Serializable {
   // Lazily initialized to make serialization easy.
   private transient ErrorProneInjector injector;
 
+  /**
+   * The ordinals of the enabled checks, shared by every scanner from this supplier so that a
+   * SuppressionInfo's bit set of suppressed checks is valid for all of them.
+   */
+  private final transient CheckerOrdinals checkerOrdinals;
+
   ScannerSupplierImpl(
       ImmutableBiMap<String, BugCheckerInfo> checks,
       ImmutableMap<String, SeverityLevel> severities,
@@ -57,6 +64,11 @@ class ScannerSupplierImpl extends ScannerSupplier implements Serializable {
     this.severities = severities;
     this.disabled = disabled;
     this.flags = flags;
+    this.checkerOrdinals = CheckerOrdinals.forChecks(getEnabledChecks());
+  }
+
+  private Object readResolve() {
+    return new ScannerSupplierImpl(checks, severities, disabled, flags);
   }
 
   private BugChecker instantiateChecker(BugCheckerInfo checker) {
@@ -68,11 +80,13 @@ class ScannerSupplierImpl extends ScannerSupplier implements Serializable {
 
   @Override
   public ErrorProneScanner get() {
+    // The checkers are instantiated in the order that the ordinals were assigned in.
     return new ErrorProneScanner(
         getEnabledChecks().stream()
             .map(this::instantiateChecker)
             .collect(ImmutableSet.toImmutableSet()),
-        severities);
+        severities,
+        checkerOrdinals);
   }
 
   @Override
@@ -2267,7 +2267,8 @@ public class ASTHelpers {
 
   /** Returns whether the given {@code tree} contains any comments in its source. */
   public static boolean containsComments(Tree tree, VisitorState state) {
-    return state.getOffsetTokensForNode(tree).stream().anyMatch(t -> !t.comments().isEmpty());
+    SourceRange source = state.getSourceRangeForNode(tree);
+    return source != null && source.containsComment();
   }
 
   /**
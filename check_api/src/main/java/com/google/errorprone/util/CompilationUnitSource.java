@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.CharBuffer;
+
+/**
+ * The source of a compilation unit, read once into an array from which {@link SourceRange}s can be
+ * viewed without copying.
+ */
+public final class CompilationUnitSource {
+
+  private final CompilationUnitTree compilationUnit;
+  private final char[] chars;
+  private final SourceRange all;
+
+  private CompilationUnitSource(CompilationUnitTree compilationUnit, char[] chars) {
+    this.compilationUnit = compilationUnit;
+    this.chars = chars;
+    this.all = new SourceRange(this, 0, chars.length);
+  }
+
+  /** Copies the given source of a compilation unit. */
+  public static CompilationUnitSource create(
+      CompilationUnitTree compilationUnit, CharSequence source) {
+    char[] chars = new char[source.length()];
+    if (source instanceof String string) {
+      string.getChars(0, chars.length, chars, 0);
+    } else if (source instanceof CharBuffer buffer) {
+      buffer.duplicate().get(chars);
+    } else {
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = source.charAt(i);
+      }
+    }
+    return new CompilationUnitSource(compilationUnit, chars);
+  }
+
+  public CompilationUnitTree compilationUnit() {
+    return compilationUnit;
+  }
+
+  /** Returns the whole source of the compilation unit. */
+  public SourceRange all() {
+    return all;
+  }
+
+  /** Returns the source between the given positions. */
+  public SourceRange range(int start, int end) {
+    checkPositionIndexes(start, end, chars.length);
+    return new SourceRange(this, start, end);
+  }
+
+  char[] chars() {
+    return chars;
+  }
+}
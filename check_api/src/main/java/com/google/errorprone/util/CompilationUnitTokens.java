@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.tools.javac.parser.Tokens.TokenKind;
+import com.sun.tools.javac.util.Context;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The tokens of a whole compilation unit, lexed once, from which the tokens of any range of its
+ * source that starts and ends between tokens can be sliced without lexing it again.
+ */
+public final class CompilationUnitTokens {
+
+  private final CompilationUnitTree compilationUnit;
+  private final ImmutableList<ErrorProneToken> tokens;
+
+  /** The start position of each token, for binary searches. */
+  private final int[] starts;
+
+  private CompilationUnitTokens(
+      CompilationUnitTree compilationUnit, ImmutableList<ErrorProneToken> tokens) {
+    this.compilationUnit = compilationUnit;
+    this.tokens = tokens;
+    this.starts = new int[tokens.size()];
+    for (int i = 0; i < tokens.size(); i++) {
+      starts[i] = tokens.get(i).pos();
+    }
+  }
+
+  /** Lexes the given source of a compilation unit. */
+  public static CompilationUnitTokens create(
+      CompilationUnitTree compilationUnit, CharSequence source, Context context) {
+    return new CompilationUnitTokens(
+        compilationUnit, ErrorProneTokens.getTokens(source.toString(), context));
+  }
+
+  public CompilationUnitTree compilationUnit() {
+    return compilationUnit;
+  }
+
+  /**
+   * Returns the tokens that lexing the source between {@code start} and {@code end} on its own
+   * would produce, including the final {@link TokenKind#EOF} token and its comments, or null if the
+   * range starts or ends inside a token or comment.
+   *
+   * @param offset the offset to add to the positions of the tokens and comments, relative to the
+   *     start of the range; pass {@code start} for positions in the compilation unit
+   */
+  public @Nullable ImmutableList<ErrorProneToken> tokens(int start, int end, int offset) {
+    // The first token that starts at or after start, and the first one that starts at or after end.
+    int first = lowerBound(start);
+    int last = lowerBound(end);
+    if ((first > 0 && tokens.get(first - 1).endPos() > start)
+        || (last > 0 && tokens.get(last - 1).endPos() > end)
+        || last == tokens.size()
+        || splitsComment(tokens.get(first), start)
+        || splitsComment(tokens.get(last), end)) {
+      return null;
+    }
+    int shift = offset - start;
+    ImmutableList.Builder<ErrorProneToken> slice =
+        ImmutableList.builderWithExpectedSize(last - first + 1);
+    for (int i = first; i < last; i++) {
+      slice.add(tokens.get(i).slice(start, end, shift));
+    }
+    // Comments between the last token of the range and its end belong to the end of the range.
+    slice.add(tokens.get(tokens.size() - 1).asEndOfRange(tokens.get(last), start, end, shift));
+    return slice.build();
+  }
+
+  /** Returns whether any comment attached to the given token contains the given position. */
+  private static boolean splitsComment(ErrorProneToken token, int position) {
+    for (ErrorProneComment comment : token.comments()) {
+      if (comment.getPos() < position && position < comment.getEndPos()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the index of the first token that starts at or after the given position. */
+  private int lowerBound(int position) {
+    int low = 0;
+    int high = starts.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (starts[mid] < position) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
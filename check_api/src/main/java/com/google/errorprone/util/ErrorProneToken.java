@@ -27,14 +27,58 @@ import com.sun.tools.javac.util.Name;
 public class ErrorProneToken {
   private final Token token;
   private final int offset;
+  private final int commentOffset;
   private final ImmutableList<ErrorProneComment> comments;
 
   ErrorProneToken(Token token, int offset, ImmutableList<ErrorProneComment> comments) {
+    this(token, offset, offset, comments);
+  }
+
+  private ErrorProneToken(
+      Token token, int offset, int commentOffset, ImmutableList<ErrorProneComment> comments) {
     this.token = token;
     this.offset = offset;
+    this.commentOffset = commentOffset;
     this.comments = comments;
   }
 
+  /**
+   * Returns this token moved by {@code shift}, keeping only the comments between {@code start} and
+   * {@code end}.
+   */
+  ErrorProneToken slice(int start, int end, int shift) {
+    ImmutableList<ErrorProneComment> kept = commentsBetween(start, end);
+    if (shift == 0 && kept.size() == comments.size()) {
+      return this;
+    }
+    return new ErrorProneToken(token, offset + shift, commentOffset + shift, kept);
+  }
+
+  /**
+   * Returns this {@link TokenKind#EOF} token moved to {@code end + shift}, with the comments of
+   * {@code next} between {@code start} and {@code end} moved by {@code shift}.
+   */
+  ErrorProneToken asEndOfRange(ErrorProneToken next, int start, int end, int shift) {
+    return new ErrorProneToken(
+        token,
+        end + shift - token.pos,
+        next.commentOffset + shift,
+        next.commentsBetween(start, end));
+  }
+
+  private ImmutableList<ErrorProneComment> commentsBetween(int start, int end) {
+    for (ErrorProneComment comment : comments) {
+      int pos = comment.getPos() + commentOffset;
+      if (pos < start || comment.getEndPos() + commentOffset > end) {
+        return comments.stream()
+            .filter(
+                c -> c.getPos() + commentOffset >= start && c.getEndPos() + commentOffset <= end)
+            .collect(toImmutableList());
+      }
+    }
+    return comments;
+  }
+
   public TokenKind kind() {
     return token.kind;
   }
@@ -48,7 +92,7 @@ public class ErrorProneToken {
   }
 
   public ImmutableList<ErrorProneComment> comments() {
-    return comments.stream().map(c -> c.withOffset(offset)).collect(toImmutableList());
+    return comments.stream().map(c -> c.withOffset(commentOffset)).collect(toImmutableList());
   }
 
   public boolean hasName() {
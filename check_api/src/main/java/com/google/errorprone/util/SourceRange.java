@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.sun.source.tree.LineMap;
+
+/**
+ * A view of a range of the source of a compilation unit, which doesn't copy the source until {@link
+ * #toString} is called.
+ *
+ * <p>Like other {@link CharSequence}s, source ranges don't implement {@link #equals}; use {@link
+ * #contentEquals} to compare their text.
+ */
+public final class SourceRange implements CharSequence {
+
+  private final CompilationUnitSource source;
+  private final int start;
+  private final int end;
+
+  SourceRange(CompilationUnitSource source, int start, int end) {
+    this.source = source;
+    this.start = start;
+    this.end = end;
+  }
+
+  /** The position of the start of this range in the compilation unit. */
+  public int start() {
+    return start;
+  }
+
+  /** The position of the end of this range in the compilation unit, exclusive. */
+  public int end() {
+    return end;
+  }
+
+  @Override
+  public int length() {
+    return end - start;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return source.chars()[start + index];
+  }
+
+  @Override
+  public SourceRange subSequence(int start, int end) {
+    checkPositionIndexes(start, end, length());
+    return new SourceRange(source, this.start + start, this.start + end);
+  }
+
+  /** Returns whether this range's text is the same as the given text. */
+  public boolean contentEquals(CharSequence text) {
+    return length() == text.length() && regionMatches(0, text);
+  }
+
+  public boolean startsWith(CharSequence prefix) {
+    return prefix.length() <= length() && regionMatches(0, prefix);
+  }
+
+  public boolean endsWith(CharSequence suffix) {
+    return suffix.length() <= length() && regionMatches(length() - suffix.length(), suffix);
+  }
+
+  public boolean contains(CharSequence text) {
+    return indexOf(text, 0) >= 0;
+  }
+
+  /** Returns the index in this range of the first occurrence of the given text, or -1. */
+  public int indexOf(CharSequence text) {
+    return indexOf(text, 0);
+  }
+
+  /**
+   * Returns the index in this range of the first occurrence of the given text at or after {@code
+   * fromIndex}, or -1.
+   */
+  public int indexOf(CharSequence text, int fromIndex) {
+    for (int i = Math.max(fromIndex, 0); i + text.length() <= length(); i++) {
+      if (regionMatches(i, text)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private boolean regionMatches(int offset, CharSequence text) {
+    char[] chars = source.chars();
+    for (int i = 0; i < text.length(); i++) {
+      if (chars[start + offset + i] != text.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether this range contains a comment, or the start of one. The range is assumed not to
+   * start inside a comment or a string, character or text block literal.
+   */
+  public boolean containsComment() {
+    char[] chars = source.chars();
+    int i = start;
+    while (i < end) {
+      char c = chars[i];
+      if (c == '/' && i + 1 < end && (chars[i + 1] == '/' || chars[i + 1] == '*')) {
+        return true;
+      }
+      if (c == '"' && i + 2 < end && chars[i + 1] == '"' && chars[i + 2] == '"') {
+        i = skipLiteral(chars, i + 3, "\"\"\"");
+      } else if (c == '"' || c == '\'') {
+        i = skipLiteral(chars, i + 1, c == '"' ? "\"" : "'");
+      } else {
+        i++;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the position after the given closing delimiter, skipping escaped characters. */
+  private int skipLiteral(char[] chars, int i, String delimiter) {
+    while (i < end) {
+      if (chars[i] == '\\') {
+        i += 2;
+      } else if (i + delimiter.length() <= end && regionMatches(i - start, delimiter)) {
+        return i + delimiter.length();
+      } else {
+        i++;
+      }
+    }
+    return end;
+  }
+
+  /** The line number of the start of this range, starting at 1. */
+  public long startLine() {
+    return lineMap().getLineNumber(start);
+  }
+
+  /** The column number of the start of this range, starting at 1. */
+  public long startColumn() {
+    return lineMap().getColumnNumber(start);
+  }
+
+  /** The line number of the end of this range, starting at 1. */
+  public long endLine() {
+    return lineMap().getLineNumber(end);
+  }
+
+  private LineMap lineMap() {
+    return source.compilationUnit().getLineMap();
+  }
+
+  @Override
+  public String toString() {
+    return new String(source.chars(), start, length());
+  }
+}
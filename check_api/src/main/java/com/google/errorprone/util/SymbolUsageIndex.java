@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree.JCMemberReference;
+import com.sun.tools.javac.tree.JCTree.JCNewClass;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the declarations in a compilation unit, and of the trees that reference or assign to
+ * each symbol, built in a single traversal.
+ *
+ * <p>Checks that need to know how symbols are used across a whole compilation unit (e.g. whether a
+ * private method is ever called) should prefer the index shared through {@link
+ * com.google.errorprone.VisitorState#getSymbolUsageIndex()} to scanning the compilation unit
+ * themselves.
+ */
+public final class SymbolUsageIndex {
+
+  private final CompilationUnitTree compilationUnit;
+  private final ImmutableList<TreePath> classes;
+  private final ImmutableList<TreePath> methods;
+  private final ImmutableList<TreePath> variables;
+  private final ImmutableListMultimap<Symbol, TreePath> references;
+  private final ImmutableListMultimap<Symbol, TreePath> writes;
+
+  private SymbolUsageIndex(CompilationUnitTree compilationUnit, Indexer indexer) {
+    this.compilationUnit = compilationUnit;
+    this.classes = indexer.classes.build();
+    this.methods = indexer.methods.build();
+    this.variables = indexer.variables.build();
+    this.references = indexer.references.build();
+    this.writes = indexer.writes.build();
+  }
+
+  /** Indexes the given compilation unit. */
+  public static SymbolUsageIndex create(CompilationUnitTree compilationUnit) {
+    Indexer indexer = new Indexer();
+    indexer.scan(compilationUnit, null);
+    return new SymbolUsageIndex(compilationUnit, indexer);
+  }
+
+  /** The compilation unit this index describes. */
+  public CompilationUnitTree compilationUnit() {
+    return compilationUnit;
+  }
+
+  /** The paths to every class declaration (including enums, interfaces and records). */
+  public ImmutableList<TreePath> classes() {
+    return classes;
+  }
+
+  /** The paths to every method and constructor declaration. */
+  public ImmutableList<TreePath> methods() {
+    return methods;
+  }
+
+  /** The paths to every variable declaration: fields, locals, parameters, resources, and so on. */
+  public ImmutableList<TreePath> variables() {
+    return variables;
+  }
+
+  /**
+   * The paths to every identifier, member select, member reference and class instantiation outside
+   * of the imports, keyed by the symbol it refers to.
+   *
+   * <p>The variable being assigned to by an assignment is also a reference; see {@link #writes()}
+   * to tell such references apart.
+   */
+  public ImmutableListMultimap<Symbol, TreePath> references() {
+    return references;
+  }
+
+  /** The paths to every reference to {@code symbol}, in source order. */
+  public ImmutableList<TreePath> references(Symbol symbol) {
+    return references.get(symbol);
+  }
+
+  /** Whether {@code symbol} is referenced anywhere in the compilation unit outside of imports. */
+  public boolean isReferenced(Symbol symbol) {
+    return references.containsKey(symbol);
+  }
+
+  /**
+   * The paths to every assignment, compound assignment, increment and decrement, keyed by the
+   * symbol of the variable being assigned to.
+   */
+  public ImmutableListMultimap<Symbol, TreePath> writes() {
+    return writes;
+  }
+
+  /** The paths to every assignment to {@code symbol}, in source order. */
+  public ImmutableList<TreePath> writes(Symbol symbol) {
+    return writes.get(symbol);
+  }
+
+  private static final class Indexer extends TreePathScanner<Void, Void> {
+    private final ImmutableList.Builder<TreePath> classes = ImmutableList.builder();
+    private final ImmutableList.Builder<TreePath> methods = ImmutableList.builder();
+    private final ImmutableList.Builder<TreePath> variables = ImmutableList.builder();
+    private final ImmutableListMultimap.Builder<Symbol, TreePath> references =
+        ImmutableListMultimap.builder();
+    private final ImmutableListMultimap.Builder<Symbol, TreePath> writes =
+        ImmutableListMultimap.builder();
+
+    @Override
+    public Void visitImport(ImportTree tree, Void unused) {
+      return null;
+    }
+
+    @Override
+    public Void visitClass(ClassTree tree, Void unused) {
+      classes.add(getCurrentPath());
+      return super.visitClass(tree, null);
+    }
+
+    @Override
+    public Void visitMethod(MethodTree tree, Void unused) {
+      methods.add(getCurrentPath());
+      return super.visitMethod(tree, null);
+    }
+
+    @Override
+    public Void visitVariable(VariableTree tree, Void unused) {
+      variables.add(getCurrentPath());
+      return super.visitVariable(tree, null);
+    }
+
+    @Override
+    public Void visitIdentifier(IdentifierTree tree, Void unused) {
+      recordReference(getSymbol(tree));
+      return null;
+    }
+
+    @Override
+    public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
+      recordReference(getSymbol(tree));
+      return super.visitMemberSelect(tree, null);
+    }
+
+    @Override
+    public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
+      // Not ASTHelpers.getSymbol, which throws if the reference failed to attribute.
+      Symbol symbol = ((JCMemberReference) tree).sym;
+      recordReference(symbol == null ? null : symbol.baseSymbol());
+      return super.visitMemberReference(tree, null);
+    }
+
+    @Override
+    public Void visitNewClass(NewClassTree tree, Void unused) {
+      recordReference(((JCNewClass) tree).constructor);
+      return super.visitNewClass(tree, null);
+    }
+
+    @Override
+    public Void visitAssignment(AssignmentTree tree, Void unused) {
+      recordWrite(tree.getVariable());
+      return super.visitAssignment(tree, null);
+    }
+
+    @Override
+    public Void visitCompoundAssignment(CompoundAssignmentTree tree, Void unused) {
+      recordWrite(tree.getVariable());
+      return super.visitCompoundAssignment(tree, null);
+    }
+
+    @Override
+    public Void visitUnary(UnaryTree tree, Void unused) {
+      switch (tree.getKind()) {
+        case PREFIX_INCREMENT, PREFIX_DECREMENT, POSTFIX_INCREMENT, POSTFIX_DECREMENT ->
+            recordWrite(tree.getExpression());
+        default -> {}
+      }
+      return super.visitUnary(tree, null);
+    }
+
+    private void recordReference(@Nullable Symbol symbol) {
+      if (symbol != null) {
+        references.put(symbol, getCurrentPath());
+      }
+    }
+
+    private void recordWrite(ExpressionTree variable) {
+      Symbol symbol = getSymbol(variable);
+      if (symbol != null) {
+        writes.put(symbol, getCurrentPath());
+      }
+    }
+  }
+}
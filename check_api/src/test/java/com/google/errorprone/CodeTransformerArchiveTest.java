@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link CodeTransformerArchive}. */
+@RunWith(JUnit4.class)
+public class CodeTransformerArchiveTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final List<String> decoded = new ArrayList<>();
+  private static final List<String> applied = new ArrayList<>();
+
+  /** Records when it is deserialized and when it is applied. */
+  private static final class RecordingTransformer implements CodeTransformer, Serializable {
+    private final String name;
+    private final ImmutableSet<Tree.Kind> rootKinds;
+
+    RecordingTransformer(String name, Tree.Kind... rootKinds) {
+      this.name = name;
+      this.rootKinds = ImmutableSet.copyOf(rootKinds);
+    }
+
+    @Override
+    public void apply(TreePath path, Context context, DescriptionListener listener) {
+      applied.add(name);
+    }
+
+    @Override
+    public ImmutableClassToInstanceMap<Annotation> annotations() {
+      return ImmutableClassToInstanceMap.of();
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+
+    private Object readResolve() {
+      decoded.add(name);
+      return this;
+    }
+  }
+
+  @Test
+  public void onlyDecodesTransformersWhoseRootKindsArePresent() throws IOException {
+    Path archive = temporaryFolder.newFile().toPath();
+    CodeTransformerArchive.write(
+        archive,
+        ImmutableList.of(
+            new RecordingTransformer("invocation", Tree.Kind.METHOD_INVOCATION),
+            new RecordingTransformer("newClass", Tree.Kind.NEW_CLASS),
+            new RecordingTransformer("anything"),
+            new RecordingTransformer("lambdaOrInvocation", Tree.Kind.LAMBDA_EXPRESSION)),
+        t -> ((RecordingTransformer) t).rootKinds);
+    assertThat(CodeTransformerArchive.isArchive(archive)).isTrue();
+
+    decoded.clear();
+    applied.clear();
+    CodeTransformer transformer = CodeTransformerArchive.read(archive);
+    assertThat(decoded).isEmpty();
+
+    TreePath path = new TreePath(parse("class Test { void f() { f(); } }"));
+    transformer.apply(path, new Context(), description -> {});
+    transformer.apply(path, new Context(), description -> {});
+
+    assertThat(applied)
+        .containsExactly("invocation", "anything", "invocation", "anything")
+        .inOrder();
+    assertThat(decoded).containsExactly("invocation", "anything").inOrder();
+  }
+
+  @Test
+  public void serializedObjectIsNotAnArchive() throws IOException {
+    Path file = temporaryFolder.newFile().toPath();
+    try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+      out.writeObject(new RecordingTransformer("legacy"));
+    }
+    assertThat(CodeTransformerArchive.isArchive(file)).isFalse();
+    assertThat(CodeTransformerArchive.isArchive(temporaryFolder.newFile().toPath())).isFalse();
+  }
+
+  @Test
+  public void rejectsUnknownVersion() throws IOException {
+    Path archive = temporaryFolder.newFile().toPath();
+    CodeTransformerArchive.write(archive, ImmutableList.of(), t -> ImmutableSet.of());
+    byte[] bytes = Files.readAllBytes(archive);
+    ByteBuffer.wrap(bytes).putInt(Integer.BYTES, CodeTransformerArchive.VERSION + 1);
+    Files.write(archive, bytes);
+
+    IOException e = assertThrows(IOException.class, () -> CodeTransformerArchive.read(archive));
+    assertThat(e).hasMessageThat().contains("Unsupported archive version");
+  }
+
+  private static CompilationUnitTree parse(String source) throws IOException {
+    JavaFileObject file =
+        new SimpleJavaFileObject(URI.create("string:///Test.java"), JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+          }
+        };
+    JavacTask task =
+        JavacTool.create().getTask(null, null, null, ImmutableList.of(), null, List.of(file));
+    return getOnlyElement(task.parse());
+  }
+}
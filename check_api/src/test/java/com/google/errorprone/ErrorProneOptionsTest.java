@@ -209,6 +209,32 @@ public class ErrorProneOptionsTest {
     assertThat(excludedPattern.matcher("foo/other_output/subdir/Gen.cpp").matches()).isFalse();
   }
 
+  @Test
+  public void recognizesResultCache() {
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(
+            new String[] {"-XepResultCache:/tmp/ep-cache", "-XepResultCacheMaxBytes:1024"});
+    assertThat(options.resultCacheDirectory()).isEqualTo("/tmp/ep-cache");
+    assertThat(options.resultCacheMaxBytes()).isEqualTo(1024);
+
+    options = ErrorProneOptions.processArgs(new String[] {});
+    assertThat(options.resultCacheDirectory()).isNull();
+    assertThat(options.resultCacheMaxBytes())
+        .isEqualTo(ErrorProneOptions.DEFAULT_RESULT_CACHE_MAX_BYTES);
+
+    assertThrows(
+        InvalidCommandLineOptionException.class,
+        () -> ErrorProneOptions.processArgs(new String[] {"-XepResultCacheMaxBytes:lots"}));
+  }
+
+  @Test
+  public void recognizesProfileReport() {
+    ErrorProneOptions options =
+        ErrorProneOptions.processArgs(new String[] {"-XepProfileReport:/tmp/profile.json"});
+    assertThat(options.profileReportPath()).isEqualTo("/tmp/profile.json");
+    assertThat(ErrorProneOptions.processArgs(new String[] {}).profileReportPath()).isNull();
+  }
+
   @Test
   public void recognizesPatch() {
     ErrorProneOptions options =
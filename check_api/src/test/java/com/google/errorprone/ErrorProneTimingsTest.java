@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.matchers.Suppressible;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ErrorProneTimings}. */
+@RunWith(JUnit4.class)
+public final class ErrorProneTimingsTest {
+
+  private static final int THREADS = 8;
+  private static final Duration SPAN = Duration.ofMillis(20);
+
+  @Test
+  public void concurrentSpans() throws Exception {
+    ErrorProneTimings timings = ErrorProneTimings.instance(new Context());
+
+    recordOverlappingSpans(timings, new FakeCheck("First"));
+
+    // Each thread's span covers the whole of its sleep, even though the spans overlap.
+    assertThat(timings.timings().keySet()).containsExactly("First");
+    assertThat(timings.timings().get("First")).isAtLeast(SPAN.multipliedBy(THREADS));
+  }
+
+  @Test
+  public void concurrentSpans_profiling() throws Exception {
+    ErrorProneTimings timings = ErrorProneTimings.instance(new Context());
+    timings.enableProfiling();
+
+    recordOverlappingSpans(timings, new FakeCheck("First"));
+    recordOverlappingSpans(timings, new FakeCheck("Second"));
+
+    assertThat(timings.timings().get("First")).isAtLeast(SPAN.multipliedBy(THREADS));
+    assertThat(timings.timings().get("Second")).isAtLeast(SPAN.multipliedBy(THREADS));
+    StringBuilder report = new StringBuilder();
+    timings.writeProfileReport(report);
+    assertThat(report.toString()).contains("{\"name\": \"First\", \"calls\": " + THREADS + ",");
+    assertThat(report.toString()).contains("{\"name\": \"Second\", \"calls\": " + THREADS + ",");
+  }
+
+  /** Records one span for {@code check} on each of several threads, with all spans open at once. */
+  private static void recordOverlappingSpans(ErrorProneTimings timings, Suppressible check)
+      throws Exception {
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  try (AutoCloseable span = timings.span(check)) {
+                    barrier.await();
+                    Thread.sleep(SPAN.toMillis());
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static final class FakeCheck implements Suppressible {
+    private final String name;
+
+    FakeCheck(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Set<String> allNames() {
+      return ImmutableSet.of(name);
+    }
+
+    @Override
+    public String canonicalName() {
+      return name;
+    }
+
+    @Override
+    public boolean supportsSuppressWarnings() {
+      return true;
+    }
+
+    @Override
+    public Set<Class<? extends Annotation>> customSuppressionAnnotations() {
+      return ImmutableSet.of();
+    }
+
+    @Override
+    public boolean suppressedByAnyOf(Set<Name> annotations, VisitorState s) {
+      return false;
+    }
+  }
+}
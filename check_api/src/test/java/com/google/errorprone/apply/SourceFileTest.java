@@ -18,8 +18,11 @@ package com.google.errorprone.apply;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.base.Joiner;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -113,4 +116,74 @@ public class SourceFileTest {
                 + "// enim ad minim veniam, quis nostrud exercitation ullamco\n");
     assertThat(sourceFile.getFragmentByLines(1, 8)).isEqualTo(SOURCE_TEXT);
   }
+
+  @Test
+  public void getAsSequence_reflectsLaterEdits() {
+    CharSequence sequence = sourceFile.getAsSequence();
+    sourceFile.replaceChars(3, 8, "Sasquatch");
+    assertThat(sequence.toString()).isEqualTo(SOURCE_TEXT.replace("Lorem", "Sasquatch"));
+    assertThat(sequence.subSequence(3, 12).toString()).isEqualTo("Sasquatch");
+  }
+
+  @Test
+  public void getFragmentByLines_carriageReturns() {
+    SourceFile crlf = new SourceFile(DUMMY_PATH, "a\r\nb\r\nc");
+    assertThat(crlf.getFragmentByLines(2, 3)).isEqualTo("b\nc\n");
+  }
+
+  @Test
+  public void randomEdits() {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder(SOURCE_TEXT);
+    for (int i = 0; i < 500; i++) {
+      int start = random.nextInt(expected.length() + 1);
+      int end = Math.min(expected.length(), start + random.nextInt(10));
+      String replacement = random.nextBoolean() ? "" : random.nextBoolean() ? "xx\nyy" : "\n";
+      sourceFile.replaceChars(start, end, replacement);
+      expected.replace(start, end, replacement);
+
+      assertThat(sourceFile.getSourceText()).isEqualTo(expected.toString());
+      CharSequence sequence = sourceFile.getAsSequence();
+      assertThat(sequence.length()).isEqualTo(expected.length());
+      if (expected.length() > 0) {
+        int index = random.nextInt(expected.length());
+        assertThat(sequence.charAt(index)).isEqualTo(expected.charAt(index));
+      }
+      assertThat(sourceFile.getFragmentByChars(start, start + replacement.length()))
+          .isEqualTo(replacement);
+      List<String> lines = sourceFile.getLines();
+      int startLine = 1 + random.nextInt(lines.size() + 1);
+      int endLine = startLine + random.nextInt(3);
+      assertThat(sourceFile.getFragmentByLines(startLine, endLine))
+          .isEqualTo(
+              Joiner.on('\n')
+                      .join(
+                          lines.subList(
+                              Math.min(startLine - 1, lines.size()),
+                              Math.min(endLine, lines.size())))
+                  + "\n");
+    }
+  }
+
+  @Test
+  public void replaceLines_numbered_matchesGetLines() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      String text =
+          random.nextBoolean() ? SOURCE_TEXT : SOURCE_TEXT.substring(0, random.nextInt(100));
+      SourceFile file = new SourceFile(DUMMY_PATH, text);
+      List<String> lines = new ArrayList<>(file.getLines());
+      int startLine = 1 + random.nextInt(lines.size() + 1);
+      int endLine = startLine + random.nextInt(3);
+      List<String> replacement = random.nextBoolean() ? List.of() : List.of("cat", "dog");
+      if (startLine <= lines.size()) {
+        lines.subList(startLine - 1, Math.min(endLine, lines.size())).clear();
+        lines.addAll(startLine - 1, replacement);
+      }
+
+      file.replaceLines(startLine, endLine, replacement);
+
+      assertThat(file.getSourceText()).isEqualTo(Joiner.on('\n').join(lines) + "\n");
+    }
+  }
 }
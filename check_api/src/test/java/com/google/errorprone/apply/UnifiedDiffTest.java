@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.apply;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.Patch;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.Replacements;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link UnifiedDiff}. */
+@RunWith(JUnit4.class)
+public class UnifiedDiffTest {
+
+  private static final Splitter LINES = Splitter.on('\n');
+
+  private static final String SOURCE =
+      """
+      class Test {
+        void f() {
+          int a = 1;
+          int b = 2;
+        }
+
+        void g() {
+          int c = 3;
+        }
+
+        void h() {
+          int d = 4;
+        }
+      }
+      """;
+
+  @Test
+  public void singleLine() {
+    assertMatchesMyers(SOURCE, replace(SOURCE, "int b = 2;", "long b = 2;"));
+  }
+
+  @Test
+  public void farApartChangesAreSeparateHunks() {
+    String diff =
+        assertMatchesMyers(
+            SOURCE,
+            replace(SOURCE, "class Test", "final class Test"),
+            replace(SOURCE, "int d", "long d"));
+    assertThat(diff).contains("@@ -1,3 +1,3 @@");
+    assertThat(diff).contains("@@ -10,5 +10,5 @@");
+  }
+
+  @Test
+  public void nearbyChangesShareAHunk() {
+    String diff =
+        assertMatchesMyers(
+            SOURCE, replace(SOURCE, "int a", "long a"), replace(SOURCE, "int c", "long c"));
+    assertThat(diff).containsMatch("(?s)^[^@]*@@[^@]*@@[^@]*$");
+  }
+
+  @Test
+  public void insertedLines() {
+    String diff =
+        assertMatchesMyers(
+            SOURCE, replace(SOURCE, "    int a = 1;\n", "    int a = 1;\n    int z = 0;\n"));
+    assertThat(diff).contains("@@ -2,4 +2,5 @@");
+  }
+
+  @Test
+  public void linesAfterAnEarlierInsertionAreRenumbered() {
+    String diff =
+        assertMatchesMyers(
+            SOURCE,
+            replace(SOURCE, "class Test {\n", "class Test {\n  int x;\n  int y;\n"),
+            replace(SOURCE, "int d", "long d"));
+    assertThat(diff).contains("@@ -10,5 +12,5 @@");
+  }
+
+  @Test
+  public void deletedLines() {
+    // Either blank line around g() could be the one deleted, so don't compare with Myers.
+    ImmutableSet<Replacement> replacements =
+        ImmutableSet.of(replace(SOURCE, "  void g() {\n    int c = 3;\n  }\n\n", ""));
+    String diff = UnifiedDiff.generate("Test.java", SOURCE, replacements, 2);
+    assertThat(diff).contains("@@ -5,8 +5,4 @@");
+    assertApplies(SOURCE, replacements, diff);
+  }
+
+  @Test
+  public void noOpReplacement() {
+    assertThat(
+            UnifiedDiff.generate(
+                "Test.java", SOURCE, ImmutableSet.of(replace(SOURCE, "f", "f")), 2))
+        .isEmpty();
+  }
+
+  @Test
+  public void randomEditsProduceAValidPatch() {
+    Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      Replacements replacements = new Replacements();
+      for (int j = random.nextInt(5); j >= 0; j--) {
+        int start = random.nextInt(SOURCE.length() + 1);
+        // Not insertions: Replacements accepts an insertion inside an existing replacement.
+        int end = Math.min(SOURCE.length(), start + 1 + random.nextInt(20));
+        String text = random.nextBoolean() ? "" : random.nextBoolean() ? "x\ny" : "\n";
+        try {
+          replacements.add(Replacement.create(start, end, text));
+        } catch (IllegalArgumentException overlapping) {
+          // Skip it.
+        }
+      }
+      ImmutableSet<Replacement> ascending = replacements.ascending();
+      String updated = apply(SOURCE, ascending);
+      String diff = UnifiedDiff.generate("Test.java", SOURCE, ascending, 2);
+      if (updated.equals(SOURCE)) {
+        assertThat(diff).isEmpty();
+        continue;
+      }
+      assertApplies(SOURCE, ascending, diff);
+    }
+  }
+
+  private static void assertApplies(
+      String source, ImmutableSet<Replacement> replacements, String diff) {
+    assertThat(patch(LINES.splitToList(source), diff))
+        .containsExactlyElementsIn(LINES.splitToList(apply(source, replacements)))
+        .inOrder();
+  }
+
+  private static final Pattern HUNK_HEADER =
+      Pattern.compile("@@ -(\\d+),(\\d+) \\+(\\d+),(\\d+) @@");
+
+  /** Applies a unified diff, checking its hunk headers, context lines and removed lines. */
+  private static List<String> patch(List<String> source, String diff) {
+    List<String> lines = LINES.splitToList(diff);
+    assertThat(lines.get(lines.size() - 1)).isEmpty();
+    List<String> result = new ArrayList<>();
+    int next = 0;
+    int oldCount = 0;
+    int newCount = 0;
+    for (String line : lines.subList(2, lines.size() - 1)) {
+      String text = line.substring(1);
+      switch (line.charAt(0)) {
+        case '@' -> {
+          assertThat(oldCount).isEqualTo(0);
+          assertThat(newCount).isEqualTo(0);
+          Matcher header = HUNK_HEADER.matcher(line);
+          assertThat(header.matches()).isTrue();
+          int start = Integer.parseInt(header.group(1)) - 1;
+          assertThat(start).isAtLeast(next);
+          result.addAll(source.subList(next, start));
+          next = start;
+          assertThat(Integer.parseInt(header.group(3))).isEqualTo(result.size() + 1);
+          oldCount = Integer.parseInt(header.group(2));
+          newCount = Integer.parseInt(header.group(4));
+        }
+        case ' ' -> {
+          assertThat(source.get(next++)).isEqualTo(text);
+          result.add(text);
+          oldCount--;
+          newCount--;
+        }
+        case '-' -> {
+          assertThat(source.get(next++)).isEqualTo(text);
+          oldCount--;
+        }
+        case '+' -> {
+          result.add(text);
+          newCount--;
+        }
+        default -> throw new AssertionError(line);
+      }
+    }
+    assertThat(oldCount).isEqualTo(0);
+    assertThat(newCount).isEqualTo(0);
+    result.addAll(source.subList(next, source.size()));
+    return result;
+  }
+
+  /** Asserts that the replacements produce the same diff as java-diff-utils, and returns it. */
+  private static String assertMatchesMyers(String source, Replacement... replacements) {
+    ImmutableSet<Replacement> ascending = ImmutableSet.copyOf(replacements);
+    String diff = UnifiedDiff.generate("Test.java", source, ascending, 2);
+    List<String> originalLines = LINES.splitToList(source);
+    Patch<String> patch =
+        DiffUtils.diff(originalLines, LINES.splitToList(apply(source, ascending)));
+    assertThat(diff)
+        .isEqualTo(
+            Joiner.on('\n')
+                    .join(
+                        UnifiedDiffUtils.generateUnifiedDiff(
+                            "Test.java", "Test.java", originalLines, patch, 2))
+                + "\n");
+    return diff;
+  }
+
+  private static Replacement replace(String source, String target, String replaceWith) {
+    int start = source.indexOf(target);
+    return Replacement.create(start, start + target.length(), replaceWith);
+  }
+
+  private static String apply(String source, ImmutableSet<Replacement> replacements) {
+    StringBuilder result = new StringBuilder();
+    int position = 0;
+    for (Replacement replacement : replacements) {
+      result
+          .append(source, position, replacement.startPosition())
+          .append(replacement.replaceWith());
+      position = replacement.endPosition();
+    }
+    return result.append(source, position, source.length()).toString();
+  }
+}
@@ -17,13 +17,19 @@
 package com.google.errorprone.fixes;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.fixes.Replacements.CoalescePolicy.REJECT;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.google.errorprone.fixes.Replacements.CoalescePolicy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -183,4 +189,78 @@ public class ReplacementsTest {
     Replacement around = Replacement.create(0, 2, "Around");
     assertThrows(IllegalArgumentException.class, () -> replacements.add(around));
   }
+
+  @Test
+  public void insertionInsideReplacementOverlaps() {
+    Replacements replacements = new Replacements();
+    Replacement around = Replacement.create(0, 2, "Around");
+    replacements.add(around);
+    Replacement inside = Replacement.create(1, 1, "Something");
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> replacements.add(inside));
+    assertThat(e)
+        .hasMessageThat()
+        .isEqualTo(String.format("%s overlaps with existing replacements: %s", inside, around));
+    // Insertions at either end are fine.
+    replacements.add(Replacement.create(0, 0, "Before")).add(Replacement.create(2, 2, "After"));
+    assertThat(Iterables.transform(replacements.ascending(), AS_RANGES))
+        .containsExactly(Range.closedOpen(0, 0), Range.closedOpen(0, 2), Range.closedOpen(2, 2))
+        .inOrder();
+  }
+
+  @Test
+  public void addAllIgnoringConflicts() {
+    Replacements replacements = new Replacements().add(Replacement.create(10, 20, "a"));
+    Replacement overlapsExisting = Replacement.create(15, 25, "b");
+    Replacement overlapsEarlier = Replacement.create(3, 6, "d");
+    Replacement differingInsertion = Replacement.create(30, 30, "f");
+    assertThat(
+            replacements.addAllIgnoringConflicts(
+                ImmutableList.of(
+                    overlapsExisting,
+                    Replacement.create(2, 5, "c"),
+                    overlapsEarlier,
+                    Replacement.create(30, 30, "e"),
+                    differingInsertion,
+                    Replacement.create(20, 20, "g")),
+                CoalescePolicy.REJECT))
+        .containsExactly(overlapsExisting, overlapsEarlier, differingInsertion)
+        .inOrder();
+    assertThat(replacements.ascending())
+        .containsExactly(
+            Replacement.create(2, 5, "c"),
+            Replacement.create(10, 20, "a"),
+            Replacement.create(20, 20, "g"),
+            Replacement.create(30, 30, "e"))
+        .inOrder();
+  }
+
+  @Test
+  public void randomReplacementsMatchBruteForce() {
+    Random random = new Random(0);
+    for (int i = 0; i < 500; i++) {
+      Replacements replacements = new Replacements();
+      List<Replacement> added = new ArrayList<>();
+      for (int j = 0; j < 20; j++) {
+        int start = random.nextInt(50);
+        Replacement replacement =
+            Replacement.create(start, start + random.nextInt(4), String.valueOf(j));
+        boolean conflicts =
+            added.stream()
+                .anyMatch(
+                    r ->
+                        r.range().equals(replacement.range())
+                            || (r.startPosition() < replacement.endPosition()
+                                && replacement.startPosition() < r.endPosition()));
+        assertThat(replacements.addAllIgnoringConflicts(ImmutableList.of(replacement), REJECT))
+            .hasSize(conflicts ? 1 : 0);
+        if (!conflicts) {
+          added.add(replacement);
+        }
+      }
+      added.sort(
+          Comparator.comparing(Replacement::startPosition).thenComparing(Replacement::endPosition));
+      assertThat(replacements.ascending()).containsExactlyElementsIn(added).inOrder();
+    }
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.util.ASTHelpers.getStartPosition;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link CompilationUnitTokens}. */
+@RunWith(JUnit4.class)
+public class CompilationUnitTokensTest {
+
+  /** Checks that the tokens of every tree match the tokens of its source lexed on its own. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Compares tokens")
+  public static class CompareTokens extends BugChecker implements CompilationUnitTreeMatcher {
+    static int comparisons;
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      new TreeScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null && state.getEndPosition(tree) > getStartPosition(tree)) {
+            String source = state.getSourceForNode(tree);
+            int start = getStartPosition(tree);
+            int end = state.getEndPosition(tree);
+            assertThat(describe(state.getTokensForNode(tree)))
+                .isEqualTo(describe(ErrorProneTokens.getTokens(source, state.context)));
+            assertThat(describe(state.getOffsetTokensForNode(tree)))
+                .isEqualTo(describe(ErrorProneTokens.getTokens(source, start, state.context)));
+            String sourceCode = state.getSourceCode().toString();
+            assertThat(describe(state.getOffsetTokens(0, end)))
+                .isEqualTo(
+                    describe(
+                        ErrorProneTokens.getTokens(sourceCode.substring(0, end), state.context)));
+            // Ranges that split a token are lexed on their own.
+            assertThat(describe(state.getOffsetTokens(start + 1, end)))
+                .isEqualTo(
+                    describe(
+                        ErrorProneTokens.getTokens(
+                            sourceCode.substring(start + 1, end), start + 1, state.context)));
+            assertThat(
+                    CompilationUnitTokens.create(
+                            state.getPath().getCompilationUnit(), sourceCode, state.context)
+                        .tokens(start, end, 0))
+                .isNotNull();
+            comparisons++;
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(tree, null);
+      return Description.NO_MATCH;
+    }
+
+    private static ImmutableList<String> describe(List<ErrorProneToken> tokens) {
+      return tokens.stream()
+          .map(
+              t ->
+                  String.format(
+                      "%s %d-%d %s",
+                      t.kind(),
+                      t.pos(),
+                      t.endPos(),
+                      t.comments().stream()
+                          .map(c -> c.getPos() + "-" + c.getEndPos() + " " + c.getText())
+                          .collect(toImmutableList())))
+          .collect(toImmutableList());
+    }
+  }
+
+  @Test
+  public void slicesMatchLexingAgain() {
+    CompareTokens.comparisons = 0;
+    CompilationTestHelper.newInstance(CompareTokens.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            /** A class. */
+            class Test {
+              // before
+              int x = /* one */ 1 /* two */ + 2; // after
+
+              /** A method. */
+              @Deprecated
+              int f(int y /* the argument */) {
+                switch (y) {
+                  case 1 -> {
+                    return y >> 1; /* shifted */
+                  }
+                  default -> {
+                    return "a \\" b".length() + 'c';
+                  }
+                }
+              }
+              // trailing
+            }
+            """)
+        .doTest();
+    assertThat(CompareTokens.comparisons).isGreaterThan(20);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.util.ASTHelpers.getStartPosition;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SourceRange}. */
+@RunWith(JUnit4.class)
+public class SourceRangeTest {
+
+  /** Checks that the source range of every tree agrees with its source and tokens. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Compares source ranges")
+  public static class CompareRanges extends BugChecker implements CompilationUnitTreeMatcher {
+    static int comparisons;
+
+    @Override
+    public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+      new TreeScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree tree, Void unused) {
+          if (tree != null && state.getEndPosition(tree) > getStartPosition(tree)) {
+            String source = state.getSourceForNode(tree);
+            SourceRange range = state.getSourceRangeForNode(tree);
+            assertThat(range.toString()).isEqualTo(source);
+            assertThat(range.contentEquals(source)).isTrue();
+            assertThat(range.startsWith(source.substring(0, 1))).isTrue();
+            assertThat(range.endsWith(source.substring(source.length() - 1))).isTrue();
+            assertThat(range.indexOf(";")).isEqualTo(source.indexOf(';'));
+            assertThat(range.containsComment())
+                .isEqualTo(
+                    state.getOffsetTokensForNode(tree).stream()
+                        .anyMatch(t -> !t.comments().isEmpty()));
+            assertThat(range.startLine())
+                .isEqualTo(
+                    state.getPath().getCompilationUnit().getLineMap().getLineNumber(range.start()));
+            comparisons++;
+          }
+          return super.scan(tree, null);
+        }
+      }.scan(tree, null);
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void rangesMatchSource() {
+    CompareRanges.comparisons = 0;
+    CompilationTestHelper.newInstance(CompareRanges.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              String a = "// not a comment";
+              String b = "\\" /* still not */";
+              char c = '"';
+              String d =
+                  \"""
+                  /* text block */ "
+                  \""";
+              int x = /* one */ 1 + 2; // after
+
+              void f() {
+                // inside
+                g("/*", '/', "*/");
+              }
+
+              void g(String a, char b, String c) {}
+            }
+            """)
+        .doTest();
+    assertThat(CompareRanges.comparisons).isGreaterThan(20);
+  }
+
+  /** Reports the line and column of every method. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Reports positions")
+  public static class ReportPositions extends BugChecker implements MethodTreeMatcher {
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      SourceRange range = state.getSourceRangeForNode(tree);
+      if (range == null) {
+        // The implicit constructor has no source.
+        return Description.NO_MATCH;
+      }
+      return buildDescription(tree)
+          .setMessage(
+              String.format(
+                  "%d:%d-%d %s",
+                  range.startLine(),
+                  range.startColumn(),
+                  range.endLine(),
+                  range.subSequence(0, range.indexOf("(")).toString().trim()))
+          .build();
+    }
+  }
+
+  @Test
+  public void lineAndColumn() {
+    CompilationTestHelper.newInstance(ReportPositions.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: 3:3-3 void f
+              void f() {}
+
+              // BUG: Diagnostic contains: 6:3-8 int g
+              int g() {
+                return 0;
+              }
+            }
+            """)
+        .doTest();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.util.ASTHelpers.getSymbol;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreePath;
+import com.sun.tools.javac.code.Symbol;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SymbolUsageIndex}. */
+@RunWith(JUnit4.class)
+public class SymbolUsageIndexTest {
+
+  /** Describes the references to, and writes of, every field and method. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Prints references and writes")
+  public static class PrintUsages extends BugChecker
+      implements VariableTreeMatcher, MethodTreeMatcher {
+    @Override
+    public Description matchVariable(VariableTree tree, VisitorState state) {
+      return describe(tree, getSymbol(tree), state);
+    }
+
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      return describe(tree, getSymbol(tree), state);
+    }
+
+    private Description describe(Tree tree, Symbol symbol, VisitorState state) {
+      SymbolUsageIndex index = state.getSymbolUsageIndex();
+      if (symbol.owner.getKind().isClass() && !symbol.isConstructor()) {
+        return buildDescription(tree)
+            .setMessage(
+                String.format(
+                    "%s %s %s",
+                    symbol.getSimpleName(),
+                    kinds(index.references(symbol)),
+                    kinds(index.writes(symbol))))
+            .build();
+      }
+      return Description.NO_MATCH;
+    }
+
+    private static String kinds(Iterable<TreePath> paths) {
+      StringBuilder result = new StringBuilder("[");
+      for (TreePath path : paths) {
+        if (result.length() > 1) {
+          result.append(", ");
+        }
+        result.append(path.getLeaf().getKind());
+      }
+      return result.append("]").toString();
+    }
+  }
+
+  @Test
+  public void referencesAndWrites() {
+    CompilationTestHelper.newInstance(PrintUsages.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            import java.util.function.Supplier;
+
+            class Test {
+              // BUG: Diagnostic contains: x [IDENTIFIER, IDENTIFIER] [ASSIGNMENT, PLUS_ASSIGNMENT]
+              private int x;
+
+              // BUG: Diagnostic contains: y [MEMBER_SELECT] [POSTFIX_INCREMENT]
+              private int y;
+
+              // BUG: Diagnostic contains: f [MEMBER_REFERENCE, IDENTIFIER] []
+              private int f() {
+                x = 1;
+                x += 2;
+                this.y++;
+                return 0;
+              }
+
+              // BUG: Diagnostic contains: g [] []
+              void g() {
+                Supplier<Integer> s = this::f;
+                f();
+              }
+            }
+""")
+        .doTest();
+  }
+
+  /** Records every distinct index it is given. */
+  @BugPattern(severity = SeverityLevel.ERROR, summary = "Records indices")
+  public static class RecordIndices extends BugChecker implements MethodTreeMatcher {
+    static final Set<SymbolUsageIndex> indices = new HashSet<>();
+
+    @Override
+    public Description matchMethod(MethodTree tree, VisitorState state) {
+      indices.add(state.getSymbolUsageIndex());
+      return Description.NO_MATCH;
+    }
+  }
+
+  @Test
+  public void builtOncePerCompilationUnit() {
+    RecordIndices.indices.clear();
+    CompilationTestHelper.newInstance(RecordIndices.class, getClass())
+        .addSourceLines(
+            "A.java",
+            """
+            class A {
+              void f() {}
+
+              void g() {}
+            }
+            """)
+        .addSourceLines(
+            "B.java",
+            """
+            class B {
+              void f() {}
+            }
+            """)
+        .doTest();
+    assertThat(RecordIndices.indices).hasSize(2);
+  }
+}
@@ -56,6 +56,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.ErrorProneFlags;
+import com.google.errorprone.ErrorProneTimings;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
@@ -63,6 +64,7 @@ import com.google.errorprone.bugpatterns.BugChecker.MethodTreeMatcher;
 import com.google.errorprone.bugpatterns.checkreturnvalue.PackagesRule;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.EvaluationCache;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.MethodInfo;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
 import com.google.errorprone.bugpatterns.threadsafety.ConstantExpressions;
@@ -70,6 +72,7 @@ import com.google.errorprone.fixes.Fix;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.ExpressionStatementTree;
@@ -140,6 +143,14 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
   private final MessageTrailerStyle messageTrailerStyle;
   private final ResultUsePolicyEvaluator<VisitorState, Symbol, MethodSymbol> evaluator;
 
+  /**
+   * The policies of the methods invoked in this compilation, and of their enclosing classes and
+   * packages, which are shared by many invocations.
+   */
+  private final Supplier<EvaluationCache<Symbol, MethodSymbol>> evaluationCache =
+      VisitorState.memoize(
+          state -> new EvaluationCache<>(ErrorProneTimings.instance(state.context)));
+
   @Inject
   CheckReturnValue(ErrorProneFlags flags, ConstantExpressions constantExpressions) {
     super(constantExpressions);
@@ -177,6 +188,7 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
     }
     this.evaluator =
         builder
+            .cacheEvaluations(evaluationCache::get)
             .addRule(
                 globalDefault(
                     defaultPolicy(flags, CHECK_ALL_METHODS),
@@ -241,16 +253,13 @@ public class CheckReturnValue extends AbstractReturnValueIgnored
   @Override
   public boolean isCovered(ExpressionTree tree, VisitorState state) {
     return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
-        .isPresent();
+        .anyMatch(method -> evaluator.firstEvaluation(method, state).isPresent());
   }
 
   @Override
   public ImmutableMap<String, ?> getMatchMetadata(ExpressionTree tree, VisitorState state) {
-    return methodToInspect(tree).stream()
-        .flatMap(method -> evaluator.evaluations(method, state))
-        .findFirst()
+    return methodToInspect(tree)
+        .flatMap(method -> evaluator.firstEvaluation(method, state))
         .map(
             evaluation ->
                 ImmutableMap.of(
@@ -26,7 +26,6 @@ import com.google.common.collect.Iterables;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.StandardTags;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -61,16 +60,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
             + " getDeclaredConstructor().newInstance()",
     severity = WARNING,
     tags = StandardTags.FRAGILE_CODE)
-public class ClassNewInstance extends BugChecker implements MethodInvocationTreeMatcher {
+public class ClassNewInstance extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> NEW_INSTANCE =
       instanceMethod().onExactClass(Class.class.getName()).named("newInstance");
 
+  public ClassNewInstance() {
+    super(NEW_INSTANCE);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!NEW_INSTANCE.matches(tree, state)) {
-      return Description.NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     SuggestedFix.Builder fix = SuggestedFix.builder();
     fix.replace(
         state.getEndPosition(ASTHelpers.getReceiver(tree)),
@@ -28,7 +28,6 @@ import com.google.errorprone.bugpatterns.BugChecker.ConditionalExpressionTreeMat
 import com.google.errorprone.bugpatterns.BugChecker.IfTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
-import com.google.errorprone.util.ErrorProneTokens;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ConditionalExpressionTree;
 import com.sun.source.tree.IfTree;
@@ -59,8 +58,8 @@ public class DuplicateBranches extends BugChecker
 
   @SuppressWarnings("TreeToString")
   private Description match(Tree tree, Tree thenTree, Tree elseTree, VisitorState state) {
-    if (state.getSourceForNode(thenTree).length() > MAX_LENGTH_TO_COMPARE
-        || state.getSourceForNode(elseTree).length() > MAX_LENGTH_TO_COMPARE) {
+    if (state.getSourceRangeForNode(thenTree).length() > MAX_LENGTH_TO_COMPARE
+        || state.getSourceRangeForNode(elseTree).length() > MAX_LENGTH_TO_COMPARE) {
       return NO_MATCH;
     }
     // This could do something similar to com.sun.tools.javac.comp.TreeDiffer. That doesn't
@@ -84,11 +83,7 @@ public class DuplicateBranches extends BugChecker
       }
     }
     String comments =
-        ErrorProneTokens.getTokens(
-                state.getSourceCode().subSequence(getStartPosition(tree), start).toString(),
-                getStartPosition(tree),
-                state.context)
-            .stream()
+        state.getOffsetTokens(getStartPosition(tree), start).stream()
             .flatMap(errorProneToken -> errorProneToken.comments().stream())
             .map(c -> c.getText())
             .collect(joining("\n"));
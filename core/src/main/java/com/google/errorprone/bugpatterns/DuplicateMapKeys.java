@@ -20,7 +20,6 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.method.MethodMatchers;
@@ -39,7 +38,7 @@ import java.util.Set;
     summary =
         "Map#ofEntries will throw an IllegalArgumentException if there are any duplicate keys",
     severity = ERROR)
-public class DuplicateMapKeys extends BugChecker implements MethodInvocationTreeMatcher {
+public class DuplicateMapKeys extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> METHOD_MATCHER =
       MethodMatchers.staticMethod().onClass("java.util.Map").named("ofEntries");
@@ -47,11 +46,12 @@ public class DuplicateMapKeys extends BugChecker implements MethodInvocationTree
   private static final Matcher<ExpressionTree> ENTRY_MATCHER =
       MethodMatchers.staticMethod().onClass("java.util.Map").named("entry");
 
+  public DuplicateMapKeys() {
+    super(METHOD_MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!METHOD_MATCHER.matches(tree, state)) {
-      return Description.NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     Set<Object> keySet = new HashSet<>();
     for (ExpressionTree expr : tree.getArguments()) {
       if (!(expr instanceof MethodInvocationTree entryInvocation)) {
@@ -19,6 +19,7 @@ package com.google.errorprone.bugpatterns;
 import static com.google.errorprone.BugPattern.LinkType.CUSTOM;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
+import static com.google.errorprone.util.ASTHelpers.containsComments;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
@@ -43,7 +44,7 @@ public class EmptyCatch extends BugChecker implements CatchTreeMatcher {
     if (!block.getStatements().isEmpty()) {
       return NO_MATCH;
     }
-    if (state.getTokensForNode(block).stream().anyMatch(t -> !t.comments().isEmpty())) {
+    if (containsComments(block, state)) {
       return NO_MATCH;
     }
     return describeMatch(tree);
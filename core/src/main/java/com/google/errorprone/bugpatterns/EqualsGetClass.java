@@ -30,7 +30,6 @@ import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.StandardTags;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -66,16 +65,17 @@ import javax.lang.model.element.Modifier;
     summary = "Prefer instanceof to getClass when implementing Object#equals.",
     severity = WARNING,
     tags = StandardTags.FRAGILE_CODE)
-public final class EqualsGetClass extends BugChecker implements MethodInvocationTreeMatcher {
+public final class EqualsGetClass extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> GET_CLASS =
       instanceMethod().onDescendantOf("java.lang.Object").named("getClass");
 
+  public EqualsGetClass() {
+    super(GET_CLASS);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!GET_CLASS.matches(tree, state)) {
-      return Description.NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     TreePath methodTreePath = state.findPathToEnclosing(MethodTree.class);
     if (methodTreePath == null) {
       return Description.NO_MATCH;
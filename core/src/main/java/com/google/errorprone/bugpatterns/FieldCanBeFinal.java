@@ -17,18 +17,22 @@ package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.SUGGESTION;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
+import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
 import static com.google.errorprone.util.ASTHelpers.shouldKeep;
+import static java.util.Comparator.comparingInt;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
-import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ClassTree;
@@ -41,17 +45,16 @@ import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
-import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
-import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Flags;
-import com.sun.tools.javac.code.Symbol;
-import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.VarSymbol;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
@@ -120,31 +123,28 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
 
     private final Map<VarSymbol, VariableAssignments> assignments = new LinkedHashMap<>();
 
-    /** Returns all {@link VariableAssignments} in the current compilation unit. */
-    private Collection<VariableAssignments> getAssignments() {
-      return assignments.values();
+    /**
+     * Returns all {@link VariableAssignments} in the current compilation unit, in the order their
+     * variables are first declared or assigned to.
+     */
+    private ImmutableList<VariableAssignments> getAssignments() {
+      return ImmutableList.sortedCopyOf(comparingInt(v -> v.firstSeen), assignments.values());
     }
 
     /** Records an assignment to a variable. */
-    private void recordAssignment(Tree tree, InitializationContext init) {
-      Symbol sym = ASTHelpers.getSymbol(tree);
-      if (sym != null && sym.getKind() == ElementKind.FIELD) {
-        recordAssignment((VarSymbol) sym, init);
-      }
-    }
-
-    /** Records an assignment to a variable. */
-    private void recordAssignment(VarSymbol sym, InitializationContext init) {
-      getDeclaration(sym).recordAssignment(init);
+    private void recordAssignment(VarSymbol sym, Tree tree, InitializationContext init) {
+      getDeclaration(sym, tree).recordAssignment(init);
     }
 
-    private VariableAssignments getDeclaration(VarSymbol sym) {
-      return assignments.computeIfAbsent(sym, VariableAssignments::new);
+    private VariableAssignments getDeclaration(VarSymbol sym, Tree tree) {
+      VariableAssignments declaration = assignments.computeIfAbsent(sym, VariableAssignments::new);
+      declaration.firstSeen = Math.min(declaration.firstSeen, getStartPosition(tree));
+      return declaration;
     }
 
     /** Records a variable declaration. */
     private void recordDeclaration(VarSymbol sym, VariableTree tree) {
-      getDeclaration(sym).recordDeclaration(tree);
+      getDeclaration(sym, tree).recordDeclaration(tree);
     }
   }
 
@@ -155,6 +155,7 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
     private final EnumSet<InitializationContext> writes =
         EnumSet.noneOf(InitializationContext.class);
     private VariableTree declaration;
+    private int firstSeen = Integer.MAX_VALUE;
 
     VariableAssignments(VarSymbol sym) {
       this.sym = sym;
@@ -209,8 +210,7 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    VariableAssignmentRecords writes = new VariableAssignmentRecords();
-    new FinalScanner(writes, state).scan(state.getPath(), InitializationContext.NONE);
+    VariableAssignmentRecords writes = recordFieldAssignments(state);
     for (VariableAssignments var : writes.getAssignments()) {
       if (!var.isEffectivelyFinal()) {
         continue;
@@ -242,104 +242,101 @@ public class FieldCanBeFinal extends BugChecker implements CompilationUnitTreeMa
   }
 
   /** Record assignments to possibly-final variables in a compilation unit. */
-  private class FinalScanner extends TreePathScanner<Void, InitializationContext> {
-
-    private final VariableAssignmentRecords writes;
-    private final VisitorState compilationState;
-
-    private FinalScanner(VariableAssignmentRecords writes, VisitorState compilationState) {
-      this.writes = writes;
-      this.compilationState = compilationState;
-    }
-
-    @Override
-    public Void visitVariable(VariableTree node, InitializationContext init) {
-      VarSymbol sym = ASTHelpers.getSymbol(node);
-      if (sym.getKind() == ElementKind.FIELD && !isSuppressed(node, compilationState)) {
-        writes.recordDeclaration(sym, node);
+  private VariableAssignmentRecords recordFieldAssignments(VisitorState state) {
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
+    VariableAssignmentRecords writes = new VariableAssignmentRecords();
+    Map<Tree, Boolean> skippedClasses = new HashMap<>();
+    for (TreePath path : index.variables()) {
+      VariableTree node = (VariableTree) path.getLeaf();
+      VarSymbol sym = getSymbol(node);
+      if (sym.getKind() != ElementKind.FIELD
+          || isSuppressed(node, state)
+          || isInSkippedClass(path, skippedClasses, state)) {
+        continue;
       }
-      return super.visitVariable(node, InitializationContext.NONE);
-    }
-
-    @Override
-    public Void visitLambdaExpression(
-        LambdaExpressionTree lambdaExpressionTree, InitializationContext init) {
-      // reset the initialization context when entering lambda
-      return super.visitLambdaExpression(lambdaExpressionTree, InitializationContext.NONE);
-    }
-
-    @Override
-    public Void visitBlock(BlockTree node, InitializationContext init) {
-      if (getCurrentPath().getParentPath().getLeaf().getKind() == Kind.CLASS) {
-        init = node.isStatic() ? InitializationContext.STATIC : InitializationContext.INSTANCE;
+      writes.recordDeclaration(sym, node);
+      for (TreePath write : index.writes(sym)) {
+        if (!isInSkippedClass(write, skippedClasses, state)) {
+          writes.recordAssignment(sym, write.getLeaf(), initializationContext(write));
+        }
       }
-      return super.visitBlock(node, init);
     }
+    return writes;
+  }
 
-    @Override
-    public Void visitMethod(MethodTree node, InitializationContext init) {
-      MethodSymbol sym = ASTHelpers.getSymbol(node);
-      if (sym.isConstructor()) {
-        init = InitializationContext.INSTANCE;
+  /** Whether {@code path} is enclosed by a suppressed class, or one whose fields are mutable. */
+  private boolean isInSkippedClass(
+      TreePath path, Map<Tree, Boolean> skippedClasses, VisitorState state) {
+    for (TreePath enclosing = path; enclosing != null; enclosing = enclosing.getParentPath()) {
+      if (!(enclosing.getLeaf() instanceof ClassTree classTree)) {
+        continue;
       }
-      return super.visitMethod(node, init);
-    }
-
-    @Override
-    public Void visitAssignment(AssignmentTree node, InitializationContext init) {
-      if (init == InitializationContext.INSTANCE && !isThisAccess(node.getVariable())) {
-        // don't record assignments in initializers that aren't to members of the object
-        // being initialized
-        init = InitializationContext.NONE;
+      Boolean skipped = skippedClasses.get(classTree);
+      if (skipped == null) {
+        skipped = isSuppressed(classTree, state) || isObjectifyEntity(classTree);
+        skippedClasses.put(classTree, skipped);
       }
-      writes.recordAssignment(node.getVariable(), init);
-      return super.visitAssignment(node, init);
-    }
-
-    private boolean isThisAccess(Tree tree) {
-      if (tree.getKind() == Kind.IDENTIFIER) {
+      if (skipped) {
         return true;
       }
-      if (tree.getKind() != Kind.MEMBER_SELECT) {
-        return false;
-      }
-      ExpressionTree selected = ((MemberSelectTree) tree).getExpression();
-      return selected instanceof IdentifierTree ident && ident.getName().contentEquals("this");
     }
+    return false;
+  }
 
-    @Override
-    public Void visitClass(ClassTree node, InitializationContext init) {
-      VisitorState state = compilationState.withPath(getCurrentPath());
-
-      if (isSuppressed(node, state)) {
-        return null;
-      }
-
-      for (Attribute.Compound anno : getSymbol(node).getAnnotationMirrors()) {
-        TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
-        if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
-          return null;
-        }
+  private static boolean isObjectifyEntity(ClassTree tree) {
+    for (Attribute.Compound anno : getSymbol(tree).getAnnotationMirrors()) {
+      TypeElement annoElement = (TypeElement) anno.getAnnotationType().asElement();
+      if (annoElement.getQualifiedName().toString().startsWith(OBJECTIFY_PREFIX)) {
+        return true;
       }
-
-      // reset the initialization context when entering a new declaration
-      return super.visitClass(node, InitializationContext.NONE);
     }
+    return false;
+  }
 
-    @Override
-    public Void visitCompoundAssignment(CompoundAssignmentTree node, InitializationContext init) {
-      init = InitializationContext.NONE;
-      writes.recordAssignment(node.getVariable(), init);
-      return super.visitCompoundAssignment(node, init);
+  /**
+   * Returns the initialization context of the assignment, compound assignment or unary expression
+   * at {@code path}, by replaying how each tree enclosing it affects the context of its children.
+   */
+  private static InitializationContext initializationContext(TreePath path) {
+    List<TreePath> enclosing = new ArrayList<>();
+    for (TreePath p = path; p != null; p = p.getParentPath()) {
+      enclosing.add(p);
     }
-
-    @Override
-    public Void visitUnary(UnaryTree node, InitializationContext init) {
-      if (UNARY_ASSIGNMENT.contains(node.getKind())) {
+    InitializationContext init = InitializationContext.NONE;
+    for (TreePath p : Lists.reverse(enclosing)) {
+      Tree node = p.getLeaf();
+      if (node instanceof ClassTree
+          || node instanceof VariableTree
+          || node instanceof LambdaExpressionTree
+          || node instanceof CompoundAssignmentTree
+          || UNARY_ASSIGNMENT.contains(node.getKind())) {
+        // reset the initialization context when entering a new declaration or lambda, and for
+        // writes that can't be initialization
+        init = InitializationContext.NONE;
+      } else if (node instanceof BlockTree block
+          && p.getParentPath().getLeaf().getKind() == Kind.CLASS) {
+        init = block.isStatic() ? InitializationContext.STATIC : InitializationContext.INSTANCE;
+      } else if (node instanceof MethodTree method && getSymbol(method).isConstructor()) {
+        init = InitializationContext.INSTANCE;
+      } else if (node instanceof AssignmentTree assignment
+          && init == InitializationContext.INSTANCE
+          && !isThisAccess(assignment.getVariable())) {
+        // don't record assignments in initializers that aren't to members of the object
+        // being initialized
         init = InitializationContext.NONE;
-        writes.recordAssignment(node.getExpression(), init);
       }
-      return super.visitUnary(node, init);
     }
+    return init;
+  }
+
+  private static boolean isThisAccess(Tree tree) {
+    if (tree.getKind() == Kind.IDENTIFIER) {
+      return true;
+    }
+    if (tree.getKind() != Kind.MEMBER_SELECT) {
+      return false;
+    }
+    ExpressionTree selected = ((MemberSelectTree) tree).getExpression();
+    return selected instanceof IdentifierTree ident && ident.getName().contentEquals("this");
   }
 }
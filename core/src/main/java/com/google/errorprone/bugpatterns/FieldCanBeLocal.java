@@ -54,6 +54,7 @@ import com.sun.tools.javac.code.Symbol.VarSymbol;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -79,40 +80,22 @@ public final class FieldCanBeLocal extends BugChecker implements CompilationUnit
     SetMultimap<VarSymbol, TreePath> uses =
         MultimapBuilder.linkedHashKeys().linkedHashSetValues().build();
 
-    new SuppressibleTreePathScanner<Void, Void>(state) {
-      @Override
-      public Void visitVariable(VariableTree variableTree, Void unused) {
-        VarSymbol symbol = getSymbol(variableTree);
-        if (symbol.getKind() == ElementKind.FIELD
-            && symbol.isPrivate()
-            && canBeLocal(variableTree)
-            && !shouldKeep(variableTree)
-            && !symbol.getSimpleName().toString().startsWith("unused")) {
-          potentialFields.put(symbol, getCurrentPath());
-        }
-        return null;
-      }
-
-      private boolean canBeLocal(VariableTree variableTree) {
-        if (variableTree.getModifiers() == null) {
-          return true;
-        }
-        return variableTree.getModifiers().getAnnotations().stream()
-            .allMatch(this::canBeUsedOnLocalVariable);
+    Map<Tree, Boolean> skippedDeclarations = new HashMap<>();
+    for (TreePath path : state.getSymbolUsageIndex().variables()) {
+      VariableTree variableTree = (VariableTree) path.getLeaf();
+      VarSymbol symbol = getSymbol(variableTree);
+      if (symbol.getKind() == ElementKind.FIELD
+          && symbol.isPrivate()
+          && canBeLocal(variableTree)
+          && !shouldKeep(variableTree)
+          && !symbol.getSimpleName().toString().startsWith("unused")
+          && !isSkipped(path, skippedDeclarations, state)) {
+        potentialFields.put(symbol, path);
       }
-
-      private boolean canBeUsedOnLocalVariable(AnnotationTree annotationTree) {
-        // TODO(b/137842683): Should this (and all other places using getAnnotation with Target) be
-        // replaced with annotation mirror traversals?
-        // This is safe given we know that Target does not have Class fields.
-        Target target = getAnnotation(annotationTree, Target.class);
-        if (target == null) {
-          return true;
-        }
-        return !Sets.intersection(VALID_ON_LOCAL_VARIABLES, ImmutableSet.copyOf(target.value()))
-            .isEmpty();
-      }
-    }.scan(state.getPath(), null);
+    }
+    if (potentialFields.isEmpty()) {
+      return Description.NO_MATCH;
+    }
 
     new TreePathScanner<Void, Void>() {
       boolean inMethod = false;
@@ -304,6 +287,56 @@ public final class FieldCanBeLocal extends BugChecker implements CompilationUnit
     return Description.NO_MATCH;
   }
 
+  /**
+   * Whether the field declared at {@code path} is suppressed, or is declared within the initializer
+   * of another variable or within a suppressed declaration.
+   */
+  private boolean isSkipped(
+      TreePath path, Map<Tree, Boolean> skippedDeclarations, VisitorState state) {
+    if (isSuppressed(path.getLeaf(), state)) {
+      return true;
+    }
+    for (TreePath enclosing = path.getParentPath();
+        enclosing != null;
+        enclosing = enclosing.getParentPath()) {
+      Tree leaf = enclosing.getLeaf();
+      if (leaf instanceof VariableTree) {
+        return true;
+      }
+      if (leaf instanceof ClassTree || leaf instanceof MethodTree) {
+        Boolean skipped = skippedDeclarations.get(leaf);
+        if (skipped == null) {
+          skipped = isSuppressed(leaf, state);
+          skippedDeclarations.put(leaf, skipped);
+        }
+        if (skipped) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean canBeLocal(VariableTree variableTree) {
+    if (variableTree.getModifiers() == null) {
+      return true;
+    }
+    return variableTree.getModifiers().getAnnotations().stream()
+        .allMatch(FieldCanBeLocal::canBeUsedOnLocalVariable);
+  }
+
+  private static boolean canBeUsedOnLocalVariable(AnnotationTree annotationTree) {
+    // TODO(b/137842683): Should this (and all other places using getAnnotation with Target) be
+    // replaced with annotation mirror traversals?
+    // This is safe given we know that Target does not have Class fields.
+    Target target = getAnnotation(annotationTree, Target.class);
+    if (target == null) {
+      return true;
+    }
+    return !Sets.intersection(VALID_ON_LOCAL_VARIABLES, ImmutableSet.copyOf(target.value()))
+        .isEmpty();
+  }
+
   private static String getAnnotationSource(VisitorState state, VariableTree variableTree) {
     List<? extends AnnotationTree> annotations = variableTree.getModifiers().getAnnotations();
     if (annotations == null || annotations.isEmpty()) {
@@ -161,7 +161,7 @@ public final class FutureTransformAsync extends BugChecker implements MethodInvo
   private static void suggestFixTransformAsyncToTransform(
       MethodInvocationTree tree, VisitorState state, SuggestedFix.Builder fix) {
     ExpressionTree methodSelect = tree.getMethodSelect();
-    if (state.getSourceForNode(methodSelect).equals("transformAsync")) {
+    if (state.getSourceRangeForNode(methodSelect).contentEquals("transformAsync")) {
       Symbol symbol = getSymbol(methodSelect);
       String className = enclosingClass(symbol).getQualifiedName().toString();
       fix.addStaticImport(className + "." + "transform");
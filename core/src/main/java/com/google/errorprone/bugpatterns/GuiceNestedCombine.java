@@ -28,7 +28,6 @@ import static com.google.errorprone.util.ASTHelpers.isSubtype;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -40,17 +39,18 @@ import java.util.List;
 
 /** A {@link BugChecker}; see the associated {@link BugPattern} annotation for details. */
 @BugPattern(summary = "Nesting Modules.combine() here is unnecessary.", severity = WARNING)
-public final class GuiceNestedCombine extends BugChecker implements MethodInvocationTreeMatcher {
+public final class GuiceNestedCombine extends MethodInvocationChecker {
   private static final Matcher<ExpressionTree> MODULES_COMBINE_METHOD =
       staticMethod().onClass("com.google.inject.util.Modules").named("combine");
 
   private static final Supplier<Type> MODULE = typeFromString("com.google.inject.Module");
 
+  public GuiceNestedCombine() {
+    super(MODULES_COMBINE_METHOD);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MODULES_COMBINE_METHOD.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     var module = MODULE.get(state);
     if (module == null
         || tree.getArguments().isEmpty()
@@ -17,7 +17,6 @@
 package com.google.errorprone.bugpatterns;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
-import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
 
 import com.google.common.collect.Iterables;
@@ -37,8 +36,7 @@ import com.sun.source.tree.MethodInvocationTree;
             + " getInstance(byte[]) or getInstance(InputStream)",
     severity = WARNING,
     tags = StandardTags.PERFORMANCE)
-public class ICCProfileGetInstance extends BugChecker
-    implements BugChecker.MethodInvocationTreeMatcher {
+public class ICCProfileGetInstance extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> MATCHER =
       staticMethod()
@@ -46,11 +44,12 @@ public class ICCProfileGetInstance extends BugChecker
           .named("getInstance")
           .withParameters("java.lang.String");
 
+  public ICCProfileGetInstance() {
+    super(MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     ExpressionTree arg = Iterables.getOnlyElement(tree.getArguments());
     return describeMatch(
         tree,
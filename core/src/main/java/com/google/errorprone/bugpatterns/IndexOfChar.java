@@ -22,7 +22,6 @@ import static com.google.errorprone.util.ASTHelpers.getType;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -40,18 +39,19 @@ import java.util.List;
         "The first argument to indexOf is a Unicode code point, and the second is the index to"
             + " start the search from",
     severity = ERROR)
-public class IndexOfChar extends BugChecker implements MethodInvocationTreeMatcher {
+public class IndexOfChar extends MethodInvocationChecker {
   private static final Matcher<ExpressionTree> MATCHER =
       MethodMatchers.instanceMethod()
           .onExactClass(Suppliers.STRING_TYPE)
           .namedAnyOf("indexOf", "lastIndexOf")
           .withParameters("int", "int");
 
+  public IndexOfChar() {
+    super(MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     List<? extends ExpressionTree> arguments = tree.getArguments();
     Symtab syms = state.getSymtab();
     Types types = state.getTypes();
@@ -24,7 +24,6 @@ import static com.google.errorprone.util.ASTHelpers.targetType;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.method.MethodMatchers;
@@ -40,7 +39,7 @@ import com.sun.tools.javac.code.TypeTag;
         "Conversion from int to float may lose precision; use an explicit cast to float if this"
             + " was intentional",
     severity = WARNING)
-public class IntFloatConversion extends BugChecker implements MethodInvocationTreeMatcher {
+public class IntFloatConversion extends MethodInvocationChecker {
 
   /**
    * int to float conversions aren't always problematic, this specific issue is that there are float
@@ -53,11 +52,12 @@ public class IntFloatConversion extends BugChecker implements MethodInvocationTr
           .named("scalb")
           .withParameters("float", "int");
 
+  public IntFloatConversion() {
+    super(MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     Tree arg = tree.getArguments().get(0);
     if (!getType(arg).hasTag(TypeTag.INT)) {
       return NO_MATCH;
@@ -21,7 +21,6 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -40,7 +39,7 @@ import java.util.regex.Pattern;
         "Invalid time zone identifier. TimeZone.getTimeZone(String) will silently return GMT"
             + " instead of the time zone you intended.",
     severity = ERROR)
-public class InvalidTimeZoneID extends BugChecker implements MethodInvocationTreeMatcher {
+public class InvalidTimeZoneID extends MethodInvocationChecker {
   private static final ImmutableSet<String> AVAILABLE_IDS =
       ImmutableSet.copyOf(TimeZone.getAvailableIDs());
 
@@ -59,11 +58,12 @@ public class InvalidTimeZoneID extends BugChecker implements MethodInvocationTre
   private static final Pattern CUSTOM_ID_PATTERN =
       Pattern.compile("GMT[+\\-]" + HOURS_PATTERN + ":?" + MINUTES_PATTERN);
 
+  public InvalidTimeZoneID() {
+    super(METHOD_MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!METHOD_MATCHER.matches(tree, state)) {
-      return Description.NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     String value = (String) ASTHelpers.constValue(tree.getArguments().get(0));
     if (value == null) {
       // Value isn't a compile-time constant, so we can't know if it's unsafe.
@@ -21,7 +21,6 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.method.MethodMatchers;
@@ -39,7 +38,7 @@ import java.time.ZoneId;
 @BugPattern(
     summary = "Invalid zone identifier. ZoneId.of(String) will throw exception at runtime.",
     severity = ERROR)
-public class InvalidZoneId extends BugChecker implements MethodInvocationTreeMatcher {
+public class InvalidZoneId extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> METHOD_MATCHER =
       MethodMatchers.staticMethod()
@@ -47,11 +46,12 @@ public class InvalidZoneId extends BugChecker implements MethodInvocationTreeMat
           .named("of")
           .withParameters("java.lang.String");
 
+  public InvalidZoneId() {
+    super(METHOD_MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!METHOD_MATCHER.matches(tree, state)) {
-      return Description.NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     String value = ASTHelpers.constValue(getOnlyElement(tree.getArguments()), String.class);
     if (value == null) {
       // Value isn't a compile-time constant, so we can't know if it's unsafe.
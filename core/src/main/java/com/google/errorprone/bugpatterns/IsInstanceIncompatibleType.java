@@ -28,7 +28,6 @@ import static com.google.errorprone.util.Signatures.prettyType;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.MemberReferenceTreeMatcher;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.util.ASTHelpers;
@@ -45,17 +44,17 @@ import org.jspecify.annotations.Nullable;
  * @author eleanorh@google.com (Eleanor Harris)
  */
 @BugPattern(summary = "This use of isInstance will always evaluate to false.", severity = ERROR)
-public final class IsInstanceIncompatibleType extends BugChecker
-    implements MethodInvocationTreeMatcher, MemberReferenceTreeMatcher {
+public final class IsInstanceIncompatibleType extends MethodInvocationChecker
+    implements MemberReferenceTreeMatcher {
   private static final Matcher<ExpressionTree> IS_INSTANCE =
       instanceMethod().onExactClass("java.lang.Class").named("isInstance");
 
-  @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!IS_INSTANCE.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  public IsInstanceIncompatibleType() {
+    super(IS_INSTANCE);
+  }
 
+  @Override
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     Type receiverType = classTypeArgument(tree);
     if (receiverType == null) {
       return NO_MATCH;
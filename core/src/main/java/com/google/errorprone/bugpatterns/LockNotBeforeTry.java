@@ -26,10 +26,10 @@ import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.util.SourceRange;
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.ExpressionStatementTree;
 import com.sun.source.tree.ExpressionTree;
@@ -52,18 +52,19 @@ import org.jspecify.annotations.Nullable;
         "Calls to Lock#lock should be immediately followed by a try block which releases the lock.",
     severity = WARNING,
     tags = FRAGILE_CODE)
-public final class LockNotBeforeTry extends BugChecker implements MethodInvocationTreeMatcher {
+public final class LockNotBeforeTry extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> LOCK =
       instanceMethod().onDescendantOf("java.util.concurrent.locks.Lock").named("lock");
   private static final Matcher<ExpressionTree> UNLOCK =
       instanceMethod().onDescendantOf("java.util.concurrent.locks.Lock").named("unlock");
 
+  public LockNotBeforeTry() {
+    super(LOCK);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!LOCK.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     Tree parent = state.getPath().getParentPath().getLeaf();
     if (!(parent instanceof StatementTree)) {
       return NO_MATCH;
@@ -192,7 +193,7 @@ public final class LockNotBeforeTry extends BugChecker implements MethodInvocati
     ExpressionTree receiver = getReceiver(node);
     return receiver != null
         && UNLOCK.matches(node, state)
-        && state.getSourceForNode(receiver).equals(state.getSourceForNode(lockee));
+        && hasSameSource(receiver, lockee, state);
   }
 
   private static boolean acquires(ExpressionTree node, ExpressionTree lockee, VisitorState state) {
@@ -200,8 +201,12 @@ public final class LockNotBeforeTry extends BugChecker implements MethodInvocati
       return false;
     }
     ExpressionTree receiver = getReceiver(node);
-    return receiver != null
-        && LOCK.matches(node, state)
-        && state.getSourceForNode(receiver).equals(state.getSourceForNode(lockee));
+    return receiver != null && LOCK.matches(node, state) && hasSameSource(receiver, lockee, state);
+  }
+
+  private static boolean hasSameSource(Tree a, Tree b, VisitorState state) {
+    SourceRange sourceA = state.getSourceRangeForNode(a);
+    SourceRange sourceB = state.getSourceRangeForNode(b);
+    return sourceA != null && sourceB != null && sourceA.contentEquals(sourceB);
   }
 }
@@ -47,8 +47,7 @@ import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
-import com.sun.source.util.TreePathScanner;
-import com.sun.source.util.TreeScanner;
+import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -57,6 +56,7 @@ import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.lang.model.element.Modifier;
+import org.jspecify.annotations.Nullable;
 
 /** A {@link BugChecker}; see the associated {@link BugPattern} annotation for details. */
 @BugPattern(
@@ -77,63 +77,25 @@ public class MethodCanBeStatic extends BugChecker implements CompilationUnitTree
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
     Map<MethodSymbol, MethodDetails> nodes = new HashMap<>();
-    new TreePathScanner<Void, Void>() {
-      private int suppressions = 0;
-
-      @Override
-      public Void visitClass(ClassTree classTree, Void unused) {
-        if (isSuppressed(classTree, state)) {
-          suppressions++;
-          super.visitClass(classTree, null);
-          suppressions--;
-        } else {
-          super.visitClass(classTree, null);
-        }
-        return null;
-      }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (isSuppressed(tree, state)) {
-          suppressions++;
-          matchMethod(tree);
-          super.visitMethod(tree, null);
-          suppressions--;
-        } else {
-          matchMethod(tree);
-          super.visitMethod(tree, null);
-        }
-        return null;
-      }
-
-      @Override
-      public Void visitVariable(VariableTree variableTree, Void unused) {
-        if (isSuppressed(variableTree, state)) {
-          suppressions++;
-          super.visitVariable(variableTree, null);
-          suppressions--;
-        } else {
-          super.visitVariable(variableTree, null);
-        }
-        return null;
-      }
-
-      private void matchMethod(MethodTree tree) {
-        MethodSymbol sym = ASTHelpers.getSymbol(tree);
-        if (sym.isStatic()) {
-          nodes.put(sym, new MethodDetails(tree, true, ImmutableSet.of()));
-        } else {
-          CanBeStaticResult result = CanBeStaticAnalyzer.canBeStaticResult(tree, sym, state);
-          boolean isExcluded = isExcluded(tree, state);
-          nodes.put(
-              sym,
-              new MethodDetails(
-                  tree,
-                  result.canPossiblyBeStatic() && !isExcluded && suppressions == 0,
-                  result.methodsReferenced()));
-        }
+    Map<Tree, Boolean> suppressedDeclarations = new HashMap<>();
+    for (TreePath path : state.getSymbolUsageIndex().methods()) {
+      MethodTree method = (MethodTree) path.getLeaf();
+      MethodSymbol sym = ASTHelpers.getSymbol(method);
+      if (sym.isStatic()) {
+        nodes.put(sym, new MethodDetails(method, true, ImmutableSet.of()));
+      } else {
+        CanBeStaticResult result = CanBeStaticAnalyzer.canBeStaticResult(method, sym, state);
+        boolean isExcluded = isExcluded(method, state);
+        nodes.put(
+            sym,
+            new MethodDetails(
+                method,
+                result.canPossiblyBeStatic()
+                    && !isExcluded
+                    && !isInSuppressedDeclaration(path, suppressedDeclarations, state),
+                result.methodsReferenced()));
       }
-    }.scan(state.getPath(), null);
+    }
 
     propagateNonStaticness(nodes);
     nodes
@@ -203,34 +165,52 @@ public class MethodCanBeStatic extends BugChecker implements CompilationUnitTree
     return !Sets.difference(methodDetails.methodsReferenced, localMethods).isEmpty();
   }
 
+  /**
+   * Whether the declaration at {@code path}, or any class, method or variable declaration enclosing
+   * it, is suppressed.
+   */
+  private boolean isInSuppressedDeclaration(
+      @Nullable TreePath path, Map<Tree, Boolean> suppressedDeclarations, VisitorState state) {
+    if (path == null) {
+      return false;
+    }
+    Tree leaf = path.getLeaf();
+    if (!(leaf instanceof ClassTree
+        || leaf instanceof MethodTree
+        || leaf instanceof VariableTree)) {
+      return isInSuppressedDeclaration(path.getParentPath(), suppressedDeclarations, state);
+    }
+    Boolean suppressed = suppressedDeclarations.get(leaf);
+    if (suppressed == null) {
+      suppressed =
+          isSuppressed(leaf, state)
+              || isInSuppressedDeclaration(path.getParentPath(), suppressedDeclarations, state);
+      suppressedDeclarations.put(leaf, suppressed);
+    }
+    return suppressed;
+  }
+
   /**
    * Replace instance references to the method with static access (e.g. `this.foo(...)` ->
    * `EnclosingClass.foo(...)` and `this::foo` to `EnclosingClass::foo`).
    */
-  private SuggestedFix fixQualifiers(VisitorState state, MethodSymbol sym, SuggestedFix f) {
+  private static SuggestedFix fixQualifiers(VisitorState state, MethodSymbol sym, SuggestedFix f) {
     SuggestedFix.Builder builder = f.toBuilder();
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMemberSelect(MemberSelectTree tree, Void unused) {
-        fixQualifier(tree, tree.getExpression());
-        return super.visitMemberSelect(tree, null);
-      }
-
-      @Override
-      public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
-        fixQualifier(tree, tree.getQualifierExpression());
-        return super.visitMemberReference(tree, null);
-      }
-
-      private void fixQualifier(Tree tree, ExpressionTree qualifierExpression) {
-        if (sym.equals(ASTHelpers.getSymbol(tree))) {
-          builder.replace(qualifierExpression, sym.owner.enclClass().getSimpleName().toString());
-        }
+    for (TreePath reference : state.getSymbolUsageIndex().references(sym)) {
+      if (reference.getLeaf() instanceof MemberSelectTree memberSelect) {
+        fixQualifier(builder, sym, memberSelect.getExpression());
+      } else if (reference.getLeaf() instanceof MemberReferenceTree memberReference) {
+        fixQualifier(builder, sym, memberReference.getQualifierExpression());
       }
-    }.scan(state.getPath().getCompilationUnit(), null);
+    }
     return builder.build();
   }
 
+  private static void fixQualifier(
+      SuggestedFix.Builder builder, MethodSymbol sym, ExpressionTree qualifierExpression) {
+    builder.replace(qualifierExpression, sym.owner.enclClass().getSimpleName().toString());
+  }
+
   private static boolean isExcluded(MethodTree tree, VisitorState state) {
     MethodSymbol sym = ASTHelpers.getSymbol(tree);
     if (sym.isConstructor() || !disjoint(EXCLUDED_MODIFIERS, sym.getModifiers())) {
@@ -40,7 +40,7 @@ public final class MisleadingEscapedSpace extends BugChecker implements LiteralT
       return NO_MATCH;
     }
     if (tree.getValue() instanceof Character) {
-      if (tree.getValue().equals(' ') && state.getSourceForNode(tree).equals("'\\s'")) {
+      if (tree.getValue().equals(' ') && state.getSourceRangeForNode(tree).contentEquals("'\\s'")) {
         return describeMatch(tree);
       }
     }
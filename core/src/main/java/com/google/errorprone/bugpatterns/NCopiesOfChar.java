@@ -23,7 +23,6 @@ import static com.google.errorprone.util.ASTHelpers.getType;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
@@ -38,15 +37,16 @@ import java.util.List;
     summary =
         "The first argument to nCopies is the number of copies, and the second is the item to copy",
     severity = ERROR)
-public class NCopiesOfChar extends BugChecker implements MethodInvocationTreeMatcher {
+public class NCopiesOfChar extends MethodInvocationChecker {
   private static final Matcher<ExpressionTree> MATCHER =
       staticMethod().onClass("java.util.Collections").named("nCopies");
 
+  public NCopiesOfChar() {
+    super(MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     List<? extends ExpressionTree> arguments = tree.getArguments();
     Symtab syms = state.getSymtab();
     Types types = state.getTypes();
@@ -33,7 +33,7 @@ import com.sun.source.tree.Tree;
 @BugPattern(
     summary = "Starting in JDK 13, this call is ambiguous with FileSystem.newFileSystem(Path,Map)",
     severity = WARNING)
-public class NewFileSystem extends BugChecker implements BugChecker.MethodInvocationTreeMatcher {
+public class NewFileSystem extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> MATCHER =
       MethodMatchers.staticMethod()
@@ -41,11 +41,12 @@ public class NewFileSystem extends BugChecker implements BugChecker.MethodInvoca
           .named("newFileSystem")
           .withParameters("java.nio.file.Path", "java.lang.ClassLoader");
 
+  public NewFileSystem() {
+    super(MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     ExpressionTree expressionTree = tree.getArguments().get(1);
     if (!expressionTree.getKind().equals(Tree.Kind.NULL_LITERAL)) {
       return NO_MATCH;
@@ -22,7 +22,6 @@ import static com.google.errorprone.matchers.method.MethodMatchers.staticMethod;
 
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
-import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.sun.source.tree.ExpressionTree;
@@ -35,16 +34,17 @@ import java.util.Objects;
 @BugPattern(
     summary = "reachabilityFence should always be called inside a finally block",
     severity = WARNING)
-public class ReachabilityFenceUsage extends BugChecker implements MethodInvocationTreeMatcher {
+public class ReachabilityFenceUsage extends MethodInvocationChecker {
 
   private static final Matcher<ExpressionTree> FENCE_MATCHER =
       staticMethod().onClass("java.lang.ref.Reference").named("reachabilityFence");
 
+  public ReachabilityFenceUsage() {
+    super(FENCE_MATCHER);
+  }
+
   @Override
-  public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!FENCE_MATCHER.matches(tree, state)) {
-      return NO_MATCH;
-    }
+  protected Description matchInvocation(MethodInvocationTree tree, VisitorState state) {
     Tree previous = null;
     OUTER:
     for (Tree enclosing : state.getPath().getParentPath()) {
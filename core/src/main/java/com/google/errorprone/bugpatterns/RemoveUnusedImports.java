@@ -33,6 +33,7 @@ import com.google.errorprone.bugpatterns.StaticImports.StaticImportInfo;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.doctree.DocCommentTree;
 import com.sun.source.doctree.ReferenceTree;
 import com.sun.source.tree.ClassTree;
@@ -42,12 +43,16 @@ import com.sun.source.tree.ImportTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.DocTreePath;
 import com.sun.source.util.DocTreePathScanner;
-import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.api.JavacTrees;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.tree.DCTree.DCReference;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -73,20 +78,19 @@ public final class RemoveUnusedImports extends BugChecker implements Compilation
     }
 
     LinkedHashSet<ImportTree> unusedImports = new LinkedHashSet<>(importedSymbols.keySet());
-    new TreeSymbolScanner(JavacTrees.instance(state.context))
-        .scan(
-            compilationUnitTree,
-            new SymbolSink() {
-              @Override
-              public boolean keepScanning() {
-                return !unusedImports.isEmpty();
-              }
-
-              @Override
-              public void accept(Symbol symbol) {
-                unusedImports.removeAll(importedSymbols.inverse().get(symbol));
-              }
-            });
+    findUsedSymbols(
+        state,
+        new SymbolSink() {
+          @Override
+          public boolean keepScanning() {
+            return !unusedImports.isEmpty();
+          }
+
+          @Override
+          public void accept(Symbol symbol) {
+            unusedImports.removeAll(importedSymbols.inverse().get(symbol));
+          }
+        });
 
     if (unusedImports.isEmpty()) {
       return NO_MATCH;
@@ -116,94 +120,85 @@ public final class RemoveUnusedImports extends BugChecker implements Compilation
     void accept(Symbol symbol);
   }
 
-  private static final class TreeSymbolScanner extends TreePathScanner<Void, SymbolSink> {
-    final DocTreeSymbolScanner docTreeSymbolScanner;
-    final JavacTrees trees;
-
-    private TreeSymbolScanner(JavacTrees trees) {
-      this.docTreeSymbolScanner = new DocTreeSymbolScanner();
-      this.trees = trees;
-    }
-
-    /** Skip the imports themselves when checking for usage. */
-    @Override
-    public Void visitImport(ImportTree importTree, SymbolSink usedSymbols) {
-      return null;
-    }
-
-    @Override
-    public Void visitIdentifier(IdentifierTree tree, SymbolSink sink) {
-      if (tree == null) {
-        return null;
+  /**
+   * Reports every symbol referred to by a simple name outside of the imports, by a record
+   * component's annotations, or from javadoc.
+   */
+  private static void findUsedSymbols(VisitorState state, SymbolSink sink) {
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
+    for (Map.Entry<Symbol, Collection<TreePath>> entry : index.references().asMap().entrySet()) {
+      if (!sink.keepScanning()) {
+        return;
       }
-      Symbol symbol = getSymbol(tree);
-      if (symbol == null) {
-        return null;
+      if (entry.getValue().stream().anyMatch(p -> p.getLeaf().getKind() == Tree.Kind.IDENTIFIER)) {
+        sink.accept(entry.getKey().baseSymbol());
       }
-      sink.accept(symbol.baseSymbol());
-      return null;
     }
-
-    @Override
-    public Void visitClass(ClassTree node, SymbolSink symbolSink) {
-      if (node.getKind().equals(Tree.Kind.RECORD)) {
-        getEnclosedElements(getSymbol(node)).stream()
+    for (TreePath path : index.classes()) {
+      if (path.getLeaf().getKind().equals(Tree.Kind.RECORD)) {
+        getEnclosedElements(getSymbol((ClassTree) path.getLeaf())).stream()
             .flatMap(e -> e.getAnnotationMirrors().stream())
             .map(a -> (Symbol) a.getAnnotationType().asElement())
-            .forEach(symbolSink::accept);
+            .forEach(sink::accept);
       }
-      return super.visitClass(node, symbolSink);
     }
-
-    @Override
-    public Void scan(Tree tree, SymbolSink sink) {
+    // Doc comments are only attached to declarations.
+    JavacTrees trees = JavacTrees.instance(state.context);
+    DocTreeSymbolScanner docTreeSymbolScanner = new DocTreeSymbolScanner(trees);
+    TreePath compilationUnitPath = new TreePath(index.compilationUnit());
+    List<TreePath> declarations = new ArrayList<>();
+    declarations.add(compilationUnitPath);
+    if (index.compilationUnit().getPackage() != null) {
+      declarations.add(new TreePath(compilationUnitPath, index.compilationUnit().getPackage()));
+    }
+    if (index.compilationUnit().getModule() != null) {
+      declarations.add(new TreePath(compilationUnitPath, index.compilationUnit().getModule()));
+    }
+    declarations.addAll(index.classes());
+    declarations.addAll(index.methods());
+    declarations.addAll(index.variables());
+    for (TreePath declaration : declarations) {
       if (!sink.keepScanning()) {
-        return null;
+        return;
       }
-      if (tree == null) {
-        return null;
+      DocCommentTree commentTree = trees.getDocCommentTree(declaration);
+      if (commentTree != null) {
+        docTreeSymbolScanner.scan(new DocTreePath(declaration, commentTree), sink);
       }
-      scanJavadoc(sink);
-      return super.scan(tree, sink);
     }
+  }
 
-    private void scanJavadoc(SymbolSink sink) {
-      if (getCurrentPath() == null) {
-        return;
-      }
-      DocCommentTree commentTree = trees.getDocCommentTree(getCurrentPath());
-      if (commentTree == null) {
-        return;
-      }
-      docTreeSymbolScanner.scan(new DocTreePath(getCurrentPath(), commentTree), sink);
+  /**
+   * For the time being, this will just report any symbol referenced from javadoc as a usage.
+   * TODO(gak): improve this so that we can remove imports used only from javadoc and replace the
+   * usages with fully-qualified names.
+   */
+  private static final class DocTreeSymbolScanner extends DocTreePathScanner<Void, SymbolSink> {
+    private final JavacTrees trees;
+
+    private DocTreeSymbolScanner(JavacTrees trees) {
+      this.trees = trees;
     }
 
-    /**
-     * For the time being, this will just report any symbol referenced from javadoc as a usage.
-     * TODO(gak): improve this so that we can remove imports used only from javadoc and replace the
-     * usages with fully-qualified names.
-     */
-    final class DocTreeSymbolScanner extends DocTreePathScanner<Void, SymbolSink> {
-      @Override
-      public Void visitReference(ReferenceTree referenceTree, SymbolSink sink) {
-        // do this first, it attributes the referenceTree as a side-effect
-        trees.getElement(getCurrentPath());
-        TreeScanner<Void, SymbolSink> nonRecursiveScanner =
-            new TreeScanner<Void, SymbolSink>() {
-              @Override
-              public Void visitIdentifier(IdentifierTree tree, SymbolSink sink) {
-                Symbol sym = ASTHelpers.getSymbol(tree);
-                if (sym != null) {
-                  sink.accept(sym);
-                }
-                return null;
+    @Override
+    public Void visitReference(ReferenceTree referenceTree, SymbolSink sink) {
+      // do this first, it attributes the referenceTree as a side-effect
+      trees.getElement(getCurrentPath());
+      TreeScanner<Void, SymbolSink> nonRecursiveScanner =
+          new TreeScanner<Void, SymbolSink>() {
+            @Override
+            public Void visitIdentifier(IdentifierTree tree, SymbolSink sink) {
+              Symbol sym = ASTHelpers.getSymbol(tree);
+              if (sym != null) {
+                sink.accept(sym);
               }
-            };
-        DCReference reference = (DCReference) referenceTree;
-        nonRecursiveScanner.scan(reference.qualifierExpression, sink);
-        nonRecursiveScanner.scan(reference.paramTypes, sink);
-        return null;
-      }
+              return null;
+            }
+          };
+      DCReference reference = (DCReference) referenceTree;
+      nonRecursiveScanner.scan(reference.qualifierExpression, sink);
+      nonRecursiveScanner.scan(reference.paramTypes, sink);
+      return null;
     }
   }
 
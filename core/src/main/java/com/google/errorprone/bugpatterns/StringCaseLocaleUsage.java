@@ -31,7 +31,6 @@ import com.google.errorprone.fixes.SuggestedFixes;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.util.ASTHelpers;
-import com.google.errorprone.util.ErrorProneTokens;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.util.Position;
@@ -103,9 +102,7 @@ public final class StringCaseLocaleUsage extends BugChecker implements MethodInv
       return Position.NOPOS;
     }
 
-    return Streams.findLast(
-            ErrorProneTokens.getTokens(state.getSourceForNode(tree), state.context).stream()
-                .filter(t -> t.kind() == RPAREN))
+    return Streams.findLast(state.getTokensForNode(tree).stream().filter(t -> t.kind() == RPAREN))
         .map(token -> startPosition + token.pos())
         .orElse(Position.NOPOS);
   }
@@ -21,14 +21,12 @@ import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 
-import com.google.common.collect.ImmutableList;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.bugpatterns.BugChecker.VariableTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ErrorProneToken;
-import com.google.errorprone.util.ErrorProneTokens;
 import com.sun.source.tree.VariableTree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.parser.Tokens.TokenKind;
@@ -52,9 +50,7 @@ public final class UnnecessaryFinal extends BugChecker implements VariableTreeMa
     if (!tree.getModifiers().getFlags().contains(Modifier.FINAL)) {
       return NO_MATCH;
     }
-    ImmutableList<ErrorProneToken> tokens =
-        ErrorProneTokens.getTokens(state.getSourceForNode(tree.getModifiers()), state.context);
-    for (ErrorProneToken token : tokens) {
+    for (ErrorProneToken token : state.getTokensForNode(tree.getModifiers())) {
       if (token.kind() == TokenKind.FINAL) {
         int startPos = getStartPosition(tree);
         return describeMatch(
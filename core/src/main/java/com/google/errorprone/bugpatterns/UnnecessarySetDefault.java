@@ -244,6 +244,6 @@ public class UnnecessarySetDefault extends BugChecker implements MethodInvocatio
   }
 
   static Matcher<ExpressionTree> sourceMatcher(String source) {
-    return (tree, state) -> state.getSourceForNode(tree).equals(source);
+    return (tree, state) -> state.getSourceRangeForNode(tree).contentEquals(source);
   }
 }
@@ -29,6 +29,7 @@ import static com.google.errorprone.fixes.SuggestedFixes.replaceIncludingComment
 import static com.google.errorprone.matchers.Matchers.SERIALIZATION_METHODS;
 import static com.google.errorprone.suppliers.Suppliers.typeFromString;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
+import static com.google.errorprone.util.ASTHelpers.findEnclosingNode;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
 import static com.google.errorprone.util.ASTHelpers.getType;
 import static com.google.errorprone.util.ASTHelpers.hasAnnotation;
@@ -42,6 +43,7 @@ import static java.lang.String.format;
 import static javax.lang.model.element.ElementKind.CONSTRUCTOR;
 import static javax.lang.model.element.ElementKind.FIELD;
 import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.NATIVE;
 
 import com.google.common.base.Ascii;
 import com.google.common.collect.ImmutableListMultimap;
@@ -53,21 +55,16 @@ import com.google.errorprone.bugpatterns.BugChecker.CompilationUnitTreeMatcher;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.AnnotationTree;
-import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.IdentifierTree;
-import com.sun.source.tree.MemberReferenceTree;
-import com.sun.source.tree.MemberSelectTree;
-import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.MethodTree;
-import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.Tree.Kind;
+import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
-import com.sun.source.util.TreePathScanner;
-import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
@@ -81,10 +78,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
-import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
+import org.jspecify.annotations.Nullable;
 
 /** Bugpattern to detect unused declarations. */
 @BugPattern(
@@ -198,218 +194,37 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
-    // Map of symbols to method declarations. Initially this is a map of all of the methods. As we
-    // go we remove those variables which are used.
-    Map<Symbol, TreePath> unusedMethods = new HashMap<>();
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
 
     // We will skip reporting on the whole compilation if there are any native methods found.
-    // Use a TreeScanner to find all local variables and fields.
-    if (hasNativeMethods(tree)) {
+    if (hasNativeMethods(index)) {
       return Description.NO_MATCH;
     }
-    AtomicBoolean ignoreUnusedMethods = new AtomicBoolean(false);
-
-    ImmutableSet<ClassSymbol> classesMadeVisible = getVisibleClasses(tree);
-
-    class MethodFinder extends SuppressibleTreePathScanner<Void, Void> {
-      MethodFinder(VisitorState state) {
-        super(state);
-      }
-
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        if (exemptedBySuperType(getType(tree), state)
-            || EXEMPTING_CLASS_ANNOTATIONS.stream().anyMatch(a -> hasAnnotation(tree, a, state))) {
-          return null;
-        }
-        return super.visitClass(tree, null);
-      }
-
-      private boolean exemptedBySuperType(Type type, VisitorState state) {
-        return EXEMPTING_SUPER_TYPES.stream()
-            .anyMatch(t -> isSubtype(type, typeFromString(t).get(state), state));
-      }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (hasJUnitParamsParametersForMethodAnnotation(tree.getModifiers().getAnnotations())) {
-          // Since this method uses @Parameters, there will be another method that appears to
-          // be unused. Don't warn about unusedMethods at all in this case.
-          ignoreUnusedMethods.set(true);
-        }
-        if (isMethodSymbolEligibleForChecking(tree, classesMadeVisible)) {
-          unusedMethods.put(getSymbol(tree), getCurrentPath());
-        }
-        return super.visitMethod(tree, null);
-      }
-
-      private boolean hasJUnitParamsParametersForMethodAnnotation(
-          Collection<? extends AnnotationTree> annotations) {
-        for (AnnotationTree tree : annotations) {
-          JCAnnotation annotation = (JCAnnotation) tree;
-          if (annotation.getAnnotationType().type != null
-              && annotation
-                  .getAnnotationType()
-                  .type
-                  .toString()
-                  .equals(JUNIT_PARAMS_ANNOTATION_TYPE)) {
-            if (annotation.getArguments().isEmpty()) {
-              // @Parameters, which uses implicit provider methods
-              return true;
-            }
-            for (JCExpression arg : annotation.getArguments()) {
-              if (arg.getKind() != Kind.ASSIGNMENT) {
-                // Implicit value annotation, e.g. @Parameters({"1"}); no exemption required.
-                return false;
-              }
-              JCExpression var = ((JCAssign) arg).getVariable();
-              if (var.getKind() == Kind.IDENTIFIER) {
-                // Anything that is not @Parameters(value = ...), e.g.
-                // @Parameters(source = ...) or @Parameters(method = ...)
-                if (!((IdentifierTree) var).getName().contentEquals(JUNIT_PARAMS_VALUE)) {
-                  return true;
-                }
-              }
-            }
-          }
-        }
-        return false;
-      }
-
-      private boolean isMethodSymbolEligibleForChecking(
-          MethodTree tree, Set<ClassSymbol> classesMadeVisible) {
-        if (exemptedByName(tree.getName())) {
-          return false;
-        }
-        // Assume the method is called if annotated with a called-reflectively annotation.
-        if (exemptedByAnnotation(tree.getModifiers().getAnnotations())) {
-          return false;
-        }
-        if (shouldKeep(tree)) {
-          return false;
-        }
-        MethodSymbol methodSymbol = getSymbol(tree);
-        if (!canBeRemoved(methodSymbol, state)) {
-          return false;
-        }
-        if (isExemptedConstructor(methodSymbol, state)
-            || isGeneratedConstructor(tree)
-            || SERIALIZATION_METHODS.matches(tree, state)) {
-          return false;
-        }
-
-        // Ignore this method if the last parameter is a GWT JavaScriptObject.
-        if (!tree.getParameters().isEmpty()) {
-          Type lastParamType = getType(getLast(tree.getParameters()));
-          if (lastParamType != null && lastParamType.toString().equals(GWT_JAVASCRIPT_OBJECT)) {
-            return false;
-          }
-        }
-        if (!methodSymbol.isPrivate()
-            && classesMadeVisible.stream()
-                .anyMatch(t -> isSubtype(t.type, methodSymbol.owner.type, state))) {
-          return false;
-        }
-
-        return true;
-      }
-
-      private boolean isExemptedConstructor(MethodSymbol methodSymbol, VisitorState state) {
-        if (!methodSymbol.getKind().equals(CONSTRUCTOR)) {
-          return false;
-        }
-        // Don't delete unused zero-arg constructors, given those are often there to limit
-        // instantiating the class at all (e.g. in utility classes).
-        if (methodSymbol.params().isEmpty()) {
-          return true;
-        }
-        return false;
-      }
-    }
-    new MethodFinder(state).scan(state.getPath(), null);
-
-    class FilterUsedMethods extends TreePathScanner<Void, Void> {
-      @Override
-      public Void visitMemberSelect(MemberSelectTree memberSelectTree, Void unused) {
-        Symbol symbol = getSymbol(memberSelectTree);
-        unusedMethods.remove(symbol);
-        return super.visitMemberSelect(memberSelectTree, null);
-      }
 
-      @Override
-      public Void visitMemberReference(MemberReferenceTree tree, Void unused) {
-        super.visitMemberReference(tree, null);
-        MethodSymbol symbol = getSymbol(tree);
-        unusedMethods.remove(symbol);
-        symbol.getParameters().forEach(unusedMethods::remove);
-        return null;
-      }
+    ImmutableSet<ClassSymbol> classesMadeVisible = getVisibleClasses(index);
 
-      @Override
-      public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
-        handle(getSymbol(tree));
-        return super.visitMethodInvocation(tree, null);
-      }
-
-      @Override
-      public Void visitNewClass(NewClassTree tree, Void unused) {
-        handle(getSymbol(tree));
-        return super.visitNewClass(tree, null);
-      }
-
-      @Override
-      public Void visitAssignment(AssignmentTree tree, Void unused) {
-        handle(getSymbol(tree.getVariable()));
-        return super.visitAssignment(tree, null);
-      }
-
-      private void handle(Symbol symbol) {
-        if (symbol instanceof MethodSymbol) {
-          unusedMethods.remove(symbol);
-        }
+    // Map of symbols to method declarations. Initially this is a map of all of the methods. As we
+    // go we remove those which are used.
+    Map<Symbol, TreePath> unusedMethods = new HashMap<>();
+    Map<Tree, Boolean> skippedDeclarations = new HashMap<>();
+    for (TreePath path : index.methods()) {
+      if (isSkipped(path, skippedDeclarations, state)) {
+        continue;
       }
-
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        handleMethodSource(tree);
-        return super.visitMethod(tree, null);
+      MethodTree method = (MethodTree) path.getLeaf();
+      if (hasJUnitParamsParametersForMethodAnnotation(method.getModifiers().getAnnotations())) {
+        // Since this method uses @Parameters, there will be another method that appears to
+        // be unused. Don't warn about unusedMethods at all in this case.
+        return Description.NO_MATCH;
       }
-
-      /**
-       * If a method is annotated with @MethodSource, the annotation value refers to another method
-       * that is used reflectively to supply test parameters, so that method should not be
-       * considered unused.
-       */
-      private void handleMethodSource(MethodTree tree) {
-        MethodSymbol sym = getSymbol(tree);
-        Name name = ORG_JUNIT_JUPITER_PARAMS_PROVIDER_METHODSOURCE.get(state);
-        sym.getRawAttributes().stream()
-            .filter(a -> a.type.tsym.getQualifiedName().equals(name))
-            .findAny()
-            // get the annotation value array as a set of Names
-            .flatMap(a -> getAnnotationValue(a, "value"))
-            .map(
-                y -> asStrings(y).map(state::getName).map(Name::toString).collect(toImmutableSet()))
-            // remove all potentially unused methods referenced by the @MethodSource
-            .ifPresent(
-                referencedNames ->
-                    unusedMethods
-                        .entrySet()
-                        .removeIf(
-                            e -> {
-                              Symbol unusedSym = e.getKey();
-                              String simpleName = unusedSym.getSimpleName().toString();
-                              return referencedNames.contains(simpleName)
-                                  || referencedNames.contains(
-                                      unusedSym.owner.getQualifiedName() + "#" + simpleName);
-                            }));
+      if (isMethodSymbolEligibleForChecking(method, classesMadeVisible, state)) {
+        unusedMethods.put(getSymbol(method), path);
       }
     }
 
-    new FilterUsedMethods().scan(state.getPath(), null);
-
-    if (ignoreUnusedMethods.get()) {
-      return Description.NO_MATCH;
+    unusedMethods.keySet().removeIf(index::isReferenced);
+    for (TreePath path : index.methods()) {
+      handleMethodSource((MethodTree) path.getLeaf(), unusedMethods, state);
     }
 
     fixNonConstructors(
@@ -430,19 +245,151 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
     return Description.NO_MATCH;
   }
 
-  private ImmutableSet<ClassSymbol> getVisibleClasses(CompilationUnitTree tree) {
-    ImmutableSet.Builder<ClassSymbol> classesMadeVisible = ImmutableSet.builder();
-    new TreePathScanner<Void, Void>() {
-      @Override
-      public Void visitClass(ClassTree tree, Void unused) {
-        var symbol = getSymbol(tree);
-        if (!canBeRemoved(symbol)) {
-          classesMadeVisible.add(symbol);
+  /**
+   * Whether the declaration at {@code path}, or any declaration enclosing it, is suppressed or is a
+   * class whose methods are exempt from findings.
+   */
+  private boolean isSkipped(
+      @Nullable TreePath path, Map<Tree, Boolean> skippedDeclarations, VisitorState state) {
+    if (path == null) {
+      return false;
+    }
+    Tree leaf = path.getLeaf();
+    if (!(leaf instanceof ClassTree
+        || leaf instanceof MethodTree
+        || leaf instanceof VariableTree)) {
+      return isSkipped(path.getParentPath(), skippedDeclarations, state);
+    }
+    Boolean skipped = skippedDeclarations.get(leaf);
+    if (skipped == null) {
+      skipped =
+          isSuppressed(leaf, state)
+              || (leaf instanceof ClassTree classTree && isExemptedClass(classTree, state))
+              || isSkipped(path.getParentPath(), skippedDeclarations, state);
+      skippedDeclarations.put(leaf, skipped);
+    }
+    return skipped;
+  }
+
+  private static boolean isExemptedClass(ClassTree tree, VisitorState state) {
+    return EXEMPTING_SUPER_TYPES.stream()
+            .anyMatch(t -> isSubtype(getType(tree), typeFromString(t).get(state), state))
+        || EXEMPTING_CLASS_ANNOTATIONS.stream().anyMatch(a -> hasAnnotation(tree, a, state));
+  }
+
+  private static boolean hasJUnitParamsParametersForMethodAnnotation(
+      Collection<? extends AnnotationTree> annotations) {
+    for (AnnotationTree tree : annotations) {
+      JCAnnotation annotation = (JCAnnotation) tree;
+      if (annotation.getAnnotationType().type != null
+          && annotation.getAnnotationType().type.toString().equals(JUNIT_PARAMS_ANNOTATION_TYPE)) {
+        if (annotation.getArguments().isEmpty()) {
+          // @Parameters, which uses implicit provider methods
+          return true;
+        }
+        for (JCExpression arg : annotation.getArguments()) {
+          if (arg.getKind() != Kind.ASSIGNMENT) {
+            // Implicit value annotation, e.g. @Parameters({"1"}); no exemption required.
+            return false;
+          }
+          JCExpression var = ((JCAssign) arg).getVariable();
+          if (var.getKind() == Kind.IDENTIFIER) {
+            // Anything that is not @Parameters(value = ...), e.g.
+            // @Parameters(source = ...) or @Parameters(method = ...)
+            if (!((IdentifierTree) var).getName().contentEquals(JUNIT_PARAMS_VALUE)) {
+              return true;
+            }
+          }
         }
-        return super.visitClass(tree, null);
       }
-    }.scan(tree, null);
-    return classesMadeVisible.build();
+    }
+    return false;
+  }
+
+  private boolean isMethodSymbolEligibleForChecking(
+      MethodTree tree, Set<ClassSymbol> classesMadeVisible, VisitorState state) {
+    if (exemptedByName(tree.getName())) {
+      return false;
+    }
+    // Assume the method is called if annotated with a called-reflectively annotation.
+    if (exemptedByAnnotation(tree.getModifiers().getAnnotations())) {
+      return false;
+    }
+    if (shouldKeep(tree)) {
+      return false;
+    }
+    MethodSymbol methodSymbol = getSymbol(tree);
+    if (!canBeRemoved(methodSymbol, state)) {
+      return false;
+    }
+    if (isExemptedConstructor(methodSymbol)
+        || isGeneratedConstructor(tree)
+        || SERIALIZATION_METHODS.matches(tree, state)) {
+      return false;
+    }
+
+    // Ignore this method if the last parameter is a GWT JavaScriptObject.
+    if (!tree.getParameters().isEmpty()) {
+      Type lastParamType = getType(getLast(tree.getParameters()));
+      if (lastParamType != null && lastParamType.toString().equals(GWT_JAVASCRIPT_OBJECT)) {
+        return false;
+      }
+    }
+    if (!methodSymbol.isPrivate()
+        && classesMadeVisible.stream()
+            .anyMatch(t -> isSubtype(t.type, methodSymbol.owner.type, state))) {
+      return false;
+    }
+
+    return true;
+  }
+
+  private static boolean isExemptedConstructor(MethodSymbol methodSymbol) {
+    if (!methodSymbol.getKind().equals(CONSTRUCTOR)) {
+      return false;
+    }
+    // Don't delete unused zero-arg constructors, given those are often there to limit
+    // instantiating the class at all (e.g. in utility classes).
+    if (methodSymbol.params().isEmpty()) {
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * If a method is annotated with @MethodSource, the annotation value refers to another method that
+   * is used reflectively to supply test parameters, so that method should not be considered unused.
+   */
+  private static void handleMethodSource(
+      MethodTree tree, Map<Symbol, TreePath> unusedMethods, VisitorState state) {
+    MethodSymbol sym = getSymbol(tree);
+    Name name = ORG_JUNIT_JUPITER_PARAMS_PROVIDER_METHODSOURCE.get(state);
+    sym.getRawAttributes().stream()
+        .filter(a -> a.type.tsym.getQualifiedName().equals(name))
+        .findAny()
+        // get the annotation value array as a set of Names
+        .flatMap(a -> getAnnotationValue(a, "value"))
+        .map(y -> asStrings(y).map(state::getName).map(Name::toString).collect(toImmutableSet()))
+        // remove all potentially unused methods referenced by the @MethodSource
+        .ifPresent(
+            referencedNames ->
+                unusedMethods
+                    .entrySet()
+                    .removeIf(
+                        e -> {
+                          Symbol unusedSym = e.getKey();
+                          String simpleName = unusedSym.getSimpleName().toString();
+                          return referencedNames.contains(simpleName)
+                              || referencedNames.contains(
+                                  unusedSym.owner.getQualifiedName() + "#" + simpleName);
+                        }));
+  }
+
+  private static ImmutableSet<ClassSymbol> getVisibleClasses(SymbolUsageIndex index) {
+    return index.classes().stream()
+        .map(path -> getSymbol((ClassTree) path.getLeaf()))
+        .filter(symbol -> !canBeRemoved(symbol))
+        .collect(toImmutableSet());
   }
 
   private void fixNonConstructors(Iterable<TreePath> unusedPaths, VisitorState state) {
@@ -491,18 +438,11 @@ public final class UnusedMethod extends BugChecker implements CompilationUnitTre
     }
   }
 
-  private static boolean hasNativeMethods(CompilationUnitTree tree) {
-    AtomicBoolean hasAnyNativeMethods = new AtomicBoolean(false);
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (tree.getModifiers().getFlags().contains(Modifier.NATIVE)) {
-          hasAnyNativeMethods.set(true);
-        }
-        return null;
-      }
-    }.scan(tree, null);
-    return hasAnyNativeMethods.get();
+  private static boolean hasNativeMethods(SymbolUsageIndex index) {
+    return index.methods().stream()
+        // Methods of local and anonymous classes declared within methods aren't considered.
+        .filter(path -> findEnclosingNode(path.getParentPath(), MethodTree.class) == null)
+        .anyMatch(path -> ((MethodTree) path.getLeaf()).getModifiers().getFlags().contains(NATIVE));
   }
 
   /**
@@ -25,6 +25,7 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 import static com.google.errorprone.matchers.Matchers.SERIALIZATION_METHODS;
 import static com.google.errorprone.util.ASTHelpers.canBeRemoved;
+import static com.google.errorprone.util.ASTHelpers.findEnclosingNode;
 import static com.google.errorprone.util.ASTHelpers.findSuperMethods;
 import static com.google.errorprone.util.ASTHelpers.getStartPosition;
 import static com.google.errorprone.util.ASTHelpers.getSymbol;
@@ -40,6 +41,7 @@ import static com.sun.source.tree.Tree.Kind.POSTFIX_DECREMENT;
 import static com.sun.source.tree.Tree.Kind.POSTFIX_INCREMENT;
 import static com.sun.source.tree.Tree.Kind.PREFIX_DECREMENT;
 import static com.sun.source.tree.Tree.Kind.PREFIX_INCREMENT;
+import static javax.lang.model.element.Modifier.NATIVE;
 
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Ascii;
@@ -66,6 +68,7 @@ import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.suppliers.Suppliers;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.SymbolUsageIndex;
 import com.sun.source.tree.AnnotationTree;
 import com.sun.source.tree.ArrayAccessTree;
 import com.sun.source.tree.AssignmentTree;
@@ -96,7 +99,6 @@ import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.util.SimpleTreeVisitor;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
-import com.sun.source.util.TreeScanner;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
@@ -115,10 +117,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
 import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.type.NullType;
 import javax.tools.JavaFileObject;
@@ -215,14 +215,15 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
 
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+    SymbolUsageIndex index = state.getSymbolUsageIndex();
+
     // We will skip reporting on the whole compilation if there are any native methods found.
-    // Use a TreeScanner to find all local variables and fields.
-    if (hasNativeMethods(tree)) {
+    if (hasNativeMethods(index)) {
       return Description.NO_MATCH;
     }
 
     ImmutableMultimap<MethodSymbol, MethodSymbol> superMethodsToOverrides =
-        getSuperMethodsToOverrides(tree, state);
+        getSuperMethodsToOverrides(index, state);
 
     VariableFinder variableFinder = new VariableFinder(state, superMethodsToOverrides);
     variableFinder.scan(state.getPath(), null);
@@ -230,6 +231,9 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
     // Map of symbols to variable declarations. Initially this is a map of all of the local variable
     // and fields. As we go we remove those variables which are used.
     Map<Symbol, TreePath> unusedElements = variableFinder.unusedElements;
+    if (unusedElements.isEmpty()) {
+      return Description.NO_MATCH;
+    }
 
     // Whether a symbol should only be checked for reassignments (e.g. public methods' parameters).
     Set<Symbol> onlyCheckForReassignments = variableFinder.onlyCheckForReassignments;
@@ -346,34 +350,27 @@ public final class UnusedVariable extends BugChecker implements CompilationUnitT
     };
   }
 
-  private static boolean hasNativeMethods(CompilationUnitTree tree) {
-    AtomicBoolean hasAnyNativeMethods = new AtomicBoolean(false);
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        if (tree.getModifiers().getFlags().contains(Modifier.NATIVE)) {
-          hasAnyNativeMethods.set(true);
-        }
-        return null;
-      }
-    }.scan(tree, null);
-    return hasAnyNativeMethods.get();
+  private static boolean hasNativeMethods(SymbolUsageIndex index) {
+    return index.methods().stream()
+        // Methods of local and anonymous classes declared within methods aren't considered.
+        .filter(path -> findEnclosingNode(path.getParentPath(), MethodTree.class) == null)
+        .anyMatch(path -> ((MethodTree) path.getLeaf()).getModifiers().getFlags().contains(NATIVE));
   }
 
   private static ImmutableMultimap<MethodSymbol, MethodSymbol> getSuperMethodsToOverrides(
-      CompilationUnitTree tree, VisitorState state) {
+      SymbolUsageIndex index, VisitorState state) {
     ImmutableMultimap.Builder<MethodSymbol, MethodSymbol> overrides = ImmutableMultimap.builder();
-    JavaFileObject sourceFile = tree.getSourceFile();
-    new TreeScanner<Void, Void>() {
-      @Override
-      public Void visitMethod(MethodTree tree, Void unused) {
-        MethodSymbol sym = getSymbol(tree);
-        findSuperMethods(getSymbol(tree), state.getTypes()).stream()
-            .filter(m -> sourceFile.equals(m.enclClass().sourcefile))
-            .forEach(m -> overrides.put(m, sym));
-        return null;
+    JavaFileObject sourceFile = index.compilationUnit().getSourceFile();
+    for (TreePath path : index.methods()) {
+      // Methods of local and anonymous classes declared within methods aren't considered.
+      if (findEnclosingNode(path.getParentPath(), MethodTree.class) != null) {
+        continue;
       }
-    }.scan(tree, null);
+      MethodSymbol sym = getSymbol((MethodTree) path.getLeaf());
+      findSuperMethods(sym, state.getTypes()).stream()
+          .filter(m -> sourceFile.equals(m.enclClass().sourcefile))
+          .forEach(m -> overrides.put(m, sym));
+    }
     return overrides.build();
   }
 
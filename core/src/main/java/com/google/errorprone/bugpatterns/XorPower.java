@@ -61,7 +61,7 @@ public class XorPower extends BugChecker implements BinaryTreeMatcher {
     if (rhs.longValue() != rhs.intValue()) {
       return NO_MATCH;
     }
-    if (state.getSourceForNode(tree.getRightOperand()).startsWith("0")) {
+    if (state.getSourceRangeForNode(tree.getRightOperand()).startsWith("0")) {
       // hex and octal literals
       return NO_MATCH;
     }
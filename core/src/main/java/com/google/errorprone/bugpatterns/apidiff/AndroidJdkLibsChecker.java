@@ -20,15 +20,13 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
 import static com.google.errorprone.matchers.method.MethodMatchers.instanceMethod;
 
-import com.google.common.io.Resources;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
-import com.google.protobuf.ExtensionRegistry;
 import com.sun.source.tree.ExpressionTree;
-import java.io.IOException;
-import java.io.UncheckedIOException;
 
 /**
  * Checks for uses of classes, fields, or methods that are not compatible with legacy Android
@@ -42,23 +40,12 @@ import java.io.UncheckedIOException;
 // TODO(b/32513850): Allow Android N+ APIs, e.g., by computing API diff using android.jar
 public class AndroidJdkLibsChecker extends ApiDiffChecker {
 
-  private static ApiDiff loadApiDiff() {
-    try {
-      byte[] diffData =
-          Resources.toByteArray(
-              Resources.getResource(AndroidJdkLibsChecker.class, "android_java8.binarypb"));
-      ApiDiffProto.Diff diff =
-          ApiDiffProto.Diff.newBuilder()
-              .mergeFrom(diffData, ExtensionRegistry.getEmptyRegistry())
-              .build();
-      return ApiDiff.fromProto(diff);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-  }
+  private static final Supplier<ApiDiffIndex> API_DIFF =
+      Suppliers.memoize(
+          () -> ApiDiffIndex.load(AndroidJdkLibsChecker.class, "android_java8.binarypb"));
 
   private AndroidJdkLibsChecker() {
-    super(loadApiDiff());
+    super(API_DIFF.get());
   }
 
   private static final Matcher<ExpressionTree> FOREACH_ON_COLLECTION =
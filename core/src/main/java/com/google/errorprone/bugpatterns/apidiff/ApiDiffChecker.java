@@ -38,23 +38,40 @@ import com.sun.tools.javac.code.Symbol.VarSymbol;
 import com.sun.tools.javac.code.Type;
 import java.lang.annotation.Annotation;
 import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 import org.jspecify.annotations.Nullable;
 
 /** A base Error Prone check implementation to enforce compliance with a given API diff. */
 public abstract class ApiDiffChecker extends BugChecker
     implements IdentifierTreeMatcher, MemberSelectTreeMatcher {
 
-  private final ApiDiff apiDiff;
+  private final Predicate<String> isClassUnsupported;
+  private final BiPredicate<String, ClassMemberKey> isMemberUnsupported;
   private final Optional<Class<? extends Annotation>> alsoForbidApisAnnotated;
 
   protected ApiDiffChecker(ApiDiff apiDiff) {
-    this.apiDiff = apiDiff;
-    this.alsoForbidApisAnnotated = Optional.empty();
+    this(apiDiff::isClassUnsupported, apiDiff::isMemberUnsupported, Optional.empty());
   }
 
   protected ApiDiffChecker(ApiDiff apiDiff, Class<? extends Annotation> alsoForbidApisAnnotated) {
-    this.apiDiff = apiDiff;
-    this.alsoForbidApisAnnotated = Optional.of(alsoForbidApisAnnotated);
+    this(
+        apiDiff::isClassUnsupported,
+        apiDiff::isMemberUnsupported,
+        Optional.of(alsoForbidApisAnnotated));
+  }
+
+  protected ApiDiffChecker(ApiDiffIndex apiDiff) {
+    this(apiDiff::isClassUnsupported, apiDiff::isMemberUnsupported, Optional.empty());
+  }
+
+  ApiDiffChecker(
+      Predicate<String> isClassUnsupported,
+      BiPredicate<String, ClassMemberKey> isMemberUnsupported,
+      Optional<Class<? extends Annotation>> alsoForbidApisAnnotated) {
+    this.isClassUnsupported = isClassUnsupported;
+    this.isMemberUnsupported = isMemberUnsupported;
+    this.alsoForbidApisAnnotated = alsoForbidApisAnnotated;
   }
 
   @Override
@@ -81,7 +98,7 @@ public abstract class ApiDiffChecker extends BugChecker
       return Description.NO_MATCH;
     }
     // check for information associated with the class
-    if (apiDiff.isClassUnsupported(Signatures.classDescriptor(receiver.type, state))
+    if (isClassUnsupported.test(Signatures.classDescriptor(receiver.type, state))
         || classOrEnclosingClassIsForbiddenByAnnotation(receiver, state)) {
       return buildDescription(tree)
           .setMessage(String.format("%s is not available", receiver))
@@ -95,7 +112,7 @@ public abstract class ApiDiffChecker extends BugChecker
         ClassMemberKey.create(
             sym.getSimpleName().toString(), Signatures.descriptor(sym.type, state));
     ClassSymbol owner = sym.owner.enclClass();
-    if (apiDiff.isMemberUnsupported(Signatures.classDescriptor(owner.type, state), memberKey)
+    if (isMemberUnsupported.test(Signatures.classDescriptor(owner.type, state), memberKey)
         || hasAnnotationForbiddingUse(sym, state)) {
       return buildDescription(tree)
           .setMessage(String.format("%s#%s is not available in %s", owner, sym, receiver))
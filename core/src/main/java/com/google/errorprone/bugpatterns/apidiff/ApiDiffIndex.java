@@ -0,0 +1,422 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.apidiff;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Resources;
+import com.google.errorprone.bugpatterns.apidiff.ApiDiff.ClassMemberKey;
+import com.google.protobuf.ExtensionRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An {@link ApiDiff} in a compact binary form that is queried in place, without decoding it.
+ *
+ * <p>The unsupported classes, and the unsupported members keyed by their declaring class, are each
+ * stored in a perfect hash table: a query hashes its key once to pick a bucket, hashes it again
+ * with that bucket's seed to find the only slot the key can be in, and compares the key with the
+ * UTF-8 bytes stored for that slot. Indices are generated from {@link ApiDiffProto.Diff} files at
+ * build time by {@link #main}, and memory-mapped when they are loaded from a directory. Only the
+ * indices are shipped; {@link #toApiDiff} recovers the whole diff for the callers that need it.
+ */
+public final class ApiDiffIndex {
+
+  private static final int MAGIC = 0x45504144; // "EPAD"
+
+  /** The version of the format written by {@link #write}. */
+  static final int VERSION = 1;
+
+  /** The file extension of indices generated from {@code .binarypb} files. */
+  static final String EXTENSION = ".apidiffindex";
+
+  private final Table classes;
+  private final Table members;
+
+  private ApiDiffIndex(ByteBuffer buffer) throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not an API diff index");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format("Unsupported API diff index version %d, expected %d", version, VERSION));
+    }
+    this.classes = new Table(buffer);
+    this.members = new Table(buffer);
+  }
+
+  /**
+   * Reads an index written by {@link #write}, starting at the buffer's position. The buffer must
+   * not be modified afterwards.
+   */
+  public static ApiDiffIndex read(ByteBuffer buffer) throws IOException {
+    try {
+      return new ApiDiffIndex(buffer.slice());
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new IOException("Malformed API diff index", e);
+    }
+  }
+
+  /** Builds an index of the given diff in memory. */
+  public static ApiDiffIndex of(ApiDiff diff) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      write(diff, bytes);
+      return read(ByteBuffer.wrap(bytes.toByteArray()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads the index generated from the {@code .binarypb} resource with the given name, or if there
+   * isn't one, builds an index from the {@code .binarypb} file itself.
+   */
+  static ApiDiffIndex load(Class<?> contextClass, String diffResourceName) {
+    try {
+      URL index =
+          contextClass.getResource(diffResourceName.replaceFirst("\\.binarypb$", EXTENSION));
+      if (index == null) {
+        return of(decode(contextClass, diffResourceName));
+      }
+      if (index.getProtocol().equals("file")) {
+        try (FileChannel channel = FileChannel.open(Paths.get(index.toURI()))) {
+          return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+      }
+      // Resources in jars can't be mapped, but the index is still far smaller than the ApiDiff.
+      try (InputStream in = index.openStream()) {
+        return read(ByteBuffer.wrap(ByteStreams.toByteArray(in)));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ApiDiff decode(Class<?> contextClass, String diffResourceName) {
+    try {
+      byte[] diffData =
+          Resources.toByteArray(Resources.getResource(contextClass, diffResourceName));
+      return ApiDiff.fromProto(
+          ApiDiffProto.Diff.newBuilder()
+              .mergeFrom(diffData, ExtensionRegistry.getEmptyRegistry())
+              .build());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Returns true if the class with the given binary name is unsupported. */
+  public boolean isClassUnsupported(String className) {
+    return classes.contains(className);
+  }
+
+  /** Returns true if the member with the given declaring class is unsupported. */
+  public boolean isMemberUnsupported(String className, ClassMemberKey memberKey) {
+    return members.contains(className, memberKey.identifier(), memberKey.descriptor())
+        || members.contains(className, memberKey.identifier(), "");
+  }
+
+  /** Decodes every class and member in the index. */
+  public ApiDiff toApiDiff() {
+    ImmutableSet.Builder<String> unsupportedClasses = ImmutableSet.builder();
+    classes.forEachKey(1, key -> unsupportedClasses.add(key[0]));
+    ImmutableSetMultimap.Builder<String, ClassMemberKey> unsupportedMembersByClass =
+        ImmutableSetMultimap.builder();
+    members.forEachKey(
+        3, key -> unsupportedMembersByClass.put(key[0], ClassMemberKey.create(key[1], key[2])));
+    return ApiDiff.fromMembers(unsupportedClasses.build(), unsupportedMembersByClass.build());
+  }
+
+  /** Writes an index of the given diff to {@code out}. */
+  public static void write(ApiDiff diff, OutputStream out) throws IOException {
+    List<List<String>> classKeys = new ArrayList<>();
+    for (String className : diff.unsupportedClasses()) {
+      classKeys.add(ImmutableList.of(className));
+    }
+    List<List<String>> memberKeys = new ArrayList<>();
+    for (Map.Entry<String, ClassMemberKey> e : diff.unsupportedMembersByClass().entries()) {
+      memberKeys.add(
+          ImmutableList.of(e.getKey(), e.getValue().identifier(), e.getValue().descriptor()));
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    int offset = 2 * Integer.BYTES;
+    byte[] classTable = Table.build(classKeys, offset);
+    data.write(classTable);
+    offset += classTable.length;
+    data.write(Table.build(memberKeys, offset));
+    data.flush();
+  }
+
+  /**
+   * Converts {@link ApiDiffProto.Diff} files to indices.
+   *
+   * <p>Usage: {@code ApiDiffIndex <diff.binarypb> <index> [<diff.binarypb> <index>]...}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0 || args.length % 2 != 0) {
+      System.err.println(
+          "Usage: ApiDiffIndex <diff.binarypb> <index> [<diff.binarypb> <index>]...");
+      System.exit(1);
+    }
+    for (int i = 0; i < args.length; i += 2) {
+      ApiDiff diff =
+          ApiDiff.fromProto(
+              ApiDiffProto.Diff.parseFrom(
+                  Files.readAllBytes(Paths.get(args[i])), ExtensionRegistry.getEmptyRegistry()));
+      Path output = Paths.get(args[i + 1]);
+      Files.createDirectories(output.toAbsolutePath().getParent());
+      try (OutputStream out = Files.newOutputStream(output)) {
+        write(diff, out);
+      }
+    }
+  }
+
+  /**
+   * A set of keys, each a tuple of strings, in a perfect hash table.
+   *
+   * <p>The table is laid out as the number of slots {@code n} and buckets {@code b}, the seed of
+   * each bucket, the offset of the key in each slot (or -1 if it is empty), and finally the keys,
+   * each as a sequence of strings prefixed by their length in bytes.
+   */
+  private static final class Table {
+    private final ByteBuffer buffer;
+    private final int slots;
+    private final int buckets;
+    private final int seedsOffset;
+    private final int slotsOffset;
+    private final int keysOffset;
+    private final int keysLength;
+
+    Table(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.slots = buffer.getInt();
+      this.buckets = buffer.getInt();
+      this.seedsOffset = buffer.position();
+      this.slotsOffset = seedsOffset + buckets * Integer.BYTES;
+      this.keysLength = buffer.getInt(slotsOffset + slots * Integer.BYTES);
+      this.keysOffset = slotsOffset + (slots + 1) * Integer.BYTES;
+      buffer.position(keysOffset + keysLength);
+    }
+
+    /** Passes each key, which must have the given number of parts, to {@code consumer}. */
+    void forEachKey(int parts, Consumer<String[]> consumer) {
+      int offset = keysOffset;
+      while (offset < keysOffset + keysLength) {
+        String[] key = new String[parts];
+        for (int i = 0; i < parts; i++) {
+          int length = buffer.getInt(offset);
+          offset += Integer.BYTES;
+          byte[] bytes = new byte[length];
+          buffer.get(offset, bytes);
+          key[i] = new String(bytes, UTF_8);
+          offset += length;
+        }
+        consumer.accept(key);
+      }
+    }
+
+    boolean contains(String... key) {
+      if (slots == 0) {
+        return false;
+      }
+      int bucket = Math.floorMod(hash(0, key), buckets);
+      int seed = buffer.getInt(seedsOffset + bucket * Integer.BYTES);
+      int slot = Math.floorMod(hash(seed, key), slots);
+      int offset = buffer.getInt(slotsOffset + slot * Integer.BYTES);
+      if (offset < 0) {
+        return false;
+      }
+      for (String part : key) {
+        int length = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        if (!utf8Equals(offset, length, part)) {
+          return false;
+        }
+        offset += length;
+      }
+      return true;
+    }
+
+    private boolean utf8Equals(int offset, int length, String string) {
+      if (length < string.length()) {
+        return false;
+      }
+      for (int i = 0; i < string.length(); i++) {
+        char c = string.charAt(i);
+        if (c >= 0x80) {
+          // Rare enough not to bother encoding incrementally.
+          byte[] bytes = string.getBytes(UTF_8);
+          if (bytes.length != length) {
+            return false;
+          }
+          for (int j = 0; j < length; j++) {
+            if (buffer.get(offset + j) != bytes[j]) {
+              return false;
+            }
+          }
+          return true;
+        }
+        if (i >= length || buffer.get(offset + i) != c) {
+          return false;
+        }
+      }
+      return length == string.length();
+    }
+
+    /**
+     * Builds a table of the given keys, to be written at {@code offset}. Throws if any key has a
+     * different number of parts than the others.
+     */
+    static byte[] build(List<List<String>> keys, int offset) throws IOException {
+      keys.sort(Comparator.comparing((List<String> key) -> String.join("\0", key)));
+      int count = keys.size();
+      // A little slack makes finding seeds for the last buckets much faster.
+      int slots = count == 0 ? 0 : count + count / 8 + 1;
+      int buckets = Math.max(1, (count + 3) / 4);
+
+      List<List<Integer>> keysByBucket = new ArrayList<>();
+      for (int i = 0; i < buckets; i++) {
+        keysByBucket.add(new ArrayList<>());
+      }
+      for (int i = 0; i < count; i++) {
+        keysByBucket.get(Math.floorMod(hash(0, parts(keys.get(i))), buckets)).add(i);
+      }
+      Integer[] order = new Integer[buckets];
+      Arrays.setAll(order, i -> i);
+      Arrays.sort(order, Comparator.comparing((Integer b) -> -keysByBucket.get(b).size()));
+
+      int[] seeds = new int[buckets];
+      int[] keyInSlot = new int[slots];
+      Arrays.fill(keyInSlot, -1);
+      for (int bucket : order) {
+        List<Integer> bucketKeys = keysByBucket.get(bucket);
+        if (bucketKeys.isEmpty()) {
+          break;
+        }
+        int[] assigned = new int[bucketKeys.size()];
+        for (int seed = 1; ; seed++) {
+          if (seed == Integer.MAX_VALUE) {
+            throw new IOException("Couldn't find a perfect hash for " + bucketKeys);
+          }
+          if (tryAssign(keys, bucketKeys, seed, slots, keyInSlot, assigned)) {
+            seeds[bucket] = seed;
+            break;
+          }
+        }
+      }
+
+      ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+      DataOutputStream keyData = new DataOutputStream(keyBytes);
+      int keysOffset = offset + (2 + buckets + slots + 1) * Integer.BYTES;
+      int[] keyOffsets = new int[count];
+      for (int i = 0; i < count; i++) {
+        keyOffsets[i] = keysOffset + keyData.size();
+        for (String part : keys.get(i)) {
+          byte[] bytes = part.getBytes(UTF_8);
+          keyData.writeInt(bytes.length);
+          keyData.write(bytes);
+        }
+      }
+
+      ByteArrayOutputStream table = new ByteArrayOutputStream();
+      DataOutputStream data = new DataOutputStream(table);
+      data.writeInt(slots);
+      data.writeInt(buckets);
+      for (int seed : seeds) {
+        data.writeInt(seed);
+      }
+      for (int key : keyInSlot) {
+        data.writeInt(key < 0 ? -1 : keyOffsets[key]);
+      }
+      data.writeInt(keyData.size());
+      keyBytes.writeTo(data);
+      data.flush();
+      return table.toByteArray();
+    }
+
+    private static boolean tryAssign(
+        List<List<String>> keys,
+        List<Integer> bucketKeys,
+        int seed,
+        int slots,
+        int[] keyInSlot,
+        int[] assigned) {
+      for (int i = 0; i < bucketKeys.size(); i++) {
+        int slot = Math.floorMod(hash(seed, parts(keys.get(bucketKeys.get(i)))), slots);
+        if (keyInSlot[slot] >= 0) {
+          for (int j = 0; j < i; j++) {
+            keyInSlot[assigned[j]] = -1;
+          }
+          return false;
+        }
+        keyInSlot[slot] = bucketKeys.get(i);
+        assigned[i] = slot;
+      }
+      return true;
+    }
+
+    private static String[] parts(List<String> key) {
+      return key.toArray(new String[0]);
+    }
+
+    /** A hash of the characters of each part of the key, and of the boundaries between them. */
+    private static int hash(int seed, String... key) {
+      int hash = 0x811c9dc5 ^ (seed * 0x9e3779b9);
+      for (String part : key) {
+        for (int i = 0; i < part.length(); i++) {
+          hash = (hash ^ part.charAt(i)) * 0x01000193;
+        }
+        hash = (hash ^ 0xffff) * 0x01000193;
+      }
+      // The murmur3 finalizer, so that the low bits depend on all of the input.
+      hash ^= hash >>> 16;
+      hash *= 0x85ebca6b;
+      hash ^= hash >>> 13;
+      hash *= 0xc2b2ae35;
+      hash ^= hash >>> 16;
+      return hash;
+    }
+  }
+}
@@ -18,10 +18,13 @@ package com.google.errorprone.bugpatterns.apidiff;
 
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
-import com.google.common.io.Resources;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.errorprone.BugPattern;
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import com.google.errorprone.bugpatterns.apidiff.ApiDiff.ClassMemberKey;
+import java.util.Optional;
 
 /** Checks for uses of classes, fields, or methods that are not compatible with JDK 7 */
 @BugPattern(
@@ -33,41 +36,55 @@ import java.io.UncheckedIOException;
     severity = ERROR)
 public class Java7ApiChecker extends ApiDiffChecker {
 
-  public static final ApiDiff API_DIFF = loadApiDiff();
+  private static final Supplier<ApiDiffIndex> INDEX =
+      Suppliers.memoize(() -> ApiDiffIndex.load(Java7ApiChecker.class, "7to11diff.binarypb"));
 
-  private static ApiDiff loadApiDiff() {
-    try {
-      ApiDiffProto.Diff.Builder diffBuilder = ApiDiffProto.Diff.newBuilder();
-      byte[] diffData =
-          Resources.toByteArray(Resources.getResource(Java7ApiChecker.class, "7to11diff.binarypb"));
-      diffBuilder
-          .mergeFrom(diffData)
-          .addClassDiff(
-              ApiDiffProto.ClassDiff.newBuilder()
-                  .setMemberDiff(
-                      ApiDiffProto.MemberDiff.newBuilder()
-                          .setClassName("com/google/common/base/Predicate")
-                          .addMember(
-                              ApiDiffProto.ClassMember.newBuilder()
-                                  .setIdentifier("test")
-                                  .setMemberDescriptor("(Ljava/lang/Object;)Z"))))
-          .addClassDiff(
-              ApiDiffProto.ClassDiff.newBuilder()
-                  .setMemberDiff(
-                      ApiDiffProto.MemberDiff.newBuilder()
-                          .setClassName("com/google/common/base/BinaryPredicate")
-                          .addMember(
-                              ApiDiffProto.ClassMember.newBuilder()
-                                  .setIdentifier("test")
-                                  .setMemberDescriptor(
-                                      "(Ljava/lang/Object;Ljava/lang/Object;)Z"))));
-      return ApiDiff.fromProto(diffBuilder.build());
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+  /** Members that aren't in the JDK diff, but are incompatible with Java 7 all the same. */
+  private static final ApiDiff ADDITIONAL_API_DIFF =
+      ApiDiff.fromMembers(
+          ImmutableSet.of(),
+          ImmutableSetMultimap.of(
+              "com/google/common/base/Predicate",
+              ClassMemberKey.create("test", "(Ljava/lang/Object;)Z"),
+              "com/google/common/base/BinaryPredicate",
+              ClassMemberKey.create("test", "(Ljava/lang/Object;Ljava/lang/Object;)Z")));
+
+  private static final Supplier<ApiDiff> DECODED_API_DIFF =
+      Suppliers.memoize(
+          () -> {
+            ApiDiff diff = INDEX.get().toApiDiff();
+            return ApiDiff.fromMembers(
+                diff.unsupportedClasses(),
+                ImmutableSetMultimap.<String, ClassMemberKey>builder()
+                    .putAll(diff.unsupportedMembersByClass())
+                    .putAll(ADDITIONAL_API_DIFF.unsupportedMembersByClass())
+                    .build());
+          });
+
+  /**
+   * Returns the classes and members that this check reports, decoded in full from the index.
+   *
+   * @deprecated this check queries a precompiled index of the diff, which is much cheaper to load
+   */
+  @Deprecated
+  public static ApiDiff apiDiff() {
+    return DECODED_API_DIFF.get();
   }
 
+  /**
+   * The classes and members that this check reports.
+   *
+   * @deprecated this check queries a precompiled index of the diff, which is much cheaper to load;
+   *     this field is kept for binary compatibility, and decodes the diff when the check is loaded
+   */
+  @Deprecated public static final ApiDiff API_DIFF = apiDiff();
+
   public Java7ApiChecker() {
-    super(API_DIFF);
+    super(
+        className -> INDEX.get().isClassUnsupported(className),
+        (className, memberKey) ->
+            INDEX.get().isMemberUnsupported(className, memberKey)
+                || ADDITIONAL_API_DIFF.isMemberUnsupported(className, memberKey),
+        Optional.empty());
   }
 }
@@ -16,18 +16,16 @@
 
 package com.google.errorprone.bugpatterns.apidiff;
 
-import static com.google.common.collect.ImmutableSetMultimap.toImmutableSetMultimap;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 
-import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.io.Resources;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Multimaps;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.ErrorProneFlags;
-import com.google.errorprone.bugpatterns.apidiff.ApiDiff.ClassMemberKey;
-import com.google.protobuf.ExtensionRegistry;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
 
@@ -41,38 +39,44 @@ import javax.inject.Inject;
     severity = ERROR)
 public class Java8ApiChecker extends ApiDiffChecker {
 
-  private static ApiDiff loadApiDiff(ErrorProneFlags errorProneFlags) {
-    try {
-      byte[] diffData =
-          Resources.toByteArray(Resources.getResource(Java8ApiChecker.class, "8to11diff.binarypb"));
-      ApiDiff diff =
-          ApiDiff.fromProto(
-              ApiDiffProto.Diff.newBuilder()
-                  .mergeFrom(diffData, ExtensionRegistry.getEmptyRegistry())
-                  .build());
-      boolean checkBuffer = errorProneFlags.getBoolean("Java8ApiChecker:checkBuffer").orElse(true);
-      boolean checkChecksum =
-          errorProneFlags.getBoolean("Java8ApiChecker:checkChecksum").orElse(true);
-      if (checkBuffer && checkChecksum) {
-        return diff;
-      }
-      ImmutableSetMultimap<String, ClassMemberKey> unsupportedMembers =
-          diff.unsupportedMembersByClass().entries().stream()
-              .filter(e -> checkBuffer || !BUFFER.matcher(e.getKey()).matches())
-              .filter(e -> checkChecksum || !e.getKey().equals(CHECKSUM))
-              .collect(toImmutableSetMultimap(Map.Entry::getKey, Map.Entry::getValue));
-      return ApiDiff.fromMembers(diff.unsupportedClasses(), unsupportedMembers);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-  }
+  private static final Supplier<ApiDiffIndex> API_DIFF =
+      Suppliers.memoize(() -> ApiDiffIndex.load(Java8ApiChecker.class, "8to11diff.binarypb"));
 
   private static final Pattern BUFFER = Pattern.compile("java/nio/.*Buffer");
 
   private static final String CHECKSUM = "java/util/zip/Checksum";
 
+  /**
+   * Indices of the diff without the members excluded by flags, keyed by whether the {@code Buffer}
+   * and {@code Checksum} members are kept. Built on first use for each combination of flags.
+   */
+  private static final ConcurrentMap<List<Boolean>, ApiDiffIndex> FILTERED_API_DIFFS =
+      new ConcurrentHashMap<>();
+
+  private static ApiDiffIndex apiDiff(ErrorProneFlags errorProneFlags) {
+    boolean checkBuffer = errorProneFlags.getBoolean("Java8ApiChecker:checkBuffer").orElse(true);
+    boolean checkChecksum =
+        errorProneFlags.getBoolean("Java8ApiChecker:checkChecksum").orElse(true);
+    if (checkBuffer && checkChecksum) {
+      return API_DIFF.get();
+    }
+    return FILTERED_API_DIFFS.computeIfAbsent(
+        List.of(checkBuffer, checkChecksum),
+        unused -> {
+          ApiDiff diff = API_DIFF.get().toApiDiff();
+          return ApiDiffIndex.of(
+              ApiDiff.fromMembers(
+                  diff.unsupportedClasses(),
+                  Multimaps.filterKeys(
+                      diff.unsupportedMembersByClass(),
+                      className ->
+                          (checkBuffer || !BUFFER.matcher(className).matches())
+                              && (checkChecksum || !className.equals(CHECKSUM)))));
+        });
+  }
+
   @Inject
   Java8ApiChecker(ErrorProneFlags errorProneFlags) {
-    super(loadApiDiff(errorProneFlags));
+    super(apiDiff(errorProneFlags));
   }
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.checkreturnvalue;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A precompiled {@code CheckReturnValue:ApiExclusionList}, for use with {@code
+ * -XepOpt:CheckReturnValue:ApiExclusionListParser=PRECOMPILED}.
+ *
+ * <p>The index holds the class names of the APIs sorted by their UTF-8 bytes, each pointing to the
+ * sorted {@code name(params)} signatures of its methods and constructors, so a lookup is two binary
+ * searches over the memory-mapped file. Its header holds a hash of the rest of the file, under
+ * which loaded indices are shared by every compilation in the JVM.
+ *
+ * <p>Indices are compiled from text lists of {@link Api}s by {@link #main}.
+ */
+public final class ApiExclusionIndex {
+
+  private static final int MAGIC = 0x45504358; // "EPCX"
+
+  /** The version of the format written by {@link #write}. */
+  static final int VERSION = 1;
+
+  private static final int HASH_BYTES = 32;
+  private static final int HEADER_BYTES = 2 * Integer.BYTES + HASH_BYTES;
+
+  private static final Comparator<String> UTF_8_ORDER =
+      Comparator.comparing(s -> s.getBytes(UTF_8), UnsignedBytes.lexicographicalComparator());
+
+  /** Indices that have been loaded, by the hash of their contents. */
+  private static final Cache<HashCode, ApiExclusionIndex> LOADED =
+      Caffeine.newBuilder().softValues().build();
+
+  private final ByteBuffer buffer;
+  private final int classCount;
+  private final int classNamesOffset;
+  private final int firstMembersOffset;
+  private final int membersOffset;
+
+  private ApiExclusionIndex(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.classCount = buffer.getInt(HEADER_BYTES);
+    this.classNamesOffset = HEADER_BYTES + Integer.BYTES;
+    this.firstMembersOffset = classNamesOffset + classCount * Integer.BYTES;
+    this.membersOffset = firstMembersOffset + (classCount + 1) * Integer.BYTES + Integer.BYTES;
+  }
+
+  /**
+   * Loads the index in the given file, or returns the index already loaded from a file with the
+   * same contents.
+   */
+  public static ApiExclusionIndex load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {}
+      header.flip();
+      HashCode hash = checkHeader(header, path);
+      try {
+        return LOADED.get(
+            hash,
+            unused -> {
+              try {
+                return new ApiExclusionIndex(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  private static HashCode checkHeader(ByteBuffer header, Path path) throws IOException {
+    if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+      throw new IOException(path + " is not an API exclusion list index");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format(
+              "%s has unsupported API exclusion list index version %d, expected %d",
+              path, version, VERSION));
+    }
+    byte[] hash = new byte[HASH_BYTES];
+    header.get(hash);
+    return HashCode.fromBytes(hash);
+  }
+
+  /**
+   * Returns true if the index contains the method or constructor with the given signature, as
+   * formatted by {@link ExternalCanIgnoreReturnValue#methodNameAndParams}.
+   */
+  public boolean contains(String className, String methodNameAndParams) {
+    int classIndex = find(classNamesOffset, 0, classCount, className.getBytes(UTF_8));
+    if (classIndex < 0) {
+      return false;
+    }
+    int from = buffer.getInt(firstMembersOffset + classIndex * Integer.BYTES);
+    int to = buffer.getInt(firstMembersOffset + (classIndex + 1) * Integer.BYTES);
+    return find(membersOffset, from, to, methodNameAndParams.getBytes(UTF_8)) >= 0;
+  }
+
+  /**
+   * Binary searches the strings in {@code [from, to)} of the table of string offsets at {@code
+   * tableOffset}.
+   */
+  private int find(int tableOffset, int from, int to, byte[] key) {
+    int low = from;
+    int high = to - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compare(buffer.getInt(tableOffset + mid * Integer.BYTES), key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private int compare(int offset, byte[] key) {
+    int length = buffer.getInt(offset);
+    offset += Integer.BYTES;
+    for (int i = 0; i < length && i < key.length; i++) {
+      int cmp = Integer.compare(buffer.get(offset + i) & 0xff, key[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  /** Writes an index of the given APIs to {@code out}. */
+  public static void write(Collection<Api> apis, OutputStream out) throws IOException {
+    SortedSetMultimap<String, String> membersByClass =
+        TreeMultimap.create(UTF_8_ORDER, UTF_8_ORDER);
+    for (Api api : apis) {
+      membersByClass.put(
+          api.className(), api.methodName() + "(" + String.join(",", api.parameterTypes()) + ")");
+    }
+    Map<String, Collection<String>> classes = membersByClass.asMap();
+    int memberCount = membersByClass.size();
+
+    ByteArrayOutputStream strings = new ByteArrayOutputStream();
+    DataOutputStream stringData = new DataOutputStream(strings);
+    int stringsOffset =
+        HEADER_BYTES + (1 + classes.size() + classes.size() + 1 + 1 + memberCount) * Integer.BYTES;
+    ByteArrayOutputStream tables = new ByteArrayOutputStream();
+    DataOutputStream tableData = new DataOutputStream(tables);
+    tableData.writeInt(classes.size());
+    for (String className : classes.keySet()) {
+      tableData.writeInt(stringsOffset + stringData.size());
+      writeString(stringData, className);
+    }
+    int firstMember = 0;
+    for (Collection<String> members : classes.values()) {
+      tableData.writeInt(firstMember);
+      firstMember += members.size();
+    }
+    tableData.writeInt(firstMember);
+    tableData.writeInt(memberCount);
+    for (Collection<String> members : classes.values()) {
+      for (String member : members) {
+        tableData.writeInt(stringsOffset + stringData.size());
+        writeString(stringData, member);
+      }
+    }
+    tableData.flush();
+    stringData.flush();
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream(tables.size() + strings.size());
+    tables.writeTo(body);
+    strings.writeTo(body);
+    byte[] bodyBytes = body.toByteArray();
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.write(Hashing.sha256().hashBytes(bodyBytes).asBytes());
+    data.write(bodyBytes);
+    data.flush();
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    byte[] bytes = string.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Compiles a text list of APIs, one per line in the format accepted by {@link Api#parse}, into an
+   * index.
+   *
+   * <p>Usage: {@code ApiExclusionIndex <api list> <index>}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: ApiExclusionIndex <api list> <index>");
+      System.exit(1);
+    }
+    List<Api> apis;
+    try (Stream<String> lines = Files.lines(Paths.get(args[0]), UTF_8)) {
+      apis = lines.filter(line -> !line.isBlank()).map(Api::parse).collect(toImmutableList());
+    }
+    // Replace the index atomically, since compilations may have the old one mapped.
+    Path output = Paths.get(args[1]).toAbsolutePath();
+    Path temp = Files.createTempFile(output.getParent(), output.getFileName().toString(), ".tmp");
+    try (OutputStream out = Files.newOutputStream(temp)) {
+      write(apis, out);
+    }
+    Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
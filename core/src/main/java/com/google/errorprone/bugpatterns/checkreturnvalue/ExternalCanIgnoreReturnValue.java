@@ -106,6 +106,17 @@ public final class ExternalCanIgnoreReturnValue extends ErrorProneMethodRule {
       MethodPredicate load(String file) throws IOException {
         return configByParsingApiObjects(MoreFiles.asCharSource(Paths.get(file), UTF_8));
       }
+    },
+    /** Reads an index compiled by {@link ApiExclusionIndex#main}, shared across compilations. */
+    PRECOMPILED {
+      @Override
+      MethodPredicate load(String file) throws IOException {
+        ApiExclusionIndex index = ApiExclusionIndex.load(Paths.get(file));
+        return (methodSymbol, state) ->
+            index.contains(
+                surroundingClass(methodSymbol),
+                methodNameAndParams(methodSymbol, state.getTypes()));
+      }
     };
 
     abstract MethodPredicate load(String file) throws IOException;
@@ -24,15 +24,21 @@ import static java.util.Map.entry;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.errorprone.ErrorProneTimings;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.Evaluation;
 import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Evaluates methods and their enclosing classes and packages to determine a {@link ResultUsePolicy}
@@ -103,12 +109,16 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
 
   private final MethodInfo<C, S, M> methodInfo;
 
+  /** Returns the cache to use for a context, or null if evaluations aren't cached. */
+  private final @Nullable Function<? super C, EvaluationCache<S, M>> caches;
+
   private ResultUsePolicyEvaluator(Builder<C, S, M> builder) {
     this.rules =
         builder.rules.stream()
             .flatMap(rule -> rule.scopes().stream().map(scope -> entry(scope, rule)))
             .collect(toImmutableListMultimap(Entry::getKey, Entry::getValue));
     this.methodInfo = builder.methodInfo;
+    this.caches = builder.caches;
   }
 
   /**
@@ -116,12 +126,67 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
    * apply to it.
    */
   public ResultUsePolicy evaluate(M method, C state) {
+    if (caches != null) {
+      return firstEvaluation(method, state).map(Evaluation::policy).orElse(UNSPECIFIED);
+    }
     return evaluateAcrossScopes(
             method, state, (rule, scope, symbol, context) -> rule.evaluate(symbol, context))
         .findFirst()
         .orElse(UNSPECIFIED);
   }
 
+  /**
+   * Returns the first {@link Evaluation} made by rules starting from the given {@code method},
+   * which determines the policy that {@link #evaluate} returns.
+   */
+  public Optional<Evaluation<S>> firstEvaluation(M method, C state) {
+    if (caches == null) {
+      return evaluations(method, state).findFirst();
+    }
+    EvaluationCache<S, M> cache = caches.apply(state);
+    Optional<Evaluation<S>> evaluation = cache.methods.get(method);
+    cache.recordAccess("ResultUsePolicyEvaluator.methods", evaluation != null);
+    if (evaluation != null) {
+      return evaluation;
+    }
+    evaluation = Optional.empty();
+    for (RuleScope scope : methodInfo.scopes(method)) {
+      evaluation =
+          scope == ENCLOSING_ELEMENTS
+              ? methodInfo
+                  .scopeMembers(scope, method, state)
+                  .map(symbol -> enclosingElementEvaluation(symbol, state, cache))
+                  .flatMap(Optional::stream)
+                  .findFirst()
+              : evaluateForScope(method, state, ResultUseRule::evaluate, scope).findFirst();
+      if (evaluation.isPresent()) {
+        break;
+      }
+    }
+    cache.methods.put(method, evaluation);
+    return evaluation;
+  }
+
+  /**
+   * Returns the first evaluation of the given class or package, which many methods share, by the
+   * rules for enclosing elements.
+   */
+  private Optional<Evaluation<S>> enclosingElementEvaluation(
+      S symbol, C state, EvaluationCache<S, M> cache) {
+    Optional<Evaluation<S>> evaluation = cache.enclosingElements.get(symbol);
+    cache.recordAccess("ResultUsePolicyEvaluator.enclosingElements", evaluation != null);
+    if (evaluation != null) {
+      return evaluation;
+    }
+    evaluation =
+        rules.get(ENCLOSING_ELEMENTS).stream()
+            .map(rule -> rule.evaluate(ENCLOSING_ELEMENTS, symbol, state))
+            .flatMap(Optional::stream)
+            .findFirst();
+    cache.enclosingElements.put(symbol, evaluation);
+    return evaluation;
+  }
+
   /**
    * Returns a stream of {@link Evaluation}s made by rules starting from the given {@code method}.
    */
@@ -155,6 +220,45 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
         .flatMap(Optional::stream);
   }
 
+  /**
+   * The evaluations made for methods, and for the classes and packages that enclose them. Results
+   * are only valid for as long as the symbols and the rules' inputs don't change, typically one
+   * compilation.
+   *
+   * @param <S> the type of symbols
+   * @param <M> the type of method symbols
+   */
+  public static final class EvaluationCache<S, M extends S> {
+    private final Map<M, Optional<Evaluation<S>>> methods = new ConcurrentHashMap<>();
+    private final Map<S, Optional<Evaluation<S>>> enclosingElements = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final ErrorProneTimings timings;
+
+    /**
+     * Creates a cache that also reports its hits and misses to {@code timings}, for {@code
+     * -XepProfileReport}.
+     */
+    public EvaluationCache(ErrorProneTimings timings) {
+      this.timings = timings;
+    }
+
+    /** The number of evaluations of methods and enclosing elements answered from the cache. */
+    public long hitCount() {
+      return hits.sum();
+    }
+
+    /** The number of evaluations of methods and enclosing elements that ran the rules. */
+    public long missCount() {
+      return misses.sum();
+    }
+
+    private void recordAccess(String cache, boolean hit) {
+      (hit ? hits : misses).increment();
+      timings.recordCacheAccess(cache, hit);
+    }
+  }
+
   @FunctionalInterface
   private interface ScopeEvaluator<C, S, R> {
     /** Evaluates a {@code rule} on a {@code symbol} that is within a {@code scope} for a method. */
@@ -172,6 +276,7 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
   public static final class Builder<C, S, M extends S> {
     private final List<ResultUseRule<C, S>> rules = new ArrayList<>();
     private final MethodInfo<C, S, M> methodInfo;
+    private @Nullable Function<? super C, EvaluationCache<S, M>> caches;
 
     private Builder(MethodInfo<C, S, M> methodInfo) {
       this.methodInfo = methodInfo;
@@ -197,6 +302,17 @@ public final class ResultUsePolicyEvaluator<C, S, M extends S> {
       return this;
     }
 
+    /**
+     * Caches evaluations in the {@link EvaluationCache} that {@code caches} returns for the context
+     * of each evaluation. The function should return a new cache whenever the results of the rules
+     * may have changed.
+     */
+    @CanIgnoreReturnValue
+    public Builder<C, S, M> cacheEvaluations(Function<? super C, EvaluationCache<S, M>> caches) {
+      this.caches = caches;
+      return this;
+    }
+
     /** Builds a new {@link ResultUsePolicyEvaluator}. */
     public ResultUsePolicyEvaluator<C, S, M> build() {
       return new ResultUsePolicyEvaluator<>(this);
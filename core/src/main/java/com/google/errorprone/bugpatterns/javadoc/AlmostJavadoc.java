@@ -35,7 +35,6 @@ import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.ErrorProneComment;
 import com.google.errorprone.util.ErrorProneToken;
-import com.google.errorprone.util.ErrorProneTokens;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
@@ -76,8 +75,7 @@ public final class AlmostJavadoc extends BugChecker implements CompilationUnitTr
   @Override
   public Description matchCompilationUnit(CompilationUnitTree tree, VisitorState state) {
     ImmutableMap<Integer, Tree> javadocableTrees = getJavadocableTrees(tree, state);
-    for (ErrorProneToken token :
-        ErrorProneTokens.getTokens(state.getSourceCode().toString(), state.context)) {
+    for (ErrorProneToken token : state.getOffsetTokens(0, state.getSourceCode().length())) {
       for (ErrorProneComment comment : token.comments()) {
         if (!javadocableTrees.containsKey(token.pos())) {
           continue;
@@ -60,8 +60,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.type.TypeKind;
@@ -82,6 +84,9 @@ public final class ThreadSafety {
   private final ImmutableSet<String> suppressAnnotation;
   private final ImmutableSet<String> typeParameterAnnotation;
 
+  /** Identifies this instance's settings in {@link #MEMO}. */
+  private final Configuration configuration;
+
   public static Builder builder() {
     return new Builder();
   }
@@ -286,6 +291,15 @@ public final class ThreadSafety {
     this.containerOfAnnotation = ImmutableSet.copyOf(checkNotNull(containerOfAnnotation));
     this.suppressAnnotation = ImmutableSet.copyOf(checkNotNull(suppressAnnotation));
     this.typeParameterAnnotation = ImmutableSet.copyOf(checkNotNull(typeParameterAnnotation));
+    this.configuration =
+        new AutoValue_ThreadSafety_Configuration(
+            purpose,
+            this.knownTypes,
+            this.markerAnnotations,
+            this.acceptedAnnotations,
+            this.containerOfAnnotation,
+            this.suppressAnnotation,
+            this.typeParameterAnnotation);
   }
 
   /**
@@ -463,9 +477,9 @@ public final class ThreadSafety {
   /**
    * Returns an {@link Violation} explaining whether the type is threadsafe.
    *
-   * @param allowContainerTypeParameters true when checking the instantiation of an {@code
-   *     typeParameterAnnotation}-annotated type parameter; indicates that {@code
-   *     containerTypeParameters} should be ignored
+   * @param allowContainerTypeParameters false when checking the instantiation of an {@code
+   *     typeParameterAnnotation}-annotated type parameter, in which case type variables in {@code
+   *     containerTypeParameters} aren't assumed to be thread-safe
    * @param containerTypeParameters type parameters in enclosing elements' containerOf
    *     specifications
    * @param type to check for thread-safety
@@ -481,12 +495,112 @@ public final class ThreadSafety {
       Set<String> containerTypeParameters,
       Type type,
       Set<TypeVariableSymbol> recursiveThreadSafeTypeParameter) {
-    return type.accept(
-        new ThreadSafeTypeVisitor(
+    // While type variables are being assumed thread-safe, the result depends on which ones are, so
+    // it isn't memoized. The memo table is keyed by types that are the same according to
+    // Types#isSameType, which ignores type annotations, so annotated types aren't memoized either.
+    if (!recursiveThreadSafeTypeParameter.isEmpty() || hasTypeAnnotations(type)) {
+      return type.accept(
+          new ThreadSafeTypeVisitor(
+              allowContainerTypeParameters,
+              containerTypeParameters,
+              recursiveThreadSafeTypeParameter),
+          null);
+    }
+    Map<MemoKey, Violation> memo = MEMO.get(state);
+    MemoKey key =
+        new AutoValue_ThreadSafety_MemoKey(
+            configuration,
             allowContainerTypeParameters,
-            containerTypeParameters,
-            recursiveThreadSafeTypeParameter),
-        null);
+            ImmutableSet.copyOf(containerTypeParameters),
+            new Types.UniqueType(type, state.getTypes()));
+    Violation violation = memo.putIfAbsent(key, IN_PROGRESS);
+    if (violation == IN_PROGRESS) {
+      // The type refers back to itself; check it again without the memo table, which relies on
+      // recursiveThreadSafeTypeParameter to terminate.
+      return type.accept(
+          new ThreadSafeTypeVisitor(
+              allowContainerTypeParameters,
+              containerTypeParameters,
+              recursiveThreadSafeTypeParameter),
+          null);
+    }
+    if (violation != null) {
+      return violation;
+    }
+    try {
+      violation =
+          type.accept(
+              new ThreadSafeTypeVisitor(
+                  allowContainerTypeParameters,
+                  containerTypeParameters,
+                  recursiveThreadSafeTypeParameter),
+              null);
+    } finally {
+      if (violation != null) {
+        memo.put(key, violation);
+      } else {
+        memo.remove(key);
+      }
+    }
+    return violation;
+  }
+
+  private static boolean hasTypeAnnotations(Type type) {
+    if (!type.getAnnotationMirrors().isEmpty()) {
+      return true;
+    }
+    if (type instanceof WildcardType wildcardType) {
+      return wildcardType.type != null && hasTypeAnnotations(wildcardType.type);
+    }
+    if (type instanceof ArrayType arrayType) {
+      return hasTypeAnnotations(arrayType.elemtype);
+    }
+    for (Type argument : type.getTypeArguments()) {
+      if (hasTypeAnnotations(argument)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The results of {@link #isThreadSafeType} for each type checked in a compilation, including the
+   * types that are thread-safe, which many checks see over and over again.
+   */
+  private static final Supplier<Map<MemoKey, Violation>> MEMO =
+      VisitorState.memoize(unused -> new ConcurrentHashMap<>());
+
+  /** Marks the types whose checks are in progress in {@link #MEMO}. */
+  private static final Violation IN_PROGRESS = Violation.of("in progress");
+
+  /** The settings of a {@link ThreadSafety} that its results depend on. */
+  @AutoValue
+  abstract static class Configuration {
+    abstract Purpose purpose();
+
+    abstract ThreadSafetyKnownTypes knownTypes();
+
+    abstract ImmutableSet<String> markerAnnotations();
+
+    abstract ImmutableSet<String> acceptedAnnotations();
+
+    abstract ImmutableSet<String> containerOfAnnotation();
+
+    abstract ImmutableSet<String> suppressAnnotation();
+
+    abstract ImmutableSet<String> typeParameterAnnotation();
+  }
+
+  /** The inputs to one check of a type in {@link #MEMO}. */
+  @AutoValue
+  abstract static class MemoKey {
+    abstract Configuration configuration();
+
+    abstract boolean allowContainerTypeParameters();
+
+    abstract ImmutableSet<String> containerTypeParameters();
+
+    abstract Types.UniqueType type();
   }
 
   private class ThreadSafeTypeVisitor extends Types.SimpleVisitor<Violation, Void> {
@@ -26,11 +26,14 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CombinableCodeTransformer;
 import com.google.errorprone.DescriptionListener;
 import com.google.errorprone.SubContext;
+import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol.PackageSymbol;
 import com.sun.tools.javac.file.JavacFileManager;
@@ -42,6 +45,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import javax.tools.JavaFileManager;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A representation of an entire Refaster rule, corresponding to a class with @BeforeTemplates
@@ -53,7 +57,7 @@ import javax.tools.JavaFileManager;
  */
 @AutoValue
 public abstract class RefasterRule<M extends TemplateMatch, T extends Template<M>>
-    implements CodeTransformer, Serializable {
+    implements CombinableCodeTransformer, Serializable {
   public static RefasterRule<?, ?> create(
       String qualifiedTemplateClass,
       Collection<? extends Template<?>> beforeTemplates,
@@ -144,9 +148,67 @@ public abstract class RefasterRule<M extends TemplateMatch, T extends Template<M
     return true; // TODO: b/12365776 - Make this option configurable.
   }
 
+  /**
+   * Returns the kinds of tree that a match of this rule can be rooted at, or an empty set if this
+   * rule may match trees of any kind.
+   */
+  ImmutableSet<Tree.Kind> rootKinds() {
+    ImmutableSet.Builder<Tree.Kind> kinds = ImmutableSet.builder();
+    for (T beforeTemplate : beforeTemplates()) {
+      Tree.Kind kind = rootKind(beforeTemplate);
+      if (kind == null) {
+        return ImmutableSet.of();
+      }
+      kinds.add(kind);
+    }
+    return kinds.build();
+  }
+
+  /**
+   * Returns the kind of tree that a match of the given expression template can be rooted at, or
+   * null if it may match trees of any kind.
+   */
+  static Tree.@Nullable Kind rootKind(Template<?> template) {
+    if (!(template instanceof ExpressionTemplate expressionTemplate)) {
+      return null;
+    }
+    UExpression expression = expressionTemplate.expression();
+    // These only unify with trees of their own kind; identifiers, member selects, literals,
+    // parentheses and placeholders can unify with trees of other kinds.
+    if (!(expression instanceof UMethodInvocation
+        || expression instanceof UNewClass
+        || expression instanceof UBinary
+        || expression instanceof UUnary
+        || expression instanceof UConditional
+        || expression instanceof UInstanceOf
+        || expression instanceof UTypeCast
+        || expression instanceof UAssign
+        || expression instanceof UAssignOp
+        || expression instanceof ULambda
+        || expression instanceof UMemberReference
+        || expression instanceof UNewArray
+        || expression instanceof UArrayAccess)) {
+      return null;
+    }
+    return expression.getKind();
+  }
+
+  /**
+   * Returns a transformer that applies all of the given rules in a single pass over each
+   * compilation unit.
+   */
+  @Override
+  public CodeTransformer combine(List<? extends CodeTransformer> rules) {
+    ImmutableList.Builder<RefasterRule<?, ?>> refasterRules = ImmutableList.builder();
+    for (CodeTransformer rule : rules) {
+      refasterRules.add((RefasterRule<?, ?>) rule);
+    }
+    return new RefasterRuleIndex(refasterRules.build());
+  }
+
   static final Context.Key<ImmutableList<UTypeVar>> RULE_TYPE_VARS = new Context.Key<>();
 
-  private Context prepareContext(Context baseContext, JCCompilationUnit compilationUnit) {
+  Context prepareContext(Context baseContext, JCCompilationUnit compilationUnit) {
     Context context = new SubContext(baseContext);
     if (context.get(JavaFileManager.class) == null) {
       JavacFileManager.preRegister(context);
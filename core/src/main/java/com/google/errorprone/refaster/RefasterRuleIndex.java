@@ -0,0 +1,350 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.refaster;
+
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.util.ASTHelpers;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.DoWhileLoopTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.IfTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.SynchronizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.tree.WhileLoopTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCStatement;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.ListBuffer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Applies many {@link RefasterRule}s in a single pass over each compilation unit, instead of each
+ * rule scanning it with its own {@link RefasterScanner}.
+ *
+ * <p>The before templates of the rules are indexed by the {@linkplain RefasterRule#rootKind kind of
+ * tree} they can be rooted at and, for method invocations, by the name of the invoked method. Each
+ * tree is only unified with the templates filed under its kind and method name, and with the
+ * templates that may match trees of any kind.
+ *
+ * <p>Matches are reported as each tree is visited rather than rule by rule, but the matches for any
+ * one tree are reported in the order of the rules and their before templates.
+ */
+final class RefasterRuleIndex implements CodeTransformer {
+
+  /** One of the before templates of one of the rules. */
+  private static final class Candidate {
+    /** The position of the template among the before templates of all of the rules. */
+    final int order;
+
+    final int rule;
+    final Template<?> template;
+
+    Candidate(int order, int rule, Template<?> template) {
+      this.order = order;
+      this.rule = rule;
+      this.template = template;
+    }
+  }
+
+  private final ImmutableList<RefasterRule<?, ?>> rules;
+
+  /** The indices of the rules whose templates are declared in each class. */
+  private final ImmutableListMultimap<String, Integer> rulesByTemplateClass;
+
+  /**
+   * The candidates for trees of each kind, for any kind but method invocations of indexed names.
+   */
+  private final ImmutableMap<Tree.Kind, ImmutableList<Candidate>> byKind;
+
+  /** The candidates for invocations of methods with each name. */
+  private final ImmutableMap<String, ImmutableList<Candidate>> byMethodName;
+
+  /** The candidates for trees of kinds that no template is filed under. */
+  private final ImmutableList<Candidate> anyKind;
+
+  RefasterRuleIndex(ImmutableList<RefasterRule<?, ?>> rules) {
+    this.rules = rules;
+    ImmutableListMultimap.Builder<String, Integer> rulesByTemplateClass =
+        ImmutableListMultimap.builder();
+    ListMultimap<Tree.Kind, Candidate> kindCandidates =
+        MultimapBuilder.enumKeys(Tree.Kind.class).arrayListValues().build();
+    ListMultimap<String, Candidate> nameCandidates =
+        MultimapBuilder.hashKeys().arrayListValues().build();
+    List<Candidate> anyKindCandidates = new ArrayList<>();
+    int order = 0;
+    for (int i = 0; i < rules.size(); i++) {
+      RefasterRule<?, ?> rule = rules.get(i);
+      rulesByTemplateClass.put(rule.qualifiedTemplateClass(), i);
+      for (Template<?> template : rule.beforeTemplates()) {
+        Candidate candidate = new Candidate(order++, i, template);
+        Tree.Kind kind =
+            template instanceof BlockTemplate ? Tree.Kind.BLOCK : RefasterRule.rootKind(template);
+        String methodName = kind == Tree.Kind.METHOD_INVOCATION ? methodName(template) : null;
+        if (methodName != null) {
+          nameCandidates.put(methodName, candidate);
+        } else if (kind != null) {
+          kindCandidates.put(kind, candidate);
+        } else {
+          anyKindCandidates.add(candidate);
+        }
+      }
+    }
+    this.rulesByTemplateClass = rulesByTemplateClass.build();
+
+    // Every list of candidates includes those for any kind, in the order they were declared.
+    Map<Tree.Kind, ImmutableList<Candidate>> byKind = new EnumMap<>(Tree.Kind.class);
+    for (Tree.Kind kind : kindCandidates.keySet()) {
+      byKind.put(kind, merge(kindCandidates.get(kind), anyKindCandidates));
+    }
+    ImmutableList<Candidate> anyMethod =
+        merge(kindCandidates.get(Tree.Kind.METHOD_INVOCATION), anyKindCandidates);
+    byKind.put(Tree.Kind.METHOD_INVOCATION, anyMethod);
+    Map<String, ImmutableList<Candidate>> byMethodName = new HashMap<>();
+    for (String name : nameCandidates.keySet()) {
+      byMethodName.put(name, merge(nameCandidates.get(name), anyMethod));
+    }
+    this.byKind = ImmutableMap.copyOf(byKind);
+    this.byMethodName = ImmutableMap.copyOf(byMethodName);
+    this.anyKind = ImmutableList.copyOf(anyKindCandidates);
+  }
+
+  /**
+   * Returns the name of the method invoked by the given template's expression, or null if it isn't
+   * known.
+   */
+  private static @Nullable String methodName(Template<?> template) {
+    UExpression methodSelect =
+        ((UMethodInvocation) ((ExpressionTemplate) template).expression()).getMethodSelect();
+    if (methodSelect instanceof UMemberSelect memberSelect) {
+      return memberSelect.getIdentifier().contents();
+    }
+    if (methodSelect instanceof UStaticIdent staticIdent) {
+      return staticIdent.getName().contents();
+    }
+    if (methodSelect instanceof UMethodIdent methodIdent) {
+      return methodIdent.getName().contents();
+    }
+    return null;
+  }
+
+  /** Merges two lists of candidates, each in declaration order, into one in declaration order. */
+  private static ImmutableList<Candidate> merge(List<Candidate> a, List<Candidate> b) {
+    ImmutableList.Builder<Candidate> merged =
+        ImmutableList.builderWithExpectedSize(a.size() + b.size());
+    int i = 0;
+    int j = 0;
+    while (i < a.size() || j < b.size()) {
+      if (j == b.size() || (i < a.size() && a.get(i).order < b.get(j).order)) {
+        merged.add(a.get(i++));
+      } else {
+        merged.add(b.get(j++));
+      }
+    }
+    return merged.build();
+  }
+
+  @Override
+  public void apply(TreePath path, Context context, DescriptionListener listener) {
+    new IndexScanner(context, (JCCompilationUnit) path.getCompilationUnit(), listener)
+        .scan(path.getLeaf(), null);
+  }
+
+  @Override
+  public ImmutableClassToInstanceMap<Annotation> annotations() {
+    return ImmutableClassToInstanceMap.of();
+  }
+
+  private ImmutableList<Candidate> candidates(Tree tree) {
+    if (tree instanceof MethodInvocationTree invocation) {
+      Tree methodSelect = invocation.getMethodSelect();
+      String name = null;
+      if (methodSelect instanceof MemberSelectTree memberSelect) {
+        name = memberSelect.getIdentifier().toString();
+      } else if (methodSelect instanceof IdentifierTree identifier) {
+        name = identifier.getName().toString();
+      }
+      ImmutableList<Candidate> candidates = name == null ? null : byMethodName.get(name);
+      if (candidates != null) {
+        return candidates;
+      }
+    }
+    return byKind.getOrDefault(tree.getKind(), anyKind);
+  }
+
+  /** Mirrors {@link RefasterScanner}, keeping track of which rules are disabled where. */
+  private final class IndexScanner extends TreeScanner<Void, Void> {
+    private final Context context;
+    private final JCCompilationUnit compilationUnit;
+    private final DescriptionListener listener;
+
+    /** The contexts prepared for each rule, created when the rule is first unified. */
+    private final Context[] ruleContexts = new Context[rules.size()];
+
+    /** The rules that are suppressed, or skipped in their own template class, on this path. */
+    private BitSet disabled = new BitSet();
+
+    IndexScanner(Context context, JCCompilationUnit compilationUnit, DescriptionListener listener) {
+      this.context = context;
+      this.compilationUnit = compilationUnit;
+      this.listener = listener;
+    }
+
+    @Override
+    public Void scan(Tree tree, Void unused) {
+      if (tree == null) {
+        return null;
+      }
+      for (Candidate candidate : candidates(tree)) {
+        if (!disabled.get(candidate.rule)) {
+          reportMatches(candidate, tree);
+        }
+      }
+      return super.scan(tree, null);
+    }
+
+    private <M extends TemplateMatch, T extends Template<M>> void reportMatches(
+        Candidate candidate, Tree tree) {
+      @SuppressWarnings("unchecked") // the template is one of the rule's before templates
+      RefasterRule<M, T> rule = (RefasterRule<M, T>) rules.get(candidate.rule);
+      @SuppressWarnings("unchecked")
+      T template = (T) candidate.template;
+      RefasterScanner.reportMatches(rule, template, tree, ruleContext(candidate.rule), listener);
+    }
+
+    private Context ruleContext(int rule) {
+      if (ruleContexts[rule] == null) {
+        ruleContexts[rule] = rules.get(rule).prepareContext(context, compilationUnit);
+      }
+      return ruleContexts[rule];
+    }
+
+    @Override
+    public Void visitClass(ClassTree node, Void unused) {
+      BitSet previous = disable(node);
+      try {
+        if (disabled.cardinality() == rules.size()) {
+          return null;
+        }
+        ListBuffer<JCStatement> statements = new ListBuffer<>();
+        for (Tree tree : node.getMembers()) {
+          if (tree instanceof JCStatement jCStatement) {
+            statements.append(jCStatement);
+          } else {
+            tree.accept(this, null);
+          }
+        }
+        scan(TreeMaker.instance(context).Block(0, statements.toList()), null);
+        return null;
+      } finally {
+        disabled = previous;
+      }
+    }
+
+    @Override
+    public Void visitMethod(MethodTree node, Void unused) {
+      BitSet previous = disable(node);
+      try {
+        return disabled.cardinality() == rules.size() ? null : super.visitMethod(node, null);
+      } finally {
+        disabled = previous;
+      }
+    }
+
+    @Override
+    public Void visitVariable(VariableTree node, Void unused) {
+      BitSet previous = disable(node);
+      try {
+        return disabled.cardinality() == rules.size() ? null : super.visitVariable(node, null);
+      } finally {
+        disabled = previous;
+      }
+    }
+
+    /**
+     * Disables the rules that are suppressed on the given declaration, and the rules declared in it
+     * if it is a template class, returning the rules that were disabled before.
+     */
+    private BitSet disable(Tree declaration) {
+      BitSet previous = disabled;
+      BitSet newlyDisabled = RefasterSuppressionHelper.suppressed(rules, declaration, context);
+      if (declaration instanceof ClassTree) {
+        Symbol sym = ASTHelpers.getSymbol(declaration);
+        if (sym != null) {
+          for (int rule : rulesByTemplateClass.get(sym.getQualifiedName().toString())) {
+            newlyDisabled.set(rule);
+          }
+        }
+      }
+      if (!newlyDisabled.isEmpty()) {
+        disabled = (BitSet) previous.clone();
+        disabled.or(newlyDisabled);
+      }
+      return previous;
+    }
+
+    @Override
+    public Void visitDoWhileLoop(DoWhileLoopTree node, Void unused) {
+      scan(node.getStatement(), null);
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      return null;
+    }
+
+    @Override
+    public Void visitWhileLoop(WhileLoopTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      scan(node.getStatement(), null);
+      return null;
+    }
+
+    @Override
+    public Void visitSynchronized(SynchronizedTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getExpression(), null), null);
+      scan(node.getBlock(), null);
+      return null;
+    }
+
+    @Override
+    public Void visitIf(IfTree node, Void unused) {
+      scan(RefasterScanner.SKIP_PARENS.visit(node.getCondition(), null), null);
+      scan(node.getThenStatement(), null);
+      scan(node.getElseStatement(), null);
+      return null;
+    }
+  }
+}
@@ -101,34 +101,44 @@ abstract class RefasterScanner<M extends TemplateMatch, T extends Template<M>>
     if (tree == null) {
       return null;
     }
-    JCCompilationUnit compilationUnit = context.get(JCCompilationUnit.class);
     for (T beforeTemplate : rule().beforeTemplates()) {
-      matchLoop:
-      for (M match : beforeTemplate.match((JCTree) tree, context)) {
-        if (rule().rejectMatchesWithComments()) {
-          String matchContents = match.getRange(compilationUnit);
-          if (stringContainsComments(matchContents, context)) {
-            continue matchLoop;
-          }
-        }
-        Description.Builder builder =
-            Description.builder(match.getLocation(), rule().qualifiedTemplateClass(), "", "")
-                .overrideSeverity(SeverityLevel.WARNING);
+      reportMatches(rule(), beforeTemplate, tree, context, listener());
+    }
+    return super.scan(tree, context);
+  }
 
-        if (rule().afterTemplates().isEmpty()) {
-          builder.addFix(SuggestedFix.prefixWith(match.getLocation(), "/* match found */ "));
-        } else {
-          for (T afterTemplate : rule().afterTemplates()) {
-            builder.addFix(afterTemplate.replace(match));
-          }
+  /** Reports the matches of one of the rule's before templates against the given tree. */
+  static <M extends TemplateMatch, T extends Template<M>> void reportMatches(
+      RefasterRule<M, T> rule,
+      T beforeTemplate,
+      Tree tree,
+      Context context,
+      DescriptionListener listener) {
+    JCCompilationUnit compilationUnit = context.get(JCCompilationUnit.class);
+    matchLoop:
+    for (M match : beforeTemplate.match((JCTree) tree, context)) {
+      if (rule.rejectMatchesWithComments()) {
+        String matchContents = match.getRange(compilationUnit);
+        if (stringContainsComments(matchContents, context)) {
+          continue matchLoop;
         }
-        listener().onDescribed(builder.build());
       }
+      Description.Builder builder =
+          Description.builder(match.getLocation(), rule.qualifiedTemplateClass(), "", "")
+              .overrideSeverity(SeverityLevel.WARNING);
+
+      if (rule.afterTemplates().isEmpty()) {
+        builder.addFix(SuggestedFix.prefixWith(match.getLocation(), "/* match found */ "));
+      } else {
+        for (T afterTemplate : rule.afterTemplates()) {
+          builder.addFix(afterTemplate.replace(match));
+        }
+      }
+      listener.onDescribed(builder.build());
     }
-    return super.scan(tree, context);
   }
 
-  private static final SimpleTreeVisitor<Tree, Void> SKIP_PARENS =
+  static final SimpleTreeVisitor<Tree, Void> SKIP_PARENS =
       new SimpleTreeVisitor<Tree, Void>() {
         @Override
         public Tree visitParenthesized(ParenthesizedTree node, Void v) {
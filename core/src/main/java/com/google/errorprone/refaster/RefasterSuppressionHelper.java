@@ -26,6 +26,8 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Name;
 import java.lang.annotation.Annotation;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
 
 /** Helpers for handling suppression annotations in refaster. */
@@ -52,6 +54,32 @@ final class RefasterSuppressionHelper {
         .equals(SuppressionInfo.SuppressedState.SUPPRESSED);
   }
 
+  /** Returns the indices of the given rules that are suppressed on the given tree. */
+  static BitSet suppressed(List<? extends RefasterRule<?, ?>> rules, Tree tree, Context context) {
+    BitSet suppressed = new BitSet();
+    Symbol sym = ASTHelpers.getDeclaredSymbol(tree);
+    if (sym == null) {
+      return suppressed;
+    }
+    VisitorState state = VisitorState.createForUtilityPurposes(context);
+    SuppressionInfo suppressionInfo =
+        SuppressionInfo.EMPTY.withExtendedSuppressions(
+            sym, state, /* customSuppressionAnnosToLookFor= */ ImmutableSet.of());
+    if (suppressionInfo == SuppressionInfo.EMPTY) {
+      // The common case: the tree isn't annotated, so no rule is suppressed on it.
+      return suppressed;
+    }
+    for (int i = 0; i < rules.size(); i++) {
+      if (suppressionInfo
+          .suppressedState(
+              new RefasterSuppressible(rules.get(i)), /* suppressedInGeneratedCode= */ false, state)
+          .equals(SuppressionInfo.SuppressedState.SUPPRESSED)) {
+        suppressed.set(i);
+      }
+    }
+    return suppressed;
+  }
+
   /** Adapts a {@link RefasterRule<?, ?>} into a {@link Suppressible}. */
   private static class RefasterSuppressible implements Suppressible {
 
@@ -52,12 +52,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 import javax.lang.model.SourceVersion;
 import javax.tools.DiagnosticListener;
@@ -544,6 +549,182 @@ public class ErrorProneJavaCompilerTest {
             """);
   }
 
+  /**
+   * Suggests a fix, but replaces the file with a directory so that the fix can't be written back.
+   */
+  @BugPattern(summary = "Suggests a fix to a file that can't be written", severity = ERROR)
+  public static final class UnwritableFix extends BugChecker implements ClassTreeMatcher {
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      Path path = Path.of(state.getPath().getCompilationUnit().getSourceFile().toUri());
+      try {
+        Files.delete(path);
+        Files.createDirectory(path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return describeMatch(tree, SuggestedFix.prefixWith(tree, "final "));
+    }
+  }
+
+  @Test
+  public void patchFailureReported() throws IOException {
+    JavaFileObject fileObject = createOnDiskFileObject("Test.java", "class Test {}");
+
+    CompilationResult result =
+        doCompile(
+            Collections.singleton(fileObject),
+            Arrays.asList("-XepPatchChecks:UnwritableFix", "-XepPatchLocation:IN_PLACE"),
+            ImmutableList.of(UnwritableFix.class));
+    assertThat(result.output)
+        .contains("Failed to apply refactoring changes to " + Path.of(fileObject.toUri()));
+    assertThat(result.output).doesNotContain("successfully applied");
+  }
+
+  @BugPattern(summary = "Reports every class it scans", severity = ERROR)
+  public static final class CountingClassChecker extends BugChecker implements ClassTreeMatcher {
+    static int scanned = 0;
+
+    @Override
+    public Description matchClass(ClassTree tree, VisitorState state) {
+      scanned++;
+      return describeMatch(tree, SuggestedFix.prefixWith(tree, "final "));
+    }
+  }
+
+  @Test
+  public void resultCache() throws IOException {
+    String cacheDirectory = tempDir.newFolder("cache").getAbsolutePath();
+    ImmutableList<String> args = ImmutableList.of("-XepResultCache:" + cacheDirectory);
+    JavaFileObject fileObject = createOnDiskFileObject("Test.java", "class Test {}");
+    CountingClassChecker.scanned = 0;
+
+    CompilationResult result =
+        doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isFalse();
+    assertThat(CountingClassChecker.scanned).isEqualTo(1);
+    String message =
+        Iterables.getOnlyElement(result.diagnosticHelper.getDiagnostics()).getMessage(ENGLISH);
+    assertThat(message).contains("Did you mean 'final class Test {}'?");
+
+    // Identical inputs: the findings are replayed without scanning.
+    result =
+        doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isFalse();
+    assertThat(CountingClassChecker.scanned).isEqualTo(1);
+    assertThat(
+            Iterables.getOnlyElement(result.diagnosticHelper.getDiagnostics()).getMessage(ENGLISH))
+        .isEqualTo(message);
+
+    // Different severities are a different configuration.
+    result =
+        doCompile(
+            ImmutableList.of(fileObject),
+            ImmutableList.<String>builder()
+                .addAll(args)
+                .add("-Xep:CountingClassChecker:WARN")
+                .build(),
+            ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isTrue();
+    assertThat(CountingClassChecker.scanned).isEqualTo(2);
+
+    // Changed sources are rescanned.
+    fileObject = createOnDiskFileObject("Test.java", "class Test { int x; }");
+    result =
+        doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isFalse();
+    assertThat(CountingClassChecker.scanned).isEqualTo(3);
+  }
+
+  @Test
+  public void resultCache_dependencyApi() throws IOException {
+    String cacheDirectory = tempDir.newFolder("cache").getAbsolutePath();
+    ImmutableList<String> args = ImmutableList.of("-XepResultCache:" + cacheDirectory);
+    JavaFileObject a = createOnDiskFileObject("A.java", "class A { int f(B b) { return b.g(); } }");
+    JavaFileObject b = createOnDiskFileObject("B.java", "class B { int g() { return 1; } }");
+    CountingClassChecker.scanned = 0;
+
+    doCompile(ImmutableList.of(a, b), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(2);
+
+    // B's API is unchanged, so only B is rescanned.
+    b = createOnDiskFileObject("B.java", "class B { int g() { return 2; } }");
+    doCompile(ImmutableList.of(a, b), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(3);
+
+    // B's API changed, so A is rescanned too.
+    b = createOnDiskFileObject("B.java", "class B { int g() { return 2; } int h() { return 3; } }");
+    doCompile(ImmutableList.of(a, b), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(5);
+  }
+
+  @Test
+  public void resultCache_classpathContent() throws IOException {
+    String cacheDirectory = tempDir.newFolder("cache").getAbsolutePath();
+    Path classpath = tempDir.newFolder("lib").toPath();
+    Path resource = Files.writeString(classpath.resolve("resource.txt"), "one");
+    ImmutableList<String> args =
+        ImmutableList.of("-XepResultCache:" + cacheDirectory, "-classpath", classpath.toString());
+    JavaFileObject fileObject = createOnDiskFileObject("Test.java", "class Test {}");
+    CountingClassChecker.scanned = 0;
+
+    doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(1);
+
+    // Touching a classpath entry doesn't invalidate the cache...
+    Files.setLastModifiedTime(resource, FileTime.from(Instant.now().plus(Duration.ofDays(1))));
+    doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(1);
+
+    // ...but changing its contents does.
+    Files.writeString(resource, "two");
+    doCompile(ImmutableList.of(fileObject), args, ImmutableList.of(CountingClassChecker.class));
+    assertThat(CountingClassChecker.scanned).isEqualTo(2);
+  }
+
+  @Test
+  public void resultCache_evictionSkipsTempFiles() throws IOException {
+    Path cacheDirectory = tempDir.newFolder("cache").toPath();
+    // Another process may still be writing this entry...
+    Path inFlight = Files.write(cacheDirectory.resolve("inflight.entry123.tmp"), new byte[1024]);
+    // ...but this one was left behind by a process that died.
+    Path stale = Files.write(cacheDirectory.resolve("stale.entry456.tmp"), new byte[1024]);
+    Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+    JavaFileObject fileObject = createOnDiskFileObject("Test.java", "class Test {}");
+
+    CompilationResult result =
+        doCompile(
+            ImmutableList.of(fileObject),
+            ImmutableList.of("-XepResultCache:" + cacheDirectory, "-XepResultCacheMaxBytes:1"),
+            ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isFalse();
+
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      assertThat(files.map(p -> p.getFileName().toString()))
+          .containsExactly(".lock", inFlight.getFileName().toString());
+    }
+  }
+
+  @Test
+  public void profileReport() throws IOException {
+    Path report = tempDir.getRoot().toPath().resolve("profile.json");
+    JavaFileObject first = createOnDiskFileObject("A.java", "class A {}");
+    JavaFileObject second = createOnDiskFileObject("B.java", "class B { class C {} }");
+
+    CompilationResult result =
+        doCompile(
+            ImmutableList.of(first, second),
+            ImmutableList.of("-XepProfileReport:" + report),
+            ImmutableList.of(CountingClassChecker.class));
+    assertThat(result.succeeded).isFalse();
+
+    String json = Files.readString(report);
+    assertThat(json).contains("\"name\": \"CountingClassChecker\", \"calls\": 3,");
+    assertThat(json).contains("\"allocatedBytes\": ");
+    assertThat(json).contains("{\"file\": \"" + second.getName() + "\", \"nanos\": ");
+    assertThat(json).contains("\"facilities\": [");
+  }
+
   /**
    * Creates a {@link JavaFileObject} with matching on-disk contents.
    *
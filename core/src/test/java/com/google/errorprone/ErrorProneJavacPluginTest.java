@@ -51,6 +51,8 @@ import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.stream.Stream;
@@ -220,6 +222,108 @@ public class ErrorProneJavacPluginTest {
         .containsExactly("A.java", "B.java");
   }
 
+  @Test
+  public void applyToPatchFile_sortedByPath() throws IOException {
+    Assume.assumeFalse(StandardSystemProperty.OS_NAME.value().startsWith("Windows"));
+
+    Path tmp = temporaryFolder.newFolder().toPath();
+    Path patchDir = temporaryFolder.newFolder().toPath();
+    Path patchFile = patchDir.resolve("error-prone.patch");
+    List<Path> files = new ArrayList<>();
+    for (String name : ImmutableList.of("D", "B", "C", "A")) {
+      Path file = tmp.resolve(name + ".java");
+      Files.write(
+          file,
+          ImmutableList.of(
+              "class " + name + " implements Runnable {", //
+              "  public void run() {}",
+              "}"),
+          UTF_8);
+      files.add(file);
+    }
+    JavacFileManager fileManager = new JavacFileManager(new Context(), false, UTF_8);
+    DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                null,
+                fileManager,
+                diagnosticCollector,
+                ImmutableList.of(
+                    "-Xplugin:ErrorProne"
+                        + " -XepPatchChecks:MissingOverride -XepPatchLocation:"
+                        + patchDir,
+                    "-XDcompilePolicy=byfile",
+                    "--should-stop=ifError=FLOW"),
+                ImmutableList.of(),
+                fileManager.getJavaFileObjects(files.toArray(new Path[0])));
+    assertWithMessage(Joiner.on('\n').join(diagnosticCollector.getDiagnostics()))
+        .that(task.call())
+        .isTrue();
+    assertThat(
+            Files.readAllLines(patchFile, UTF_8).stream()
+                .filter(l -> l.startsWith("--- "))
+                .map(l -> Paths.get(l.substring("--- ".length())).getFileName().toString())
+                .collect(toImmutableList()))
+        .containsExactly("A.java", "B.java", "C.java", "D.java")
+        .inOrder();
+  }
+
+  @Test
+  public void applyToPatchFile_javacTaskGenerate() throws IOException {
+    Assume.assumeFalse(StandardSystemProperty.OS_NAME.value().startsWith("Windows"));
+
+    Path tmp = temporaryFolder.newFolder().toPath();
+    Path patchDir = temporaryFolder.newFolder().toPath();
+    Path patchFile = patchDir.resolve("error-prone.patch");
+    Path fileA = tmp.resolve("A.java");
+    Path fileB = tmp.resolve("B.java");
+    Files.write(
+        fileA,
+        ImmutableList.of(
+            "class A implements Runnable {", //
+            "  public void run() {}",
+            "}"),
+        UTF_8);
+    Files.write(
+        fileB,
+        ImmutableList.of(
+            "class B implements Runnable {", //
+            "  public void run() {}",
+            "}"),
+        UTF_8);
+    JavacFileManager fileManager = new JavacFileManager(new Context(), false, UTF_8);
+    DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+    StringWriter out = new StringWriter();
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                out,
+                fileManager,
+                diagnosticCollector,
+                ImmutableList.of(
+                    "-Xplugin:ErrorProne"
+                        + " -XepPatchChecks:MissingOverride -XepPatchLocation:"
+                        + patchDir,
+                    "-XDcompilePolicy=simple",
+                    "--should-stop=ifError=FLOW"),
+                ImmutableList.of(),
+                fileManager.getJavaFileObjects(fileA, fileB));
+    // Unlike call(), generate() doesn't send a COMPILATION event.
+    task.generate();
+    assertWithMessage(Joiner.on('\n').join(diagnosticCollector.getDiagnostics()))
+        .that(diagnosticCollector.getDiagnostics().stream().map(Diagnostic::getKind))
+        .doesNotContain(Diagnostic.Kind.ERROR);
+    assertThat(
+            Files.readAllLines(patchFile, UTF_8).stream()
+                .filter(l -> l.startsWith("--- "))
+                .map(l -> Paths.get(l.substring("--- ".length())).getFileName().toString())
+                .collect(toImmutableList()))
+        .containsExactly("A.java", "B.java")
+        .inOrder();
+    assertThat(out.toString()).contains("Changes were written to " + patchFile);
+  }
+
   @Test
   public void noPolicyGiven() throws IOException {
     FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
@@ -24,6 +24,7 @@ import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Locale.ENGLISH;
 import static javax.tools.StandardLocation.ANNOTATION_PROCESSOR_PATH;
+import static org.junit.Assert.assertThrows;
 
 import com.google.common.base.Splitter;
 import com.google.common.base.StandardSystemProperty;
@@ -34,10 +35,14 @@ import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.ClassTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.suppliers.Supplier;
+import com.google.testing.compile.JavaFileObjects;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
 import com.sun.tools.javac.api.BasicJavacTask;
 import com.sun.tools.javac.api.JavacTool;
+import com.sun.tools.javac.api.MultiTaskListener;
+import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.file.JavacFileManager;
 import com.sun.tools.javac.util.Context;
 import java.io.File;
@@ -47,6 +52,7 @@ import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.stream.Stream;
@@ -108,6 +114,108 @@ public class VisitorStateTest {
     assertThat(visitorState.getConstantExpression('\'')).isEqualTo("'\\''");
   }
 
+  @Test
+  public void memoize_computesOncePerCompilation() {
+    AtomicInteger computations = new AtomicInteger();
+    Supplier<Integer> supplier = VisitorState.memoize(s -> computations.incrementAndGet());
+    VisitorState first = VisitorState.createForUtilityPurposes(newContext());
+    assertThat(supplier.get(first)).isEqualTo(1);
+    assertThat(supplier.get(first)).isEqualTo(1);
+
+    VisitorState second = VisitorState.createForUtilityPurposes(newContext());
+    assertThat(supplier.get(second)).isEqualTo(2);
+    assertThat(supplier.get(second)).isEqualTo(2);
+  }
+
+  @Test
+  public void memoize_doesNotCacheNull() {
+    AtomicInteger computations = new AtomicInteger();
+    Supplier<Integer> supplier =
+        VisitorState.memoize(s -> computations.incrementAndGet() == 1 ? null : 42);
+    VisitorState state = VisitorState.createForUtilityPurposes(newContext());
+    assertThat(supplier.get(state)).isNull();
+    assertThat(supplier.get(state)).isEqualTo(42);
+    assertThat(supplier.get(state)).isEqualTo(42);
+    assertThat(computations.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void typeFromString_cachedAcrossVisitorStates() {
+    Context context = newContext();
+    SymbolLookupCache cache = SymbolLookupCache.instance(context);
+    Type type = VisitorState.createForUtilityPurposes(context).getTypeFromString("int");
+    long misses = cache.missCount();
+    assertThat(VisitorState.createForUtilityPurposes(context).getTypeFromString("int"))
+        .isSameInstanceAs(type);
+    assertThat(cache.missCount()).isEqualTo(misses);
+    assertThat(cache.hitCount()).isGreaterThan(0);
+  }
+
+  @Test
+  public void typeFromString_reportedInProfile() throws IOException {
+    Context context = newContext();
+    ErrorProneTimings.instance(context).enableProfiling();
+    VisitorState.createForUtilityPurposes(context).getTypeFromString("int");
+    VisitorState.createForUtilityPurposes(context).getTypeFromString("int");
+
+    StringBuilder report = new StringBuilder();
+    ErrorProneTimings.instance(context).writeProfileReport(report);
+    assertThat(report.toString())
+        .contains("{\"name\": \"SymbolLookupCache.type\", \"hits\": 1, \"misses\": 1}");
+  }
+
+  @Test
+  public void typeFromString_invalidNotCached() {
+    Context context = newContext();
+    SymbolLookupCache cache = SymbolLookupCache.instance(context);
+    VisitorState state = VisitorState.createForUtilityPurposes(context);
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> state.getTypeFromString("int[]"));
+    assertThat(e).hasMessageThat().contains("Cannot convert array types (int[])");
+    assertThat(cache.hitCount()).isEqualTo(0);
+    assertThat(cache.missCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void typeFromString_missesCachedUntilNextCompilationUnit() throws IOException {
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                /* out= */ null,
+                FileManagers.testFileManager(),
+                /* diagnosticListener= */ null,
+                /* options= */ ImmutableList.of(),
+                /* classes= */ ImmutableList.of(),
+                ImmutableList.of(JavaFileObjects.forSourceString("Test", "class Test {}")));
+    // Initializes the modules that missing classes are looked up in.
+    task.analyze();
+    Context context = ((BasicJavacTask) task).getContext();
+    SymbolLookupCache cache = SymbolLookupCache.instance(context);
+    VisitorState state = VisitorState.createForUtilityPurposes(context);
+    assertThat(state.getTypeFromString("does.not.Exist")).isNull();
+    long misses = cache.missCount();
+    assertThat(state.getTypeFromString("does.not.Exist")).isNull();
+    assertThat(cache.missCount()).isEqualTo(misses);
+
+    MultiTaskListener.instance(context).finished(new TaskEvent(TaskEvent.Kind.ANALYZE));
+    assertThat(state.getTypeFromString("does.not.Exist")).isNull();
+    assertThat(cache.missCount()).isGreaterThan(misses);
+  }
+
+  private static Context newContext() {
+    JavacTask task =
+        JavacTool.create()
+            .getTask(
+                /* out= */ null,
+                FileManagers.testFileManager(),
+                /* diagnosticListener= */ null,
+                /* options= */ ImmutableList.of(),
+                /* classes= */ ImmutableList.of(),
+                /* compilationUnits= */ ImmutableList.of());
+    return ((BasicJavacTask) task).getContext();
+  }
+
   // The following is taken from ErrorProneJavacPluginTest. There may be an easier way.
   // It's possible that it's overkill for what we need here.
 
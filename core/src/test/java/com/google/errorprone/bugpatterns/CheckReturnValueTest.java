@@ -21,6 +21,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import com.google.common.base.Joiner;
 import com.google.errorprone.BugCheckerRefactoringTestHelper;
 import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ApiExclusionIndex;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
@@ -1000,6 +1001,34 @@ class Test {
         .doTest();
   }
 
+  @Test
+  public void allMethods_withPrecompiledIgnoreList() {
+    compileWithPrecompiledExternalApis(
+            "my.java.util.List#add(java.lang.Object)", "my.java.util.List#<init>()")
+        .addSourceLines(
+            "Test.java",
+            """
+            import my.java.util.List;
+            class Test {
+              public static void foo(List<Integer> x) {
+                x.add(42);
+                // BUG: Diagnostic contains: CheckReturnValue
+                x.get(0);
+              }
+            }
+            """)
+        .addSourceLines(
+            "my/java/util/List.java",
+            """
+            package my.java.util;
+            public interface List<E> {
+              boolean add(E e);
+              E get(int index);
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void packagesRule() {
     compilationHelperWithPackagePatterns("my.java.util")
@@ -1418,6 +1447,22 @@ class Test {
     }
   }
 
+  private CompilationTestHelper compileWithPrecompiledExternalApis(String... apis) {
+    try {
+      Path file = temporaryFolder.newFile().toPath();
+      Files.writeString(file, Joiner.on('\n').join(apis), UTF_8);
+      Path index = temporaryFolder.getRoot().toPath().resolve("apis.index");
+      ApiExclusionIndex.main(new String[] {file.toString(), index.toString()});
+
+      return compilationHelper.setArgs(
+          "-XepOpt:" + CheckReturnValue.CHECK_ALL_METHODS + "=true",
+          "-XepOpt:CheckReturnValue:ApiExclusionList=" + index,
+          "-XepOpt:CheckReturnValue:ApiExclusionListParser=PRECOMPILED");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private CompilationTestHelper compilationHelperWithPackagePatterns(String... patterns) {
     return compilationHelper.setArgs(
         "-XepOpt:" + CheckReturnValue.CRV_PACKAGES + "=" + Joiner.on(',').join(patterns),
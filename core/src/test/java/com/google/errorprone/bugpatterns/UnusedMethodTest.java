@@ -45,6 +45,27 @@ public final class UnusedMethodTest {
         .doTest();
   }
 
+  @Test
+  public void nativeMethodInLocalClass_stillReported() {
+    helper
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              // BUG: Diagnostic contains: Method 'notUsed' is never used.
+              private void notUsed() {}
+
+              void f() {
+                class Local {
+                  native void aNativeMethod();
+                }
+                new Local().aNativeMethod();
+              }
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void unusedPrivateMethod() {
     helper
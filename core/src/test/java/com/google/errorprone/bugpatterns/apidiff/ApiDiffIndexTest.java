@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.apidiff;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.errorprone.bugpatterns.apidiff.ApiDiff.ClassMemberKey;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** {@link ApiDiffIndex}Test. */
+@RunWith(JUnit4.class)
+public class ApiDiffIndexTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final ApiDiff DIFF =
+      ApiDiff.fromMembers(
+          ImmutableSet.of("lib/Gone", "lib/Gone$Inner", "lib/Ünïcode"),
+          ImmutableSetMultimap.of(
+              "lib/A", ClassMemberKey.create("f", "()V"),
+              "lib/A", ClassMemberKey.create("g", "(I)V"),
+              "lib/B", ClassMemberKey.create("anyOverload", ""),
+              "lib/Ünïcode", ClassMemberKey.create("é", "()V")));
+
+  @Test
+  public void matchesApiDiff() {
+    ApiDiffIndex index = ApiDiffIndex.of(DIFF);
+    for (String className :
+        ImmutableSet.of("lib/Gone", "lib/Gone$Inner", "lib/Ünïcode", "lib/A", "lib/Gon", "")) {
+      assertThat(index.isClassUnsupported(className)).isEqualTo(DIFF.isClassUnsupported(className));
+    }
+    for (String className : ImmutableSet.of("lib/A", "lib/B", "lib/Ünïcode", "lib/Gone")) {
+      for (ClassMemberKey member :
+          ImmutableSet.of(
+              ClassMemberKey.create("f", "()V"),
+              ClassMemberKey.create("f", "(I)V"),
+              ClassMemberKey.create("g", "(I)V"),
+              ClassMemberKey.create("anyOverload", "(J)V"),
+              ClassMemberKey.create("é", "()V"),
+              ClassMemberKey.create("e", "()V"))) {
+        assertThat(index.isMemberUnsupported(className, member))
+            .isEqualTo(DIFF.isMemberUnsupported(className, member));
+      }
+    }
+  }
+
+  @Test
+  public void empty() {
+    ApiDiffIndex index =
+        ApiDiffIndex.of(ApiDiff.fromMembers(ImmutableSet.of(), ImmutableSetMultimap.of()));
+    assertThat(index.isClassUnsupported("java/lang/Object")).isFalse();
+    assertThat(index.isMemberUnsupported("java/lang/Object", ClassMemberKey.create("f", "")))
+        .isFalse();
+  }
+
+  @Test
+  public void jdkDiff() throws IOException {
+    ApiDiff diff = ApiDiffIndex.load(ApiDiff.class, "8to11diff.binarypb").toApiDiff();
+    assertThat(diff.unsupportedClasses()).isNotEmpty();
+    assertThat(diff.unsupportedMembersByClass()).isNotEmpty();
+    ApiDiffIndex index = ApiDiffIndex.of(diff);
+    for (String className : diff.unsupportedClasses()) {
+      assertThat(index.isClassUnsupported(className)).isTrue();
+      assertThat(index.isClassUnsupported(className + "x"))
+          .isEqualTo(diff.isClassUnsupported(className + "x"));
+    }
+    for (Map.Entry<String, ClassMemberKey> e : diff.unsupportedMembersByClass().entries()) {
+      assertThat(index.isMemberUnsupported(e.getKey(), e.getValue())).isTrue();
+      ClassMemberKey other =
+          ClassMemberKey.create(e.getValue().identifier() + "x", e.getValue().descriptor());
+      assertThat(index.isMemberUnsupported(e.getKey(), other))
+          .isEqualTo(diff.isMemberUnsupported(e.getKey(), other));
+    }
+  }
+
+  @Test
+  public void toApiDiff() {
+    assertThat(ApiDiffIndex.of(DIFF).toApiDiff()).isEqualTo(DIFF);
+    ApiDiff empty = ApiDiff.fromMembers(ImmutableSet.of(), ImmutableSetMultimap.of());
+    assertThat(ApiDiffIndex.of(empty).toApiDiff()).isEqualTo(empty);
+  }
+
+  @Test
+  public void main() throws IOException {
+    Path diffFile = tempFolder.newFile("diff.binarypb").toPath();
+    Files.write(diffFile, DIFF.toProto().toByteArray());
+    Path indexFile = tempFolder.getRoot().toPath().resolve("out/diff.apidiffindex");
+    ApiDiffIndex.main(new String[] {diffFile.toString(), indexFile.toString()});
+
+    ApiDiffIndex index = ApiDiffIndex.read(ByteBuffer.wrap(Files.readAllBytes(indexFile)));
+    assertThat(index.isClassUnsupported("lib/Gone")).isTrue();
+    assertThat(index.isMemberUnsupported("lib/A", ClassMemberKey.create("g", "(I)V"))).isTrue();
+  }
+
+  @Test
+  public void rejectsOtherVersions() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ApiDiffIndex.write(DIFF, out);
+    ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+    buffer.putInt(Integer.BYTES, ApiDiffIndex.VERSION + 1);
+    IOException e = assertThrows(IOException.class, () -> ApiDiffIndex.read(buffer));
+    assertThat(e).hasMessageThat().contains("version");
+    assertThrows(IOException.class, () -> ApiDiffIndex.read(ByteBuffer.wrap(new byte[12])));
+  }
+}
@@ -16,7 +16,10 @@
 
 package com.google.errorprone.bugpatterns.apidiff;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.bugpatterns.apidiff.ApiDiff.ClassMemberKey;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -35,6 +38,17 @@ public class Java7ApiCheckerTest {
     compilationHelper = CompilationTestHelper.newInstance(checker, getClass());
   }
 
+  @Test
+  @SuppressWarnings("deprecation") // the accessor kept for existing callers
+  public void apiDiff() {
+    ApiDiff diff = Java7ApiChecker.apiDiff();
+    assertThat(diff.unsupportedClasses()).contains("java/util/Optional");
+    assertThat(diff.unsupportedMembersByClass())
+        .containsEntry(
+            "com/google/common/base/Predicate",
+            ClassMemberKey.create("test", "(Ljava/lang/Object;)Z"));
+  }
+
   @Test
   public void positiveClass() {
     compilationHelper
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.checkreturnvalue;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ApiExclusionIndex}. */
+@RunWith(JUnit4.class)
+public final class ApiExclusionIndexTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void lookup() throws IOException {
+    ApiExclusionIndex index =
+        compile(
+            "java.util.List#add(java.lang.Object)",
+            "java.util.List#add(int,java.lang.Object)",
+            "java.util.Map#put(java.lang.Object, java.lang.Object)",
+            "java.net.URI#<init>(java.lang.String)",
+            "",
+            "café.Menu#prix()");
+
+    assertThat(index.contains("java.util.List", "add(java.lang.Object)")).isTrue();
+    assertThat(index.contains("java.util.List", "add(int,java.lang.Object)")).isTrue();
+    assertThat(index.contains("java.util.Map", "put(java.lang.Object,java.lang.Object)")).isTrue();
+    assertThat(index.contains("java.net.URI", "<init>(java.lang.String)")).isTrue();
+    assertThat(index.contains("café.Menu", "prix()")).isTrue();
+
+    assertThat(index.contains("java.util.List", "add()")).isFalse();
+    assertThat(index.contains("java.util.List", "get(int)")).isFalse();
+    assertThat(index.contains("java.util.Lis", "add(java.lang.Object)")).isFalse();
+    assertThat(index.contains("java.util.Set", "add(java.lang.Object)")).isFalse();
+    assertThat(index.contains("java.net.URI", "create(java.lang.String)")).isFalse();
+  }
+
+  @Test
+  public void empty() throws IOException {
+    ApiExclusionIndex index = compile();
+    assertThat(index.contains("java.util.List", "add(java.lang.Object)")).isFalse();
+  }
+
+  @Test
+  public void sameContentsShareAnIndex() throws IOException {
+    ApiExclusionIndex index = compile("java.util.List#add(java.lang.Object)");
+    assertThat(compile("java.util.List#add(java.lang.Object)")).isSameInstanceAs(index);
+    assertThat(compile("java.util.List#add(int,java.lang.Object)")).isNotSameInstanceAs(index);
+  }
+
+  @Test
+  public void rejectsOtherFiles() throws IOException {
+    Path text = temporaryFolder.newFile().toPath();
+    Files.writeString(text, "java.util.List#add(java.lang.Object)", UTF_8);
+    assertThrows(IOException.class, () -> ApiExclusionIndex.load(text));
+
+    Path otherVersion = temporaryFolder.newFile().toPath();
+    try (OutputStream out = Files.newOutputStream(otherVersion)) {
+      ApiExclusionIndex.write(ImmutableList.of(), out);
+    }
+    byte[] bytes = Files.readAllBytes(otherVersion);
+    bytes[Integer.BYTES + 3]++;
+    Files.write(otherVersion, bytes);
+    IOException e = assertThrows(IOException.class, () -> ApiExclusionIndex.load(otherVersion));
+    assertThat(e).hasMessageThat().contains("version");
+  }
+
+  private ApiExclusionIndex compile(String... apis) throws IOException {
+    Path list = temporaryFolder.newFile().toPath();
+    Files.writeString(list, String.join("\n", apis), UTF_8);
+    Path index = temporaryFolder.getRoot().toPath().resolve(list.getFileName() + ".index");
+    ApiExclusionIndex.main(new String[] {list.toString(), index.toString()});
+    return ApiExclusionIndex.load(index);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.bugpatterns.checkreturnvalue;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.EXPECTED;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.OPTIONAL;
+import static com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicy.UNSPECIFIED;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.TreeMultiset;
+import com.google.errorprone.ErrorProneTimings;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.EvaluationCache;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUsePolicyEvaluator.MethodInfo;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.Evaluation;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.RuleScope;
+import com.google.errorprone.bugpatterns.checkreturnvalue.ResultUseRule.SymbolRule;
+import com.sun.tools.javac.util.Context;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ResultUsePolicyEvaluator}. */
+@RunWith(JUnit4.class)
+public final class ResultUsePolicyEvaluatorTest {
+
+  /** Methods named like {@code pkg.Class.method}, enclosed by their class and package. */
+  private static final MethodInfo<Void, String, String> METHOD_INFO =
+      new MethodInfo<>() {
+        @Override
+        public Stream<String> scopeMembers(RuleScope scope, String method, Void context) {
+          if (scope != RuleScope.ENCLOSING_ELEMENTS) {
+            return Stream.of(method);
+          }
+          String clazz = method.substring(0, method.lastIndexOf('.'));
+          return Stream.of(clazz, clazz.substring(0, clazz.lastIndexOf('.')));
+        }
+
+        @Override
+        public MethodKind getMethodKind(String method) {
+          return MethodKind.METHOD;
+        }
+      };
+
+  /** Assigns fixed policies to some symbols, counting the symbols it evaluates. */
+  private static final class FixedPolicies extends SymbolRule<Void, String> {
+    final ImmutableMap<String, ResultUsePolicy> policies;
+    final Multiset<String> evaluated = TreeMultiset.create();
+
+    FixedPolicies(ImmutableMap<String, ResultUsePolicy> policies) {
+      this.policies = policies;
+    }
+
+    @Override
+    public String id() {
+      return "FixedPolicies";
+    }
+
+    @Override
+    public Optional<ResultUsePolicy> evaluate(String symbol, Void context) {
+      evaluated.add(symbol);
+      return Optional.ofNullable(policies.get(symbol));
+    }
+  }
+
+  private final FixedPolicies rule =
+      new FixedPolicies(ImmutableMap.of("a.B.ignorable", OPTIONAL, "a.B", EXPECTED));
+
+  @Test
+  public void uncached() {
+    ResultUsePolicyEvaluator<Void, String, String> evaluator =
+        ResultUsePolicyEvaluator.builder(METHOD_INFO).addRule(rule).build();
+
+    assertThat(evaluator.evaluate("a.B.ignorable", null)).isEqualTo(OPTIONAL);
+    assertThat(evaluator.evaluate("a.B.f", null)).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.B.f", null)).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.C.f", null)).isEqualTo(UNSPECIFIED);
+    assertThat(rule.evaluated.count("a.B.f")).isEqualTo(2);
+  }
+
+  @Test
+  public void cached() {
+    EvaluationCache<String, String> cache =
+        new EvaluationCache<>(ErrorProneTimings.instance(new Context()));
+    ResultUsePolicyEvaluator<Void, String, String> evaluator =
+        ResultUsePolicyEvaluator.builder(METHOD_INFO)
+            .addRule(rule)
+            .cacheEvaluations(unused -> cache)
+            .build();
+
+    assertThat(evaluator.evaluate("a.B.ignorable", null)).isEqualTo(OPTIONAL);
+    assertThat(evaluator.evaluate("a.B.f", null)).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.B.f", null)).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.B.g", null)).isEqualTo(EXPECTED);
+    assertThat(evaluator.evaluate("a.C.f", null)).isEqualTo(UNSPECIFIED);
+    assertThat(evaluator.evaluate("a.C.g", null)).isEqualTo(UNSPECIFIED);
+
+    Evaluation<String> evaluation = evaluator.firstEvaluation("a.B.g", null).get();
+    assertThat(evaluation.scope()).isEqualTo(RuleScope.ENCLOSING_ELEMENTS);
+    assertThat(evaluation.element()).isEqualTo("a.B");
+
+    // Each method, class and package is evaluated once.
+    assertThat(rule.evaluated.elementSet())
+        .containsExactly("a.B.ignorable", "a.B.f", "a.B.g", "a.B", "a.C.f", "a.C.g", "a.C", "a");
+    assertThat(rule.evaluated.size()).isEqualTo(rule.evaluated.elementSet().size());
+    // Hits: a.B.f and a.B.g once each, a.B for a.B.g, and a.C and a for a.C.g.
+    assertThat(cache.hitCount()).isEqualTo(5);
+    // Misses: the five methods, and a.B, a.C and a.
+    assertThat(cache.missCount()).isEqualTo(8);
+  }
+}
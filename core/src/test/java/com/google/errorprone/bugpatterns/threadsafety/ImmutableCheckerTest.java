@@ -55,6 +55,49 @@ public class ImmutableCheckerTest {
         .doTest();
   }
 
+  @Test
+  public void sameTypeCheckedRepeatedly() {
+    compilationHelper
+        .addSourceLines(
+            "Holder.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            @Immutable(containerOf = "T") class Holder<T> {
+              final T t = null;
+            }
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.common.collect.ImmutableList;
+            import java.util.List;
+            @Immutable class Test {
+              // BUG: Diagnostic contains: 'List' is mutable
+              final List<String> a = null;
+              // BUG: Diagnostic contains: 'List' is mutable
+              final List<String> b = null;
+              // BUG: Diagnostic contains: 'List' is mutable
+              final Holder<List<String>> c = null;
+              final ImmutableList<String> d = null;
+              final Holder<ImmutableList<String>> e = null;
+              final Holder<ImmutableList<String>> f = null;
+            }
+            """)
+        .addSourceLines(
+            "Other.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import java.util.List;
+            @Immutable(containerOf = "T") class Other<T> {
+              // BUG: Diagnostic contains: 'List' is mutable
+              final List<String> a = null;
+              final Holder<T> b = null;
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void interfacesMutableByDefault() {
     compilationHelper
@@ -2993,6 +3036,72 @@ class ChildGenericWithImmutableParam<@ImmutableTypeParameter T> implements Gener
         .doTest();
   }
 
+  @Test
+  public void containerOfTypeVariable_fieldBeforeLambda() {
+    // 'T' is checked with different sets of containerOf type parameters in scope, which mustn't
+    // share results.
+    compilationHelper
+        .addSourceLines(
+            "Holder.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.errorprone.annotations.ImmutableTypeParameter;
+            @Immutable class Holder<@ImmutableTypeParameter T> {}
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            @Immutable(containerOf = "T")
+            class Test<T> {
+              @Immutable interface ImmutableFunction<A, B> { A apply(B b); }
+              // BUG: Diagnostic contains: 'T' is not annotated @ImmutableTypeParameter
+              final Holder<T> holder = null;
+              @Immutable(containerOf = "U")
+              class Inner<U> {
+                void test(T t) {
+                  // BUG: Diagnostic contains: 'T' is not annotated @ImmutableTypeParameter
+                  ImmutableFunction<Object, Object> f = x -> t;
+                }
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void containerOfTypeVariable_lambdaBeforeField() {
+    // 'T' is checked with different sets of containerOf type parameters in scope, which mustn't
+    // share results.
+    compilationHelper
+        .addSourceLines(
+            "Holder.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            import com.google.errorprone.annotations.ImmutableTypeParameter;
+            @Immutable class Holder<@ImmutableTypeParameter T> {}
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.annotations.Immutable;
+            @Immutable(containerOf = "T")
+            class Test<T> {
+              @Immutable interface ImmutableFunction<A, B> { A apply(B b); }
+              @Immutable(containerOf = "U")
+              class Inner<U> {
+                void test(T t) {
+                  // BUG: Diagnostic contains: 'T' is not annotated @ImmutableTypeParameter
+                  ImmutableFunction<Object, Object> f = x -> t;
+                }
+              }
+              // BUG: Diagnostic contains: 'T' is not annotated @ImmutableTypeParameter
+              final Holder<T> holder = null;
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void lambda_canCloseAroundImmutableField() {
     compilationHelper
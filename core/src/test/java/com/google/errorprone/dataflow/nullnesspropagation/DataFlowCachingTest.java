@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The Error Prone Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.dataflow.nullnesspropagation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
+import static com.google.errorprone.dataflow.DataFlow.expressionDataflow;
+import static com.google.errorprone.matchers.Description.NO_MATCH;
+
+import com.google.errorprone.BugPattern;
+import com.google.errorprone.CompilationTestHelper;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.dataflow.AccessPathStore;
+import com.google.errorprone.matchers.Description;
+import com.sun.source.tree.MethodInvocationTree;
+import java.util.List;
+import org.checkerframework.errorprone.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.errorprone.dataflow.cfg.node.LocalVariableNode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for the caching of control flow graphs and analyses in {@code DataFlow}. */
+@RunWith(JUnit4.class)
+public class DataFlowCachingTest {
+
+  private static int analysesRun = 0;
+
+  /** A transfer function that counts how many analyses it is used for. */
+  private static final class CountingTransfer extends NullnessPropagationTransfer {
+    @Override
+    public AccessPathStore<Nullness> initialStore(
+        UnderlyingAST underlyingAST, List<LocalVariableNode> parameters) {
+      analysesRun++;
+      return super.initialStore(underlyingAST, parameters);
+    }
+  }
+
+  /** Queries every method invocation with two different transfer functions. */
+  @BugPattern(summary = "Runs two dataflow analyses for every invocation", severity = ERROR)
+  public static final class TwoAnalysesChecker extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    private final NullnessPropagationTransfer first = new CountingTransfer();
+    private final NullnessPropagationTransfer second = new CountingTransfer();
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      for (NullnessPropagationTransfer transfer :
+          new NullnessPropagationTransfer[] {first, second}) {
+        transfer.setContext(state.context).setCompilationUnit(state.getPath().getCompilationUnit());
+        try {
+          expressionDataflow(state.getPath(), state.context, transfer);
+        } finally {
+          transfer.setContext(null).setCompilationUnit(null);
+        }
+      }
+      return NO_MATCH;
+    }
+  }
+
+  @Test
+  public void alternatingBetweenLambdasAndEnclosingMethod_reusesAnalyses() {
+    analysesRun = 0;
+    CompilationTestHelper.newInstance(TwoAnalysesChecker.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            class Test {
+              void f(String s) {
+                s.length();
+                Runnable r = () -> s.hashCode();
+                s.isEmpty();
+                Runnable q = () -> s.trim();
+                s.intern();
+              }
+            }
+            """)
+        .expectNoDiagnostics()
+        .doTest();
+    // One analysis per transfer function for each of f and its two lambdas.
+    assertThat(analysesRun).isEqualTo(6);
+  }
+}
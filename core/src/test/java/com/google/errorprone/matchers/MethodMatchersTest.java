@@ -16,12 +16,15 @@
 
 package com.google.errorprone.matchers;
 
+import static com.google.common.truth.Truth.assertThat;
 import static com.google.errorprone.BugPattern.SeverityLevel.ERROR;
 import static com.google.errorprone.matchers.Description.NO_MATCH;
+import static com.google.errorprone.matchers.Matchers.anyOf;
 import static com.google.errorprone.matchers.Matchers.instanceMethod;
 import static com.google.errorprone.matchers.Matchers.staticMethod;
 import static com.google.errorprone.matchers.method.MethodMatchers.constructor;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.CompilationTestHelper;
 import com.google.errorprone.VisitorState;
@@ -35,6 +38,8 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MemberReferenceTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.NewClassTree;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -274,4 +279,126 @@ public class MethodMatchersTest {
             """)
         .doTest();
   }
+
+  @Test
+  public void methodNames() {
+    assertThat(
+            MethodMatchers.methodNames(
+                instanceMethod().anyClass().named("foo"),
+                staticMethod().anyClass().namedAnyOf("bar", "baz").withNoParameters()))
+        .hasValue(ImmutableSet.of("foo", "bar", "baz"));
+    assertThat(MethodMatchers.methodNames(constructor().forClass("test.Foo")))
+        .hasValue(ImmutableSet.of("<init>"));
+    assertThat(
+            MethodMatchers.methodNames(
+                instanceMethod().anyClass().named("foo"), staticMethod().anyClass()))
+        .isEmpty();
+    assertThat(MethodMatchers.methodNames(instanceMethod().anyClass().withAnyName())).isEmpty();
+  }
+
+  /** Flags every invocation it is given, but declares that it only matches some names. */
+  @BugPattern(summary = "Flags invocations", severity = ERROR)
+  public static class NamedInvocationFlagger extends BugChecker
+      implements MethodInvocationTreeMatcher {
+    @Override
+    public Optional<ImmutableSet<String>> invokedMethodNames() {
+      return MethodMatchers.methodNames(
+          instanceMethod().anyClass().named("foo"), constructor().forClass("test.Test"));
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      return buildDescription(tree).setMessage(tree.toString()).build();
+    }
+  }
+
+  @Test
+  public void invokedMethodNames_onlyMatchesNamedMethods() {
+    CompilationTestHelper.newInstance(NamedInvocationFlagger.class, getClass())
+        .addSourceLines(
+            "test/Test.java",
+            """
+            package test;
+
+            class Test {
+              // The implicit call to Object's constructor.
+              // BUG: Diagnostic contains: super()
+              Test() {}
+
+              Test(int x) {
+                // BUG: Diagnostic contains: this()
+                this();
+                // BUG: Diagnostic contains: foo()
+                foo();
+                bar();
+              }
+
+              void foo() {}
+
+              void bar() {}
+            }
+            """)
+        .doTest();
+  }
+
+  /** Flags invocations matched by a disjunction of method matchers. */
+  @BugPattern(summary = "Flags invocations", severity = ERROR)
+  public static class AnyOfFlagger extends BugChecker
+      implements MethodInvocationTreeMatcher, BugChecker.NewClassTreeMatcher {
+    private static final Matcher<ExpressionTree> MATCHER =
+        anyOf(
+            instanceMethod().onExactClass("test.Test").named("foo"),
+            staticMethod().anyClass().withNameMatching(Pattern.compile("b.*")),
+            constructor().forClass("test.Test"));
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      return MATCHER.matches(tree, state) ? describeMatch(tree) : NO_MATCH;
+    }
+
+    @Override
+    public Description matchNewClass(NewClassTree tree, VisitorState state) {
+      return MATCHER.matches(tree, state) ? describeMatch(tree) : NO_MATCH;
+    }
+  }
+
+  @Test
+  public void anyOf_methodMatchers() {
+    assertThat(
+            MethodMatchers.methodNames(
+                anyOf(
+                    instanceMethod().anyClass().named("foo"),
+                    staticMethod().anyClass().namedAnyOf("bar", "baz"))))
+        .hasValue(ImmutableSet.of("foo", "bar", "baz"));
+    CompilationTestHelper.newInstance(AnyOfFlagger.class, getClass())
+        .addSourceLines(
+            "test/Test.java",
+            """
+            package test;
+
+            class Test {
+              void foo() {}
+
+              static void bar() {}
+
+              static void baz() {}
+
+              static void qux() {}
+
+              void f(Test t) {
+                // BUG: Diagnostic contains:
+                t.foo();
+                // BUG: Diagnostic contains:
+                bar();
+                // BUG: Diagnostic contains:
+                Test.baz();
+                qux();
+                // BUG: Diagnostic contains:
+                new Test();
+                "".isEmpty();
+              }
+            }
+            """)
+        .doTest();
+  }
 }
@@ -25,16 +25,22 @@ import static org.junit.Assert.assertThrows;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.CodeTransformer;
+import com.google.errorprone.CodeTransformerArchive;
+import com.google.errorprone.CompositeCodeTransformer;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import javax.tools.JavaFileObject;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
@@ -86,6 +92,8 @@ public class TemplateIntegrationTest extends CompilerBasedTest {
     JavaFileObject input = forResource(String.format("%s/%sExample.java", INPUT_DIR, testName));
     JavaFileObject output = forResource(String.format("%s/%sExample.java", OUTPUT_DIR, testName));
     expectTransforms(transformer, input, output);
+    expectTransforms(
+        new RefasterRuleIndex(ImmutableList.of((RefasterRule<?, ?>) transformer)), input, output);
   }
 
   @Test
@@ -99,6 +107,42 @@ public class TemplateIntegrationTest extends CompilerBasedTest {
                 + " in all @BeforeTemplate methods: \\[b, c\\]");
   }
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void archived() throws IOException {
+    CodeTransformer transformer =
+        extractRefasterRule(
+            forResource(String.format("%s/MethodInvocationTemplate.java", TEMPLATE_DIR)));
+    assertThat(((RefasterRule<?, ?>) transformer).rootKinds())
+        .containsExactly(Tree.Kind.METHOD_INVOCATION);
+    Path archive = temporaryFolder.newFile().toPath();
+    CodeTransformerArchive.write(
+        archive, ImmutableList.of(transformer), rule -> ((RefasterRule<?, ?>) rule).rootKinds());
+
+    expectTransforms(
+        CodeTransformerArchive.read(archive),
+        forResource(String.format("%s/MethodInvocationTemplateExample.java", INPUT_DIR)),
+        forResource(String.format("%s/MethodInvocationTemplateExample.java", OUTPUT_DIR)));
+  }
+
+  @Test
+  public void combined() throws IOException {
+    CodeTransformer methodInvocation =
+        extractRefasterRule(
+            forResource(String.format("%s/MethodInvocationTemplate.java", TEMPLATE_DIR)));
+    CodeTransformer binary =
+        extractRefasterRule(forResource(String.format("%s/BinaryTemplate.java", TEMPLATE_DIR)));
+    CodeTransformer combined = CompositeCodeTransformer.compose(methodInvocation, binary);
+
+    for (String testName : ImmutableList.of("MethodInvocationTemplate", "BinaryTemplate")) {
+      expectTransforms(
+          combined,
+          forResource(String.format("%s/%sExample.java", INPUT_DIR, testName)),
+          forResource(String.format("%s/%sExample.java", OUTPUT_DIR, testName)));
+    }
+  }
+
   @Test
   public void binary() throws IOException {
     runTest("BinaryTemplate");
@@ -33,6 +33,7 @@ import com.google.common.truth.Subject;
 import com.google.errorprone.BugCheckerInfo;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.CheckerOrdinals;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.ErrorProneJavaCompilerTest;
 import com.google.errorprone.ErrorProneJavaCompilerTest.UnsuppressibleArrayEquals;
@@ -247,6 +248,30 @@ public class ScannerSupplierTest {
         .hasEnabledChecks(BadShiftAmount.class);
   }
 
+  /** A check that can be suppressed with the name of {@link ArrayEquals}, for testing. */
+  @BugPattern(altNames = "ArrayEquals", summary = "", severity = ERROR)
+  public static class ArrayEqualsAlias extends BugChecker {}
+
+  @Test
+  public void checkerOrdinals() {
+    ScannerSupplier ss1 =
+        ScannerSupplier.fromBugCheckerClasses(
+            ArrayEquals.class, ArrayEqualsAlias.class, BadShiftAmount.class);
+    ScannerSupplier ss2 = ScannerSupplier.fromBugCheckerClasses(BadShiftAmount.class);
+    ErrorProneScanner scanner = (ErrorProneScanner) ss1.get();
+    CheckerOrdinals ordinals = scanner.checkerOrdinals();
+
+    // Every check has its own ordinal, even if it shares a name with another check, and the
+    // scanner's checkers are in ordinal order.
+    assertThat(ordinals.count()).isEqualTo(3);
+    assertThat(scanner.getBugCheckers().stream().map(BugChecker::canonicalName))
+        .containsExactly("ArrayEquals", "ArrayEqualsAlias", "BadShiftAmount")
+        .inOrder();
+    // Ordinals are shared by the scanners from a supplier, but not between suppliers.
+    assertThat(((ErrorProneScanner) ss1.get()).checkerOrdinals()).isSameInstanceAs(ordinals);
+    assertThat(((ErrorProneScanner) ss2.get()).checkerOrdinals().count()).isEqualTo(1);
+  }
+
   @Test
   public void applyOverridesWorksOnEmptySeverityMap() {
     ScannerSupplier ss =
@@ -25,6 +25,7 @@ import com.google.errorprone.bugpatterns.BugChecker;
 import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
 import com.google.errorprone.matchers.Description;
 import com.sun.source.tree.ReturnTree;
+import java.lang.annotation.Inherited;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -53,6 +54,22 @@ public class CustomSuppressionTest {
   /** Custom suppression annotation for the second checker in this test. */
   public @interface SuppressMyChecker2 {}
 
+  /** Custom suppression annotation for the third checker in this test, inherited by subclasses. */
+  @Inherited
+  public @interface SuppressMyChecker3 {}
+
+  @BugPattern(
+      summary = "Test checker that uses an inherited custom suppression annotation",
+      explanation = "Test checker that uses an inherited custom suppression annotation",
+      suppressionAnnotations = SuppressMyChecker3.class,
+      severity = ERROR)
+  public static class MyChecker3 extends BugChecker implements ReturnTreeMatcher {
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      return describeMatch(tree);
+    }
+  }
+
   @BugPattern(
       summary = "Test checker that accepts both custom suppression annotations",
       explanation = "Test checker that accepts both custom suppression annotations",
@@ -164,4 +181,35 @@ public class CustomSuppressionTest {
             """)
         .doTest();
   }
+
+  @Test
+  public void myChecker3IsSuppressedInUnannotatedSubclass() {
+    CompilationTestHelper.newInstance(MyChecker3.class, getClass())
+        .addSourceLines(
+            "Test.java",
+            """
+            import com.google.errorprone.suppress.CustomSuppressionTest.SuppressMyChecker3;
+
+            class Test {
+              @SuppressMyChecker3
+              static class Base {
+                int identity(int value) {
+                  return value;
+                }
+              }
+
+              static class Sub extends Base {
+                int square(int value) {
+                  return value * value;
+                }
+              }
+
+              int cube(int value) {
+                // BUG: Diagnostic contains:
+                return value * value * value;
+              }
+            }
+            """)
+        .doTest();
+  }
 }
@@ -14,8 +14,9 @@
 
 package com.google.errorprone.refaster;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.CodeTransformer;
-import com.google.errorprone.CompositeCodeTransformer;
+import com.google.errorprone.CodeTransformerArchive;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.util.TaskEvent;
 import com.sun.source.util.TaskEvent.Kind;
@@ -25,15 +26,13 @@ import com.sun.tools.javac.api.JavacTrees;
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.util.Context;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * TaskListener that receives compilation of a Refaster rule class and outputs a serialized analyzer
- * to the specified path.
+ * TaskListener that receives compilation of a Refaster rule class and outputs its rules, as a
+ * {@link CodeTransformerArchive}, to the specified path.
  */
 public class RefasterRuleCompilerAnalyzer implements TaskListener {
   private final Context context;
@@ -67,9 +66,11 @@ public class RefasterRuleCompilerAnalyzer implements TaskListener {
     if (rules.isEmpty()) {
       throw new IllegalArgumentException("Did not find any Refaster templates");
     }
-    try (ObjectOutputStream output =
-        new ObjectOutputStream(Files.newOutputStream(destinationPath))) {
-      output.writeObject(CompositeCodeTransformer.compose(rules));
+    try {
+      CodeTransformerArchive.write(
+          destinationPath,
+          rules,
+          rule -> rule instanceof RefasterRule<?, ?> r ? r.rootKinds() : ImmutableSet.of());
     } catch (IOException e) {
       throw new RuntimeException(e);
     }